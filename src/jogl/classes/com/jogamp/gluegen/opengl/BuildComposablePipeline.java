@@ -85,6 +85,21 @@ public class BuildComposablePipeline {
      * <p>Default: false</p>
      */
     public static final int GEN_GL_IDENTITY_BY_ASSIGNABLE_CLASS = 1 << 4;
+    /**
+     * Generates the <code>StateCache</code> pipeline, dropping redundant state calls.
+     * <p>Default: true</p>
+     */
+    public static final int GEN_STATE_CACHE = 1 << 5;
+    /**
+     * Generates the <code>Profiling</code> pipeline, counting calls per entry point.
+     * <p>Default: true</p>
+     */
+    public static final int GEN_PROFILING = 1 << 6;
+    /**
+     * Generates the <code>Recording</code> pipeline, serializing all calls into a trace.
+     * <p>Default: true</p>
+     */
+    public static final int GEN_RECORDING = 1 << 7;
 
     private static final HashMap<String, String> addedGLHooks = new HashMap<String, String>();
     private static final String[] addedGLHookMethodNames = new String[] {
@@ -96,6 +111,69 @@ public class BuildComposablePipeline {
         }
     }
 
+    /**
+     * State setting methods filtered by the <code>StateCache</code> pipeline,
+     * mapped to the <code>jogamp.opengl.GLStateCache</code> call deciding whether to pass them downstream.
+     */
+    private static final HashMap<String, String> stateCacheFilters = new HashMap<String, String>();
+    /**
+     * Methods invalidating (parts of) the <code>StateCache</code> shadow,
+     * mapped to the <code>jogamp.opengl.GLStateCache</code> call issued after passing them downstream.
+     */
+    private static final HashMap<String, String> stateCacheInvalidators = new HashMap<String, String>();
+    static {
+        final String[] filters = new String[] {
+            "glActiveTexture", "activeTexture(arg0)",
+            "glBindTexture", "bindTexture(arg0, arg1)",
+            "glBindBuffer", "bindBuffer(arg0, arg1)",
+            "glUseProgram", "useProgram(arg0)",
+            "glEnable", "enable(arg0, true)",
+            "glDisable", "enable(arg0, false)",
+            "glBlendFunc", "blendFunc(arg0, arg1)",
+            "glBlendFuncSeparate", "blendFuncSeparate(arg0, arg1, arg2, arg3)",
+            "glViewport", "viewport(arg0, arg1, arg2, arg3)",
+            "glScissor", "scissor(arg0, arg1, arg2, arg3)",
+            "glDepthFunc", "depthFunc(arg0)",
+            "glDepthMask", "depthMask(arg0)" };
+        for(int i=0; i<filters.length; i+=2) {
+            stateCacheFilters.put(filters[i], filters[i+1]);
+        }
+        final String[] invalidators = new String[] {
+            "glDeleteTextures", "invalidateTextures()",
+            "glBindTextures", "invalidateTextures()",
+            "glBindTextureUnit", "invalidateTextures()",
+            "glBindMultiTextureEXT", "invalidateTextures()",
+            "glDeleteBuffers", "invalidateBuffers()",
+            "glBindBufferBase", "bindBufferIndexed(arg0, arg2)",
+            "glBindBufferRange", "bindBufferIndexed(arg0, arg2)",
+            "glBindBuffersBase", "invalidateBuffer(arg0)",
+            "glBindBuffersRange", "invalidateBuffer(arg0)",
+            "glUseProgramObjectARB", "invalidateProgram()",
+            "glUseShaderProgramEXT", "invalidateProgram()",
+            "glActiveProgramEXT", "invalidateProgram()",
+            "glBindVertexArray", "invalidateVertexArray()",
+            "glDeleteVertexArrays", "invalidateVertexArray()",
+            "glEnablei", "invalidateCapability(arg0)",
+            "glDisablei", "invalidateCapability(arg0)",
+            "glBlendFunci", "invalidateBlendFunc()",
+            "glBlendFuncSeparatei", "invalidateBlendFunc()",
+            "glViewportArrayv", "invalidateViewport()",
+            "glViewportIndexedf", "invalidateViewport()",
+            "glViewportIndexedfv", "invalidateViewport()",
+            "glScissorArrayv", "invalidateScissor()",
+            "glScissorIndexed", "invalidateScissor()",
+            "glScissorIndexedv", "invalidateScissor()",
+            "glPopAttrib", "invalidate()",
+            "glPopClientAttrib", "invalidate()",
+            "glCallList", "invalidate()",
+            "glCallLists", "invalidate()",
+            "glNewList", "beginList()",
+            "glEndList", "endList()" };
+        for(int i=0; i<invalidators.length; i+=2) {
+            stateCacheInvalidators.put(invalidators[i], invalidators[i+1]);
+        }
+    }
+
     int mode;
     private final String outputDir;
     private final String outputPackage;
@@ -158,7 +236,7 @@ public class BuildComposablePipeline {
             outputName = null; // TBD ..
             classPrologOpt = null;
             classDownstream = classToComposeAround;
-            mode = GEN_DEBUG | GEN_TRACE ;
+            mode = GEN_DEBUG | GEN_TRACE | GEN_STATE_CACHE | GEN_PROFILING | GEN_RECORDING ;
         }
 
         final BuildComposablePipeline composer =
@@ -241,6 +319,15 @@ public class BuildComposablePipeline {
         if (0 != (mode & GEN_TRACE)) {
             (new TracePipeline(outputDir, outputPackage, classToComposeAround, classDownstream)).emit(publicMethodsPlainSorted.iterator());
         }
+        if (0 != (mode & GEN_STATE_CACHE)) {
+            (new StateCachePipeline(outputDir, outputPackage, classToComposeAround, classDownstream)).emit(publicMethodsPlainSorted.iterator());
+        }
+        if (0 != (mode & GEN_PROFILING)) {
+            (new ProfilingPipeline(outputDir, outputPackage, classToComposeAround, classDownstream)).emit(publicMethodsPlainSorted.iterator());
+        }
+        if (0 != (mode & GEN_RECORDING)) {
+            (new RecordingPipeline(outputDir, outputPackage, classToComposeAround, classDownstream)).emit(publicMethodsPlainSorted.iterator());
+        }
         if (0 != (mode & GEN_CUSTOM)) {
             (new CustomPipeline(mode, outputDir, outputPackage, outputName, classToComposeAround, classPrologOpt, classDownstream)).emit(publicMethodsPlainSorted.iterator());
         }
@@ -380,6 +467,11 @@ public class BuildComposablePipeline {
             }
         }
 
+        /** Returns the names of the interfaces implemented by the pipeline, by default only the base interface. */
+        protected String[] getInterfaceNames() {
+            return new String[] { baseInterfaceClass.getName() };
+        }
+
         public void emit(final Iterator<PlainMethod> methodsToWrap) throws IOException {
             final String outputClassName = getOutputName();
             this.file = new File(outputDir + File.separatorChar + outputClassName + ".java");
@@ -393,7 +485,7 @@ public class BuildComposablePipeline {
 
             final HashSet<Class<?>> importClazzList = new HashSet<Class<?>>();
             importClazzList.add(baseInterfaceClass);
-            final String[] ifNames = new String[] { baseInterfaceClass.getName() };
+            final String[] ifNames = getInterfaceNames();
 
             final List<Class<?>> baseInterfaces = Arrays.asList(baseInterfaceClass.getInterfaces());
             importClazzList.addAll(baseInterfaces);
@@ -841,12 +933,35 @@ public class BuildComposablePipeline {
     protected class DebugPipeline extends PipelineEmitter {
 
         String className;
+        /** Entry point index by method name, overloaded methods share one index. */
+        final HashMap<String, Integer> entryPoints = new HashMap<String, Integer>();
+        final List<String> entryPointNames = new ArrayList<String>();
 
         DebugPipeline(final String outputDir, final String outputPackage, final Class<?> baseInterfaceClass, final Class<?> downstreamClass) {
             super(outputDir, outputPackage, baseInterfaceClass, null, downstreamClass);
             className = "Debug" + getBaseInterfaceName();
         }
 
+        @Override
+        public void emit(final Iterator<PlainMethod> methodsToWrap) throws IOException {
+            final List<PlainMethod> methods = new ArrayList<PlainMethod>();
+            while (methodsToWrap.hasNext()) {
+                final PlainMethod pm = methodsToWrap.next();
+                methods.add(pm);
+                final String name = pm.getWrappedMethod().getName();
+                if (pm.runHooks() && !pm.isSynthetic() && !entryPoints.containsKey(name)) {
+                    entryPoints.put(name, Integer.valueOf(entryPointNames.size()));
+                    entryPointNames.add(name);
+                }
+            }
+            super.emit(methods.iterator());
+        }
+
+        @Override
+        protected String[] getInterfaceNames() {
+            return new String[] { baseInterfaceClass.getName(), "GLFrameBoundaryListener" };
+        }
+
         @Override
         protected String getOutputName() {
             return className;
@@ -870,13 +985,31 @@ public class BuildComposablePipeline {
         @Override
         protected void preMethodEmissionHook(final PrintWriter output) {
             super.preMethodEmissionHook(output);
+            output.println("  /** Entry point names, indexed as recorded in the call history. */");
+            output.println("  private static final String[] _entryPointNames = new String[] {");
+            for (int i = 0; i < entryPointNames.size(); i++) {
+                output.println("    \"" + entryPointNames.get(i) + "\",");
+            }
+            output.println("  };");
+            output.println();
         }
 
         @Override
         protected void constructorHook(final PrintWriter output) {
+            output.println("  /** Creates a debug pipeline checking each call. */");
             output.print("  public " + getOutputName() + "(");
             output.println(downstreamName + " " + getDownstreamObjectName() + ")");
             output.println("  {");
+            output.println("    this(" + getDownstreamObjectName() + ", Integer.valueOf(1));");
+            output.println("  }");
+            output.println();
+            output.println("  /**");
+            output.println("   * Creates a debug pipeline using the given error check interval,");
+            output.println("   * see {@link #setErrorCheckInterval(int)}.");
+            output.println("   */");
+            output.print("  public " + getOutputName() + "(");
+            output.println(downstreamName + " " + getDownstreamObjectName() + ", Integer errorCheckInterval)");
+            output.println("  {");
             output.println("    if (" + getDownstreamObjectName() + " == null) {");
             output.println("      throw new IllegalArgumentException(\"null " + getDownstreamObjectName() + "\");");
             output.println("    }");
@@ -888,6 +1021,8 @@ public class BuildComposablePipeline {
             }
             output.println("    // Fetch GLContext object for better error checking (if possible)");
             output.println("    _context = " + getDownstreamObjectName() + ".getContext();");
+            output.println("    _errorCheck = new jogamp.opengl.GLDebugErrorCheck(_entryPointNames);");
+            output.println("    _errorCheck.setCheckInterval(errorCheckInterval.intValue());");
             output.println("  }");
             output.println();
         }
@@ -910,7 +1045,30 @@ public class BuildComposablePipeline {
             output.println("    buf.append(\" glGetError() returned the following error codes after a call to \");");
             output.println("    buf.append(String.format(fmt, args));");
             output.println("    buf.append(\": \");");
-            output.println();
+            output.println("    appendGLErrors(buf, err);");
+            output.println("    throw new GLException(buf.toString());");
+            output.println("  }");
+            output.println("  private void writeDeferredGLError(int err, boolean frameBoundary)");
+            output.println("  {");
+            output.println("    StringBuilder buf = new StringBuilder();");
+            output.println("    buf.append(Thread.currentThread().toString());");
+            output.println("    buf.append(\" glGetError() returned the following error codes within the last \");");
+            output.println("    buf.append(_errorCheck.getCheckedCallCount()).append(\" calls\");");
+            output.println("    if (frameBoundary) {");
+            output.println("      buf.append(\" of the frame\");");
+            output.println("    }");
+            output.println("    buf.append(\": \");");
+            output.println("    appendGLErrors(buf, err);");
+            output.println("    buf.append(\"calls, most recent last: \");");
+            output.println("    _errorCheck.appendCheckedCalls(buf);");
+            output.println("    if (_errorCheck.deferredError(frameBoundary)) {");
+            output.println("      System.err.println(\"Warning: \"+buf.toString()+\"; checking each call until the end of the next frame\");");
+            output.println("    } else {");
+            output.println("      throw new GLException(buf.toString());");
+            output.println("    }");
+            output.println("  }");
+            output.println("  private void appendGLErrors(StringBuilder buf, int err)");
+            output.println("  {");
             output.println("    // Loop repeatedly to allow for distributed GL implementations,");
             output.println("    // as detailed in the glGetError() specification");
             output.println("    int recursionDepth = 10;");
@@ -931,7 +1089,6 @@ public class BuildComposablePipeline {
             output.println("    } while ((--recursionDepth >= 0) && (err = "
                     + getDownstreamObjectName()
                     + ".glGetError()) != GL_NO_ERROR);");
-            output.println("    throw new GLException(buf.toString());");
             output.println("  }");
             if (hasImmediateMode) {
                 output.println("  /** True if the pipeline is inside a glBegin/glEnd pair.*/");
@@ -948,6 +1105,48 @@ public class BuildComposablePipeline {
             output.println("    }");
             output.println("  }");
             output.println("  private GLContext _context;");
+            output.println();
+            output.println("  /**");
+            output.println("   * Checks for errors issued since the last check, unless each call is checked.");
+            output.println("   * <p>");
+            output.println("   * Invoked by {@link GLAutoDrawable#display()}, or manually once per frame if not using a GLAutoDrawable.");
+            output.println("   * </p>");
+            output.println("   */");
+            output.println("  @Override");
+            output.println("  public void frameBoundary(GLAutoDrawable drawable) {");
+            output.println("    if (_errorCheck.endFrame()) {");
+            output.println("      checkContext();");
+            output.println("      final int err = checkGLError();");
+            output.println("      if (err != GL_NO_ERROR) {");
+            output.println("        writeDeferredGLError(err, true);");
+            output.println("      }");
+            output.println("    }");
+            output.println("  }");
+            output.println("  /**");
+            output.println("   * Sets the error check interval.");
+            output.println("   * <p>");
+            output.println("   * Checking each call via <code>glGetError()</code> forces a driver round-trip per call.");
+            output.println("   * Otherwise errors are checked every N calls and at {@link #frameBoundary(GLAutoDrawable) frame boundaries},");
+            output.println("   * reporting a detected error along with the last calls since the previous check.");
+            output.println("   * </p>");
+            output.println("   * @param n <code>1</code> checks each call (default),");
+            output.println("   *          <code>0</code> only checks at frame boundaries and");
+            output.println("   *          <code>N &gt; 1</code> checks every N calls as well as at frame boundaries.");
+            output.println("   */");
+            output.println("  public final void setErrorCheckInterval(int n) { _errorCheck.setCheckInterval(n); }");
+            output.println("  public final int getErrorCheckInterval() { return _errorCheck.getCheckInterval(); }");
+            output.println("  /**");
+            output.println("   * If enabled, an error detected by a deferred check is reported on {@link System#err} instead of");
+            output.println("   * raising a {@link GLException} and each call is checked until the end of the next frame,");
+            output.println("   * raising the error at exactly the point of failure, if it reoccurs.");
+            output.println("   */");
+            output.println("  public final void setEscalateOnError(boolean v) { _errorCheck.setEscalateOnError(v); }");
+            output.println("  public final boolean getEscalateOnError() { return _errorCheck.getEscalateOnError(); }");
+            output.println("  /** Sets the number of last calls reported w/ a deferred detected error, rounded up to the next power of two. */");
+            output.println("  public final void setCallHistorySize(int n) { _errorCheck.setCallHistorySize(n); }");
+            output.println("  /** Returns the number of errors detected by a deferred check. */");
+            output.println("  public final int getDeferredErrorCount() { return _errorCheck.getDeferredErrorCount(); }");
+            output.println("  private final jogamp.opengl.GLDebugErrorCheck _errorCheck;");
         }
 
         @Override
@@ -959,9 +1158,14 @@ public class BuildComposablePipeline {
             output.println(" * causes a {@link GLException} to be thrown at exactly the point of failure.");
             output.println(" * </p>");
             output.println(" * <p>");
+            output.println(" * Alternatively errors may only be checked every N calls and at frame boundaries,");
+            output.println(" * see {@link #setErrorCheckInterval(int)}, allowing error detection at a fraction of the cost.");
+            output.println(" * </p>");
+            output.println(" * <p>");
             output.println(" * Sample code which installs this pipeline:");
             output.println(" * <pre>");
             output.println(" *   gl = drawable.setGL(new DebugGL(drawable.getGL()));");
+            output.println(" *   gl = drawable.setGL(new DebugGL(drawable.getGL(), Integer.valueOf(0))); // frame boundaries only");
             output.println(" * </pre>");
             output.println(" * For automatic instantiation see {@link GLPipelineFactory#create(String, Class, GL, Object[])}");
             output.println(" * </p>");
@@ -973,9 +1177,16 @@ public class BuildComposablePipeline {
             return !pm.isSynthetic();
         }
 
+        private int getEntryPoint(final PlainMethod pm) {
+            return entryPoints.get(pm.getWrappedMethod().getName()).intValue();
+        }
+
         @Override
         protected void preDownstreamCallHook(final PrintWriter output, final PlainMethod pm) {
-            output.println("    checkContext();");
+            output.println("    final boolean _check = _errorCheck.call(" + getEntryPoint(pm) + ");");
+            output.println("    if (_check) {");
+            output.println("      checkContext();");
+            output.println("    }");
         }
 
         @Override
@@ -994,8 +1205,12 @@ public class BuildComposablePipeline {
                     output.println("    insideBeginEndPair = false;");
                 }
 
-                output.println("    final int err = checkGLError();");
-                output.println("    if (err != GL_NO_ERROR) {");
+                output.println("    if (_check) {");
+                output.println("      final int err = checkGLError();");
+                output.println("      if (err != GL_NO_ERROR) {");
+                output.println("        if (!_errorCheck.isPerCall()) {");
+                output.println("          writeDeferredGLError(err, false);");
+                output.println("        } else {");
 
                 final StringBuilder fmtsb = new StringBuilder();
                 final StringBuilder argsb = new StringBuilder();
@@ -1022,10 +1237,12 @@ public class BuildComposablePipeline {
                 argsb.append(");");
 
                 // calls to glGetError() are only allowed outside of glBegin/glEnd pairs
-                output.print("      writeGLError(err, ");
+                output.print("          writeGLError(err, ");
                 output.println(fmtsb.toString());
-                output.print("                   ");
+                output.print("                       ");
                 output.println(argsb.toString());
+                output.println("        }");
+                output.println("      }");
                 output.println("    }");
             }
         }
@@ -1179,6 +1396,457 @@ public class BuildComposablePipeline {
         }
     } // end class TracePipeline
 
+    //-------------------------------------------------------
+    protected class StateCachePipeline extends PipelineEmitter {
+
+        String className;
+
+        StateCachePipeline(final String outputDir, final String outputPackage, final Class<?> baseInterfaceClass, final Class<?> downstreamClass) {
+            super(outputDir, outputPackage, baseInterfaceClass, null, downstreamClass);
+            className = "StateCache" + getBaseInterfaceName();
+        }
+
+        @Override
+        protected String getOutputName() {
+            return className;
+        }
+
+        @Override
+        protected int getMode() {
+            return 0;
+        }
+
+        @Override
+        protected boolean emptyMethodAllowed() {
+            return false;
+        }
+
+        @Override
+        protected boolean emptyDownstreamAllowed() {
+            return false;
+        }
+
+        @Override
+        protected void constructorHook(final PrintWriter output) {
+            output.print("  public " + getOutputName() + "(");
+            output.println(downstreamName + " " + getDownstreamObjectName() + ")");
+            output.println("  {");
+            output.println("    if (" + getDownstreamObjectName() + " == null) {");
+            output.println("      throw new IllegalArgumentException(\"null " + getDownstreamObjectName() + "\");");
+            output.println("    }");
+            output.print("    this." + getDownstreamObjectName());
+            output.println(" = " + getDownstreamObjectName() + ";");
+            output.println("    // Bind to GLContext object to invalidate the shadow state after context recreation");
+            output.println("    _stateCache = new jogamp.opengl.GLStateCache(" + getDownstreamObjectName() + ".getContext());");
+            output.println("  }");
+            output.println();
+        }
+
+        @Override
+        protected void postMethodEmissionHook(final PrintWriter output) {
+            super.postMethodEmissionHook(output);
+            output.println("  /** Returns the number of redundant state calls not passed downstream. */");
+            output.println("  public final long getFilteredCallCount() { return _stateCache.getFilteredCallCount(); }");
+            output.println("  /** Resets the {@link #getFilteredCallCount() filtered call count}. */");
+            output.println("  public final void resetFilteredCallCount() { _stateCache.resetFilteredCallCount(); }");
+            output.println("  /**");
+            output.println("   * Invalidates the shadowed state, hence the next state call of each kind is passed downstream.");
+            output.println("   * <p>");
+            output.println("   * Must be called after changing GL state bypassing this pipeline, e.g. via {@link #getDownstreamGL()}.");
+            output.println("   * Context recreation and switches of shared contexts are detected automatically.");
+            output.println("   * </p>");
+            output.println("   */");
+            output.println("  public final void invalidateStateCache() { _stateCache.invalidate(); }");
+            output.println("  private final jogamp.opengl.GLStateCache _stateCache;");
+        }
+
+        @Override
+        protected void emitClassDocComment(final PrintWriter output) {
+            output.println("/**");
+            output.println(" * <p>");
+            output.println(" * Composable pipeline which wraps an underlying {@link GL} implementation,");
+            output.println(" * dropping state calls which would not change the shadowed binding, enable, blend,");
+            output.println(" * viewport and depth states, see {@link #getFilteredCallCount()}.");
+            output.println(" * </p>");
+            output.println(" * <p>");
+            output.println(" * The shadow is kept across context switches and only invalidated once the context has been recreated,");
+            output.println(" * or, for shared contexts, the object bindings after each context switch.");
+            output.println(" * State changes bypassing this pipeline must be announced via {@link #invalidateStateCache()}.");
+            output.println(" * </p>");
+            output.println(" * <p>");
+            output.println(" * Sample code which installs this pipeline:");
+            output.println(" * <pre>");
+            output.println(" *   gl = drawable.setGL( GLPipelineFactory.create(\"com.jogamp.opengl.StateCache\", null, drawable.getGL(), null) );");
+            output.println(" * </pre>");
+            output.println(" * For automatic instantiation see {@link GLPipelineFactory#create(String, Class, GL, Object[])}");
+            output.println(" * </p>");
+            output.println(" */");
+        }
+
+        private boolean isFilterable(final Method m) {
+            if (m.getReturnType() != Void.TYPE) {
+                return false;
+            }
+            for(final Class<?> p : m.getParameterTypes()) {
+                if (!p.isPrimitive()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        protected boolean hasPreDownstreamCallHook(final PlainMethod pm) {
+            final Method m = pm.getWrappedMethod();
+            return !pm.isSynthetic() && stateCacheFilters.containsKey(m.getName()) && isFilterable(m);
+        }
+
+        @Override
+        protected void preDownstreamCallHook(final PrintWriter output, final PlainMethod pm) {
+            final String call = stateCacheFilters.get(pm.getWrappedMethod().getName());
+            output.println("    if( !_stateCache." + call + " ) {");
+            output.println("      return;");
+            output.println("    }");
+        }
+
+        @Override
+        protected boolean hasPostDownstreamCallHook(final PlainMethod pm) {
+            return !pm.isSynthetic() && stateCacheInvalidators.containsKey(pm.getWrappedMethod().getName());
+        }
+
+        @Override
+        protected void postDownstreamCallHook(final PrintWriter output, final PlainMethod pm) {
+            output.println("    _stateCache." + stateCacheInvalidators.get(pm.getWrappedMethod().getName()) + ";");
+        }
+    } // end class StateCachePipeline
+
+    //-------------------------------------------------------
+    protected class ProfilingPipeline extends PipelineEmitter {
+
+        String className;
+        /** Entry point index by method name, overloaded methods share one index. */
+        final HashMap<String, Integer> entryPoints = new HashMap<String, Integer>();
+        final List<String> entryPointNames = new ArrayList<String>();
+
+        ProfilingPipeline(final String outputDir, final String outputPackage, final Class<?> baseInterfaceClass, final Class<?> downstreamClass) {
+            super(outputDir, outputPackage, baseInterfaceClass, null, downstreamClass);
+            className = "Profiling" + getBaseInterfaceName();
+        }
+
+        @Override
+        public void emit(final Iterator<PlainMethod> methodsToWrap) throws IOException {
+            final List<PlainMethod> methods = new ArrayList<PlainMethod>();
+            while (methodsToWrap.hasNext()) {
+                final PlainMethod pm = methodsToWrap.next();
+                methods.add(pm);
+                final String name = pm.getWrappedMethod().getName();
+                if (pm.runHooks() && !pm.isSynthetic() && !entryPoints.containsKey(name)) {
+                    entryPoints.put(name, Integer.valueOf(entryPointNames.size()));
+                    entryPointNames.add(name);
+                }
+            }
+            super.emit(methods.iterator());
+        }
+
+        @Override
+        protected String getOutputName() {
+            return className;
+        }
+
+        @Override
+        protected int getMode() {
+            return 0;
+        }
+
+        @Override
+        protected boolean emptyMethodAllowed() {
+            return false;
+        }
+
+        @Override
+        protected boolean emptyDownstreamAllowed() {
+            return false;
+        }
+
+        @Override
+        protected void preMethodEmissionHook(final PrintWriter output) {
+            super.preMethodEmissionHook(output);
+            output.println("  /** Entry point names, indexed as used by {@link #getCallCounters()}. */");
+            output.println("  private static final String[] _entryPointNames = new String[] {");
+            for (int i = 0; i < entryPointNames.size(); i++) {
+                output.println("    \"" + entryPointNames.get(i) + "\",");
+            }
+            output.println("  };");
+            output.println();
+        }
+
+        @Override
+        protected void constructorHook(final PrintWriter output) {
+            output.println("  /** Creates a profiling pipeline counting calls only. */");
+            output.print("  public " + getOutputName() + "(");
+            output.println(downstreamName + " " + getDownstreamObjectName() + ")");
+            output.println("  {");
+            output.println("    this(" + getDownstreamObjectName() + ", Boolean.FALSE);");
+            output.println("  }");
+            output.println();
+            output.println("  /**");
+            output.println("   * Creates a profiling pipeline counting calls and, if <code>timing</code> is true,");
+            output.println("   * accumulating their duration via {@link System#nanoTime()}.");
+            output.println("   */");
+            output.print("  public " + getOutputName() + "(");
+            output.println(downstreamName + " " + getDownstreamObjectName() + ", Boolean timing)");
+            output.println("  {");
+            output.println("    if (" + getDownstreamObjectName() + " == null) {");
+            output.println("      throw new IllegalArgumentException(\"null " + getDownstreamObjectName() + "\");");
+            output.println("    }");
+            output.print("    this." + getDownstreamObjectName());
+            output.println(" = " + getDownstreamObjectName() + ";");
+            output.println("    _counters = new GLCallCounters(_entryPointNames, timing.booleanValue());");
+            output.println("  }");
+            output.println();
+        }
+
+        @Override
+        protected void postMethodEmissionHook(final PrintWriter output) {
+            super.postMethodEmissionHook(output);
+            output.println("  /**");
+            output.println("   * Returns the live {@link GLCallCounters}, use {@link GLCallCounters#snapshot(boolean)}");
+            output.println("   * to retrieve and reset them e.g. once per frame.");
+            output.println("   */");
+            output.println("  public final GLCallCounters getCallCounters() { return _counters; }");
+            output.println("  private final GLCallCounters _counters;");
+        }
+
+        @Override
+        protected void emitClassDocComment(final PrintWriter output) {
+            output.println("/**");
+            output.println(" * <p>");
+            output.println(" * Composable pipeline which wraps an underlying {@link GL} implementation,");
+            output.println(" * counting the calls of each OpenGL entry point and optionally accumulating their duration,");
+            output.println(" * see {@link #getCallCounters()}.");
+            output.println(" * </p>");
+            output.println(" * <p>");
+            output.println(" * Sample code which installs this pipeline w/ timing enabled:");
+            output.println(" * <pre>");
+            output.println(" *   gl = drawable.setGL( GLPipelineFactory.create(\"com.jogamp.opengl.Profiling\", null, drawable.getGL(), new Object[] { Boolean.TRUE } ) );");
+            output.println(" * </pre>");
+            output.println(" * For automatic instantiation see {@link GLPipelineFactory#create(String, Class, GL, Object[])}");
+            output.println(" * </p>");
+            output.println(" */");
+        }
+
+        private int getEntryPoint(final PlainMethod pm) {
+            return entryPoints.get(pm.getWrappedMethod().getName()).intValue();
+        }
+
+        @Override
+        protected boolean hasPreDownstreamCallHook(final PlainMethod pm) {
+            return !pm.isSynthetic();
+        }
+
+        @Override
+        protected void preDownstreamCallHook(final PrintWriter output, final PlainMethod pm) {
+            output.println("    final long _t0 = _counters.begin(" + getEntryPoint(pm) + ");");
+        }
+
+        @Override
+        protected boolean hasPostDownstreamCallHook(final PlainMethod pm) {
+            return !pm.isSynthetic();
+        }
+
+        @Override
+        protected void postDownstreamCallHook(final PrintWriter output, final PlainMethod pm) {
+            output.println("    _counters.end(" + getEntryPoint(pm) + ", _t0);");
+        }
+    } // end class ProfilingPipeline
+
+    //-------------------------------------------------------
+    protected class RecordingPipeline extends PipelineEmitter {
+
+        String className;
+        /** Entry point index by signature, each overloaded method has its own index. */
+        final HashMap<String, Integer> entryPoints = new HashMap<String, Integer>();
+        final List<String> entryPointSignatures = new ArrayList<String>();
+
+        RecordingPipeline(final String outputDir, final String outputPackage, final Class<?> baseInterfaceClass, final Class<?> downstreamClass) {
+            super(outputDir, outputPackage, baseInterfaceClass, null, downstreamClass);
+            className = "Recording" + getBaseInterfaceName();
+        }
+
+        @Override
+        public void emit(final Iterator<PlainMethod> methodsToWrap) throws IOException {
+            final List<PlainMethod> methods = new ArrayList<PlainMethod>();
+            while (methodsToWrap.hasNext()) {
+                final PlainMethod pm = methodsToWrap.next();
+                methods.add(pm);
+                if (pm.runHooks() && !pm.isSynthetic()) {
+                    final String sig = getSignature(pm.getWrappedMethod());
+                    if (!entryPoints.containsKey(sig)) {
+                        entryPoints.put(sig, Integer.valueOf(entryPointSignatures.size()));
+                        entryPointSignatures.add(sig);
+                    }
+                }
+            }
+            super.emit(methods.iterator());
+        }
+
+        /** Returns the method name followed by its JVM parameter descriptor, e.g. <code>glBindTexture(II)</code>. */
+        private String getSignature(final Method m) {
+            final StringBuilder sb = new StringBuilder();
+            sb.append(m.getName()).append('(');
+            for (final Class<?> p : m.getParameterTypes()) {
+                sb.append(getDescriptor(p));
+            }
+            return sb.append(')').toString();
+        }
+
+        private String getDescriptor(final Class<?> c) {
+            if (c.isArray()) {
+                return "[" + getDescriptor(c.getComponentType());
+            } else if (c == Boolean.TYPE) { return "Z";
+            } else if (c == Byte.TYPE) { return "B";
+            } else if (c == Short.TYPE) { return "S";
+            } else if (c == Character.TYPE) { return "C";
+            } else if (c == Integer.TYPE) { return "I";
+            } else if (c == Long.TYPE) { return "J";
+            } else if (c == Float.TYPE) { return "F";
+            } else if (c == Double.TYPE) { return "D";
+            }
+            return "L" + c.getName().replace('.', '/') + ";";
+        }
+
+        /** Returns true if all arguments can be serialized by <code>GLCallRecorder</code>. */
+        private boolean isRecordable(final Method m) {
+            for (final Class<?> p : m.getParameterTypes()) {
+                final boolean ok = p.isPrimitive()
+                        || (p.isArray() && p.getComponentType().isPrimitive())
+                        || p == String.class || p == String[].class
+                        || Buffer.class.isAssignableFrom(p);
+                if (!ok) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        protected String getOutputName() {
+            return className;
+        }
+
+        @Override
+        protected int getMode() {
+            return 0;
+        }
+
+        @Override
+        protected boolean emptyMethodAllowed() {
+            return false;
+        }
+
+        @Override
+        protected boolean emptyDownstreamAllowed() {
+            return false;
+        }
+
+        @Override
+        protected void preMethodEmissionHook(final PrintWriter output) {
+            super.preMethodEmissionHook(output);
+            output.println("  /** Entry point signatures, name and JVM parameter descriptor, indexed as recorded. */");
+            output.println("  private static final String[] _entryPointSignatures = new String[] {");
+            for (int i = 0; i < entryPointSignatures.size(); i++) {
+                output.println("    \"" + entryPointSignatures.get(i) + "\",");
+            }
+            output.println("  };");
+            output.println();
+        }
+
+        @Override
+        protected void constructorHook(final PrintWriter output) {
+            output.print("  public " + getOutputName() + "(");
+            output.println(downstreamName + " " + getDownstreamObjectName() + ", com.jogamp.opengl.util.GLCallRecorder recorder)");
+            output.println("  {");
+            output.println("    if (" + getDownstreamObjectName() + " == null) {");
+            output.println("      throw new IllegalArgumentException(\"null " + getDownstreamObjectName() + "\");");
+            output.println("    }");
+            output.println("    if (recorder == null) {");
+            output.println("      throw new IllegalArgumentException(\"null recorder\");");
+            output.println("    }");
+            output.print("    this." + getDownstreamObjectName());
+            output.println(" = " + getDownstreamObjectName() + ";");
+            output.println("    this._recorder = recorder;");
+            output.println("  }");
+            output.println();
+        }
+
+        @Override
+        protected void postMethodEmissionHook(final PrintWriter output) {
+            super.postMethodEmissionHook(output);
+            output.println("  /** Returns the {@link com.jogamp.opengl.util.GLCallRecorder} serializing all calls. */");
+            output.println("  public final com.jogamp.opengl.util.GLCallRecorder getRecorder() { return _recorder; }");
+            output.println("  /**");
+            output.println("   * Marks the end of a frame in the trace, e.g. to be called at the end of");
+            output.println("   * {@link GLEventListener#display(GLAutoDrawable) display(..)}.");
+            output.println("   */");
+            output.println("  public final void markFrame() { _recorder.frame(" + getDownstreamObjectName() + "); }");
+            output.println("  private final com.jogamp.opengl.util.GLCallRecorder _recorder;");
+        }
+
+        @Override
+        protected void emitClassDocComment(final PrintWriter output) {
+            output.println("/**");
+            output.println(" * <p>");
+            output.println(" * Composable pipeline which wraps an underlying {@link GL} implementation,");
+            output.println(" * serializing each OpenGL method call and its arguments into a trace");
+            output.println(" * via {@link com.jogamp.opengl.util.GLCallRecorder} before passing it downstream.");
+            output.println(" * The trace can be re-issued via {@link com.jogamp.opengl.util.GLCallReplayer}.");
+            output.println(" * </p>");
+            output.println(" * <p>");
+            output.println(" * Sample code which installs this pipeline:");
+            output.println(" * <pre>");
+            output.println(" *   final GLCallRecorder rec = new GLCallRecorder(new File(\"scene.jgltrace.gz\"), drawable.getGL(), true);");
+            output.println(" *   gl = drawable.setGL( GLPipelineFactory.create(\"com.jogamp.opengl.Recording\", null, drawable.getGL(), new Object[] { rec } ) );");
+            output.println(" * </pre>");
+            output.println(" * For automatic instantiation see {@link GLPipelineFactory#create(String, Class, GL, Object[])}");
+            output.println(" * </p>");
+            output.println(" */");
+        }
+
+        @Override
+        protected boolean hasPreDownstreamCallHook(final PlainMethod pm) {
+            return !pm.isSynthetic();
+        }
+
+        @Override
+        protected void preDownstreamCallHook(final PrintWriter output, final PlainMethod pm) {
+            final Method m = pm.getWrappedMethod();
+            final int id = entryPoints.get(getSignature(m)).intValue();
+            if (isRecordable(m)) {
+                final int argc = m.getParameterTypes().length;
+                if (0 == argc) {
+                    output.println("    _recorder.begin(" + id + ", _entryPointSignatures);");
+                } else {
+                    output.println("    if( _recorder.begin(" + id + ", _entryPointSignatures) ) {");
+                    for (int i = 0; i < argc; i++) {
+                        output.println("      _recorder.arg(arg" + i + ");");
+                    }
+                    output.println("    }");
+                }
+            } else {
+                output.println("    _recorder.unsupported(" + id + ", _entryPointSignatures);");
+            }
+        }
+
+        @Override
+        protected boolean hasPostDownstreamCallHook(final PlainMethod pm) {
+            return false;
+        }
+
+        @Override
+        protected void postDownstreamCallHook(final PrintWriter output, final PlainMethod pm) {
+        }
+    } // end class RecordingPipeline
+
     public static final void printFunctionCallString(final PrintWriter output, final Method m) {
         final Class<?>[] params = m.getParameterTypes();
         output.print("    \"" + m.getName() + "(\"");
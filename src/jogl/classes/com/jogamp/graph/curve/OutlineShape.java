@@ -143,6 +143,9 @@ public class OutlineShape implements Comparable<OutlineShape> {
 
     private float sharpness;
 
+    /** True if the triangulation has been {@link #setTriangulation(ArrayList, ArrayList, AABBox) set} w/o outlines. */
+    private boolean triangulationSet;
+
     private final float[] tmpV1 = new float[3];
     private final float[] tmpV2 = new float[3];
     private final float[] tmpV3 = new float[3];
@@ -192,6 +195,30 @@ public class OutlineShape implements Comparable<OutlineShape> {
         triangles.clear();
         addedVerticeCount = 0;
         dirtyBits = 0;
+        triangulationSet = false;
+    }
+
+    /**
+     * Sets the given triangulated data as if produced by {@link #getTriangles(VerticesState)} and {@link #getVertices()},
+     * e.g. restored from a persistent cache, avoiding curve subdivision and triangulation.
+     * <p>
+     * All triangle vertices shall be contained in <code>vertices</code>, their {@link Vertex#getId() ID} being their index.
+     * </p>
+     * <p>
+     * This shape is {@link #clear() cleared} beforehand and has no {@link Outline}s afterwards,
+     * hence it shall not be modified or {@link #transform(AffineTransform) transformed}.
+     * </p>
+     * @param vertices the vertices, taken as is
+     * @param triangles the triangles, taken as is
+     * @param bounds the bounding box of the former outlines, copied
+     */
+    public final void setTriangulation(final ArrayList<Vertex> vertices, final ArrayList<Triangle> triangles, final AABBox bounds) {
+        clear();
+        this.vertices.addAll(vertices);
+        this.triangles.addAll(triangles);
+        this.bbox.copy(bounds);
+        outlineState = VerticesState.QUADRATIC_NURBS;
+        triangulationSet = true;
     }
 
     /** Clears cached triangulated data, i.e. {@link #getTriangles(VerticesState)} and {@link #getVertices()}.  */
@@ -755,7 +782,7 @@ public class OutlineShape implements Comparable<OutlineShape> {
     }
 
     public final AABBox getBounds() {
-        if( 0 == ( dirtyBits & DIRTY_BOUNDS ) ) {
+        if( 0 == ( dirtyBits & DIRTY_BOUNDS ) && !triangulationSet ) {
             validateBoundingBox();
         }
         return bbox;
@@ -28,6 +28,8 @@
 package com.jogamp.graph.curve;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 
 import jogamp.graph.geom.plane.AffineTransform;
@@ -113,6 +115,7 @@ public abstract class Region {
     private int quality;
     private int dirty = DIRTY_SHAPE | DIRTY_STATE;
     private int numVertices = 0;
+    private int numIndices = 0;
     protected final AABBox box = new AABBox();
     protected Frustum frustum = null;
 
@@ -179,6 +182,23 @@ public abstract class Region {
     protected abstract void pushVertex(final float[] coords, final float[] texParams, float[] rgba);
     protected abstract void pushIndex(int idx);
 
+    /**
+     * Overwrites vertex <code>vIdx</code> in place, which must have been pushed before.
+     * @see #replaceOutlineShape(int, OutlineShape, AffineTransform, float[])
+     */
+    protected abstract void setVertex(int vIdx, final float[] coords, final float[] texParams, float[] rgba);
+    /**
+     * Overwrites index element <code>iIdx</code> in place, which must have been pushed before.
+     * @see #replaceOutlineShape(int, OutlineShape, AffineTransform, float[])
+     */
+    protected abstract void setIndex(int iIdx, int idx);
+    /** Returns the value of index element <code>iIdx</code>. */
+    protected abstract int getIndex(int iIdx);
+    /** Moves <code>count</code> vertices from <code>srcVIdx</code> down to <code>dstVIdx</code>, with <code>dstVIdx &lt;= srcVIdx</code>. */
+    protected abstract void moveVertices(int srcVIdx, int dstVIdx, int count);
+    /** Truncates the vertex and index streams to the given element counts, requiring a complete upload. */
+    protected abstract void truncate(int vertexCount, int indexCount);
+
     /**
      * Return bit-field of render modes, see {@link GLRegion#create(int, TextureSequence)}.
      */
@@ -193,7 +213,11 @@ public abstract class Region {
     protected void clearImpl() {
         dirty = DIRTY_SHAPE | DIRTY_STATE;
         numVertices = 0;
+        numIndices = 0;
         box.reset();
+        shapeRanges.clear();
+        holeVertices = 0;
+        clearDirtyRanges();
     }
 
     /**
@@ -248,37 +272,76 @@ public abstract class Region {
 
     final float[] coordsEx = new float[3];
 
-    private void pushNewVertexImpl(final Vertex vertIn, final AffineTransform transform, final float[] rgba) {
+    /**
+     * Vertex and index range of one added {@link OutlineShape},
+     * allowing it to be {@link Region#replaceOutlineShape(int, OutlineShape, AffineTransform, float[]) replaced} in place.
+     * <p>
+     * The capacity covers the used elements plus slack for growth,
+     * unused index elements are degenerated to the range's first vertex.
+     * </p>
+     */
+    private static final class ShapeRange {
+        int vStart, vCount, vCap;
+        int iStart, iCount, iCap;
+        final AABBox box = new AABBox();
+    }
+    private static final Comparator<ShapeRange> rangeOrder = new Comparator<ShapeRange>() {
+        @Override
+        public int compare(final ShapeRange a, final ShapeRange b) {
+            return a.vStart - b.vStart;
+        }
+    };
+    private static final float[] padCoords = new float[3];
+    private static final float[] padRGBA = new float[4];
+
+    private final ArrayList<ShapeRange> shapeRanges = new ArrayList<ShapeRange>();
+    /** Number of vertices of relocated shapes no more referenced, see {@link #compact()}. */
+    private int holeVertices = 0;
+    /** Dirty element ranges [from, to) written in place, see {@link #getDirtyVertexFrom()}. */
+    private int dirtyVFrom, dirtyVTo, dirtyIFrom, dirtyITo;
+    /** If true, vertices and indices are written in place at {@link #vCursor} and {@link #iCursor}, otherwise pushed. */
+    private boolean writeInPlace = false;
+    private int vCursor, iCursor;
+
+    private void pushNewVertexImpl(final Vertex vertIn, final AffineTransform transform, final float[] rgba, final AABBox shapeBox) {
+        final float[] coords;
         if( null != transform ) {
             final float[] coordsIn = vertIn.getCoord();
             transform.transform(coordsIn, coordsEx);
             coordsEx[2] = coordsIn[2];
-            box.resize(coordsEx[0], coordsEx[1], coordsEx[2]);
-            pushVertex(coordsEx, vertIn.getTexCoord(), rgba);
+            coords = coordsEx;
         } else {
-            box.resize(vertIn.getX(), vertIn.getY(), vertIn.getZ());
-            pushVertex(vertIn.getCoord(), vertIn.getTexCoord(), rgba);
+            coords = vertIn.getCoord();
         }
-        numVertices++;
+        box.resize(coords[0], coords[1], coords[2]);
+        shapeBox.resize(coords[0], coords[1], coords[2]);
+        if( writeInPlace ) {
+            setVertex(vCursor, coords, vertIn.getTexCoord(), rgba);
+        } else {
+            pushVertex(coords, vertIn.getTexCoord(), rgba);
+            numVertices++;
+        }
+        vCursor++;
+    }
+
+    private void pushIndexImpl(final int idx) {
+        if( writeInPlace ) {
+            setIndex(iCursor, idx);
+        } else {
+            pushIndex(idx);
+            numIndices++;
+        }
+        iCursor++;
     }
 
-    private void pushNewVertexIdxImpl(final Vertex vertIn, final AffineTransform transform, final float[] rgba) {
-        pushIndex(numVertices);
-        pushNewVertexImpl(vertIn, transform, rgba);
+    private void pushNewVertexIdxImpl(final Vertex vertIn, final AffineTransform transform, final float[] rgba, final AABBox shapeBox) {
+        pushIndexImpl(vCursor);
+        pushNewVertexImpl(vertIn, transform, rgba, shapeBox);
     }
 
     private final AABBox tmpBox = new AABBox();
 
-    /**
-     * Add the given {@link OutlineShape} to this region with the given optional {@link AffineTransform}.
-     * <p>
-     * In case {@link #setFrustum(Frustum) frustum culling is set}, the {@link OutlineShape}
-     * is dropped if it's {@link OutlineShape#getBounds() bounding-box} is fully outside of the frustum.
-     * The optional {@link AffineTransform} is applied to the bounding-box beforehand.
-     * </p>
-     * @param rgbaColor TODO
-     */
-    public final void addOutlineShape(final OutlineShape shape, final AffineTransform t, final float[] rgbaColor) {
+    private boolean isCulled(final OutlineShape shape, final AffineTransform t) {
         if( null != frustum ) {
             final AABBox shapeBox = shape.getBounds();
             final AABBox shapeBoxT;
@@ -292,9 +355,136 @@ public abstract class Region {
                 if(DEBUG_INSTANCE) {
                     System.err.println("Region.addOutlineShape(): Dropping outside shapeBoxT: "+shapeBoxT);
                 }
-                return;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Add the given {@link OutlineShape} to this region with the given optional {@link AffineTransform}.
+     * <p>
+     * In case {@link #setFrustum(Frustum) frustum culling is set}, the {@link OutlineShape}
+     * is dropped if it's {@link OutlineShape#getBounds() bounding-box} is fully outside of the frustum.
+     * The optional {@link AffineTransform} is applied to the bounding-box beforehand.
+     * </p>
+     * @param rgbaColor TODO
+     * @return the shape index for {@link #replaceOutlineShape(int, OutlineShape, AffineTransform, float[])}
+     */
+    public final int addOutlineShape(final OutlineShape shape, final AffineTransform t, final float[] rgbaColor) {
+        final ShapeRange r = new ShapeRange();
+        r.vStart = numVertices;
+        r.iStart = numIndices;
+        shapeRanges.add(r);
+        if( !isCulled(shape, t) ) {
+            writeShape(shape, t, rgbaColor, r);
+            r.vCap = r.vCount;
+            r.iCap = r.iCount;
+            markShapeDirty();
+        }
+        return shapeRanges.size() - 1;
+    }
+
+    /**
+     * Replaces the {@link OutlineShape} at <code>shapeIdx</code>, as returned by {@link #addOutlineShape(OutlineShape, AffineTransform, float[])},
+     * w/o re-adding all other shapes of this region.
+     * <p>
+     * Only the given shape is triangulated and written. If it fits into the shape's current vertex and index capacity,
+     * it is written in place and only the modified element ranges are uploaded via <code>glBufferSubData</code> at next update.
+     * Otherwise it is appended w/ 50% slack for further growth, its former range is degenerated and left as a hole.
+     * Appending requires a complete upload at next update.
+     * </p>
+     * <p>
+     * Once the holes exceed the referenced vertices, this region is compacted.
+     * </p>
+     * <p>
+     * {@link #setFrustum(Frustum) Frustum culling} applies as with {@link #addOutlineShape(OutlineShape, AffineTransform, float[])},
+     * a culled shape keeps its capacity.
+     * </p>
+     * @throws IndexOutOfBoundsException if <code>shapeIdx</code> is invalid
+     */
+    public final void replaceOutlineShape(final int shapeIdx, final OutlineShape shape, final AffineTransform t, final float[] rgbaColor) throws IndexOutOfBoundsException {
+        final ShapeRange r = shapeRanges.get(shapeIdx);
+        final boolean culled = isCulled(shape, t);
+        int vNeeded = 0, iNeeded = 0;
+        if( !culled ) {
+            final List<Triangle> trisIn = shape.getTriangles(OutlineShape.VerticesState.QUADRATIC_NURBS);
+            final ArrayList<Vertex> vertsIn = shape.getVertices();
+            if( vertsIn.size() >= 3 ) {
+                vNeeded = vertsIn.size();
+                iNeeded = trisIn.size() * 3;
+                for(int i=0; i<trisIn.size(); i++) {
+                    if( Integer.MAX_VALUE-r.vStart <= trisIn.get(i).getVertices()[0].getId() ) {
+                        vNeeded += 3;
+                    }
+                }
             }
         }
+        if( vNeeded <= r.vCap && iNeeded <= r.iCap ) {
+            // in place
+            writeInPlace = true;
+            try {
+                if( !culled ) {
+                    writeShape(shape, t, rgbaColor, r);
+                } else {
+                    r.vCount = 0;
+                    r.iCount = 0;
+                    iCursor = r.iStart;
+                }
+                while( iCursor < r.iStart + r.iCap ) {
+                    pushIndexImpl(r.vStart);
+                }
+            } finally {
+                writeInPlace = false;
+            }
+            markDirtyRange(r.vStart, r.vStart + r.vCount, r.iStart, r.iStart + r.iCap);
+        } else {
+            // drop former range, leaving a hole
+            writeInPlace = true;
+            try {
+                iCursor = r.iStart;
+                while( iCursor < r.iStart + r.iCap ) {
+                    pushIndexImpl(r.vStart);
+                }
+            } finally {
+                writeInPlace = false;
+            }
+            markDirtyRange(0, 0, r.iStart, r.iStart + r.iCap);
+            holeVertices += r.vCap;
+
+            // append w/ slack
+            r.vStart = numVertices;
+            r.iStart = numIndices;
+            writeShape(shape, t, rgbaColor, r);
+            r.vCap = vNeeded + ( vNeeded >> 1 );
+            r.iCap = ( ( iNeeded + ( iNeeded >> 1 ) + 2 ) / 3 ) * 3;
+            while( vCursor < r.vStart + r.vCap ) {
+                pushVertex(padCoords, padCoords, padRGBA);
+                numVertices++;
+                vCursor++;
+            }
+            while( iCursor < r.iStart + r.iCap ) {
+                pushIndexImpl(r.vStart);
+            }
+            if( holeVertices > numVertices - holeVertices ) {
+                compact();
+            }
+        }
+        box.reset();
+        for(int i=0; i<shapeRanges.size(); i++) {
+            final ShapeRange sr = shapeRanges.get(i);
+            if( 0 < sr.vCount ) {
+                box.resize(sr.box);
+            }
+        }
+        markShapeDirty();
+    }
+
+    /** Returns the number of shapes added since last clear, including culled shapes. */
+    public final int getShapeCount() { return shapeRanges.size(); }
+
+    /** Writes the given shape at {@link #vCursor} and {@link #iCursor}, starting w/ the range's first element. */
+    private void writeShape(final OutlineShape shape, final AffineTransform t, final float[] rgbaColor, final ShapeRange r) {
         final List<Triangle> trisIn = shape.getTriangles(OutlineShape.VerticesState.QUADRATIC_NURBS);
         final ArrayList<Vertex> vertsIn = shape.getVertices();
         if(DEBUG_INSTANCE) {
@@ -307,7 +497,10 @@ public abstract class Region {
         }
         // setupInitialComponentCount(verticeCount, indexCount); // FIXME: Use it ?
 
-        final int idxOffset = numVertices;
+        final int idxOffset = r.vStart;
+        vCursor = r.vStart;
+        iCursor = r.iStart;
+        r.box.reset();
         int vertsVNewIdxCount = 0, vertsTMovIdxCount = 0, vertsTNewIdxCount = 0, tris = 0;
         final int vertsDupCountV = 0, vertsDupCountT = 0, vertsKnownMovedT = 0;
         if( vertsIn.size() >= 3 ) {
@@ -315,7 +508,7 @@ public abstract class Region {
                 System.err.println("Region.addOutlineShape(): Processing Vertices");
             }
             for(int i=0; i<vertsIn.size(); i++) {
-                pushNewVertexImpl(vertsIn.get(i), t, rgbaColor);
+                pushNewVertexImpl(vertsIn.get(i), t, rgbaColor, r.box);
                 vertsVNewIdxCount++;
             }
             if(DEBUG_INSTANCE) {
@@ -335,23 +528,25 @@ public abstract class Region {
                     if(Region.DEBUG_INSTANCE) {
                         System.err.println("T["+i+"]: Moved "+tv0Idx+" + "+idxOffset+" -> "+(tv0Idx+idxOffset));
                     }
-                    pushIndex(tv0Idx+idxOffset);
-                    pushIndex(triInVertices[1].getId()+idxOffset);
-                    pushIndex(triInVertices[2].getId()+idxOffset);
+                    pushIndexImpl(tv0Idx+idxOffset);
+                    pushIndexImpl(triInVertices[1].getId()+idxOffset);
+                    pushIndexImpl(triInVertices[2].getId()+idxOffset);
                     vertsTMovIdxCount+=3;
                 } else {
                     // invalid idx - generate new one
                     if(Region.DEBUG_INSTANCE) {
-                        System.err.println("T["+i+"]: New Idx "+numVertices);
+                        System.err.println("T["+i+"]: New Idx "+vCursor);
                     }
-                    pushNewVertexIdxImpl(triInVertices[0], t, rgbaColor);
-                    pushNewVertexIdxImpl(triInVertices[1], t, rgbaColor);
-                    pushNewVertexIdxImpl(triInVertices[2], t, rgbaColor);
+                    pushNewVertexIdxImpl(triInVertices[0], t, rgbaColor, r.box);
+                    pushNewVertexIdxImpl(triInVertices[1], t, rgbaColor, r.box);
+                    pushNewVertexIdxImpl(triInVertices[2], t, rgbaColor, r.box);
                     vertsTNewIdxCount+=3;
                 }
                 tris++;
             }
         }
+        r.vCount = vCursor - r.vStart;
+        r.iCount = iCursor - r.iStart;
         if(DEBUG_INSTANCE) {
             System.err.println("Region.addOutlineShape().X: idxOffset "+idxOffset+", tris: "+tris+", verts [idx "+vertsTNewIdxCount+", add "+vertsTNewIdxCount+" = "+(vertsVNewIdxCount+vertsTNewIdxCount)+"]");
             System.err.println("Region.addOutlineShape().X: verts: idx[v-new "+vertsVNewIdxCount+", t-new "+vertsTNewIdxCount+" = "+(vertsVNewIdxCount+vertsTNewIdxCount)+"]");
@@ -360,7 +555,74 @@ public abstract class Region {
             // int vertsDupCountV = 0, vertsDupCountT = 0;
             System.err.println("Region.addOutlineShape().X: box "+box);
         }
-        markShapeDirty();
+    }
+
+    /**
+     * Moves all shape ranges down to close the holes left by relocated shapes,
+     * keeping each range's capacity. Requires a complete upload at next update.
+     */
+    private void compact() {
+        final ShapeRange[] ranges = shapeRanges.toArray(new ShapeRange[shapeRanges.size()]);
+        Arrays.sort(ranges, rangeOrder);
+        int vDst = 0, iDst = 0;
+        for(int j=0; j<ranges.length; j++) {
+            final ShapeRange r = ranges[j];
+            if( r.vStart != vDst && 0 < r.vCap ) {
+                moveVertices(r.vStart, vDst, r.vCap);
+            }
+            for(int i=0; i<r.iCap; i++) {
+                setIndex(iDst+i, getIndex(r.iStart+i) - r.vStart + vDst);
+            }
+            r.vStart = vDst;
+            r.iStart = iDst;
+            vDst += r.vCap;
+            iDst += r.iCap;
+        }
+        if(DEBUG_INSTANCE) {
+            System.err.println("Region.compact(): vertices "+numVertices+" -> "+vDst+", indices "+numIndices+" -> "+iDst);
+        }
+        truncate(vDst, iDst);
+        numVertices = vDst;
+        numIndices = iDst;
+        holeVertices = 0;
+        clearDirtyRanges();
+    }
+
+    private void markDirtyRange(final int vFrom, final int vTo, final int iFrom, final int iTo) {
+        if( vFrom < vTo ) {
+            if( dirtyVFrom >= dirtyVTo ) {
+                dirtyVFrom = vFrom;
+                dirtyVTo = vTo;
+            } else {
+                dirtyVFrom = Math.min(dirtyVFrom, vFrom);
+                dirtyVTo = Math.max(dirtyVTo, vTo);
+            }
+        }
+        if( iFrom < iTo ) {
+            if( dirtyIFrom >= dirtyITo ) {
+                dirtyIFrom = iFrom;
+                dirtyITo = iTo;
+            } else {
+                dirtyIFrom = Math.min(dirtyIFrom, iFrom);
+                dirtyITo = Math.max(dirtyITo, iTo);
+            }
+        }
+    }
+
+    /** Returns the first vertex written in place since {@link #clearDirtyRanges()}, empty if not less than {@link #getDirtyVertexTo()}. */
+    protected final int getDirtyVertexFrom() { return dirtyVFrom; }
+    /** Returns the vertex after the last one written in place since {@link #clearDirtyRanges()}. */
+    protected final int getDirtyVertexTo() { return dirtyVTo; }
+    /** Returns the first index element written in place since {@link #clearDirtyRanges()}, empty if not less than {@link #getDirtyIndexTo()}. */
+    protected final int getDirtyIndexFrom() { return dirtyIFrom; }
+    /** Returns the index element after the last one written in place since {@link #clearDirtyRanges()}. */
+    protected final int getDirtyIndexTo() { return dirtyITo; }
+    /** Clears the dirty ranges written in place, i.e. after they have been uploaded. */
+    protected final void clearDirtyRanges() {
+        dirtyVFrom = 0;
+        dirtyVTo = 0;
+        dirtyIFrom = 0;
+        dirtyITo = 0;
     }
 
     public final void addOutlineShapes(final List<OutlineShape> shapes, final AffineTransform transform, final float[] rgbaColor) {
@@ -406,6 +668,6 @@ public abstract class Region {
     protected final int getDirtyBits() { return dirty; }
 
     public String toString() {
-        return "Region["+getRenderModeString(this.renderModes)+", q "+quality+", dirty "+dirty+", vertices "+numVertices+", box "+box+"]";
+        return "Region["+getRenderModeString(this.renderModes)+", q "+quality+", dirty "+dirty+", vertices "+numVertices+", indices "+numIndices+", shapes "+shapeRanges.size()+", box "+box+"]";
     }
 }
\ No newline at end of file
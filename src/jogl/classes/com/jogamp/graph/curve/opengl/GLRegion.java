@@ -27,6 +27,9 @@
  */
 package com.jogamp.graph.curve.opengl;
 
+import java.nio.Buffer;
+import java.nio.FloatBuffer;
+
 import com.jogamp.opengl.GL;
 import com.jogamp.opengl.GL2ES2;
 
@@ -34,6 +37,7 @@ import jogamp.graph.curve.opengl.VBORegion2PMSAAES2;
 import jogamp.graph.curve.opengl.VBORegion2PVBAAES2;
 import jogamp.graph.curve.opengl.VBORegionSPES2;
 
+import com.jogamp.opengl.util.GLArrayDataServer;
 import com.jogamp.opengl.util.PMVMatrix;
 import com.jogamp.opengl.util.texture.TextureSequence;
 import com.jogamp.graph.curve.Region;
@@ -92,6 +96,82 @@ public abstract class GLRegion extends Region {
 
     protected abstract void destroyImpl(final GL2ES2 gl);
 
+    /**
+     * Uploads the element ranges written in place by {@link #replaceOutlineShape(int, com.jogamp.graph.curve.OutlineShape, jogamp.graph.geom.plane.AffineTransform, float[]) replaceOutlineShape(..)}
+     * via <code>glBufferSubData</code> and clears them.
+     * <p>
+     * Only buffers already sealed and written are updated,
+     * all others are uploaded completely by the subsequent {@link GLArrayDataServer#seal(GL, boolean) seal} and enable.
+     * </p>
+     * <p>To be called by {@link #updateImpl(GL2ES2)} before sealing the buffers.</p>
+     * @param indices the index buffer
+     * @param vertexAttribs the vertex attribute buffers, <code>null</code> elements are skipped
+     */
+    protected final void updateDirtyRanges(final GL gl, final GLArrayDataServer indices, final GLArrayDataServer... vertexAttribs) {
+        updateSubData(gl, indices, getDirtyIndexFrom(), getDirtyIndexTo());
+        final int vFrom = getDirtyVertexFrom();
+        final int vTo = getDirtyVertexTo();
+        for(int i=0; i<vertexAttribs.length; i++) {
+            final GLArrayDataServer attr = vertexAttribs[i];
+            if( null != attr ) {
+                final int comps = attr.getComponentCount();
+                updateSubData(gl, attr, vFrom * comps, vTo * comps);
+            }
+        }
+        clearDirtyRanges();
+    }
+
+    /** Uploads components [<code>from</code> .. <code>to</code>) of the given sealed and written buffer via <code>glBufferSubData</code>. */
+    private static void updateSubData(final GL gl, final GLArrayDataServer data, final int from, int to) {
+        if( !data.sealed() || !data.isVBOWritten() || 0 == data.getVBOName() ) {
+            return;
+        }
+        final Buffer buffer = data.getBuffer();
+        to = Math.min(to, buffer.limit());
+        if( from >= to ) {
+            return;
+        }
+        final int compSize = data.getComponentSizeInBytes();
+        final int target = data.getVBOTarget();
+        buffer.position(from);
+        gl.glBindBuffer(target, data.getVBOName());
+        gl.glBufferSubData(target, (long)from * compSize, (long)( to - from ) * compSize, buffer);
+        gl.glBindBuffer(target, 0);
+        buffer.position(0);
+    }
+
+    /** Writes the components of <code>values</code> to vertex <code>vIdx</code> of the given float attribute buffer, regardless of its seal state. */
+    protected static void putf(final GLArrayDataServer data, final int vIdx, final float[] values) {
+        final FloatBuffer fb = (FloatBuffer) data.getBuffer();
+        final int comps = data.getComponentCount();
+        final int offset = vIdx * comps;
+        for(int i=0; i<comps; i++) {
+            fb.put(offset + i, values[i]);
+        }
+    }
+
+    /** Moves <code>count</code> vertices of the given float attribute buffer from <code>srcVIdx</code> down to <code>dstVIdx</code>. */
+    protected static void moveVertices(final GLArrayDataServer data, final int srcVIdx, final int dstVIdx, final int count) {
+        final FloatBuffer fb = (FloatBuffer) data.getBuffer();
+        final int comps = data.getComponentCount();
+        final int src = srcVIdx * comps;
+        final int dst = dstVIdx * comps;
+        for(int i=0; i<count * comps; i++) {
+            fb.put(dst + i, fb.get(src + i));
+        }
+    }
+
+    /** Truncates the given buffer to <code>compCount</code> components, requiring a complete upload if sealed. */
+    protected static void truncate(final GLArrayDataServer data, final int compCount) {
+        final Buffer buffer = data.getBuffer();
+        if( data.sealed() ) {
+            buffer.limit(compCount);
+            data.setVBOWritten(false);
+        } else {
+            buffer.position(compCount);
+        }
+    }
+
     protected abstract void clearImpl(final GL2ES2 gl);
 
     /**
@@ -0,0 +1,238 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.graph.curve.opengl;
+
+import java.util.ArrayList;
+
+import com.jogamp.opengl.FBObject;
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2ES2;
+import com.jogamp.opengl.FBObject.Attachment;
+import com.jogamp.opengl.FBObject.TextureAttachment;
+
+import com.jogamp.graph.curve.Region;
+
+/**
+ * Pool of size-bucketed offscreen targets shared by all {@link Region#VBAA_RENDERING_BIT two-pass VBAA} {@link GLRegion}s
+ * rendered by one {@link RegionRenderer}, see {@link RegionRenderer#setFBOPoolEnabled(GL2ES2, boolean)}.
+ * <p>
+ * Instead of each region owning an {@link FBObject} sized to its bounds,
+ * regions render their first pass into a pooled {@link Target} one after another, immediately followed by their second pass.
+ * The pass-1 result of a region remains valid as long as it {@link Target#isOwner(Object) owns} the target,
+ * i.e. while no other region has acquired the same target.
+ * </p>
+ * <p>
+ * Target sizes are rounded up to {@link #getBucketSize(int) buckets} in quarter power-of-two steps
+ * and the number of targets is limited by {@link #setMaxTargets(int)}.
+ * If the limit is reached, the smallest sufficient target is shared across buckets
+ * or the least recently used target is replaced.
+ * Hence GPU memory and FBO switching remain bound regardless of the number of regions.
+ * </p>
+ */
+public class RegionFBOPool {
+    /** Default maximum number of pooled targets, {@value}. */
+    public static final int DEFAULT_MAX_TARGETS = 8;
+    /** Minimum bucket size in pixels, {@value}. */
+    public static final int MIN_BUCKET_SIZE = 32;
+
+    /** Pooled offscreen target of the pool's bucket size. */
+    public static class Target {
+        private FBObject fbo;
+        private TextureAttachment texA;
+        private final int width, height;
+        private final boolean depth;
+        private Object owner;
+        private long lastUse;
+
+        private Target(final int width, final int height, final boolean depth) {
+            this.width = width;
+            this.height = height;
+            this.depth = depth;
+        }
+
+        /** Returns the {@link FBObject}, or null if the target has been destroyed. */
+        public final FBObject getFBO() { return fbo; }
+        /** Returns the color texture attachment, or null if the target has been destroyed. */
+        public final TextureAttachment getTexture() { return texA; }
+        public final int getWidth() { return width; }
+        public final int getHeight() { return height; }
+        /** Returns true if a depth renderbuffer is attached. */
+        public final boolean hasDepth() { return depth; }
+        /** Returns true if this target is valid and has been acquired last by the given owner. */
+        public final boolean isOwner(final Object o) { return null != fbo && o == owner; }
+        /** Relinquishes ownership of the given owner, e.g. when destroying a region. */
+        public final void release(final Object o) {
+            if( o == owner ) {
+                owner = null;
+            }
+        }
+        private boolean fits(final int w, final int h, final boolean d) {
+            return d == depth && w <= width && h <= height;
+        }
+        private void destroy(final GL gl) {
+            if( null != fbo ) {
+                fbo.destroy(gl);
+                fbo = null;
+                texA = null;
+            }
+            owner = null;
+        }
+        @Override
+        public String toString() {
+            return "Target["+width+"x"+height+", depth "+depth+", valid "+(null!=fbo)+"]";
+        }
+    }
+
+    private final ArrayList<Target> targets = new ArrayList<Target>();
+    private int maxTargets = DEFAULT_MAX_TARGETS;
+    private long useCounter = 0;
+    private int createCount = 0;
+
+    /**
+     * Returns the bucket size for the given size, i.e. the size rounded up to
+     * the next quarter power-of-two step, but at least {@link #MIN_BUCKET_SIZE}.
+     * <p>
+     * The bucket size exceeds the given size by at most 25%.
+     * </p>
+     */
+    public static int getBucketSize(final int size) {
+        if( size <= MIN_BUCKET_SIZE ) {
+            return MIN_BUCKET_SIZE;
+        }
+        final int step = Integer.highestOneBit(size) >>> 2;
+        return ( ( size + step - 1 ) / step ) * step;
+    }
+
+    /**
+     * Sets the maximum number of pooled targets, defaults to {@link #DEFAULT_MAX_TARGETS}.
+     * Exceeding targets are destroyed at the next {@link #acquire(GL2ES2, int, int, boolean, int, Object) acquisition}.
+     * @throws IllegalArgumentException if <code>n</code> is less than one
+     */
+    public final void setMaxTargets(final int n) throws IllegalArgumentException {
+        if( 1 > n ) {
+            throw new IllegalArgumentException("Invalid maximum "+n);
+        }
+        maxTargets = n;
+    }
+    public final int getMaxTargets() { return maxTargets; }
+
+    /** Returns the number of pooled targets. */
+    public final int getTargetCount() { return targets.size(); }
+
+    /** Returns the number of created targets, i.e. {@link FBObject}s, for statistics. */
+    public final int getCreateCount() { return createCount; }
+
+    /**
+     * Acquires a target of at least the given size for the given owner.
+     * <p>
+     * Returns the target of the matching bucket if pooled, otherwise creates it if the {@link #getMaxTargets() limit}
+     * allows or shares the smallest sufficient target. If none suffices, the least recently used target is replaced.
+     * </p>
+     * <p>
+     * The returned target is not bound.
+     * </p>
+     * @param gl the current GL context
+     * @param width minimum width in pixels
+     * @param height minimum height in pixels
+     * @param depth true if a depth renderbuffer is required
+     * @param maxSize maximum texture size, limiting the bucket size
+     * @param owner the acquiring owner, see {@link Target#isOwner(Object)}
+     */
+    public final Target acquire(final GL2ES2 gl, final int width, final int height, final boolean depth, final int maxSize, final Object owner) {
+        final int bWidth = Math.max(width, Math.min(getBucketSize(width), maxSize));
+        final int bHeight = Math.max(height, Math.min(getBucketSize(height), maxSize));
+        while( targets.size() > maxTargets ) {
+            removeLRU(gl);
+        }
+        Target res = null;
+        Target fit = null;
+        for(int i=targets.size()-1; i>=0 && null == res; i--) {
+            final Target t = targets.get(i);
+            if( t.depth == depth && t.width == bWidth && t.height == bHeight ) {
+                res = t;
+            } else if( t.fits(width, height, depth) &&
+                       ( null == fit || t.width * t.height < fit.width * fit.height ) ) {
+                fit = t;
+            }
+        }
+        if( null == res ) {
+            if( targets.size() < maxTargets ) {
+                res = create(gl, bWidth, bHeight, depth);
+            } else if( null != fit ) {
+                res = fit;
+            } else {
+                removeLRU(gl);
+                res = create(gl, bWidth, bHeight, depth);
+            }
+        }
+        res.owner = owner;
+        res.lastUse = ++useCounter;
+        return res;
+    }
+
+    private Target create(final GL2ES2 gl, final int width, final int height, final boolean depth) {
+        final Target t = new Target(width, height, depth);
+        t.fbo = new FBObject();
+        t.fbo.init(gl, width, height, 0);
+        // Shall not use bilinear (GL_LINEAR), due to own VBAA, see VBORegion2PVBAAES2
+        t.texA = t.fbo.attachTexture2D(gl, 0, true, GL.GL_NEAREST, GL.GL_NEAREST, GL.GL_CLAMP_TO_EDGE, GL.GL_CLAMP_TO_EDGE);
+        if( depth ) {
+            t.fbo.attachRenderbuffer(gl, Attachment.Type.DEPTH, FBObject.DEFAULT_BITS);
+        }
+        t.fbo.unbind(gl);
+        targets.add(t);
+        createCount++;
+        if( Region.DEBUG ) {
+            System.err.println("RegionFBOPool.create: "+t+", count "+targets.size());
+        }
+        return t;
+    }
+
+    private void removeLRU(final GL gl) {
+        int lru = 0;
+        for(int i=1; i<targets.size(); i++) {
+            if( targets.get(i).lastUse < targets.get(lru).lastUse ) {
+                lru = i;
+            }
+        }
+        targets.remove(lru).destroy(gl);
+    }
+
+    /** Destroys all pooled targets, invalidating them for their owners. */
+    public final void destroy(final GL gl) {
+        for(int i=0; i<targets.size(); i++) {
+            targets.get(i).destroy(gl);
+        }
+        targets.clear();
+    }
+
+    @Override
+    public String toString() {
+        return "RegionFBOPool[targets "+targets.size()+"/"+maxTargets+", created "+createCount+", "+targets+"]";
+    }
+}
@@ -156,6 +156,7 @@ public class RegionRenderer {
     private int vp_height;
     private boolean initialized;
     private boolean vboSupported = false;
+    private RegionFBOPool fboPool = null;
 
     public final boolean isInitialized() { return initialized; }
 
@@ -228,12 +229,43 @@ public class RegionRenderer {
             sp.destroy(gl);
         }
         shaderPrograms.clear();
+        if( null != fboPool ) {
+            fboPool.destroy(gl);
+        }
         rs.destroy(gl);
         initialized = false;
     }
 
     public final RenderState getRenderState() { return rs; }
 
+    /**
+     * Enables or disables sharing offscreen targets between all {@link Region#VBAA_RENDERING_BIT two-pass VBAA} regions
+     * rendered by this renderer, see {@link RegionFBOPool}.
+     * <p>
+     * By default each such region owns an {@link com.jogamp.opengl.FBObject FBObject} sized to its bounds,
+     * caching its first pass. Using the pool, GPU memory and the number of framebuffer objects remain bound
+     * regardless of the number of regions, while the first pass is re-rendered whenever another region used the shared target.
+     * </p>
+     * <p>
+     * Disabling destroys all pooled targets, hence regions create their own offscreen target at their next draw.
+     * </p>
+     * @param gl the current GL context, used to destroy the pooled targets
+     * @param enable true to enable the pool
+     */
+    public final void setFBOPoolEnabled(final GL2ES2 gl, final boolean enable) {
+        if( enable ) {
+            if( null == fboPool ) {
+                fboPool = new RegionFBOPool();
+            }
+        } else if( null != fboPool ) {
+            fboPool.destroy(gl);
+            fboPool = null;
+        }
+    }
+
+    /** Returns the {@link RegionFBOPool} if {@link #setFBOPoolEnabled(GL2ES2, boolean) enabled}, otherwise null. */
+    public final RegionFBOPool getFBOPool() { return fboPool; }
+
     /**
      * Enabling or disabling the {@link #getRenderState() RenderState}'s
      * {@link RenderState#getShaderProgram() shader program}.
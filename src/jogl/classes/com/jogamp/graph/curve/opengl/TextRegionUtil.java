@@ -39,7 +39,7 @@ import jogamp.graph.geom.plane.AffineTransform;
 import com.jogamp.graph.curve.OutlineShape;
 import com.jogamp.graph.curve.Region;
 import com.jogamp.graph.font.Font;
-import com.jogamp.graph.font.Font.Glyph;
+import com.jogamp.graph.font.TextLayout;
 import com.jogamp.graph.geom.Vertex;
 import com.jogamp.graph.geom.Vertex.Factory;
 
@@ -77,7 +77,8 @@ public class TextRegionUtil {
     /**
      * Visit each {@link Font.Glyph}'s {@link OutlineShape} with the given {@link ShapeVisitor}
      * additionally passing the progressed {@link AffineTransform}.
-     * The latter reflects the given font metric, pixelSize and hence character position.
+     * The latter reflects the given font metric, pixelSize and hence character position incl. kerning,
+     * as taken from the string's cached {@link TextLayout.GlyphRun}.
      * @param visitor
      * @param transform optional given transform
      * @param font the target {@link Font}
@@ -89,46 +90,37 @@ public class TextRegionUtil {
     public static void processString(final ShapeVisitor visitor, final AffineTransform transform,
                                      final Font font, final float pixelSize, final CharSequence str,
                                      final AffineTransform temp1, final AffineTransform temp2) {
-        final int charCount = str.length();
+        final TextLayout.GlyphRun run = TextLayout.getGlyphRun(font, str, pixelSize);
+        final int glyphCount = run.getGlyphCount();
 
         // region.setFlipped(true);
-        final Font.Metrics metrics = font.getMetrics();
-        final float lineHeight = font.getLineHeight(pixelSize);
+        final float scale = font.getMetrics().getScale(pixelSize);
 
-        final float scale = metrics.getScale(pixelSize);
-
-        float y = 0;
-        float advanceTotal = 0;
-
-        for(int i=0; i< charCount; i++) {
-            final char character = str.charAt(i);
-            if( '\n' == character ) {
-                y -= lineHeight;
-                advanceTotal = 0;
-            } else if (character == ' ') {
-                advanceTotal += font.getAdvanceWidth(Glyph.ID_SPACE, pixelSize);
+        for(int i=0; i< glyphCount; i++) {
+            final char character = run.getSymbol(i);
+            if (character == ' ') {
+                continue;
+            }
+            final float advanceTotal = run.getX(i);
+            final float y = run.getY(i);
+            if(Region.DEBUG_INSTANCE) {
+                System.err.println("XXXXXXXXXXXXXXx char: "+character+", scale: "+scale+"; translate: "+advanceTotal+", "+y);
+            }
+            final Font.Glyph glyph = font.getGlyph(character);
+            final OutlineShape glyphShape = glyph.getShape();
+            if( null == glyphShape ) {
+                continue;
+            }
+            // reset transform
+            if( null != transform ) {
+                temp1.setTransform(transform);
             } else {
-                if(Region.DEBUG_INSTANCE) {
-                    System.err.println("XXXXXXXXXXXXXXx char: "+character+", scale: "+scale+"; translate: "+advanceTotal+", "+y);
-                }
-                // reset transform
-                if( null != transform ) {
-                    temp1.setTransform(transform);
-                } else {
-                    temp1.setToIdentity();
-                }
-                temp1.translate(advanceTotal, y, temp2);
-                temp1.scale(scale, scale, temp2);
-
-                final Font.Glyph glyph = font.getGlyph(character);
-                final OutlineShape glyphShape = glyph.getShape();
-                if( null == glyphShape ) {
-                    continue;
-                }
-                visitor.visit(glyphShape, temp1);
-
-                advanceTotal += glyph.getAdvance(pixelSize, true);
+                temp1.setToIdentity();
             }
+            temp1.translate(advanceTotal, y, temp2);
+            temp1.scale(scale, scale, temp2);
+
+            visitor.visit(glyphShape, temp1);
         }
     }
 
@@ -27,6 +27,11 @@
  */
 package com.jogamp.graph.font;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
 import jogamp.graph.geom.plane.AffineTransform;
 
 import com.jogamp.graph.curve.OutlineShape;
@@ -171,8 +176,76 @@ public interface Font {
      * @return
      */
     public float getAdvanceWidth(final int glyphID, final float pixelSize);
+
+    /**
+     * Returns the horizontal kerning adjustment between the given glyph pair
+     * as defined by the font's <code>kern</code> table, zero if the pair is not kerned.
+     * <p>
+     * A negative value moves the right glyph towards the left glyph.
+     * </p>
+     * @param leftGlyphID the {@link Glyph#getID() ID} of the left glyph
+     * @param rightGlyphID the {@link Glyph#getID() ID} of the right glyph
+     * @param pixelSize Use <code>pointSize * resolution</code> for resolution correct pixel-size, see {@link #getPixelSize(float, float)}
+     */
+    public float getKerning(final int leftGlyphID, final int rightGlyphID, final float pixelSize);
+
     public Metrics getMetrics();
+    /**
+     * Returns the {@link Glyph} of the given symbol, building it on first use unless {@link #preloadGlyphs(CharSequence, ExecutorService) preloaded}.
+     * <p>
+     * Method is thread safe, cached glyphs are read w/o locking.
+     * </p>
+     */
     public Glyph getGlyph(final char symbol);
+
+    /**
+     * Builds the {@link Glyph}s of the given characters on a worker pool,
+     * incl. their hdmx advances and their {@link Glyph#getShape() shape}'s triangulation,
+     * and publishes them into the glyph cache read by {@link #getGlyph(char)}.
+     * <p>
+     * Allows to avoid building glyphs on the rendering thread, e.g. before showing a new page or language.
+     * Glyphs not yet preloaded are still built on demand by {@link #getGlyph(char)}.
+     * </p>
+     * @param chars the characters to preload
+     * @param executor the worker pool, if <code>null</code> a shared pool of daemon threads is used
+     * @return {@link Future} resulting in the number of newly built glyphs once all glyphs are cached
+     */
+    public Future<Integer> preloadGlyphs(final CharSequence chars, final ExecutorService executor);
+
+    /**
+     * Preloads the glyphs of the inclusive character range [<code>first</code>, <code>last</code>],
+     * see {@link #preloadGlyphs(CharSequence, ExecutorService)}.
+     */
+    public Future<Integer> preloadGlyphs(final char first, final char last, final ExecutorService executor);
+
+    /**
+     * Attaches a persistent cache of triangulated glyph meshes within the given directory,
+     * using one file per font keyed by its unique name and version.
+     * <p>
+     * Glyphs contained in an existing cache file are restored w/o parsing their outline and w/o triangulation,
+     * while the file is memory mapped and decoded on demand. Glyphs already built are kept.
+     * </p>
+     * <p>
+     * The optional property <i>jogamp.graph.font.meshcache</i> denotes a directory
+     * attached to all fonts created via {@link FontFactory}, which are {@link #storeGlyphMeshCache() stored} at JVM shutdown.
+     * </p>
+     * @param dir the cache directory, created if not existing, or <code>null</code> to detach the cache
+     * @throws IOException if the directory could not be created
+     */
+    public void setGlyphMeshCacheDir(final File dir) throws IOException;
+
+    /**
+     * Writes the triangulated meshes of all glyphs built so far to the {@link #setGlyphMeshCacheDir(File) attached cache},
+     * keeping cached glyphs not used in this session.
+     * <p>
+     * Glyphs not yet triangulated are triangulated beforehand,
+     * hence this method shall not be called while the glyphs are in use by another thread.
+     * </p>
+     * @return the number of glyphs in the cache, or -1 if no cache is attached
+     * @throws IOException if the cache file could not be written
+     */
+    public int storeGlyphMeshCache() throws IOException;
+
     public int getNumGlyphs();
 
     /**
@@ -182,7 +255,8 @@ public interface Font {
      */
     public float getLineHeight(final float pixelSize);
     /**
-     *
+     * Returns the rounded width of the last line of the given string,
+     * taken from its cached {@link TextLayout.GlyphRun}.
      * @param string
      * @param pixelSize Use <code>pointSize * resolution</code> for resolution correct pixel-size, see {@link #getPixelSize(float, float)}
      * @return
@@ -198,7 +272,8 @@ public interface Font {
     public float getMetricHeight(final CharSequence string, final float pixelSize, final AABBox tmp);
     /**
      * Return the <i>layout</i> bounding box as computed by each glyph's metrics.
-     * The result is not pixel correct, bit reflects layout specific metrics.
+     * The result is not pixel correct, bit reflects layout specific metrics
+     * incl. kerning as taken from the string's cached {@link TextLayout.GlyphRun}.
      * <p>
      * See {@link #getPointsBounds(AffineTransform, CharSequence, float, AffineTransform, AffineTransform)} for pixel correct results.
      * </p>
@@ -0,0 +1,293 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.graph.font;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.jogamp.graph.font.Font.Glyph;
+import com.jogamp.opengl.math.geom.AABBox;
+
+/**
+ * Text layout engine producing immutable {@link GlyphRun}s,
+ * i.e. the glyph IDs and positions of a string incl. kerning and line breaks.
+ * <p>
+ * {@link #getGlyphRun(Font, CharSequence, float) Laid out runs} are kept in a shared LRU cache keyed by font, pixel-size and text,
+ * used for rendering via {@link com.jogamp.graph.curve.opengl.TextRegionUtil} as well as for the {@link Font} metric queries.
+ * Hence the same string is only laid out once while measured and drawn repeatedly.
+ * </p>
+ * <p>
+ * Methods are thread safe.
+ * </p>
+ */
+public class TextLayout {
+
+    /**
+     * Immutable layout of a string w/ a given {@link Font} and pixel-size.
+     * <p>
+     * Each character except <code>'\n'</code> is represented by one glyph,
+     * positioned in pixel units relative to the baseline origin of the first line.
+     * Subsequent lines advance in negative y-direction by {@link Font#getLineHeight(float)}.
+     * </p>
+     */
+    public static final class GlyphRun {
+        private final Font font;
+        private final float pixelSize;
+        private final String text;
+        private final char[] symbols;
+        private final int[] glyphIDs;
+        /** x/y pairs per glyph */
+        private final float[] positions;
+        /** first glyph index per line */
+        private final int[] lineStarts;
+        private final float[] lineWidths;
+        private final float lineHeight;
+
+        private GlyphRun(final Font font, final float pixelSize, final String text) {
+            this.font = font;
+            this.pixelSize = pixelSize;
+            this.text = text;
+            final int len = text.length();
+            int lineCount = 1;
+            for(int i=0; i<len; i++) {
+                if( '\n' == text.charAt(i) ) {
+                    lineCount++;
+                }
+            }
+            final int glyphCount = len - ( lineCount - 1 );
+            symbols = new char[glyphCount];
+            glyphIDs = new int[glyphCount];
+            positions = new float[2*glyphCount];
+            lineStarts = new int[lineCount];
+            lineWidths = new float[lineCount];
+            lineHeight = font.getLineHeight(pixelSize);
+
+            int line = 0;
+            int n = 0;
+            int prevID = -1;
+            float x = 0, y = 0;
+            for(int i=0; i<len; i++) {
+                final char character = text.charAt(i);
+                if( '\n' == character ) {
+                    lineWidths[line++] = x;
+                    lineStarts[line] = n;
+                    y -= lineHeight;
+                    x = 0;
+                    prevID = -1;
+                    continue;
+                }
+                final Glyph glyph = font.getGlyph(character);
+                final int id = glyph.getID();
+                final float advance;
+                if( ' ' == character ) {
+                    advance = font.getAdvanceWidth(id, pixelSize);
+                } else {
+                    advance = null != glyph.getShape() ? glyph.getAdvance(pixelSize, true) : 0f;
+                }
+                if( 0 <= prevID ) {
+                    x += font.getKerning(prevID, id, pixelSize);
+                }
+                symbols[n] = character;
+                glyphIDs[n] = id;
+                positions[2*n] = x;
+                positions[2*n+1] = y;
+                n++;
+                x += advance;
+                prevID = id;
+            }
+            lineWidths[line] = x;
+        }
+
+        public Font getFont() { return font; }
+        public float getPixelSize() { return pixelSize; }
+        public String getText() { return text; }
+
+        /** Returns the number of glyphs, i.e. the number of characters excluding line breaks. */
+        public int getGlyphCount() { return symbols.length; }
+        public char getSymbol(final int i) { return symbols[i]; }
+        public int getGlyphID(final int i) { return glyphIDs[i]; }
+        /** Returns the x-position of glyph <code>i</code> in pixel units, incl. kerning. */
+        public float getX(final int i) { return positions[2*i]; }
+        /** Returns the baseline y-position of glyph <code>i</code> in pixel units, zero or negative. */
+        public float getY(final int i) { return positions[2*i+1]; }
+
+        /** Returns the number of lines, i.e. the number of line breaks plus one. */
+        public int getLineCount() { return lineStarts.length; }
+        /** Returns the index of the first glyph of the given line. */
+        public int getLineStart(final int line) { return lineStarts[line]; }
+        /** Returns the index after the last glyph of the given line. */
+        public int getLineEnd(final int line) { return line+1 < lineStarts.length ? lineStarts[line+1] : symbols.length; }
+        /** Returns the advance width of the given line in pixel units. */
+        public float getLineWidth(final int line) { return lineWidths[line]; }
+        public float getLineHeight() { return lineHeight; }
+
+        /** Returns the maximum {@link #getLineWidth(int) line width}. */
+        public float getWidth() {
+            float w = 0;
+            for(int i=0; i<lineWidths.length; i++) {
+                w = Math.max(w, lineWidths[i]);
+            }
+            return w;
+        }
+
+        /** Returns the height of all lines, omitting an empty last line. */
+        public float getHeight() {
+            final int lines = lineWidths[lineWidths.length-1] > 0 ? lineWidths.length : lineWidths.length - 1;
+            return lines * lineHeight;
+        }
+
+        /**
+         * Sets the given {@link AABBox} to the <i>layout</i> bounds spanning [0, 0] to [{@link #getWidth()}, {@link #getHeight()}],
+         * see {@link Font#getMetricBounds(CharSequence, float)}.
+         * @return the given <code>dest</code> for chaining
+         */
+        public AABBox getMetricBounds(final AABBox dest) {
+            return dest.setSize(0, 0, 0, getWidth(), getHeight(), 0);
+        }
+
+        @Override
+        public String toString() {
+            return "GlyphRun["+font+", "+pixelSize+"px, glyphs "+symbols.length+", lines "+lineStarts.length+
+                   ", size "+getWidth()+" x "+getHeight()+"]";
+        }
+    }
+
+    private static class Key {
+        private final Font font;
+        private final int pixelSizeBits;
+        private final String text;
+        private final int hash;
+
+        Key(final Font font, final float pixelSize, final String text) {
+            this.font = font;
+            this.pixelSizeBits = Float.floatToIntBits(pixelSize);
+            this.text = text;
+            // 31 * x == (x << 5) - x
+            int h = 31 + System.identityHashCode(font);
+            h = ((h << 5) - h) + pixelSizeBits;
+            this.hash = ((h << 5) - h) + text.hashCode();
+        }
+        @Override
+        public int hashCode() { return hash; }
+        @Override
+        public boolean equals(final Object o) {
+            if( this == o ) {
+                return true;
+            }
+            if( !(o instanceof Key) ) {
+                return false;
+            }
+            final Key k = (Key)o;
+            return font == k.font && pixelSizeBits == k.pixelSizeBits && text.equals(k.text);
+        }
+    }
+
+    /** Default cache limit, see {@link #setCacheLimit(int)} */
+    public static final int DEFAULT_CACHE_LIMIT = 256;
+
+    private static int cacheLimit = DEFAULT_CACHE_LIMIT;
+
+    private static final LinkedHashMap<Key, GlyphRun> cache = new LinkedHashMap<Key, GlyphRun>(DEFAULT_CACHE_LIMIT, 0.75f, true /* accessOrder */) {
+        private static final long serialVersionUID = 1L;
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Key, GlyphRun> eldest) {
+            return 0 <= cacheLimit && size() > cacheLimit;
+        } };
+
+    /**
+     * Returns the {@link GlyphRun} of the given string, laid out on first use and cached thereafter.
+     * @param font the {@link Font}
+     * @param text the string text, lines separated by <code>'\n'</code>
+     * @param pixelSize Use {@link Font#getPixelSize(float, float)} for resolution correct pixel-size.
+     */
+    public static GlyphRun getGlyphRun(final Font font, final CharSequence text, final float pixelSize) {
+        final String s = text.toString();
+        final Key key = new Key(font, pixelSize, s);
+        synchronized( cache ) {
+            final GlyphRun run = cache.get(key);
+            if( null != run ) {
+                return run;
+            }
+        }
+        // laid out outside of the lock, a concurrently laid out equal run is replaced
+        final GlyphRun run = new GlyphRun(font, pixelSize, s);
+        synchronized( cache ) {
+            if( 0 != cacheLimit ) {
+                cache.put(key, run);
+            }
+        }
+        return run;
+    }
+
+    /**
+     * Returns a new uncached {@link GlyphRun} of the given string.
+     * @see #getGlyphRun(Font, CharSequence, float)
+     */
+    public static GlyphRun layout(final Font font, final CharSequence text, final float pixelSize) {
+        return new GlyphRun(font, pixelSize, text.toString());
+    }
+
+    /**
+     * Sets the cache limit of laid out {@link GlyphRun}s.
+     * Default is {@link #DEFAULT_CACHE_LIMIT}, -1 unlimited, 0 turns cache off, >0 limited.
+     * Least recently used runs are evicted first.
+     */
+    public static void setCacheLimit(final int newLimit) {
+        synchronized( cache ) {
+            cacheLimit = newLimit;
+            if( 0 == newLimit ) {
+                cache.clear();
+            } else if( 0 < newLimit ) {
+                while( cache.size() > newLimit ) {
+                    cache.remove(cache.keySet().iterator().next());
+                }
+            }
+        }
+    }
+
+    /** Returns the current cache limit, see {@link #setCacheLimit(int)}. */
+    public static int getCacheLimit() {
+        synchronized( cache ) {
+            return cacheLimit;
+        }
+    }
+
+    /** Returns the number of cached {@link GlyphRun}s. */
+    public static int getCacheSize() {
+        synchronized( cache ) {
+            return cache.size();
+        }
+    }
+
+    /** Removes all cached {@link GlyphRun}s. */
+    public static void clearCache() {
+        synchronized( cache ) {
+            cache.clear();
+        }
+    }
+}
@@ -0,0 +1,228 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl;
+
+import java.util.Arrays;
+
+/**
+ * Per GL entry point call counters, optionally including the accumulated call duration,
+ * as maintained by the generated <code>ProfilingGL*</code> pipelines.
+ * <p>
+ * Counters are kept in preallocated arrays indexed by entry point,
+ * overloaded methods share one entry point.
+ * Recording a call does not allocate and does not synchronize,
+ * hence counters shall only be updated by the thread the {@link GLContext} is current on.
+ * </p>
+ * <p>
+ * Use {@link #snapshot(boolean)} to retrieve a copy, e.g. once per frame while resetting the live counters,
+ * and {@link #toString(StringBuilder, int, boolean)} to produce a top-N report.
+ * </p>
+ */
+public class GLCallCounters {
+    private final String[] names;
+    private final boolean timing;
+    private final long[] calls;
+    private final long[] nanos;
+
+    /**
+     * @param names entry point names, shared and not copied
+     * @param timing if true, the call durations are measured via {@link System#nanoTime()}
+     */
+    public GLCallCounters(final String[] names, final boolean timing) {
+        this.names = names;
+        this.timing = timing;
+        this.calls = new long[names.length];
+        this.nanos = timing ? new long[names.length] : null;
+    }
+
+    private GLCallCounters(final GLCallCounters source) {
+        this.names = source.names;
+        this.timing = source.timing;
+        this.calls = source.calls.clone();
+        this.nanos = timing ? source.nanos.clone() : null;
+    }
+
+    /**
+     * Records a call of entry point <code>idx</code>.
+     * @return the start time to be passed to {@link #end(int, long)}
+     */
+    public final long begin(final int idx) {
+        calls[idx]++;
+        return timing ? System.nanoTime() : 0;
+    }
+
+    /** Accumulates the duration of entry point <code>idx</code>'s call started at <code>t0</code>, if {@link #isTiming() timing}. */
+    public final void end(final int idx, final long t0) {
+        if( timing ) {
+            nanos[idx] += System.nanoTime() - t0;
+        }
+    }
+
+    /** Returns true if call durations are measured. */
+    public final boolean isTiming() { return timing; }
+
+    /** Returns the number of entry points. */
+    public final int getEntryPointCount() { return names.length; }
+
+    public final String getName(final int idx) { return names[idx]; }
+
+    /** Returns the entry point index of the given name or -1 if not found. */
+    public final int getIndex(final String name) {
+        for(int i=0; i<names.length; i++) {
+            if( names[i].equals(name) ) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public final long getCallCount(final int idx) { return calls[idx]; }
+
+    /** Returns the accumulated call duration of entry point <code>idx</code> in nanoseconds, or zero if not {@link #isTiming() timing}. */
+    public final long getNanos(final int idx) { return timing ? nanos[idx] : 0; }
+
+    public final long getTotalCallCount() {
+        long sum = 0;
+        for(int i=0; i<calls.length; i++) {
+            sum += calls[i];
+        }
+        return sum;
+    }
+
+    /** Returns the accumulated duration of all calls in nanoseconds, or zero if not {@link #isTiming() timing}. */
+    public final long getTotalNanos() {
+        long sum = 0;
+        if( timing ) {
+            for(int i=0; i<nanos.length; i++) {
+                sum += nanos[i];
+            }
+        }
+        return sum;
+    }
+
+    /** Clears all counters. */
+    public final void reset() {
+        Arrays.fill(calls, 0);
+        if( timing ) {
+            Arrays.fill(nanos, 0);
+        }
+    }
+
+    /**
+     * Returns a copy of the current counters.
+     * @param reset if true, the counters of this instance are {@link #reset()} afterwards, e.g. for per frame statistics.
+     */
+    public final GLCallCounters snapshot(final boolean reset) {
+        final GLCallCounters res = new GLCallCounters(this);
+        if( reset ) {
+            reset();
+        }
+        return res;
+    }
+
+    /**
+     * Adds the counters of the given instance, e.g. to aggregate per frame {@link #snapshot(boolean) snapshots}.
+     * @throws IllegalArgumentException if <code>o</code> covers different entry points
+     */
+    public final void add(final GLCallCounters o) throws IllegalArgumentException {
+        if( o.names != names && !Arrays.equals(o.names, names) ) {
+            throw new IllegalArgumentException("Different entry points");
+        }
+        for(int i=0; i<calls.length; i++) {
+            calls[i] += o.calls[i];
+        }
+        if( timing && o.timing ) {
+            for(int i=0; i<nanos.length; i++) {
+                nanos[i] += o.nanos[i];
+            }
+        }
+    }
+
+    /**
+     * Returns the indices of the <code>topN</code> entry points w/ a non-zero call count,
+     * sorted in descending order by call duration if <code>byTime</code> and {@link #isTiming() timing}, otherwise by call count.
+     */
+    public final int[] getTopEntryPoints(final int topN, final boolean byTime) {
+        final long[] keys = byTime && timing ? nanos : calls;
+        final int[] top = new int[Math.max(0, Math.min(topN, names.length))];
+        int n = 0;
+        for(int i=0; i<names.length; i++) {
+            if( 0 == calls[i] ) {
+                continue;
+            }
+            // insertion into the bounded descending list
+            int j = n < top.length ? n++ : top.length;
+            while( j > 0 && keys[top[j-1]] < keys[i] ) {
+                if( j < top.length ) {
+                    top[j] = top[j-1];
+                }
+                j--;
+            }
+            if( j < top.length ) {
+                top[j] = i;
+            }
+        }
+        return n < top.length ? Arrays.copyOf(top, n) : top;
+    }
+
+    /**
+     * Appends a report of the {@link #getTopEntryPoints(int, boolean) top-N entry points} to the given StringBuilder,
+     * one line per entry point w/ its call count, share of all calls and - if {@link #isTiming() timing} -
+     * the accumulated and average duration.
+     */
+    public final StringBuilder toString(StringBuilder sb, final int topN, final boolean byTime) {
+        if( null == sb ) {
+            sb = new StringBuilder();
+        }
+        final long totalCalls = getTotalCallCount();
+        final long totalNanos = getTotalNanos();
+        sb.append(String.format("GLCallCounters: %d calls", totalCalls));
+        if( timing ) {
+            sb.append(String.format(", %.3f ms", totalNanos / 1e6));
+        }
+        sb.append(String.format(", top %d by %s%n", topN, byTime && timing ? "time" : "calls"));
+        final int[] top = getTopEntryPoints(topN, byTime);
+        for(int i=0; i<top.length; i++) {
+            final int idx = top[i];
+            sb.append(String.format("  %3d: %-40s %10d calls %6.2f%%", i+1, names[idx], calls[idx],
+                                    100.0 * calls[idx] / totalCalls));
+            if( timing ) {
+                sb.append(String.format(", %10.3f ms %6.2f%%, %8.1f ns/call", nanos[idx] / 1e6,
+                                        0 < totalNanos ? 100.0 * nanos[idx] / totalNanos : 0.0,
+                                        (double)nanos[idx] / calls[idx]));
+            }
+            sb.append(String.format("%n"));
+        }
+        return sb;
+    }
+
+    @Override
+    public String toString() {
+        return toString(null, 10, timing).toString();
+    }
+}
@@ -694,6 +694,20 @@ public abstract class GLContext {
    */
   public abstract boolean isExtensionAvailable(String glExtensionName);
 
+  /**
+   * Returns true if the specified OpenGL extension can be
+   * successfully called using this GL context given the current host (OpenGL
+   * <i>client</i>) and display (OpenGL <i>server</i>) configuration.
+   * <p>
+   * Same as {@link #isExtensionAvailable(String)} w/ the {@link GLExtensions#getName(int) extension name},
+   * but resolved via a bitset w/o string hashing, hence suitable for hot code paths.
+   * </p>
+   *
+   * @param glExtensionID one of the {@link GLExtensions} IDs, e.g. {@link GLExtensions#ID_ARB_framebuffer_object}
+   * @throws IndexOutOfBoundsException if the ID is invalid
+   */
+  public abstract boolean isExtensionAvailable(int glExtensionID);
+
   /** Returns the number of platform extensions */
   public abstract int getPlatformExtensionCount();
 
@@ -984,11 +998,11 @@ public abstract class GLContext {
   public final boolean hasFullFBOSupport() {
       return hasBasicFBOSupport() && !hasRendererQuirk(GLRendererQuirks.NoFullFBOSupport) &&
              ( isGL3ES3() ||                                                      // GL >= 3.0 [ES, core, compat]
-               isExtensionAvailable(GLExtensions.ARB_framebuffer_object) ||       // ARB_framebuffer_object
-               ( isExtensionAvailable(GLExtensions.EXT_framebuffer_object) &&     // All EXT_framebuffer_object*
-                 isExtensionAvailable(GLExtensions.EXT_framebuffer_multisample) &&
-                 isExtensionAvailable(GLExtensions.EXT_framebuffer_blit) &&
-                 isExtensionAvailable(GLExtensions.EXT_packed_depth_stencil)
+               isExtensionAvailable(GLExtensions.ID_ARB_framebuffer_object) ||       // ARB_framebuffer_object
+               ( isExtensionAvailable(GLExtensions.ID_EXT_framebuffer_object) &&     // All EXT_framebuffer_object*
+                 isExtensionAvailable(GLExtensions.ID_EXT_framebuffer_multisample) &&
+                 isExtensionAvailable(GLExtensions.ID_EXT_framebuffer_blit) &&
+                 isExtensionAvailable(GLExtensions.ID_EXT_packed_depth_stencil)
                )
              ) ;
   }
@@ -1025,13 +1039,13 @@ public abstract class GLContext {
 
   /** Note: The GL impl. may return a const value, ie {@link GLES2#isNPOTTextureAvailable()} always returns <code>true</code>. */
   public boolean isNPOTTextureAvailable() {
-      return isGL3() || isGLES2Compatible() || isExtensionAvailable(GLExtensions.ARB_texture_non_power_of_two);
+      return isGL3() || isGLES2Compatible() || isExtensionAvailable(GLExtensions.ID_ARB_texture_non_power_of_two);
   }
 
   public boolean isTextureFormatBGRA8888Available() {
       return isGL2GL3() ||
-             isExtensionAvailable(GLExtensions.EXT_texture_format_BGRA8888) ||
-             isExtensionAvailable(GLExtensions.IMG_texture_format_BGRA8888) ;
+             isExtensionAvailable(GLExtensions.ID_EXT_texture_format_BGRA8888) ||
+             isExtensionAvailable(GLExtensions.ID_IMG_texture_format_BGRA8888) ;
   }
 
   /**
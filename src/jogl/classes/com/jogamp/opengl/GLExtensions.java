@@ -27,6 +27,8 @@
  */
 package com.jogamp.opengl;
 
+import java.util.HashMap;
+
 /**
  * Class holding OpenGL extension strings, commonly used by JOGL's implementation.
  */
@@ -88,4 +90,94 @@ public class GLExtensions {
 
   public static final String ARB_pixel_format                = "GL_ARB_pixel_format";
   public static final String ARB_pbuffer                     = "GL_ARB_pbuffer";
+
+  //
+  // Extension IDs, in declaration order of the above names
+  //
+
+  /**
+   * Integer IDs of the above extension names, allowing availability queries
+   * via {@link GLContext#isExtensionAvailable(int)} w/o string hashing.
+   */
+  public static final int ID_VERSION_1_2                    = 0;
+  public static final int ID_VERSION_1_4                    = 1;
+  public static final int ID_VERSION_1_5                    = 2;
+  public static final int ID_VERSION_2_0                    = 3;
+  public static final int ID_GL_KHR_debug                   = 4;
+  public static final int ID_ARB_debug_output               = 5;
+  public static final int ID_AMD_debug_output               = 6;
+  public static final int ID_ARB_framebuffer_object         = 7;
+  public static final int ID_OES_framebuffer_object         = 8;
+  public static final int ID_EXT_framebuffer_object         = 9;
+  public static final int ID_EXT_framebuffer_blit           = 10;
+  public static final int ID_EXT_framebuffer_multisample    = 11;
+  public static final int ID_EXT_packed_depth_stencil       = 12;
+  public static final int ID_OES_depth24                    = 13;
+  public static final int ID_OES_depth32                    = 14;
+  public static final int ID_OES_packed_depth_stencil       = 15;
+  public static final int ID_NV_fbo_color_attachments       = 16;
+  public static final int ID_ARB_ES2_compatibility          = 17;
+  public static final int ID_ARB_ES3_compatibility          = 18;
+  public static final int ID_ARB_ES3_1_compatibility        = 19;
+  public static final int ID_ARB_ES3_2_compatibility        = 20;
+  public static final int ID_EXT_abgr                       = 21;
+  public static final int ID_OES_rgb8_rgba8                 = 22;
+  public static final int ID_OES_stencil1                   = 23;
+  public static final int ID_OES_stencil4                   = 24;
+  public static final int ID_OES_stencil8                   = 25;
+  public static final int ID_APPLE_float_pixels             = 26;
+  public static final int ID_ARB_texture_non_power_of_two   = 27;
+  public static final int ID_ARB_texture_rectangle          = 28;
+  public static final int ID_EXT_texture_rectangle          = 29;
+  public static final int ID_NV_texture_rectangle           = 30;
+  public static final int ID_EXT_texture_format_BGRA8888    = 31;
+  public static final int ID_IMG_texture_format_BGRA8888    = 32;
+  public static final int ID_EXT_texture_compression_s3tc   = 33;
+  public static final int ID_NV_texture_compression_vtc     = 34;
+  public static final int ID_SGIS_generate_mipmap           = 35;
+  public static final int ID_OES_read_format                = 36;
+  public static final int ID_OES_single_precision           = 37;
+  public static final int ID_OES_EGL_image_external         = 38;
+  public static final int ID_OES_standard_derivatives       = 39;
+  public static final int ID_ARB_gpu_shader_fp64            = 40;
+  public static final int ID_ARB_shader_objects             = 41;
+  public static final int ID_ARB_geometry_shader4           = 42;
+  public static final int ID_ARB_pixel_format               = 43;
+  public static final int ID_ARB_pbuffer                    = 44;
+
+  /** Number of extension IDs */
+  public static final int ID_COUNT = 45;
+
+  private static final String[] idNames = {
+      VERSION_1_2, VERSION_1_4, VERSION_1_5, VERSION_2_0, GL_KHR_debug, ARB_debug_output, AMD_debug_output,
+      ARB_framebuffer_object, OES_framebuffer_object, EXT_framebuffer_object, EXT_framebuffer_blit,
+      EXT_framebuffer_multisample, EXT_packed_depth_stencil, OES_depth24, OES_depth32,
+      OES_packed_depth_stencil, NV_fbo_color_attachments, ARB_ES2_compatibility, ARB_ES3_compatibility,
+      ARB_ES3_1_compatibility, ARB_ES3_2_compatibility, EXT_abgr, OES_rgb8_rgba8, OES_stencil1, OES_stencil4,
+      OES_stencil8, APPLE_float_pixels, ARB_texture_non_power_of_two, ARB_texture_rectangle,
+      EXT_texture_rectangle, NV_texture_rectangle, EXT_texture_format_BGRA8888, IMG_texture_format_BGRA8888,
+      EXT_texture_compression_s3tc, NV_texture_compression_vtc, SGIS_generate_mipmap, OES_read_format,
+      OES_single_precision, OES_EGL_image_external, OES_standard_derivatives, ARB_gpu_shader_fp64,
+      ARB_shader_objects, ARB_geometry_shader4, ARB_pixel_format, ARB_pbuffer
+  };
+  private static final HashMap<String, Integer> name2ID = new HashMap<String, Integer>(ID_COUNT*2);
+  static {
+      for(int i=0; i<ID_COUNT; i++) {
+          name2ID.put(idNames[i], Integer.valueOf(i));
+      }
+  }
+
+  /**
+   * Returns the extension name of the given ID.
+   * @throws IndexOutOfBoundsException if <code>id</code> is not within [0..{@link #ID_COUNT}-1]
+   */
+  public static String getName(final int id) throws IndexOutOfBoundsException {
+      return idNames[id];
+  }
+
+  /** Returns the ID of the given extension name or -1 if it has none. */
+  public static int getID(final String name) {
+      final Integer id = name2ID.get(name);
+      return null != id ? id.intValue() : -1;
+  }
 }
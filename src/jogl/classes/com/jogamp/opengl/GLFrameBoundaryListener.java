@@ -0,0 +1,50 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl;
+
+/**
+ * Implemented by composable GL pipelines requiring a notification once per frame,
+ * e.g. the generated <code>DebugGL*</code> pipelines checking errors at frame boundaries only.
+ * <p>
+ * {@link GLAutoDrawable} notifies all GLFrameBoundaryListener within the
+ * {@link GLBase#getDownstreamGL() pipeline hierarchy} of its {@link GLAutoDrawable#getGL() GL}
+ * within it's {@link GLAutoDrawable#display() display()} method,
+ * after all {@link GLEventListener}s and {@link GLRunnable}s have been executed
+ * and before swapping buffers.
+ * </p>
+ * <p>
+ * The OpenGL context is current while being notified.
+ * </p>
+ */
+public interface GLFrameBoundaryListener {
+    /**
+     * @param drawable the associated drawable and current context for this call
+     * @throws GLException if the pipeline detected an error
+     */
+    void frameBoundary(GLAutoDrawable drawable) throws GLException;
+}
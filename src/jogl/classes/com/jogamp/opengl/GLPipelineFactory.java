@@ -66,6 +66,15 @@ public class GLPipelineFactory {
      *     gl = drawable.setGL( GLPipelineFactory.create("com.jogamp.opengl.Trace",         null, gl, new Object[] { System.err } ) );
      * </pre>
      * </p>
+     * <p>
+     * The redundant state filtering, the call profiling pipeline w/ timing and the call recording pipeline
+     * are installed likewise:
+     * <pre>
+     *     gl = drawable.setGL( GLPipelineFactory.create("com.jogamp.opengl.StateCache",    null, gl, null) );
+     *     gl = drawable.setGL( GLPipelineFactory.create("com.jogamp.opengl.Profiling",     null, gl, new Object[] { Boolean.TRUE } ) );
+     *     gl = drawable.setGL( GLPipelineFactory.create("com.jogamp.opengl.Recording",     null, gl, new Object[] { new GLCallRecorder(file, gl, true) } ) );
+     * </pre>
+     * </p>
      *
      * <p>
      * The upstream GL instance is determined as follows:
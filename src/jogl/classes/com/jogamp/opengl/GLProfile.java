@@ -40,12 +40,15 @@ package com.jogamp.opengl;
 import jogamp.opengl.Debug;
 import jogamp.opengl.GLDrawableFactoryImpl;
 import jogamp.opengl.GLDynamicLookupHelper;
+import jogamp.opengl.GLVersionProbeCache;
+import jogamp.opengl.PendingDeviceInits;
 import jogamp.opengl.DesktopGLDynamicLookupHelper;
 
 import com.jogamp.common.ExceptionUtils;
 import com.jogamp.common.GlueGenVersion;
 import com.jogamp.common.jvm.JNILibLoaderBase;
 import com.jogamp.common.os.Platform;
+import com.jogamp.common.util.InterruptSource;
 import com.jogamp.common.util.PropertyAccess;
 import com.jogamp.common.util.ReflectionUtil;
 import com.jogamp.common.util.VersionUtil;
@@ -64,9 +67,13 @@ import com.jogamp.opengl.fixedfunc.GLPointerFunc;
 import java.lang.reflect.Constructor;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
  * Specifies the the OpenGL profile.
@@ -165,6 +172,26 @@ public class GLProfile {
         enableANGLE = PropertyAccess.isPropertyDefined("jogl.enable.ANGLE", true);
     }
 
+    /**
+     * Returns true if the current initialization of JOGL is performed concurrently,
+     * as requested by setting the property <code>jogl.glprofile.concurrentinit</code>
+     * before {@link #initSingleton()}.
+     * <p>
+     * In this mode {@link #initSingleton()} initializes the default mobile and desktop devices concurrently,
+     * each on its own daemon thread, and returns without awaiting them.
+     * Hence startup is bounded by the slowest device instead of the sum of all devices.
+     * The mobile profiles of the default desktop device are still probed after the default mobile device.
+     * </p>
+     * <p>
+     * The initialization threads run under the initialization lock like serial initialization,
+     * hence the first request of a profile joins the pending initializations.
+     * A failed initialization is thrown when its device is first requested, or by {@link #shutdown()} otherwise.
+     * </p>
+     */
+    public static boolean isConcurrentInit() {
+        return concurrentInit;
+    }
+
     /**
      * @return <code>true</code> if JOGL has been initialized, i.e. manually via {@link #initSingleton()} or implicit,
      *         otherwise returns <code>false</code>.
@@ -219,6 +246,7 @@ public class GLProfile {
                 if(ReflectionUtil.DEBUG_STATS_FORNAME) {
                     ReflectionUtil.resetForNameCount();
                 }
+                concurrentInit = PropertyAccess.isPropertyDefined("jogl.glprofile.concurrentinit", true);
 
                 // run the whole static initialization privileged to speed up,
                 // since this skips checking further access
@@ -278,6 +306,12 @@ public class GLProfile {
      * </p>
      */
     public static void shutdown() {
+        GLException initFailure = null;
+        try {
+            pendingDeviceInits.awaitAll();
+        } catch (final GLException gle) {
+            initFailure = gle;
+        }
         initLock.lock();
         try {
             if(initialized) {
@@ -291,6 +325,9 @@ public class GLProfile {
         } finally {
             initLock.unlock();
         }
+        if( null != initFailure ) {
+            throw initFailure;
+        }
     }
 
     //
@@ -1664,6 +1701,7 @@ public class GLProfile {
     private static /*final*/ AbstractGraphicsDevice defaultDevice = null;
 
     private static boolean initialized = false;
+    private static volatile boolean concurrentInit = false;
     private static final RecursiveThreadGroupLock initLock = LockFactory.createRecursiveThreadGroupLock();
 
     private static final Class<?>[] ctorGLArgs = new Class<?>[] { GLProfile.class, jogamp.opengl.GLContextImpl.class };
@@ -1858,12 +1896,19 @@ public class GLProfile {
         }
 
         // we require to initialize the EGL device 1st, if available
-        final boolean addedMobileProfile     = null != defaultMobileDevice ? initProfilesForDevice(defaultMobileDevice) : false;
-        final boolean addedDesktopProfile = null != defaultDesktopDevice ? initProfilesForDevice(defaultDesktopDevice) : false;
+        final boolean addedMobileProfile, addedDesktopProfile;
+        if( concurrentInit ) {
+            startDeviceInits(defaultMobileDevice, defaultDesktopDevice);
+            addedMobileProfile = false;
+            addedDesktopProfile = false;
+        } else {
+            addedMobileProfile  = null != defaultMobileDevice ? initProfilesForDevice(defaultMobileDevice, null) : false;
+            addedDesktopProfile = null != defaultDesktopDevice ? initProfilesForDevice(defaultDesktopDevice, null) : false;
+        }
         final boolean addedAnyProfile     = addedMobileProfile || addedDesktopProfile ;
 
         if(DEBUG) {
-            System.err.println("GLProfile.init addedAnyProfile       "+addedAnyProfile+" (desktop: "+addedDesktopProfile+", mobile "+addedMobileProfile+")");
+            System.err.println("GLProfile.init addedAnyProfile       "+addedAnyProfile+" (desktop: "+addedDesktopProfile+", mobile "+addedMobileProfile+", concurrent "+concurrentInit+")");
             System.err.println("GLProfile.init isAWTAvailable        "+isAWTAvailable);
             System.err.println("GLProfile.init hasDesktopGLFactory   "+hasDesktopGLFactory);
             System.err.println("GLProfile.init hasGL234Impl          "+hasGL234Impl);
@@ -1880,9 +1925,10 @@ public class GLProfile {
 
     /**
      * @param device the device for which profiles shall be initialized
+     * @param awaitBeforeMobile if not null, awaited before the mobile profiles are probed, see {@link #initProfilesForDeviceCritical(AbstractGraphicsDevice, Future)}
      * @return true if any profile for the device exists, otherwise false
      */
-    private static boolean initProfilesForDevice(final AbstractGraphicsDevice device) {
+    private static boolean initProfilesForDevice(final AbstractGraphicsDevice device, final Future<Boolean> awaitBeforeMobile) {
         if(null == device) {
             return false;
         }
@@ -1892,7 +1938,7 @@ public class GLProfile {
             if( null != factory ) {
                 factory.enterThreadCriticalZone();
                 try {
-                    return initProfilesForDeviceCritical(device);
+                    return initProfilesForDeviceCritical(device, awaitBeforeMobile);
                 } finally {
                     factory.leaveThreadCriticalZone();
                 }
@@ -1902,7 +1948,124 @@ public class GLProfile {
         }
         return false;
     }
-    private static boolean initProfilesForDeviceCritical(final AbstractGraphicsDevice device) {
+
+    /** Device initializations pending w/ {@link #isConcurrentInit()}. */
+    private static final PendingDeviceInits pendingDeviceInits = new PendingDeviceInits();
+
+    private static Callable<Boolean> newDeviceInit(final AbstractGraphicsDevice device, final Future<Boolean> awaitBeforeMobile) {
+        return new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                final long t0 = GLVersionProbeCache.TIMING ? System.nanoTime() : 0;
+                final boolean res = initProfilesForDevice(device, awaitBeforeMobile);
+                GLVersionProbeCache.logTime(device, "GLProfile concurrent init, profiles "+res, t0);
+                return Boolean.valueOf(res);
+            } };
+    }
+
+    /**
+     * Starts the concurrent initialization of the given default devices, see {@link #isConcurrentInit()}.
+     * <p>
+     * The <code>GLProfile-Init</code> thread claims the init lock once released by {@link #initSingleton()}
+     * and adds each device's initialization thread as well as the factories' shared resource threads as lock owners,
+     * allowing the devices to be initialized in parallel, each under the init lock as w/ serial initialization.
+     * </p>
+     * <p>
+     * If both default devices share the same unique ID, only one initialization is started,
+     * since it probes the desktop and mobile profiles of that device alike.
+     * </p>
+     */
+    private static void startDeviceInits(final AbstractGraphicsDevice mobileDevice, final AbstractGraphicsDevice desktopDevice) {
+        final PendingDeviceInits.Task mobileInit, desktopInit;
+        if( null != mobileDevice ) {
+            mobileInit = pendingDeviceInits.add(mobileDevice.getUniqueID(), "GLProfile-Init-"+mobileDevice.getUniqueID(),
+                                                newDeviceInit(mobileDevice, null));
+        } else {
+            mobileInit = null;
+        }
+        if( null != desktopDevice && ( null == mobileDevice || !desktopDevice.getUniqueID().equals(mobileDevice.getUniqueID()) ) ) {
+            desktopInit = pendingDeviceInits.add(desktopDevice.getUniqueID(), "GLProfile-Init-"+desktopDevice.getUniqueID(),
+                                                 newDeviceInit(desktopDevice, null != mobileInit ? mobileInit.getFuture() : null));
+        } else {
+            desktopInit = null;
+        }
+        final PendingDeviceInits.Task[] inits = { mobileInit, desktopInit };
+        final Thread[] sharedResourceThreads = { null != mobileInit  ? mobileFactory.getSharedResourceThread()  : null,
+                                                 null != desktopInit ? desktopFactory.getSharedResourceThread() : null };
+        final Thread initThread = new InterruptSource.Thread(null, new Runnable() {
+            @Override
+            public void run() {
+                initLock.lock();
+                try {
+                    final ArrayList<Thread> owners = new ArrayList<Thread>();
+                    for(int i=0; i<inits.length; i++) {
+                        if( null != inits[i] ) {
+                            owners.add(inits[i].getThread());
+                        }
+                        if( null != sharedResourceThreads[i] && !owners.contains(sharedResourceThreads[i]) ) {
+                            owners.add(sharedResourceThreads[i]);
+                        }
+                    }
+                    for(int i=0; i<owners.size(); i++) {
+                        initLock.addOwner(owners.get(i));
+                    }
+                    try {
+                        for(int i=0; i<inits.length; i++) {
+                            if( null != inits[i] ) {
+                                if(DEBUG) {
+                                    System.err.println("GLProfile.init concurrent start "+inits[i].getKey());
+                                }
+                                inits[i].getThread().start();
+                            }
+                        }
+                        for(int i=0; i<inits.length; i++) {
+                            if( null != inits[i] ) {
+                                inits[i].awaitDone();
+                            }
+                        }
+                    } finally {
+                        for(int i=0; i<owners.size(); i++) {
+                            initLock.removeOwner(owners.get(i));
+                        }
+                    }
+                } finally {
+                    initLock.unlock();
+                }
+            } }, "GLProfile-Init");
+        initThread.setDaemon(true);
+        initThread.start();
+    }
+
+    /**
+     * Awaits the pending concurrent initialization of the given device, if any.
+     * <p>
+     * Passes w/o waiting on the device's initialization thread
+     * and on threads helping a running initialization under the init lock, e.g. a shared resource thread,
+     * if the device's intermediate profile map exists. The latter equals serial initialization.
+     * </p>
+     * @throws GLException if the initialization failed or was interrupted
+     */
+    private static void awaitPendingDeviceInit(final AbstractGraphicsDevice device) throws GLException {
+        final String deviceKey = device.getUniqueID();
+        final PendingDeviceInits.Task pdi = pendingDeviceInits.get(deviceKey);
+        if( null == pdi ) {
+            return;
+        }
+        final Thread cur = Thread.currentThread();
+        if( cur != pdi.getThread() && initLock.isOwner(cur) && null != getProfileMapImpl(deviceKey) ) {
+            return;
+        }
+        final long t0 = GLVersionProbeCache.TIMING ? System.nanoTime() : 0;
+        if( null != pendingDeviceInits.await(deviceKey) ) {
+            GLVersionProbeCache.logTime(device, "GLProfile awaited concurrent init", t0);
+        }
+    }
+
+    /**
+     * @param awaitBeforeMobile if not null, awaited before the mobile profiles are probed,
+     *                          used by concurrent initialization to keep the mobile default device being initialized 1st
+     */
+    private static boolean initProfilesForDeviceCritical(final AbstractGraphicsDevice device, final Future<Boolean> awaitBeforeMobile) {
         final boolean isSet = GLContext.getAvailableGLVersionsSet(device);
 
         if(DEBUG) {
@@ -1911,7 +2074,7 @@ public class GLProfile {
         if(isSet) {
             // Avoid recursion and check whether impl. is sane!
             final String deviceKey = device.getUniqueID();
-            final HashMap<String /*GLProfile_name*/, GLProfile> map = deviceConn2ProfileMap.get(deviceKey);
+            final HashMap<String /*GLProfile_name*/, GLProfile> map = getProfileMapImpl(deviceKey);
             if( null == map ) {
                 throw new InternalError("GLContext Avail. GLVersion is set - but no profile map for device: "+device);
             }
@@ -1932,11 +2095,14 @@ public class GLProfile {
             // Triggers eager initialization of share context in GLDrawableFactory for the device,
             // hence querying all available GLProfiles
             final Thread sharedResourceThread = desktopFactory.getSharedResourceThread();
-            if(null != sharedResourceThread) {
+            final boolean addOwner = null != sharedResourceThread && initLock.isOwner(Thread.currentThread()) && !initLock.isOwner(sharedResourceThread);
+            if( addOwner ) {
                 initLock.addOwner(sharedResourceThread);
             }
+            final long t0 = GLVersionProbeCache.TIMING ? System.nanoTime() : 0;
             final boolean desktopSharedCtxAvail = desktopFactory.createSharedResource(device);
-            if(null != sharedResourceThread) {
+            GLVersionProbeCache.logTime(device, "GLProfile desktop shared resource, available "+desktopSharedCtxAvail, t0);
+            if( addOwner ) {
                 initLock.removeOwner(sharedResourceThread);
             }
             if( desktopSharedCtxAvail ) {
@@ -1952,6 +2118,15 @@ public class GLProfile {
             }
         }
 
+        if( null != awaitBeforeMobile ) {
+            try {
+                awaitBeforeMobile.get();
+            } catch (final InterruptedException ie) {
+                throw new GLException("Interrupted while awaiting mobile device initialization", ie);
+            } catch (final ExecutionException ee) {
+                // failure is reported by the awaited initialization itself
+            }
+        }
         final boolean deviceIsMobileCompatible = hasMobileFactory && mobileFactory.getIsDeviceCompatible(device);
 
         // also test GLES1, GLES2 and GLES3 on desktop, since we have implementations / emulations available.
@@ -1962,11 +2137,14 @@ public class GLProfile {
             // Triggers eager initialization of share context in GLDrawableFactory for the device,
             // hence querying all available GLProfiles
             final Thread sharedResourceThread = mobileFactory.getSharedResourceThread();
-            if(null != sharedResourceThread) {
+            final boolean addOwner = null != sharedResourceThread && initLock.isOwner(Thread.currentThread()) && !initLock.isOwner(sharedResourceThread);
+            if( addOwner ) {
                 initLock.addOwner(sharedResourceThread);
             }
+            final long t0 = GLVersionProbeCache.TIMING ? System.nanoTime() : 0;
             final boolean eglSharedCtxAvail = mobileFactory.createSharedResource(device);
-            if(null != sharedResourceThread) {
+            GLVersionProbeCache.logTime(device, "GLProfile mobile shared resource, available "+eglSharedCtxAvail, t0);
+            if( addOwner ) {
                 initLock.removeOwner(sharedResourceThread);
             }
             if( eglSharedCtxAvail ) {
@@ -2331,25 +2509,33 @@ public class GLProfile {
             device = defaultDevice;
         }
 
+        awaitPendingDeviceInit(device);
+
         final String deviceKey = device.getUniqueID();
-        HashMap<String /*GLProfile_name*/, GLProfile> map = deviceConn2ProfileMap.get(deviceKey);
+        HashMap<String /*GLProfile_name*/, GLProfile> map = getProfileMapImpl(deviceKey);
         if( null != map ) {
             return map;
         }
-        if( !initProfilesForDevice(device) ) {
+        if( !initProfilesForDevice(device, null) ) {
             if( throwExceptionOnZeroProfile ) {
                 throw new GLException("No Profile available for "+device);
             } else {
                 return null;
             }
         }
-        map = deviceConn2ProfileMap.get(deviceKey);
+        map = getProfileMapImpl(deviceKey);
         if( null == map && throwExceptionOnZeroProfile ) {
             throw new InternalError("initProfilesForDevice(..) didn't setProfileMap(..) for "+device);
         }
         return map;
     }
 
+    private static HashMap<String /*GLProfile_name*/, GLProfile> getProfileMapImpl(final String deviceKey) {
+        synchronized ( deviceConn2ProfileMap ) {
+            return deviceConn2ProfileMap.get(deviceKey);
+        }
+    }
+
     private static void setProfileMap(final AbstractGraphicsDevice device, final HashMap<String /*GLProfile_name*/, GLProfile> mappedProfiles) {
         synchronized ( deviceConn2ProfileMap ) {
             deviceConn2ProfileMap.put(device.getUniqueID(), mappedProfiles);
@@ -558,21 +558,23 @@ public class GLRendererQuirks {
      * The {@link AbstractGraphicsDevice}s are mapped via their {@link AbstractGraphicsDevice#getUniqueID()}.
      * </p>
      * <p>
-     * Not thread safe.
+     * The device mapping is thread safe, the returned instance is not.
      * </p>
      * @see #areSameStickyDevice(AbstractGraphicsDevice, AbstractGraphicsDevice)
      */
     public static GLRendererQuirks getStickyDeviceQuirks(final AbstractGraphicsDevice device) {
         final String key = device.getUniqueID();
-        final GLRendererQuirks has = stickyDeviceQuirks.get(key);
-        final GLRendererQuirks res;
-        if( null == has ) {
-            res = new GLRendererQuirks();
-            stickyDeviceQuirks.put(key, res);
-        } else {
-            res = has;
+        synchronized( stickyDeviceQuirks ) {
+            final GLRendererQuirks has = stickyDeviceQuirks.get(key);
+            final GLRendererQuirks res;
+            if( null == has ) {
+                res = new GLRendererQuirks();
+                stickyDeviceQuirks.put(key, res);
+            } else {
+                res = has;
+            }
+            return res;
         }
-        return res;
     }
 
     /**
@@ -0,0 +1,482 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
+import java.nio.charset.Charset;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPOutputStream;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GLDrawable;
+import com.jogamp.opengl.GLException;
+
+/**
+ * Serializes GL calls issued through a generated <code>RecordingGL*</code> pipeline
+ * into a compact binary trace, to be re-issued via {@link GLCallReplayer}.
+ * <p>
+ * Each call is stored w/ its arguments. Primitive arrays are stored completely,
+ * NIO buffers from their position to their limit, i.e. the client memory referenced at the time of the call.
+ * Each entry point is defined within the trace by name and parameter signature on its first use.
+ * Calls with arguments which cannot be serialized are counted, see {@link #getUnsupportedCallCount()}.
+ * </p>
+ * <p>
+ * Frame boundaries are marked by the pipeline's <code>markFrame()</code>, e.g. at the end of
+ * {@link com.jogamp.opengl.GLEventListener#display(com.jogamp.opengl.GLAutoDrawable) display(..)},
+ * optionally storing a CRC32 of the framebuffer content for validation at replay.
+ * </p>
+ * <p>
+ * Limitations: Object names are not remapped, hence the trace shall be recorded from a fresh context
+ * and replayed on the same GL implementation. Client memory written through mapped buffers
+ * and client side vertex arrays modified after specifying their pointer are not captured.
+ * </p>
+ * <p>
+ * Sample code which installs the pipeline:
+ * <pre>
+ *   final GLCallRecorder rec = new GLCallRecorder(new File("scene.jgltrace.gz"), drawable.getGL(), true);
+ *   gl = drawable.setGL( GLPipelineFactory.create("com.jogamp.opengl.Recording", null, drawable.getGL(), new Object[] { rec } ) );
+ * </pre>
+ * </p>
+ */
+public class GLCallRecorder {
+    /** Trace file magic */
+    public static final long MAGIC = 0x4A4F474C54524331L; // "JOGLTRC1"
+    public static final int VERSION = 1;
+
+    /* package */ static final int TAG_END = 0;
+    /* package */ static final int TAG_DEFINE = 1;
+    /* package */ static final int TAG_CALL = 2;
+    /* package */ static final int TAG_UNSUPPORTED = 3;
+    /* package */ static final int TAG_FRAME = 4;
+
+    /* package */ static final int BUF_NULL = 0;
+    /* package */ static final int BUF_BYTE = 1;
+    /* package */ static final int BUF_SHORT = 2;
+    /* package */ static final int BUF_CHAR = 3;
+    /* package */ static final int BUF_INT = 4;
+    /* package */ static final int BUF_LONG = 5;
+    /* package */ static final int BUF_FLOAT = 6;
+    /* package */ static final int BUF_DOUBLE = 7;
+
+    /* package */ static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final DataOutputStream out;
+    private final boolean frameChecksums;
+    private boolean[] defined = new boolean[0];
+    private boolean recording = true;
+    private boolean closed = false;
+    private long callCount = 0;
+    private long unsupportedCount = 0;
+    private int frameCount = 0;
+    private byte[] tmp = new byte[1024];
+    private final FrameChecksum frameChecksum = new FrameChecksum();
+
+    /**
+     * Creates a recorder writing to the given file, GZIP compressed if the file name ends w/ <code>.gz</code>.
+     * @param file the trace file
+     * @param gl the GL instance to be wrapped, used to store its profile and surface size
+     * @param frameChecksums if true, a CRC32 of the framebuffer is stored at each {@link #frame(GL, int, int) frame}
+     */
+    public GLCallRecorder(final File file, final GL gl, final boolean frameChecksums) throws IOException {
+        this(file.getName().endsWith(".gz") ? new GZIPOutputStream(new FileOutputStream(file), 64*1024) : new FileOutputStream(file),
+             gl, frameChecksums);
+    }
+
+    /**
+     * Creates a recorder writing to the given stream, which is closed by {@link #close()}.
+     * @param stream the trace destination
+     * @param gl the GL instance to be wrapped, used to store its profile and surface size
+     * @param frameChecksums if true, a CRC32 of the framebuffer is stored at each {@link #frame(GL, int, int) frame}
+     */
+    public GLCallRecorder(final OutputStream stream, final GL gl, final boolean frameChecksums) throws IOException {
+        this(stream, gl.getGLProfile().getName(), getSurfaceWidth(gl), getSurfaceHeight(gl), frameChecksums);
+    }
+
+    /**
+     * Creates a recorder writing to the given stream, which is closed by {@link #close()}.
+     * @param stream the trace destination
+     * @param profileName the {@link com.jogamp.opengl.GLProfile} name to be used for replay
+     * @param width the surface width to be used for replay
+     * @param height the surface height to be used for replay
+     * @param frameChecksums if true, a CRC32 of the framebuffer is stored at each {@link #frame(GL, int, int) frame}
+     */
+    public GLCallRecorder(final OutputStream stream, final String profileName, final int width, final int height,
+                          final boolean frameChecksums) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(stream, 64*1024));
+        this.frameChecksums = frameChecksums;
+        out.writeLong(MAGIC);
+        out.writeInt(VERSION);
+        out.writeUTF(profileName);
+        out.writeInt(width);
+        out.writeInt(height);
+    }
+
+    private static int getSurfaceWidth(final GL gl) {
+        final GLDrawable drawable = gl.getContext().getGLReadDrawable();
+        return null != drawable ? drawable.getSurfaceWidth() : 0;
+    }
+    private static int getSurfaceHeight(final GL gl) {
+        final GLDrawable drawable = gl.getContext().getGLReadDrawable();
+        return null != drawable ? drawable.getSurfaceHeight() : 0;
+    }
+
+    /** Pauses or resumes recording. While paused, calls are only passed downstream. */
+    public final void setRecording(final boolean v) { recording = v; }
+    public final boolean isRecording() { return recording && !closed; }
+
+    /** Returns the number of recorded calls. */
+    public final long getCallCount() { return callCount; }
+    /** Returns the number of calls which could not be recorded, being replayed as no-op. */
+    public final long getUnsupportedCallCount() { return unsupportedCount; }
+    public final int getFrameCount() { return frameCount; }
+
+    /**
+     * Starts recording a call, to be followed by its arguments.
+     * @param id the pipeline's entry point id
+     * @param signatures the pipeline's entry point table, name and JVM parameter descriptor, e.g. <code>glBindTexture(II)</code>
+     * @return true if recording, otherwise the arguments shall be skipped
+     */
+    public final boolean begin(final int id, final String[] signatures) {
+        if( !isRecording() ) {
+            return false;
+        }
+        try {
+            define(id, signatures);
+            out.writeByte(TAG_CALL);
+            out.writeShort(id);
+            callCount++;
+        } catch (final IOException e) {
+            fail(e);
+        }
+        return true;
+    }
+
+    /** Records a call w/ arguments not supported by the trace format, see {@link #getUnsupportedCallCount()}. */
+    public final void unsupported(final int id, final String[] signatures) {
+        if( !isRecording() ) {
+            return;
+        }
+        try {
+            define(id, signatures);
+            out.writeByte(TAG_UNSUPPORTED);
+            out.writeShort(id);
+            unsupportedCount++;
+        } catch (final IOException e) {
+            fail(e);
+        }
+    }
+
+    private void define(final int id, final String[] signatures) throws IOException {
+        if( defined.length != signatures.length ) {
+            defined = new boolean[signatures.length];
+        }
+        if( !defined[id] ) {
+            defined[id] = true;
+            out.writeByte(TAG_DEFINE);
+            out.writeShort(id);
+            out.writeUTF(signatures[id]);
+        }
+    }
+
+    /**
+     * Marks the end of a frame, optionally storing a CRC32 of the current read framebuffer's RGBA content.
+     * @param downstream the GL instance below the recording pipeline, used for reading back the framebuffer
+     */
+    public final void frame(final GL downstream) {
+        final GLDrawable drawable = downstream.getContext().getGLReadDrawable();
+        frame(downstream, drawable.getSurfaceWidth(), drawable.getSurfaceHeight());
+    }
+
+    /**
+     * Marks the end of a frame, optionally storing a CRC32 of the given framebuffer area's RGBA content.
+     * @param downstream the GL instance below the recording pipeline, used for reading back the framebuffer,
+     *        may be <code>null</code> if not storing checksums
+     */
+    public final void frame(final GL downstream, final int width, final int height) {
+        if( !isRecording() ) {
+            return;
+        }
+        try {
+            out.writeByte(TAG_FRAME);
+            out.writeBoolean(frameChecksums);
+            if( frameChecksums ) {
+                out.writeLong(frameChecksum.compute(downstream, width, height));
+            }
+            frameCount++;
+        } catch (final IOException e) {
+            fail(e);
+        }
+    }
+
+    /** Flushes and closes the trace. Further calls are not recorded. */
+    public final void close() throws IOException {
+        if( !closed ) {
+            closed = true;
+            out.writeByte(TAG_END);
+            out.close();
+        }
+    }
+
+    private void fail(final IOException e) {
+        closed = true;
+        try {
+            out.close();
+        } catch (final IOException e2) { }
+        throw new GLException("Recording failed, trace closed", e);
+    }
+
+    /** Framebuffer checksum w/ reused read-back storage. */
+    /* package */ static class FrameChecksum {
+        private ByteBuffer pixels = null;
+        private byte[] bytes = new byte[0];
+
+        /**
+         * Returns the CRC32 of the current read framebuffer's RGBA content of the given size.
+         * No pixel pack buffer object must be bound.
+         */
+        /* package */ final long compute(final GL gl, final int width, final int height) {
+            final int size = width * height * 4;
+            if( null == pixels || pixels.capacity() < size ) {
+                pixels = Buffers.newDirectByteBuffer(size);
+                bytes = new byte[size];
+            }
+            pixels.clear();
+            pixels.limit(size);
+            gl.glReadPixels(0, 0, width, height, GL.GL_RGBA, GL.GL_UNSIGNED_BYTE, pixels);
+            pixels.get(bytes, 0, size);
+            final CRC32 crc = new CRC32();
+            crc.update(bytes, 0, size);
+            return crc.getValue();
+        }
+    }
+
+    //
+    // Arguments
+    //
+
+    public final void arg(final boolean v) {
+        try { out.writeBoolean(v); } catch (final IOException e) { fail(e); }
+    }
+    public final void arg(final byte v) {
+        try { out.writeByte(v); } catch (final IOException e) { fail(e); }
+    }
+    public final void arg(final short v) {
+        try { out.writeShort(v); } catch (final IOException e) { fail(e); }
+    }
+    public final void arg(final char v) {
+        try { out.writeChar(v); } catch (final IOException e) { fail(e); }
+    }
+    public final void arg(final int v) {
+        try { out.writeInt(v); } catch (final IOException e) { fail(e); }
+    }
+    public final void arg(final long v) {
+        try { out.writeLong(v); } catch (final IOException e) { fail(e); }
+    }
+    public final void arg(final float v) {
+        try { out.writeFloat(v); } catch (final IOException e) { fail(e); }
+    }
+    public final void arg(final double v) {
+        try { out.writeDouble(v); } catch (final IOException e) { fail(e); }
+    }
+
+    public final void arg(final String v) {
+        try {
+            writeString(v);
+        } catch (final IOException e) { fail(e); }
+    }
+    private void writeString(final String v) throws IOException {
+        if( null == v ) {
+            out.writeInt(-1);
+        } else {
+            final byte[] b = v.getBytes(UTF8);
+            out.writeInt(b.length);
+            out.write(b);
+        }
+    }
+    public final void arg(final String[] v) {
+        try {
+            if( null == v ) {
+                out.writeInt(-1);
+            } else {
+                out.writeInt(v.length);
+                for(int i=0; i<v.length; i++) {
+                    writeString(v[i]);
+                }
+            }
+        } catch (final IOException e) { fail(e); }
+    }
+
+    public final void arg(final boolean[] v) {
+        try {
+            if( writeLength(null != v ? v.length : -1) ) {
+                for(int i=0; i<v.length; i++) { out.writeBoolean(v[i]); }
+            }
+        } catch (final IOException e) { fail(e); }
+    }
+    public final void arg(final byte[] v) {
+        try {
+            if( writeLength(null != v ? v.length : -1) ) {
+                out.write(v);
+            }
+        } catch (final IOException e) { fail(e); }
+    }
+    public final void arg(final short[] v) {
+        try {
+            if( writeLength(null != v ? v.length : -1) ) {
+                for(int i=0; i<v.length; i++) { out.writeShort(v[i]); }
+            }
+        } catch (final IOException e) { fail(e); }
+    }
+    public final void arg(final char[] v) {
+        try {
+            if( writeLength(null != v ? v.length : -1) ) {
+                for(int i=0; i<v.length; i++) { out.writeChar(v[i]); }
+            }
+        } catch (final IOException e) { fail(e); }
+    }
+    public final void arg(final int[] v) {
+        try {
+            if( writeLength(null != v ? v.length : -1) ) {
+                for(int i=0; i<v.length; i++) { out.writeInt(v[i]); }
+            }
+        } catch (final IOException e) { fail(e); }
+    }
+    public final void arg(final long[] v) {
+        try {
+            if( writeLength(null != v ? v.length : -1) ) {
+                for(int i=0; i<v.length; i++) { out.writeLong(v[i]); }
+            }
+        } catch (final IOException e) { fail(e); }
+    }
+    public final void arg(final float[] v) {
+        try {
+            if( writeLength(null != v ? v.length : -1) ) {
+                for(int i=0; i<v.length; i++) { out.writeFloat(v[i]); }
+            }
+        } catch (final IOException e) { fail(e); }
+    }
+    public final void arg(final double[] v) {
+        try {
+            if( writeLength(null != v ? v.length : -1) ) {
+                for(int i=0; i<v.length; i++) { out.writeDouble(v[i]); }
+            }
+        } catch (final IOException e) { fail(e); }
+    }
+    private boolean writeLength(final int len) throws IOException {
+        out.writeInt(len);
+        return 0 <= len;
+    }
+
+    /** Stores the given buffer's type and its elements from position to limit, leaving the buffer untouched. */
+    public final void arg(final Buffer v) {
+        try {
+            if( null == v ) {
+                out.writeByte(BUF_NULL);
+                return;
+            }
+            final int p = v.position();
+            final int n = v.remaining();
+            if( v instanceof ByteBuffer ) {
+                out.writeByte(BUF_BYTE);
+                out.writeInt(n);
+                final ByteBuffer b = (ByteBuffer) v;
+                if( tmp.length < n ) {
+                    tmp = new byte[n];
+                }
+                for(int i=0; i<n; i++) { tmp[i] = b.get(p+i); }
+                out.write(tmp, 0, n);
+            } else if( v instanceof ShortBuffer ) {
+                out.writeByte(BUF_SHORT);
+                out.writeInt(n);
+                final ShortBuffer b = (ShortBuffer) v;
+                for(int i=0; i<n; i++) { out.writeShort(b.get(p+i)); }
+            } else if( v instanceof CharBuffer ) {
+                out.writeByte(BUF_CHAR);
+                out.writeInt(n);
+                final CharBuffer b = (CharBuffer) v;
+                for(int i=0; i<n; i++) { out.writeChar(b.get(p+i)); }
+            } else if( v instanceof IntBuffer ) {
+                out.writeByte(BUF_INT);
+                out.writeInt(n);
+                final IntBuffer b = (IntBuffer) v;
+                for(int i=0; i<n; i++) { out.writeInt(b.get(p+i)); }
+            } else if( v instanceof LongBuffer ) {
+                out.writeByte(BUF_LONG);
+                out.writeInt(n);
+                final LongBuffer b = (LongBuffer) v;
+                for(int i=0; i<n; i++) { out.writeLong(b.get(p+i)); }
+            } else if( v instanceof FloatBuffer ) {
+                out.writeByte(BUF_FLOAT);
+                out.writeInt(n);
+                final FloatBuffer b = (FloatBuffer) v;
+                for(int i=0; i<n; i++) { out.writeFloat(b.get(p+i)); }
+            } else if( v instanceof DoubleBuffer ) {
+                out.writeByte(BUF_DOUBLE);
+                out.writeInt(n);
+                final DoubleBuffer b = (DoubleBuffer) v;
+                for(int i=0; i<n; i++) { out.writeDouble(b.get(p+i)); }
+            } else {
+                throw new GLException("Unsupported buffer type "+v.getClass().getName());
+            }
+        } catch (final IOException e) { fail(e); }
+    }
+
+    /** Returns a new direct buffer in native byte order of the given {@link #arg(Buffer) buffer type}, w/o content. */
+    /* package */ static Buffer newDirectBuffer(final int type, final int n) {
+        switch( type ) {
+            case BUF_BYTE: return Buffers.newDirectByteBuffer(n);
+            case BUF_SHORT: return Buffers.newDirectShortBuffer(n);
+            case BUF_CHAR: return Buffers.newDirectByteBuffer(n * 2).order(ByteOrder.nativeOrder()).asCharBuffer();
+            case BUF_INT: return Buffers.newDirectIntBuffer(n);
+            case BUF_LONG: return Buffers.newDirectLongBuffer(n);
+            case BUF_FLOAT: return Buffers.newDirectFloatBuffer(n);
+            case BUF_DOUBLE: return Buffers.newDirectDoubleBuffer(n);
+            default: throw new GLException("Unknown buffer type "+type);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "GLCallRecorder[calls "+callCount+", unsupported "+unsupportedCount+", frames "+frameCount+", recording "+isRecording()+"]";
+    }
+}
@@ -0,0 +1,515 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.GLCapabilities;
+import com.jogamp.opengl.GLDrawableFactory;
+import com.jogamp.opengl.GLException;
+import com.jogamp.opengl.GLOffscreenAutoDrawable;
+import com.jogamp.opengl.GLProfile;
+import com.jogamp.opengl.GLRunnable;
+
+/**
+ * Re-issues a trace recorded via {@link GLCallRecorder}, measuring the time of each frame
+ * and validating the recorded framebuffer checksums if available.
+ * <p>
+ * The complete trace is decoded into memory by {@link #read(InputStream)},
+ * hence decoding does not contribute to the measured frame times.
+ * Each frame's time covers issuing its calls and a final {@link GL#glFinish()}.
+ * </p>
+ * <p>
+ * Command line usage, replaying the trace on an offscreen drawable of the recorded profile and size:
+ * <pre>
+ *   java com.jogamp.opengl.util.GLCallReplayer [-loops n] [-nocompare] trace-file
+ * </pre>
+ * </p>
+ */
+public class GLCallReplayer {
+    private static final HashMap<Character, Class<?>> primitives = new HashMap<Character, Class<?>>();
+    static {
+        primitives.put(Character.valueOf('Z'), boolean.class);
+        primitives.put(Character.valueOf('B'), byte.class);
+        primitives.put(Character.valueOf('S'), short.class);
+        primitives.put(Character.valueOf('C'), char.class);
+        primitives.put(Character.valueOf('I'), int.class);
+        primitives.put(Character.valueOf('J'), long.class);
+        primitives.put(Character.valueOf('F'), float.class);
+        primitives.put(Character.valueOf('D'), double.class);
+    }
+
+    /** A decoded entry point */
+    public static class EntryPoint {
+        public final String name;
+        public final Class<?>[] paramTypes;
+        /** Resolved lazily against the replay GL instance. */
+        Method method;
+
+        EntryPoint(final String signature) {
+            final int p = signature.indexOf('(');
+            if( 0 >= p || !signature.endsWith(")") ) {
+                throw new GLException("Invalid signature "+signature);
+            }
+            name = signature.substring(0, p);
+            paramTypes = parseParams(signature.substring(p+1, signature.length()-1));
+        }
+
+        @Override
+        public String toString() { return name+Arrays.toString(paramTypes); }
+    }
+
+    /** A decoded call, arguments are <code>null</code> if unsupported by the recorder. */
+    public static class Call {
+        public final EntryPoint entryPoint;
+        public final Object[] args;
+        Call(final EntryPoint ep, final Object[] args) {
+            this.entryPoint = ep;
+            this.args = args;
+        }
+    }
+
+    /** A decoded frame */
+    public static class Frame {
+        public final Call[] calls;
+        public final boolean hasChecksum;
+        public final long checksum;
+        Frame(final Call[] calls, final boolean hasChecksum, final long checksum) {
+            this.calls = calls;
+            this.hasChecksum = hasChecksum;
+            this.checksum = checksum;
+        }
+    }
+
+    private String profileName;
+    private int width, height;
+    private final List<Frame> frames = new ArrayList<Frame>();
+    private long callCount = 0;
+    private long unsupportedCount = 0;
+
+    private long[] frameNanos = new long[0];
+    private int checksumMismatches = 0;
+    private int checksumsCompared = 0;
+    private int failedCalls = 0;
+
+    /** Reads the given trace file, GZIP compressed if the file name ends w/ <code>.gz</code>. */
+    public void read(final File file) throws IOException {
+        final InputStream in = new FileInputStream(file);
+        try {
+            read(file.getName().endsWith(".gz") ? new GZIPInputStream(in, 64*1024) : in);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Decodes the complete trace into memory. A trailing incomplete frame, e.g. of an unclosed trace, is kept as a frame.
+     * @throws IOException if the stream is not a valid trace
+     */
+    public void read(final InputStream stream) throws IOException {
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(stream, 64*1024));
+        if( GLCallRecorder.MAGIC != in.readLong() ) {
+            throw new IOException("Not a GL call trace");
+        }
+        final int version = in.readInt();
+        if( GLCallRecorder.VERSION != version ) {
+            throw new IOException("Unsupported GL call trace version "+version);
+        }
+        profileName = in.readUTF();
+        width = in.readInt();
+        height = in.readInt();
+        frames.clear();
+        callCount = 0;
+        unsupportedCount = 0;
+
+        final HashMap<Integer, EntryPoint> entryPoints = new HashMap<Integer, EntryPoint>();
+        final List<Call> calls = new ArrayList<Call>();
+        boolean end = false;
+        while( !end ) {
+            final int tag;
+            try {
+                tag = in.readUnsignedByte();
+            } catch (final java.io.EOFException eof) {
+                break; // unclosed trace
+            }
+            switch( tag ) {
+                case GLCallRecorder.TAG_END:
+                    end = true;
+                    break;
+                case GLCallRecorder.TAG_DEFINE: {
+                    final int id = in.readUnsignedShort();
+                    entryPoints.put(Integer.valueOf(id), new EntryPoint(in.readUTF()));
+                    break;
+                }
+                case GLCallRecorder.TAG_CALL:
+                case GLCallRecorder.TAG_UNSUPPORTED: {
+                    final int id = in.readUnsignedShort();
+                    final EntryPoint ep = entryPoints.get(Integer.valueOf(id));
+                    if( null == ep ) {
+                        throw new IOException("Undefined entry point "+id);
+                    }
+                    if( GLCallRecorder.TAG_CALL == tag ) {
+                        final Object[] args = new Object[ep.paramTypes.length];
+                        for(int i=0; i<args.length; i++) {
+                            args[i] = readArg(in, ep.paramTypes[i]);
+                        }
+                        calls.add(new Call(ep, args));
+                        callCount++;
+                    } else {
+                        calls.add(new Call(ep, null));
+                        unsupportedCount++;
+                    }
+                    break;
+                }
+                case GLCallRecorder.TAG_FRAME: {
+                    final boolean hasChecksum = in.readBoolean();
+                    final long checksum = hasChecksum ? in.readLong() : 0;
+                    frames.add(new Frame(calls.toArray(new Call[calls.size()]), hasChecksum, checksum));
+                    calls.clear();
+                    break;
+                }
+                default:
+                    throw new IOException("Unknown tag "+tag);
+            }
+        }
+        if( calls.size() > 0 ) {
+            frames.add(new Frame(calls.toArray(new Call[calls.size()]), false, 0));
+        }
+    }
+
+    /** Returns the recorded {@link GLProfile} name. */
+    public final String getProfileName() { return profileName; }
+    /** Returns the recorded surface width. */
+    public final int getWidth() { return width; }
+    /** Returns the recorded surface height. */
+    public final int getHeight() { return height; }
+    public final List<Frame> getFrames() { return frames; }
+    public final long getCallCount() { return callCount; }
+    /** Returns the number of calls not replayed, since their arguments could not be recorded. */
+    public final long getUnsupportedCallCount() { return unsupportedCount; }
+
+    /**
+     * Replays all frames on the given drawable, one {@link GLAutoDrawable#invoke(boolean, GLRunnable) invoke} per frame.
+     * @param drawable the target drawable, its GL instance must implement all recorded entry points
+     * @param compare if true, recorded framebuffer checksums are validated, see {@link #getChecksumMismatches()}
+     * @return the time of each frame in nanoseconds
+     */
+    public long[] replay(final GLAutoDrawable drawable, final boolean compare) {
+        frameNanos = new long[frames.size()];
+        checksumMismatches = 0;
+        checksumsCompared = 0;
+        failedCalls = 0;
+        final GLCallRecorder.FrameChecksum crc = new GLCallRecorder.FrameChecksum();
+        for(int f=0; f<frames.size(); f++) {
+            final Frame frame = frames.get(f);
+            final int fi = f;
+            drawable.invoke(true, new GLRunnable() {
+                @Override
+                public boolean run(final GLAutoDrawable d) {
+                    final GL gl = d.getGL();
+                    final long t0 = System.nanoTime();
+                    for(int i=0; i<frame.calls.length; i++) {
+                        invoke(gl, frame.calls[i]);
+                    }
+                    gl.glFinish();
+                    frameNanos[fi] = System.nanoTime() - t0;
+                    if( compare && frame.hasChecksum ) {
+                        checksumsCompared++;
+                        if( frame.checksum != crc.compute(gl, d.getSurfaceWidth(), d.getSurfaceHeight()) ) {
+                            checksumMismatches++;
+                        }
+                    }
+                    return true;
+                }
+            });
+        }
+        return frameNanos;
+    }
+
+    private void invoke(final GL gl, final Call call) {
+        if( null == call.args ) {
+            return;
+        }
+        final EntryPoint ep = call.entryPoint;
+        try {
+            if( null == ep.method || !ep.method.getDeclaringClass().isInstance(gl) ) {
+                ep.method = gl.getClass().getMethod(ep.name, ep.paramTypes);
+            }
+            ep.method.invoke(gl, call.args);
+        } catch (final InvocationTargetException e) {
+            failedCalls++;
+        } catch (final Exception e) {
+            throw new GLException("Cannot replay "+ep+" on "+gl.getClass().getName(), e);
+        }
+    }
+
+    /** Returns the number of replayed calls which threw an exception, e.g. a {@link GLException}. */
+    public final int getFailedCallCount() { return failedCalls; }
+    /** Returns the number of frames whose checksum differs from the recorded one. */
+    public final int getChecksumMismatches() { return checksumMismatches; }
+    /** Returns the number of frames whose checksum has been validated. */
+    public final int getChecksumsCompared() { return checksumsCompared; }
+    /** Returns the frame times of the last {@link #replay(GLAutoDrawable, boolean) replay} in nanoseconds. */
+    public final long[] getFrameNanos() { return frameNanos; }
+
+    /** Appends a frame time report of the last {@link #replay(GLAutoDrawable, boolean) replay} to the given StringBuilder. */
+    public StringBuilder toString(StringBuilder sb) {
+        if( null == sb ) {
+            sb = new StringBuilder();
+        }
+        sb.append(String.format("GLCallReplayer: %s %dx%d, %d frames, %d calls, %d unsupported, %d failed%n",
+                                profileName, width, height, frames.size(), callCount, unsupportedCount, failedCalls));
+        if( 0 < frameNanos.length ) {
+            final long[] sorted = frameNanos.clone();
+            Arrays.sort(sorted);
+            long sum = 0;
+            for(int i=0; i<sorted.length; i++) {
+                sum += sorted[i];
+            }
+            sb.append(String.format("  frame ms: min %.3f, median %.3f, p95 %.3f, max %.3f, avg %.3f, total %.3f%n",
+                                    sorted[0] / 1e6, sorted[sorted.length / 2] / 1e6,
+                                    sorted[Math.min(sorted.length - 1, (int)(sorted.length * 0.95))] / 1e6,
+                                    sorted[sorted.length - 1] / 1e6, sum / 1e6 / sorted.length, sum / 1e6));
+        }
+        if( 0 < checksumsCompared ) {
+            sb.append(String.format("  framebuffer: %d of %d frames differ%n", checksumMismatches, checksumsCompared));
+        }
+        return sb;
+    }
+
+    @Override
+    public String toString() {
+        return toString(null).toString();
+    }
+
+    private static Class<?>[] parseParams(final String desc) {
+        final List<Class<?>> res = new ArrayList<Class<?>>();
+        int i = 0;
+        while( i < desc.length() ) {
+            final int start = i;
+            while( '[' == desc.charAt(i) ) {
+                i++;
+            }
+            if( 'L' == desc.charAt(i) ) {
+                i = desc.indexOf(';', i) + 1;
+            } else {
+                i++;
+            }
+            res.add(toClass(desc.substring(start, i)));
+        }
+        return res.toArray(new Class<?>[res.size()]);
+    }
+
+    private static Class<?> toClass(final String desc) {
+        try {
+            if( 1 == desc.length() ) {
+                final Class<?> c = primitives.get(Character.valueOf(desc.charAt(0)));
+                if( null != c ) {
+                    return c;
+                }
+            } else if( desc.startsWith("[") ) {
+                return Class.forName(desc.replace('/', '.'));
+            } else if( desc.startsWith("L") ) {
+                return Class.forName(desc.substring(1, desc.length() - 1).replace('/', '.'));
+            }
+        } catch (final ClassNotFoundException e) {
+            throw new GLException("Unknown type "+desc, e);
+        }
+        throw new GLException("Invalid type "+desc);
+    }
+
+    private static Object readArg(final DataInputStream in, final Class<?> type) throws IOException {
+        if( type.isPrimitive() ) {
+            if( int.class == type ) { return Integer.valueOf(in.readInt()); }
+            if( float.class == type ) { return Float.valueOf(in.readFloat()); }
+            if( long.class == type ) { return Long.valueOf(in.readLong()); }
+            if( boolean.class == type ) { return Boolean.valueOf(in.readBoolean()); }
+            if( double.class == type ) { return Double.valueOf(in.readDouble()); }
+            if( short.class == type ) { return Short.valueOf(in.readShort()); }
+            if( byte.class == type ) { return Byte.valueOf(in.readByte()); }
+            if( char.class == type ) { return Character.valueOf(in.readChar()); }
+        } else if( String.class == type ) {
+            return readString(in);
+        } else if( String[].class == type ) {
+            final int n = in.readInt();
+            if( 0 > n ) {
+                return null;
+            }
+            final String[] a = new String[n];
+            for(int i=0; i<n; i++) { a[i] = readString(in); }
+            return a;
+        } else if( type.isArray() ) {
+            final int n = in.readInt();
+            if( 0 > n ) {
+                return null;
+            }
+            final Class<?> c = type.getComponentType();
+            if( int.class == c ) {
+                final int[] a = new int[n];
+                for(int i=0; i<n; i++) { a[i] = in.readInt(); }
+                return a;
+            } else if( float.class == c ) {
+                final float[] a = new float[n];
+                for(int i=0; i<n; i++) { a[i] = in.readFloat(); }
+                return a;
+            } else if( byte.class == c ) {
+                final byte[] a = new byte[n];
+                in.readFully(a);
+                return a;
+            } else if( short.class == c ) {
+                final short[] a = new short[n];
+                for(int i=0; i<n; i++) { a[i] = in.readShort(); }
+                return a;
+            } else if( long.class == c ) {
+                final long[] a = new long[n];
+                for(int i=0; i<n; i++) { a[i] = in.readLong(); }
+                return a;
+            } else if( double.class == c ) {
+                final double[] a = new double[n];
+                for(int i=0; i<n; i++) { a[i] = in.readDouble(); }
+                return a;
+            } else if( char.class == c ) {
+                final char[] a = new char[n];
+                for(int i=0; i<n; i++) { a[i] = in.readChar(); }
+                return a;
+            } else if( boolean.class == c ) {
+                final boolean[] a = new boolean[n];
+                for(int i=0; i<n; i++) { a[i] = in.readBoolean(); }
+                return a;
+            }
+        } else if( Buffer.class.isAssignableFrom(type) ) {
+            return readBuffer(in);
+        }
+        throw new IOException("Unsupported argument type "+type.getName());
+    }
+
+    private static String readString(final DataInputStream in) throws IOException {
+        final int n = in.readInt();
+        if( 0 > n ) {
+            return null;
+        }
+        final byte[] b = new byte[n];
+        in.readFully(b);
+        return new String(b, GLCallRecorder.UTF8);
+    }
+
+    private static Buffer readBuffer(final DataInputStream in) throws IOException {
+        final int type = in.readUnsignedByte();
+        if( GLCallRecorder.BUF_NULL == type ) {
+            return null;
+        }
+        final int n = in.readInt();
+        final Buffer buf = GLCallRecorder.newDirectBuffer(type, n);
+        switch( type ) {
+            case GLCallRecorder.BUF_BYTE: {
+                final byte[] b = new byte[n];
+                in.readFully(b);
+                ((ByteBuffer)buf).put(b);
+                break;
+            }
+            case GLCallRecorder.BUF_SHORT:
+                for(int i=0; i<n; i++) { ((ShortBuffer)buf).put(in.readShort()); }
+                break;
+            case GLCallRecorder.BUF_CHAR:
+                for(int i=0; i<n; i++) { ((CharBuffer)buf).put(in.readChar()); }
+                break;
+            case GLCallRecorder.BUF_INT:
+                for(int i=0; i<n; i++) { ((IntBuffer)buf).put(in.readInt()); }
+                break;
+            case GLCallRecorder.BUF_LONG:
+                for(int i=0; i<n; i++) { ((LongBuffer)buf).put(in.readLong()); }
+                break;
+            case GLCallRecorder.BUF_FLOAT:
+                for(int i=0; i<n; i++) { ((FloatBuffer)buf).put(in.readFloat()); }
+                break;
+            case GLCallRecorder.BUF_DOUBLE:
+                for(int i=0; i<n; i++) { ((DoubleBuffer)buf).put(in.readDouble()); }
+                break;
+        }
+        buf.rewind();
+        return buf;
+    }
+
+    public static void main(final String[] args) throws IOException {
+        int loops = 1;
+        boolean compare = true;
+        String file = null;
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-loops")) {
+                loops = Integer.parseInt(args[++i]);
+            } else if(args[i].equals("-nocompare")) {
+                compare = false;
+            } else {
+                file = args[i];
+            }
+        }
+        if( null == file ) {
+            System.err.println("Usage: GLCallReplayer [-loops n] [-nocompare] trace-file");
+            return;
+        }
+        final GLCallReplayer replayer = new GLCallReplayer();
+        replayer.read(new File(file));
+
+        final GLProfile glp = GLProfile.isAvailable(replayer.getProfileName()) ?
+                              GLProfile.get(replayer.getProfileName()) : GLProfile.getDefault();
+        final GLCapabilities caps = new GLCapabilities(glp);
+        final GLOffscreenAutoDrawable drawable = GLDrawableFactory.getFactory(glp).createOffscreenAutoDrawable(
+                null, caps, null, Math.max(1, replayer.getWidth()), Math.max(1, replayer.getHeight()));
+        try {
+            drawable.display(); // realize
+            for(int i=0; i<loops; i++) {
+                replayer.replay(drawable, compare);
+                System.err.print(replayer.toString(null));
+            }
+        } finally {
+            drawable.destroy();
+        }
+    }
+}
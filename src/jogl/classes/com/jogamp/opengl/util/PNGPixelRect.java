@@ -78,6 +78,35 @@ public class PNGPixelRect extends PixelRectangle.GenericPixelRect {
     public static PNGPixelRect read(final InputStream in,
                                     final PixelFormat ddestFmt, final boolean destDirectBuffer, final int destMinStrideInBytes,
                                     final boolean destIsGLOriented) throws IOException {
+        return read(in, ddestFmt, destDirectBuffer, null, destMinStrideInBytes, destIsGLOriented);
+    }
+
+    /**
+     * Reads a PNG image from the specified InputStream into the given destination buffer,
+     * see {@link #read(InputStream, PixelFormat, boolean, int, boolean)}.
+     * <p>
+     * The image is stored starting at absolute position zero, the buffer's position and limit are not modified.
+     * Allows reusing the destination buffer, e.g. for image sequences of equal size.
+     * </p>
+     *
+     * @param in input stream
+     * @param destFmt desired destination {@link PixelFormat} incl. conversion, maybe <code>null</code> to use source {@link PixelFormat}
+     * @param destPixels destination buffer holding at least <code>destStrideInBytes * height</code> bytes
+     * @param destMinStrideInBytes used if greater than PNG's stride, otherwise using PNG's stride. Stride is width * bytes-per-pixel.
+     * @param destIsGLOriented
+     * @return the newly created PNGPixelRect instance using <code>destPixels</code>
+     * @throws IOException
+     * @throws IndexOutOfBoundsException if <code>destPixels</code> is too small for the image
+     */
+    public static PNGPixelRect read(final InputStream in,
+                                    final PixelFormat ddestFmt, final ByteBuffer destPixels, final int destMinStrideInBytes,
+                                    final boolean destIsGLOriented) throws IOException, IndexOutOfBoundsException {
+        return read(in, ddestFmt, false, destPixels, destMinStrideInBytes, destIsGLOriented);
+    }
+
+    private static PNGPixelRect read(final InputStream in,
+                                     final PixelFormat ddestFmt, final boolean destDirectBuffer, final ByteBuffer ddestPixels,
+                                     final int destMinStrideInBytes, final boolean destIsGLOriented) throws IOException {
         final BufferedInputStream bin = (in instanceof BufferedInputStream) ? (BufferedInputStream)in : new BufferedInputStream(in);
         final PngReader pngr = new PngReader(bin, null);
         final ImageInfo imgInfo = pngr.imgInfo;
@@ -139,8 +168,13 @@ public class PNGPixelRect extends PixelRectangle.GenericPixelRect {
             destFmt = ddestFmt; // user choice
         }
         final int destStrideInBytes = Math.max(destMinStrideInBytes, destFmt.comp.bytesPerPixel() * width);
-        final ByteBuffer destPixels = destDirectBuffer ? Buffers.newDirectByteBuffer(destStrideInBytes * height) :
-                                                         ByteBuffer.allocate(destStrideInBytes * height);
+        final ByteBuffer destPixels;
+        if( null != ddestPixels ) {
+            destPixels = ddestPixels;
+        } else {
+            destPixels = destDirectBuffer ? Buffers.newDirectByteBuffer(destStrideInBytes * height) :
+                                            ByteBuffer.allocate(destStrideInBytes * height);
+        }
         {
             final int reqBytes = destStrideInBytes * height;
             if( destPixels.limit() < reqBytes ) {
@@ -0,0 +1,347 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import com.jogamp.nativewindow.util.PixelFormat;
+import com.jogamp.nativewindow.util.PixelFormatUtil;
+import com.jogamp.opengl.util.GLPixelBuffer.GLPixelAttributes;
+
+import jogamp.opengl.Debug;
+import jogamp.opengl.util.pngj.ImageInfo;
+import jogamp.opengl.util.pngj.PngWriter;
+import jogamp.opengl.util.pngj.chunks.PngChunkTextVar;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.common.util.IOUtil;
+import com.jogamp.common.util.InterruptSource;
+
+/**
+ * A {@link TileRenderer.TileRowSink} streaming the tiled rendered image into a PNG {@link OutputStream}.
+ * <p>
+ * Only the current tile row is held in memory, instead of the whole image as required
+ * when using {@link TileRenderer#setImageBuffer(GLPixelBuffer)} and {@link PNGPixelRect#write(OutputStream, boolean)}.
+ * This allows rendering images larger than the available heap, e.g. for print or poster output.
+ * </p>
+ * <p>
+ * In <i>asynchronous</i> mode, two tile row buffers are used and PNG encoding
+ * is performed on a dedicated thread while the next tile row is being rendered.
+ * Memory usage is bounded to two tile rows in this case.
+ * </p>
+ * <p>
+ * Usage:
+ * <pre>
+ *   final PNGTileRowWriter pngWriter = new PNGTileRowWriter(imageWidth, imageHeight, pixelAttribs, 72.0, 72.0, outstream, true, true);
+ *   pngWriter.attachTo(tileRenderer);
+ *   while( !tileRenderer.eot() ) { tileRenderer.display(); }
+ *   pngWriter.finish();
+ * </pre>
+ * </p>
+ */
+public class PNGTileRowWriter implements TileRenderer.TileRowSink {
+    private static final boolean DEBUG = Debug.debug("PNG");
+
+    private final int width;
+    private final int height;
+    private final GLPixelAttributes pixelAttribs;
+    private final PixelFormat pixelformat;
+    private final int bytesPerPixel;
+    private final OutputStream outstream;
+    private final boolean closeOutstream;
+    private final boolean async;
+    private final PngWriter png;
+    private final byte[] line;
+
+    private final Object sync = new Object();
+    private GLPixelBuffer[] rowBuffers = null;
+    private int nextPngRow = 0;
+    private boolean finished = false;
+    private Throwable error = null;
+
+    /** async only: the band being encoded, guarded by sync */
+    private GLPixelBuffer pendingBuffer = null;
+    private int pendingImageY;
+    private int pendingRowHeight;
+    private Thread encoderThread = null;
+
+    /**
+     * Creates a new PNG tile row writer.
+     *
+     * @param width the PNG image width, must match the {@link TileRenderer#getClippedImageSize() clipped image width}
+     * @param height the PNG image height, must match the {@link TileRenderer#getClippedImageSize() clipped image height}
+     * @param pixelAttribs the {@link GLPixelAttributes} used to read the tiles. Its {@link PixelFormat} must have
+     *        1 (luminance), 3 (RGB) or 4 (RGBA) bytes per pixel.
+     * @param dpiX PNG horizontal resolution
+     * @param dpiY PNG vertical resolution
+     * @param outstream the destination stream
+     * @param closeOutstream if <code>true</code>, <code>outstream</code> is closed after the last row or on error
+     * @param async if <code>true</code>, PNG encoding is performed on a dedicated thread using two tile row buffers.
+     */
+    public PNGTileRowWriter(final int width, final int height, final GLPixelAttributes pixelAttribs,
+                            final double dpiX, final double dpiY,
+                            final OutputStream outstream, final boolean closeOutstream, final boolean async) {
+        this.width = width;
+        this.height = height;
+        this.pixelAttribs = pixelAttribs;
+        this.pixelformat = pixelAttribs.pfmt;
+        this.bytesPerPixel = pixelformat.comp.bytesPerPixel();
+        if( 1 != bytesPerPixel && 3 != bytesPerPixel && 4 != bytesPerPixel ) {
+            throw new IllegalArgumentException("Unsupported bytesPerPixel "+bytesPerPixel+" of "+pixelformat);
+        }
+        this.outstream = outstream;
+        this.closeOutstream = closeOutstream;
+        this.async = async;
+        final ImageInfo imi = new ImageInfo(width, height, 8 /* bitdepth */,
+                                            (4 == bytesPerPixel) ? true : false /* alpha */,
+                                            (1 == bytesPerPixel) ? true : false /* grayscale */,
+                                            false /* indexed */);
+        png = new PngWriter(outstream, imi);
+        png.getMetadata().setDpi(dpiX, dpiY);
+        png.getMetadata().setTimeNow(0); // 0 seconds from now = now
+        png.getMetadata().setText(PngChunkTextVar.KEY_Title, "JogAmp PNGTileRowWriter");
+        line = new byte[width * bytesPerPixel];
+    }
+
+    /**
+     * Attaches this writer to the given {@link TileRenderer}, allocating the tile row buffer(s)
+     * and setting {@link TileRenderer#setRowOrder(int) row order} {@link TileRenderer#TR_TOP_TO_BOTTOM}.
+     * <p>
+     * Shall be called after the {@link TileRenderer}'s image-, clipping- and tile-size have been set.
+     * </p>
+     * @throws IllegalArgumentException if the {@link TileRenderer#getClippedImageSize() clipped image size} does not match
+     */
+    public void attachTo(final TileRenderer tr) throws IllegalArgumentException {
+        if( tr.getClippedImageSize().getWidth() != width || tr.getClippedImageSize().getHeight() != height ) {
+            throw new IllegalArgumentException("Clipped image size "+tr.getClippedImageSize()+" != PNG size "+width+"x"+height);
+        }
+        final int rowHeight = tr.getParam(TileRenderer.TR_TILE_HEIGHT) - 2 * tr.getParam(TileRenderer.TR_TILE_BORDER);
+        rowBuffers = new GLPixelBuffer[ async ? 2 : 1 ];
+        for(int i=0; i<rowBuffers.length; i++) {
+            rowBuffers[i] = createRowBuffer(rowHeight);
+        }
+        tr.setRowOrder(TileRenderer.TR_TOP_TO_BOTTOM);
+        tr.setTileRowSink(this, rowBuffers[0]);
+    }
+
+    /**
+     * Creates a tile row buffer of the PNG width and the given <code>rowHeight</code>,
+     * using row stride as required by {@link TileRenderer}.
+     */
+    public GLPixelBuffer createRowBuffer(final int rowHeight) {
+        final ByteBuffer buffer = Buffers.newDirectByteBuffer(width * rowHeight * bytesPerPixel);
+        return new GLPixelBuffer(pixelAttribs, true /* pack */, width, rowHeight, 1, buffer, true /* allowRowStride */);
+    }
+
+    /** Returns true if PNG encoding is performed on a dedicated thread. */
+    public final boolean isAsync() { return async; }
+
+    /** Returns the number of PNG rows written so far. */
+    public final int getRowsWritten() {
+        synchronized( sync ) {
+            return nextPngRow;
+        }
+    }
+
+    @Override
+    public GLPixelBuffer tileRowDone(final TileRenderer tr, final GLPixelBuffer rowBuffer, final int row, final int imageY, final int rowHeight) {
+        if( !async ) {
+            try {
+                encodeBand(rowBuffer, imageY, rowHeight);
+            } catch (final Throwable t) {
+                failed(t);
+                throw new RuntimeException(t);
+            }
+            if( nextPngRow >= height ) {
+                endImpl();
+            }
+            return rowBuffer;
+        }
+        synchronized( sync ) {
+            waitForPendingBand();
+            throwPendingError();
+            if( null == encoderThread ) {
+                encoderThread = new InterruptSource.Thread(null, encoder, "PNGTileRowWriter-Encoder");
+                encoderThread.setDaemon(true);
+                encoderThread.start();
+            }
+            pendingBuffer = rowBuffer;
+            pendingImageY = imageY;
+            pendingRowHeight = rowHeight;
+            sync.notifyAll();
+            return rowBuffer == rowBuffers[0] ? rowBuffers[1] : rowBuffers[0];
+        }
+    }
+
+    /**
+     * Waits until all tile rows have been encoded and the PNG has been completed.
+     * <p>
+     * Shall be called after the {@link TileRenderer} reached {@link TileRenderer#eot() end of tiling}.
+     * </p>
+     * @throws IOException if encoding or writing failed, or if not all rows have been received
+     */
+    public void finish() throws IOException {
+        synchronized( sync ) {
+            waitForPendingBand();
+            if( null != encoderThread ) {
+                encoderThread.interrupt();
+                encoderThread = null;
+            }
+            if( null != error ) {
+                if( error instanceof IOException ) {
+                    throw (IOException)error;
+                }
+                throw new IOException(error);
+            }
+            if( !finished ) {
+                failed(null);
+                throw new IOException("Incomplete PNG: "+nextPngRow+" of "+height+" rows written");
+            }
+        }
+    }
+
+    private final Runnable encoder = new Runnable() {
+        @Override
+        public void run() {
+            while( true ) {
+                final GLPixelBuffer buffer;
+                final int imageY, rowHeight;
+                synchronized( sync ) {
+                    while( null == pendingBuffer ) {
+                        if( finished || null != error ) {
+                            return;
+                        }
+                        try {
+                            sync.wait();
+                        } catch (final InterruptedException e) {
+                            return;
+                        }
+                    }
+                    buffer = pendingBuffer;
+                    imageY = pendingImageY;
+                    rowHeight = pendingRowHeight;
+                }
+                try {
+                    encodeBand(buffer, imageY, rowHeight);
+                    if( nextPngRow >= height ) {
+                        endImpl();
+                    }
+                } catch (final Throwable t) {
+                    failed(t);
+                }
+                synchronized( sync ) {
+                    pendingBuffer = null;
+                    sync.notifyAll();
+                }
+            }
+        }
+    };
+
+    private void waitForPendingBand() {
+        while( null != pendingBuffer ) {
+            try {
+                sync.wait();
+            } catch (final InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    private void throwPendingError() {
+        if( null != error ) {
+            throw new RuntimeException("PNG encoding failed", error);
+        }
+    }
+
+    private void failed(final Throwable t) {
+        synchronized( sync ) {
+            if( null == error ) {
+                error = t;
+            }
+        }
+        if( closeOutstream ) {
+            IOUtil.close(outstream, false);
+        }
+    }
+
+    private void endImpl() {
+        png.end();
+        if( closeOutstream ) {
+            IOUtil.close(outstream, false);
+        }
+        synchronized( sync ) {
+            finished = true;
+        }
+        if( DEBUG ) {
+            System.err.println("PNGTileRowWriter: Finished "+width+"x"+height+", async "+async);
+        }
+    }
+
+    /**
+     * Encodes the band's lines top to bottom, i.e. in reverse OpenGL order.
+     */
+    private void encodeBand(final GLPixelBuffer rowBuffer, final int imageY, final int rowHeight) {
+        final ByteBuffer src = (ByteBuffer) rowBuffer.buffer;
+        final int stride = width * bytesPerPixel;
+        final boolean direct = PixelFormat.RGBA8888 == pixelformat ||
+                               PixelFormat.RGB888 == pixelformat ||
+                               PixelFormat.LUMINANCE == pixelformat;
+        final boolean hasAlpha = 4 == bytesPerPixel;
+        final PixelFormat destFmt = hasAlpha ? PixelFormat.RGBA8888 : PixelFormat.RGB888;
+        for(int i = rowHeight - 1; i >= 0; i--) {
+            final int pngRow = height - 1 - ( imageY + i );
+            if( pngRow != nextPngRow ) {
+                throw new IllegalStateException("Out of order PNG row "+pngRow+", expected "+nextPngRow+
+                                                "; TileRenderer row order must be TR_TOP_TO_BOTTOM");
+            }
+            int srcOff = i * stride;
+            if( direct ) {
+                src.position(srcOff);
+                src.get(line, 0, stride);
+            } else {
+                for(int lineOff = 0; lineOff < stride; lineOff += bytesPerPixel) {
+                    final int p = PixelFormatUtil.convertToInt32(destFmt, pixelformat, src, srcOff);
+                    line[lineOff    ] = (byte) (   p          ); // R
+                    line[lineOff + 1] = (byte) ( ( p >>>  8 ) ); // G
+                    line[lineOff + 2] = (byte) ( ( p >>> 16 ) ); // B
+                    if( hasAlpha ) {
+                        line[lineOff + 3] = (byte) ( p >>> 24 ); // A
+                    }
+                    srcOff += bytesPerPixel;
+                }
+            }
+            png.writeRowByte(line, pngRow);
+            synchronized( sync ) {
+                nextPngRow++;
+            }
+        }
+        src.rewind();
+    }
+}
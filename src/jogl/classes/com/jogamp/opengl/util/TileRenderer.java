@@ -125,6 +125,40 @@ public class TileRenderer extends TileRendererBase {
      */
     public static final int TR_BOTTOM_TO_TOP = 21;
 
+    /**
+     * Receives completed tile rows, i.e. horizontal image bands
+     * of one tile height and the full {@link #getClippedImageSize() clipped image width}.
+     * <p>
+     * Allows streaming the rendered image to its destination, e.g. a PNG file,
+     * while holding only one (or a few) tile rows in memory instead of the whole image.
+     * See {@link TileRenderer#setTileRowSink(TileRowSink, GLPixelBuffer)}.
+     * </p>
+     */
+    public static interface TileRowSink {
+        /**
+         * Called by {@link TileRenderer#endTile(GL)} after the last tile of a tile row has been read.
+         * <p>
+         * The given <code>rowBuffer</code> contains <code>rowHeight</code> lines
+         * of {@link TileRenderer#getClippedImageSize() clipped image width} pixels each,
+         * tightly packed, beginning at position zero.
+         * Lines are stored in OpenGL order, i.e. the first line is the bottom-most line of the band.
+         * </p>
+         * <p>
+         * The {@link com.jogamp.opengl.GLContext} of the {@link TileRenderer} is current.
+         * </p>
+         *
+         * @param tr the issuing {@link TileRenderer}
+         * @param rowBuffer the filled tile row buffer
+         * @param row the tile row number, see {@link TileRenderer#TR_CURRENT_ROW}
+         * @param imageY the y-position of the band's bottom-most line within the image, in OpenGL orientation
+         * @param rowHeight the number of valid lines within <code>rowBuffer</code>
+         * @return the {@link GLPixelBuffer} to be used for the next tile row,
+         *         which may be <code>rowBuffer</code> itself or another buffer of same size and {@link GLPixelAttributes},
+         *         allowing the sink to consume <code>rowBuffer</code> asynchronously.
+         */
+        GLPixelBuffer tileRowDone(TileRenderer tr, GLPixelBuffer rowBuffer, int row, int imageY, int rowHeight);
+    }
+
     private static final int DEFAULT_TILE_WIDTH = 256;
     private static final int DEFAULT_TILE_HEIGHT = 256;
     private static final int DEFAULT_TILE_BORDER = 0;
@@ -143,6 +177,8 @@ public class TileRenderer extends TileRendererBase {
     private int currentColumn;
     private int offsetX;
     private int offsetY;
+    private TileRowSink tileRowSink = null;
+    private GLPixelBuffer tileRowBuffer = null;
 
     @Override
     protected StringBuilder tileDetails(final StringBuilder sb) {
@@ -357,6 +393,33 @@ public class TileRenderer extends TileRendererBase {
         }
     }
 
+    /**
+     * Sets a {@link TileRowSink} receiving each completed tile row,
+     * stored in the given <code>rowBuffer</code>.
+     * <p>
+     * The <code>rowBuffer</code> must be capable of holding
+     * {@link #getClippedImageSize() clipped image width} x {@link #TR_TILE_HEIGHT tile height} (w/o border) pixels.
+     * </p>
+     * <p>
+     * A tile row sink may be used instead of or in addition to an {@link #setImageBuffer(GLPixelBuffer) image buffer}.
+     * Since the sink receives rows in traversal order, a sink writing a top-to-bottom image format
+     * requires {@link #setRowOrder(int) row order} {@link #TR_TOP_TO_BOTTOM}.
+     * </p>
+     *
+     * @param sink the {@link TileRowSink}, maybe <code>null</code> to disable
+     * @param rowBuffer the initial tile row buffer, ignored if <code>sink</code> is <code>null</code>
+     */
+    public final void setTileRowSink(final TileRowSink sink, final GLPixelBuffer rowBuffer) {
+        if( null != sink && null == rowBuffer ) {
+            throw new IllegalArgumentException("null rowBuffer");
+        }
+        tileRowSink = sink;
+        tileRowBuffer = null != sink ? rowBuffer : null;
+    }
+
+    /** Returns the {@link TileRowSink} as set via {@link #setTileRowSink(TileRowSink, GLPixelBuffer)}. */
+    public final TileRowSink getTileRowSink() { return tileRowSink; }
+
     @Override
     public final boolean isSetup() {
         return 0 < imageSize.getWidth() && 0 < imageSize.getHeight();
@@ -522,6 +585,44 @@ public class TileRenderer extends TileRendererBase {
             imageBuffer.flip();
         }
 
+        if( tileRowSink != null ) {
+            final GLPixelAttributes pixelAttribs = tileRowBuffer.pixelAttributes;
+            final int srcX = tileBorder;
+            final int srcY = tileBorder;
+            final int srcWidth = currentTileWidth - 2 * tileBorder;
+            final int srcHeight = currentTileHeight - 2 * tileBorder;
+
+            /* setup pixel store for glReadPixels, tile row is as wide as the clipped image */
+            final int rowLength = getClippedImageSize().getWidth();
+            psm.setPackRowLength(gl2es3, rowLength);
+
+            /* read the tile into the tile row */
+            final int readPixelSize = GLBuffers.sizeof(gl, tmp, pixelAttribs.pfmt.comp.bytesPerPixel(), srcWidth, srcHeight, 1, true);
+
+            final int skipPixels = currentColumn * tileSizeNB.getWidth();
+            final int rbPos = skipPixels * pixelAttribs.pfmt.comp.bytesPerPixel();
+            final int rbLim = rbPos + readPixelSize;
+            tileRowBuffer.clear();
+            if( tileRowBuffer.requiresNewBuffer(gl, srcWidth, srcHeight, rbLim) ) {
+                throw new IndexOutOfBoundsException("Required " + rbLim + " bytes of buffer, only had " + tileRowBuffer);
+            }
+            tileRowBuffer.position(rbPos);
+
+            gl.glReadPixels( srcX, srcY, srcWidth, srcHeight, pixelAttribs.format, pixelAttribs.type, tileRowBuffer.buffer);
+
+            if( currentColumn == columns - 1 ) {
+                // be sure OpenGL rendering is finished
+                gl.glFlush();
+                tileRowBuffer.position( rbLim );
+                tileRowBuffer.flip();
+                final GLPixelBuffer next = tileRowSink.tileRowDone(this, tileRowBuffer, currentRow,
+                                                                   currentRow * tileSizeNB.getHeight(), srcHeight);
+                if( null != next ) {
+                    tileRowBuffer = next;
+                }
+            }
+        }
+
         /* restore previous glPixelStore values */
         psm.restore(gl);
 
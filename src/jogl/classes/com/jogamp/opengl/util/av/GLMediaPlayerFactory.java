@@ -27,6 +27,7 @@
  */
 package com.jogamp.opengl.util.av;
 
+import jogamp.opengl.util.av.ImageSequenceMediaPlayer;
 import jogamp.opengl.util.av.NullGLMediaPlayer;
 
 import com.jogamp.common.util.ReflectionUtil;
@@ -54,6 +55,13 @@ public class GLMediaPlayerFactory {
     public static GLMediaPlayer createNull() {
         return new NullGLMediaPlayer();
     }
+    /**
+     * Returns a new pure Java {@link GLMediaPlayer} for numbered PNG/JPEG image sequences and MJPEG files,
+     * see {@link ImageSequenceMediaPlayer}.
+     */
+    public static GLMediaPlayer createImageSequence() {
+        return new ImageSequenceMediaPlayer();
+    }
 
     public static GLMediaPlayer create(final ClassLoader cl, final String implName) {
         try {
@@ -41,11 +41,19 @@ package com.jogamp.opengl.util.packrect;
 
 import java.util.*;
 
-/** Manages a list of Levels; this is the core data structure
-    contained within the RectanglePacker and encompasses the storage
-    algorithm for the contained Rects. */
+/** Manages a list of Levels; this is the default {@link
+    PackingStrategy} of the RectanglePacker and encompasses the
+    shelf based storage algorithm for the contained Rects. */
+
+public class LevelSet implements PackingStrategy {
+  /** {@link PackingStrategy.Factory} creating {@link LevelSet}s. */
+  public static final PackingStrategy.Factory factory = new PackingStrategy.Factory() {
+    @Override
+    public PackingStrategy create(final int w, final int h) {
+      return new LevelSet(w, h);
+    }
+  };
 
-public class LevelSet {
   // Maintained in sorted order by increasing Y coordinate
   private final List<Level> levels = new ArrayList<Level>();
   private int nextAddY;
@@ -59,13 +67,16 @@ public class LevelSet {
     this.h = h;
   }
 
+  @Override
   public int w() { return w; }
+  @Override
   public int h() { return h; }
 
   /** Returns true if the given rectangle was successfully added to
       the LevelSet given its current dimensions, false if not. Caller
       is responsible for performing compaction, expansion, etc. as a
       consequence. */
+  @Override
   public boolean add(final Rect rect) {
     if (rect.w() > w)
       return false;
@@ -102,6 +113,7 @@ public class LevelSet {
   }
 
   /** Removes the given Rect from this LevelSet. */
+  @Override
   public boolean remove(final Rect rect) {
     for (int i = levels.size() - 1; i >= 0; --i) {
       final Level level = levels.get(i);
@@ -116,6 +128,7 @@ public class LevelSet {
       if necessary. This is the correct fallback path to {@link
       #add(Rect)} above. Returns true if allocated successfully, false
       otherwise (indicating the need to expand the backing store). */
+  @Override
   public boolean compactAndAdd(final Rect rect,
                                final Object backingStore,
                                final BackingStoreManager manager) {
@@ -150,12 +163,14 @@ public class LevelSet {
   }
 
   /** Gets the used height of the levels in this LevelSet. */
+  @Override
   public int getUsedHeight() {
     return nextAddY;
   }
 
   /** Sets the height of this LevelSet. It is only legal to reduce the
       height to greater than or equal to the currently used height. */
+  @Override
   public void setHeight(final int height) throws IllegalArgumentException {
     if (height < getUsedHeight()) {
       throw new IllegalArgumentException("May not reduce height below currently used height");
@@ -168,6 +183,7 @@ public class LevelSet {
       completely empty Levels divided by the overall used height of
       the LevelSet. A high vertical fragmentation ratio indicates that
       it may be profitable to perform a compaction. */
+  @Override
   public float verticalFragmentationRatio() {
     int freeHeight = 0;
     final int usedHeight = getUsedHeight();
@@ -187,6 +203,7 @@ public class LevelSet {
   }
 
   /** Visits all Rects contained in this LevelSet. */
+  @Override
   public void visit(final RectVisitor visitor) {
     for (final Iterator<Level> iter = levels.iterator(); iter.hasNext(); ) {
       final Level level = iter.next();
@@ -198,6 +215,7 @@ public class LevelSet {
       the "next locations" of those Rects. This is actually used to
       update the new Rects in a newly laid-out LevelSet with the
       original Rects. */
+  @Override
   public void updateRectangleReferences() {
     for (final Iterator<Level> iter = levels.iterator(); iter.hasNext(); ) {
       final Level level = iter.next();
@@ -206,6 +224,7 @@ public class LevelSet {
   }
 
   /** Clears out all Levels stored in this LevelSet. */
+  @Override
   public void clear() {
     levels.clear();
     nextAddY = 0;
@@ -0,0 +1,310 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+package com.jogamp.opengl.util.packrect;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/** {@link PackingStrategy} implementing the MaxRects algorithm using
+    the best-short-side-fit rule. <P>
+
+    All maximal free rectangles of the region are tracked, they may
+    overlap each other. A new Rect is placed into the free rectangle
+    leaving the smallest leftover on its shorter side, after which
+    all intersected free rectangles are split and the ones contained
+    in others are pruned. <P>
+
+    Removed Rects are given back to the free rectangles immediately,
+    merged with adjacent free rectangles of the same extent. This
+    yields the tightest packing of the available strategies at the
+    highest cost per addition. */
+
+public class MaxRectsSet implements PackingStrategy {
+  /** {@link PackingStrategy.Factory} creating {@link MaxRectsSet}s. */
+  public static final PackingStrategy.Factory factory = new PackingStrategy.Factory() {
+    @Override
+    public PackingStrategy create(final int w, final int h) {
+      return new MaxRectsSet(w, h);
+    }
+  };
+
+  private final List<Rect> rects = new ArrayList<Rect>();
+  private final List<Rect> freeRects = new ArrayList<Rect>();
+  private final int w;
+  private int h;
+  private int usedHeight;
+  private long usedArea;
+
+  public MaxRectsSet(final int w, final int h) {
+    this.w = w;
+    this.h = h;
+    freeRects.add(new Rect(0, 0, w, h, null));
+  }
+
+  @Override
+  public int w() { return w; }
+  @Override
+  public int h() { return h; }
+
+  @Override
+  public boolean add(final Rect rect) {
+    final int rw = rect.w();
+    final int rh = rect.h();
+    Rect best = null;
+    int bestShortSide = Integer.MAX_VALUE;
+    int bestLongSide = Integer.MAX_VALUE;
+    for (int i = freeRects.size() - 1; i >= 0; --i) {
+      final Rect free = freeRects.get(i);
+      if (free.w() >= rw && free.h() >= rh) {
+        final int leftoverW = free.w() - rw;
+        final int leftoverH = free.h() - rh;
+        final int shortSide = Math.min(leftoverW, leftoverH);
+        final int longSide = Math.max(leftoverW, leftoverH);
+        if (shortSide < bestShortSide ||
+            (shortSide == bestShortSide && longSide < bestLongSide)) {
+          best = free;
+          bestShortSide = shortSide;
+          bestLongSide = longSide;
+        }
+      }
+    }
+    if (best == null)
+      return false;
+
+    rect.setPosition(best.x(), best.y());
+    pruneFreeRects(splitFreeRects(rect));
+    rects.add(rect);
+    usedHeight = Math.max(usedHeight, rect.y() + rh);
+    usedArea += (long) rw * (long) rh;
+    return true;
+  }
+
+  @Override
+  public boolean remove(final Rect rect) {
+    if (!rects.remove(rect))
+      return false;
+
+    if (rects.isEmpty()) {
+      clear();
+      return true;
+    }
+    usedArea -= (long) rect.w() * (long) rect.h();
+    final Rect free = new Rect(rect.x(), rect.y(), rect.w(), rect.h(), null);
+    mergeFreeRect(freeRects, free);
+    freeRects.add(free);
+    pruneFreeRects(freeRects.size() - 1);
+    return true;
+  }
+
+  /** In-place compaction is not supported, since freed space is
+      reused right away. Always returns false to request a re-layout
+      of the backing store. */
+  @Override
+  public boolean compactAndAdd(final Rect rect,
+                               final Object backingStore,
+                               final BackingStoreManager manager) {
+    return false;
+  }
+
+  @Override
+  public int getUsedHeight() {
+    return usedHeight;
+  }
+
+  @Override
+  public void setHeight(final int height) throws IllegalArgumentException {
+    if (height < getUsedHeight()) {
+      throw new IllegalArgumentException("May not reduce height below currently used height");
+    }
+    if (height < h) {
+      for (int i = freeRects.size() - 1; i >= 0; --i) {
+        final Rect free = freeRects.get(i);
+        if (free.y() >= height) {
+          freeRects.remove(i);
+        } else if (free.y() + free.h() > height) {
+          free.setSize(free.w(), height - free.y());
+        }
+      }
+      pruneFreeRects(0);
+    } else if (height > h) {
+      for (int i = freeRects.size() - 1; i >= 0; --i) {
+        final Rect free = freeRects.get(i);
+        if (free.y() + free.h() == h) {
+          free.setSize(free.w(), height - free.y());
+        }
+      }
+      freeRects.add(new Rect(0, h, w, height - h, null));
+      pruneFreeRects(0);
+    }
+    h = height;
+  }
+
+  /** Returns the ratio of the free area below the {@link
+      #getUsedHeight() used height} divided by the overall used area
+      of this MaxRectsSet. Free space is reused right away, hence a
+      high ratio only indicates that a compaction may reduce the
+      height of the backing store. */
+  @Override
+  public float verticalFragmentationRatio() {
+    final long area = (long) w * (long) usedHeight;
+    if (area == 0)
+      return 0.0f;
+    return (float) (area - usedArea) / (float) area;
+  }
+
+  @Override
+  public void visit(final RectVisitor visitor) {
+    for (final Iterator<Rect> iter = rects.iterator(); iter.hasNext(); ) {
+      visitor.visit(iter.next());
+    }
+  }
+
+  @Override
+  public void updateRectangleReferences() {
+    for (int i = 0; i < rects.size(); i++) {
+      final Rect cur = rects.get(i);
+      final Rect next = cur.getNextLocation();
+      next.setPosition(cur.x(), cur.y());
+      if (cur.w() != next.w() || cur.h() != next.h())
+        throw new RuntimeException("Unexpected disparity in rectangle sizes during updateRectangleReferences");
+      rects.set(i, next);
+    }
+  }
+
+  @Override
+  public void clear() {
+    rects.clear();
+    freeRects.clear();
+    freeRects.add(new Rect(0, 0, w, h, null));
+    usedHeight = 0;
+    usedArea = 0;
+  }
+
+  //----------------------------------------------------------------------
+  // Internals only below this point
+  //
+
+  /** Splits all free rectangles intersecting the given placed Rect
+      into up to four maximal free rectangles surrounding it, which
+      are appended. Returns the index of the first appended one. */
+  private int splitFreeRects(final Rect used) {
+    final int ux0 = used.x();
+    final int uy0 = used.y();
+    final int ux1 = ux0 + used.w();
+    final int uy1 = uy0 + used.h();
+    final int n = freeRects.size();
+    final List<Rect> added = new ArrayList<Rect>();
+    for (int i = n - 1; i >= 0; --i) {
+      final Rect free = freeRects.get(i);
+      final int fx0 = free.x();
+      final int fy0 = free.y();
+      final int fx1 = fx0 + free.w();
+      final int fy1 = fy0 + free.h();
+      if (ux0 >= fx1 || ux1 <= fx0 || uy0 >= fy1 || uy1 <= fy0)
+        continue;
+      freeRects.remove(i);
+      if (uy0 > fy0)
+        added.add(new Rect(fx0, fy0, free.w(), uy0 - fy0, null));
+      if (uy1 < fy1)
+        added.add(new Rect(fx0, uy1, free.w(), fy1 - uy1, null));
+      if (ux0 > fx0)
+        added.add(new Rect(fx0, fy0, ux0 - fx0, free.h(), null));
+      if (ux1 < fx1)
+        added.add(new Rect(ux1, fy0, fx1 - ux1, free.h(), null));
+    }
+    final int first = freeRects.size();
+    freeRects.addAll(added);
+    return first;
+  }
+
+  /** Repeatedly merges the given free rectangle with the ones of the
+      given list sharing a complete edge, which are removed from it. */
+  static void mergeFreeRect(final List<Rect> freeRects, final Rect free) {
+    boolean merged;
+    do {
+      merged = false;
+      for (int i = freeRects.size() - 1; i >= 0; --i) {
+        final Rect other = freeRects.get(i);
+        if (other == free)
+          continue;
+        if (other.y() == free.y() && other.h() == free.h()) {
+          if (other.x() + other.w() == free.x()) {
+            free.setPosition(other.x(), free.y());
+            free.setSize(free.w() + other.w(), free.h());
+            merged = true;
+          } else if (free.x() + free.w() == other.x()) {
+            free.setSize(free.w() + other.w(), free.h());
+            merged = true;
+          }
+        } else if (other.x() == free.x() && other.w() == free.w()) {
+          if (other.y() + other.h() == free.y()) {
+            free.setPosition(free.x(), other.y());
+            free.setSize(free.w(), free.h() + other.h());
+            merged = true;
+          } else if (free.y() + free.h() == other.y()) {
+            free.setSize(free.w(), free.h() + other.h());
+            merged = true;
+          }
+        }
+        if (merged) {
+          freeRects.remove(i);
+          break;
+        }
+      }
+    } while (merged);
+  }
+
+  /** Removes all free rectangles contained in another one, where
+      only the free rectangles starting at index <code>first</code>
+      are new. The older ones are known not to contain each other. */
+  private void pruneFreeRects(final int first) {
+    for (int i = Math.max(first, 1); i < freeRects.size(); i++) {
+      final Rect a = freeRects.get(i);
+      for (int j = 0; j < i; j++) {
+        final Rect b = freeRects.get(j);
+        if (contains(b, a)) {
+          freeRects.remove(i);
+          --i;
+          break;
+        } else if (contains(a, b)) {
+          freeRects.remove(j);
+          --j;
+          --i;
+        }
+      }
+    }
+  }
+
+  private static boolean contains(final Rect outer, final Rect inner) {
+    return inner.x() >= outer.x() && inner.y() >= outer.y() &&
+           inner.x() + inner.w() <= outer.x() + outer.w() &&
+           inner.y() + inner.h() <= outer.y() + outer.h();
+  }
+}
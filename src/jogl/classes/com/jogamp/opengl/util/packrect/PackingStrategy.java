@@ -0,0 +1,97 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+package com.jogamp.opengl.util.packrect;
+
+/** Storage algorithm used by the {@link RectanglePacker} to place
+    {@link Rect}s inside its backing store. <P>
+
+    The original shelf based algorithm is implemented by {@link
+    LevelSet}; {@link SkylineSet} and {@link MaxRectsSet} offer
+    tighter packing at a slightly higher cost per addition, which
+    reduces the number of compaction and expansion cycles of the
+    backing store. <P>
+
+    A strategy manages all of the backing store for a region of a
+    specified width and height. The {@link RectanglePacker} creates
+    a new instance via the {@link Factory} whenever the backing store
+    is re-laid out. */
+
+public interface PackingStrategy {
+  /** Creates new {@link PackingStrategy} instances of a particular
+      kind for a region of the given dimension. */
+  public static interface Factory {
+    public PackingStrategy create(int w, int h);
+  }
+
+  public int w();
+  public int h();
+
+  /** Returns true if the given rectangle was successfully added
+      given the current dimensions, false if not. Caller is
+      responsible for performing compaction, expansion, etc. as a
+      consequence. */
+  public boolean add(Rect rect);
+
+  /** Removes the given Rect, returns true if it was contained. */
+  public boolean remove(Rect rect);
+
+  /** Allocates the given Rectangle, performing in-place compaction
+      if supported and necessary. This is the fallback path to {@link
+      #add(Rect)} above. Returns true if allocated successfully, false
+      otherwise (indicating the need to re-layout or expand the
+      backing store). */
+  public boolean compactAndAdd(Rect rect, Object backingStore, BackingStoreManager manager);
+
+  /** Gets the used height, i.e. the lowest y coordinate below which
+      no Rect has been placed. */
+  public int getUsedHeight();
+
+  /** Sets the height of the managed region. It is only legal to
+      reduce the height to greater than or equal to the currently
+      used height. */
+  public void setHeight(int height) throws IllegalArgumentException;
+
+  /** Returns the vertical fragmentation ratio, i.e. the ratio of
+      space below the {@link #getUsedHeight() used height} which can
+      only be reclaimed by a compaction, divided by the overall used
+      space. A high vertical fragmentation ratio indicates that it
+      may be profitable to perform a compaction. */
+  public float verticalFragmentationRatio();
+
+  /** Visits all contained Rects. */
+  public void visit(RectVisitor visitor);
+
+  /** Updates the references to the contained Rect objects with the
+      "next locations" of those Rects. This is used to update the new
+      Rects in a newly laid-out instance with the original Rects. */
+  public void updateRectangleReferences();
+
+  /** Clears out all contained Rects. */
+  public void clear();
+}
@@ -45,12 +45,16 @@ import java.util.*;
     image regions) into a larger backing store rectangle (typically
     representing a large texture). Supports automatic compaction of
     the space on the backing store, and automatic expansion of the
-    backing store, when necessary. */
+    backing store, when necessary. <P>
+
+    The storage algorithm is pluggable via {@link PackingStrategy},
+    defaulting to the shelf based {@link LevelSet}. */
 
 public class RectanglePacker {
   private final BackingStoreManager manager;
+  private final PackingStrategy.Factory strategyFactory;
   private Object backingStore;
-  private LevelSet levels;
+  private PackingStrategy levels;
   private static final float EXPANSION_FACTOR = 0.5f;
   private static final float SHRINK_FACTOR = 0.3f;
 
@@ -60,6 +64,8 @@ public class RectanglePacker {
   private int maxWidth  = -1;
   private int maxHeight = -1;
 
+  private int compactionCount;
+
   static class RectHComparator implements Comparator<Rect> {
     @Override
     public int compare(final Rect r1, final Rect r2) {
@@ -76,8 +82,19 @@ public class RectanglePacker {
   public RectanglePacker(final BackingStoreManager manager,
                          final int initialWidth,
                          final int initialHeight) {
+    this(manager, initialWidth, initialHeight, LevelSet.factory);
+  }
+
+  /** Creates a RectanglePacker using the given {@link PackingStrategy},
+      e.g. {@link LevelSet#factory}, {@link SkylineSet#factory} or
+      {@link MaxRectsSet#factory}. */
+  public RectanglePacker(final BackingStoreManager manager,
+                         final int initialWidth,
+                         final int initialHeight,
+                         final PackingStrategy.Factory strategyFactory) {
     this.manager = manager;
-    levels = new LevelSet(initialWidth, initialHeight);
+    this.strategyFactory = strategyFactory;
+    levels = strategyFactory.create(initialWidth, initialHeight);
     this.initialWidth = initialWidth;
     this.initialHeight = initialHeight;
   }
@@ -153,7 +170,8 @@ public class RectanglePacker {
   }
 
   /** Returns the vertical fragmentation ratio of this
-      RectanglePacker. This is defined as the ratio of the sum of the
+      RectanglePacker as defined by its {@link PackingStrategy}. For
+      the default {@link LevelSet} this is the ratio of the sum of the
       heights of all completely empty Levels divided by the overall
       used height of the LevelSet. A high vertical fragmentation ratio
       indicates that it may be profitable to perform a compaction. */
@@ -161,6 +179,44 @@ public class RectanglePacker {
     return levels.verticalFragmentationRatio();
   }
 
+  /** Returns the occupancy of the backing store, i.e. the area of
+      all contained Rects divided by the area of the backing store. */
+  public float occupancy() {
+    final long area = (long) levels.w() * (long) levels.h();
+    if (area == 0)
+      return 0.0f;
+    return (float) getUsedArea() / (float) area;
+  }
+
+  /** Returns the fragmentation of the backing store, i.e. the ratio
+      of the area within the used height not covered by any Rect,
+      divided by the overall used area. Unlike {@link
+      #verticalFragmentationRatio()} this is comparable across all
+      {@link PackingStrategy}s. */
+  public float fragmentation() {
+    final long area = (long) levels.w() * (long) levels.getUsedHeight();
+    if (area == 0)
+      return 0.0f;
+    return (float) (area - getUsedArea()) / (float) area;
+  }
+
+  /** Returns the number of compaction cycles so far, each of which
+      allocated a new backing store and copied all entries to it. */
+  public int getCompactionCount() {
+    return compactionCount;
+  }
+
+  private long getUsedArea() {
+    final long[] usedArea = { 0 };
+    levels.visit(new RectVisitor() {
+        @Override
+        public void visit(final Rect rect) {
+          usedArea[0] += (long) rect.w() * (long) rect.h();
+        }
+      });
+    return usedArea[0];
+  }
+
   /** Forces a compaction cycle, which typically results in allocating
       a new backing store and copying all entries to it. */
   public void compact() {
@@ -178,7 +234,7 @@ public class RectanglePacker {
     boolean done = false;
     int newWidth = levels.w();
     int newHeight = levels.h();
-    LevelSet nextLevelSet = null;
+    PackingStrategy nextLevelSet = null;
     int attemptNumber = 0;
     boolean needAdditionFailureNotification = false;
 
@@ -202,21 +258,20 @@ public class RectanglePacker {
         needAdditionFailureNotification = true;
       }
 
-      nextLevelSet = new LevelSet(newWidth, newHeight);
+      nextLevelSet = strategyFactory.create(newWidth, newHeight);
 
       // Make copies of all existing rectangles
       final List<Rect> newRects = new ArrayList<Rect>();
-      for (final Iterator<Level> i1 = levels.iterator(); i1.hasNext(); ) {
-        final Level level = i1.next();
-        for (final Iterator<Rect> i2 = level.iterator(); i2.hasNext(); ) {
-          final Rect cur = i2.next();
-          final Rect newRect = new Rect(0, 0, cur.w(), cur.h(), null);
-          cur.setNextLocation(newRect);
-          // Hook up the reverse mapping too for easier replacement
-          newRect.setNextLocation(cur);
-          newRects.add(newRect);
-        }
-      }
+      levels.visit(new RectVisitor() {
+          @Override
+          public void visit(final Rect cur) {
+            final Rect newRect = new Rect(0, 0, cur.w(), cur.h(), null);
+            cur.setNextLocation(newRect);
+            // Hook up the reverse mapping too for easier replacement
+            newRect.setNextLocation(cur);
+            newRects.add(newRect);
+          }
+        });
       // Sort them by decreasing height (note: this isn't really
       // guaranteed to improve the chances of a successful layout)
       Collections.sort(newRects, rectHComparator);
@@ -268,17 +323,17 @@ public class RectanglePacker {
     // new locations of rectangles on the backing store. Allocate a
     // new backing store, move the contents over and deallocate the
     // old one.
+    final Object oldBackingStore = backingStore;
     final Object newBackingStore = manager.allocateBackingStore(nextLevelSet.w(),
                                                           nextLevelSet.h());
-    manager.beginMovement(backingStore, newBackingStore);
-    for (final Iterator<Level> i1 = levels.iterator(); i1.hasNext(); ) {
-      final Level level = i1.next();
-      for (final Iterator<Rect> i2 = level.iterator(); i2.hasNext(); ) {
-        final Rect cur = i2.next();
-        manager.move(backingStore, cur,
-                     newBackingStore, cur.getNextLocation());
-      }
-    }
+    manager.beginMovement(oldBackingStore, newBackingStore);
+    levels.visit(new RectVisitor() {
+        @Override
+        public void visit(final Rect cur) {
+          manager.move(oldBackingStore, cur,
+                       newBackingStore, cur.getNextLocation());
+        }
+      });
     // Replace references to temporary rectangles with original ones
     nextLevelSet.updateRectangleReferences();
     manager.endMovement(backingStore, newBackingStore);
@@ -287,6 +342,7 @@ public class RectanglePacker {
     // Update to new versions of backing store and LevelSet
     backingStore = newBackingStore;
     levels = nextLevelSet;
+    ++compactionCount;
   }
 
   /** Clears all Rects contained in this RectanglePacker. */
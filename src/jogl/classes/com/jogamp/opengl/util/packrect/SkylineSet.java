@@ -0,0 +1,341 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+package com.jogamp.opengl.util.packrect;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/** {@link PackingStrategy} implementing the skyline bottom-left
+    algorithm. <P>
+
+    The top outline of all placed Rects is kept as a list of
+    horizontal segments, the skyline. A new Rect is placed on the
+    skyline position which results in the lowest top edge, ties are
+    resolved to the leftmost position. Compared to the shelf based
+    {@link LevelSet} this avoids wasting the space above shorter
+    Rects of a level and hence fragments much less vertically. <P>
+
+    Removing a Rect lowers the skyline again if nothing has been
+    placed on top of it, otherwise its area is kept in a waste list
+    used first by subsequent additions. */
+
+public class SkylineSet implements PackingStrategy {
+  /** {@link PackingStrategy.Factory} creating {@link SkylineSet}s. */
+  public static final PackingStrategy.Factory factory = new PackingStrategy.Factory() {
+    @Override
+    public PackingStrategy create(final int w, final int h) {
+      return new SkylineSet(w, h);
+    }
+  };
+
+  private final List<Rect> rects = new ArrayList<Rect>();
+  private final int w;
+  private int h;
+
+  // Skyline segments maintained in sorted order by increasing X
+  // coordinate, covering the whole width without gaps
+  private int[] skyX = new int[16];
+  private int[] skyY = new int[16];
+  private int[] skyW = new int[16];
+  private int nodeCount;
+
+  // Disjoint free rectangles below the skyline
+  private final List<Rect> wasteList = new ArrayList<Rect>();
+
+  public SkylineSet(final int w, final int h) {
+    this.w = w;
+    this.h = h;
+    resetSkyline();
+  }
+
+  @Override
+  public int w() { return w; }
+  @Override
+  public int h() { return h; }
+
+  @Override
+  public boolean add(final Rect rect) {
+    if (rect.w() > w || rect.h() > h)
+      return false;
+
+    if (addToWasteList(rect)) {
+      rects.add(rect);
+      return true;
+    }
+
+    int bestIdx = -1;
+    int bestY = 0;
+    int bestTop = Integer.MAX_VALUE;
+    // Nodes are sorted by X, hence only a strictly lower top edge
+    // wins to satisfy the bottom-left rule
+    for (int i = 0; i < nodeCount; i++) {
+      final int y = fit(i, rect.w(), rect.h());
+      if (y >= 0 && y + rect.h() < bestTop) {
+        bestIdx = i;
+        bestY = y;
+        bestTop = y + rect.h();
+      }
+    }
+    if (bestIdx < 0)
+      return false;
+
+    rect.setPosition(skyX[bestIdx], bestY);
+    setSpan(rect.x(), rect.w(), bestTop);
+    rects.add(rect);
+    return true;
+  }
+
+  @Override
+  public boolean remove(final Rect rect) {
+    if (!rects.remove(rect))
+      return false;
+
+    if (rects.isEmpty()) {
+      resetSkyline();
+    } else if (isSpanAt(rect.x(), rect.w(), rect.y() + rect.h())) {
+      // Nothing has been placed on top, trivially lower the skyline
+      setSpan(rect.x(), rect.w(), rect.y());
+    } else {
+      final Rect free = new Rect(rect.x(), rect.y(), rect.w(), rect.h(), null);
+      MaxRectsSet.mergeFreeRect(wasteList, free);
+      wasteList.add(free);
+    }
+    return true;
+  }
+
+  /** In-place compaction is not supported by the skyline, always
+      returns false to request a re-layout of the backing store. */
+  @Override
+  public boolean compactAndAdd(final Rect rect,
+                               final Object backingStore,
+                               final BackingStoreManager manager) {
+    return false;
+  }
+
+  @Override
+  public int getUsedHeight() {
+    int usedHeight = 0;
+    for (int i = 0; i < nodeCount; i++) {
+      usedHeight = Math.max(usedHeight, skyY[i]);
+    }
+    return usedHeight;
+  }
+
+  @Override
+  public void setHeight(final int height) throws IllegalArgumentException {
+    if (height < getUsedHeight()) {
+      throw new IllegalArgumentException("May not reduce height below currently used height");
+    }
+    h = height;
+  }
+
+  /** Returns the ratio of the area of the waste list, i.e. the space
+      of removed Rects which could not be given back to the skyline,
+      divided by the overall used area of this SkylineSet. */
+  @Override
+  public float verticalFragmentationRatio() {
+    final long usedArea = (long) w * (long) getUsedHeight();
+    if (usedArea == 0)
+      return 0.0f;
+    long wasteArea = 0;
+    for (int i = wasteList.size() - 1; i >= 0; --i) {
+      final Rect free = wasteList.get(i);
+      wasteArea += (long) free.w() * (long) free.h();
+    }
+    return Math.min(1.0f, (float) wasteArea / (float) usedArea);
+  }
+
+  @Override
+  public void visit(final RectVisitor visitor) {
+    for (final Iterator<Rect> iter = rects.iterator(); iter.hasNext(); ) {
+      visitor.visit(iter.next());
+    }
+  }
+
+  @Override
+  public void updateRectangleReferences() {
+    for (int i = 0; i < rects.size(); i++) {
+      final Rect cur = rects.get(i);
+      final Rect next = cur.getNextLocation();
+      next.setPosition(cur.x(), cur.y());
+      if (cur.w() != next.w() || cur.h() != next.h())
+        throw new RuntimeException("Unexpected disparity in rectangle sizes during updateRectangleReferences");
+      rects.set(i, next);
+    }
+  }
+
+  @Override
+  public void clear() {
+    rects.clear();
+    resetSkyline();
+  }
+
+  //----------------------------------------------------------------------
+  // Internals only below this point
+  //
+
+  private void resetSkyline() {
+    nodeCount = 1;
+    skyX[0] = 0;
+    skyY[0] = 0;
+    skyW[0] = w;
+    wasteList.clear();
+  }
+
+  /** Places the given Rect into the best fitting free rectangle of
+      the waste list, whose remaining space is split into a right and
+      a bottom part. Returns false if none could contain it. */
+  private boolean addToWasteList(final Rect rect) {
+    Rect best = null;
+    long bestArea = Long.MAX_VALUE;
+    for (int i = wasteList.size() - 1; i >= 0; --i) {
+      final Rect free = wasteList.get(i);
+      if (free.canContain(rect)) {
+        final long area = (long) free.w() * (long) free.h();
+        if (area < bestArea) {
+          best = free;
+          bestArea = area;
+        }
+      }
+    }
+    if (best == null)
+      return false;
+
+    wasteList.remove(best);
+    rect.setPosition(best.x(), best.y());
+    if (best.w() > rect.w()) {
+      wasteList.add(new Rect(best.x() + rect.w(), best.y(), best.w() - rect.w(), rect.h(), null));
+    }
+    if (best.h() > rect.h()) {
+      wasteList.add(new Rect(best.x(), best.y() + rect.h(), best.w(), best.h() - rect.h(), null));
+    }
+    return true;
+  }
+
+  /** Returns the y coordinate a Rect of the given size would be
+      placed at when left aligned to skyline node <code>i</code>, or
+      -1 if it does not fit. */
+  private int fit(final int i, final int rw, final int rh) {
+    if (skyX[i] + rw > w)
+      return -1;
+    int y = 0;
+    int remaining = rw;
+    for (int j = i; remaining > 0; j++) {
+      y = Math.max(y, skyY[j]);
+      if (y + rh > h)
+        return -1;
+      remaining -= skyW[j];
+    }
+    return y;
+  }
+
+  /** Returns true if the skyline is at height <code>y</code> over the
+      whole span <code>[x, x + sw)</code>. */
+  private boolean isSpanAt(final int x, final int sw, final int y) {
+    final int end = x + sw;
+    for (int i = 0; i < nodeCount && skyX[i] < end; i++) {
+      if (skyX[i] + skyW[i] > x && skyY[i] != y)
+        return false;
+    }
+    return true;
+  }
+
+  /** Sets the skyline to height <code>y</code> over the span
+      <code>[x, x + sw)</code>. */
+  private void setSpan(final int x, final int sw, final int y) {
+    final int end = x + sw;
+    splitAt(x);
+    splitAt(end);
+    int first = 0;
+    while (skyX[first] < x)
+      first++;
+    int last = first;
+    while (last < nodeCount && skyX[last] < end)
+      last++;
+    // Replace nodes [first, last) by a single one
+    skyY[first] = y;
+    skyW[first] = sw;
+    removeNodes(first + 1, last - first - 1);
+    // Merge with neighbors of the same height
+    if (first + 1 < nodeCount && skyY[first + 1] == y) {
+      skyW[first] += skyW[first + 1];
+      removeNodes(first + 1, 1);
+    }
+    if (first > 0 && skyY[first - 1] == y) {
+      skyW[first - 1] += skyW[first];
+      removeNodes(first, 1);
+    }
+  }
+
+  /** Splits the node containing <code>x</code> so that a node starts
+      at <code>x</code>, unless <code>x</code> is the right border. */
+  private void splitAt(final int x) {
+    if (x >= w)
+      return;
+    for (int i = 0; i < nodeCount; i++) {
+      final int nx = skyX[i];
+      if (nx == x)
+        return;
+      if (nx < x && x < nx + skyW[i]) {
+        insertNode(i + 1, x, skyY[i], nx + skyW[i] - x);
+        skyW[i] = x - nx;
+        return;
+      }
+    }
+  }
+
+  private void insertNode(final int idx, final int x, final int y, final int nw) {
+    if (nodeCount == skyX.length) {
+      final int cap = 2 * skyX.length;
+      skyX = Arrays.copyOf(skyX, cap);
+      skyY = Arrays.copyOf(skyY, cap);
+      skyW = Arrays.copyOf(skyW, cap);
+    }
+    final int tail = nodeCount - idx;
+    System.arraycopy(skyX, idx, skyX, idx + 1, tail);
+    System.arraycopy(skyY, idx, skyY, idx + 1, tail);
+    System.arraycopy(skyW, idx, skyW, idx + 1, tail);
+    skyX[idx] = x;
+    skyY[idx] = y;
+    skyW[idx] = nw;
+    nodeCount++;
+  }
+
+  private void removeNodes(final int idx, final int count) {
+    if (count <= 0)
+      return;
+    final int tail = nodeCount - idx - count;
+    System.arraycopy(skyX, idx + count, skyX, idx, tail);
+    System.arraycopy(skyY, idx + count, skyY, idx, tail);
+    System.arraycopy(skyW, idx + count, skyW, idx, tail);
+    nodeCount -= count;
+  }
+}
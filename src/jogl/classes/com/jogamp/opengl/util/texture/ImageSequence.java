@@ -28,9 +28,20 @@
 package com.jogamp.opengl.util.texture;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URLConnection;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.jogamp.opengl.GL;
 import com.jogamp.opengl.GLException;
@@ -43,8 +54,53 @@ import com.jogamp.common.util.IOUtil;
  * allowing {@link #addFrame(GL, Texture) existing textures}
  * or {@link #addFrame(GL, Class, String, String) image streams}
  * to be used and <i>replayed</i> as {@link TextureSequence.TextureFrame frames}.
+ * <p>
+ * By default all frames are loaded synchronously and kept resident as textures.
+ * {@link #setWindowed(int, int) Windowed mode} keeps only a limited number of textures resident
+ * around the current frame, recycled via {@link Texture#updateImage(GL, TextureData)},
+ * while the upcoming image streams are decoded in the background.
+ * </p>
  */
 public class ImageSequence implements TextureSequence {
+    private static final AtomicInteger threadNum = new AtomicInteger(0);
+
+    /**
+     * Image source of a frame, see {@link ImageSequence#addFrame(GL, FrameSource)}.
+     * <p>
+     * In {@link #setWindowed(int, int) windowed mode} {@link #newTextureData()} is called on the decoder threads
+     * each time the frame becomes resident.
+     * </p>
+     */
+    public static interface FrameSource {
+        /** Returns a new {@link TextureData} instance of this frame's image, destroyed by the caller after upload. */
+        TextureData newTextureData() throws IOException;
+    }
+
+    /** Image stream resource frame */
+    private static class ResourceFrameSource implements FrameSource {
+        final Class<?> context;
+        final String imageResourcePath;
+        final String imageSuffix;
+        ResourceFrameSource(final Class<?> context, final String imageResourcePath, final String imageSuffix) {
+            this.context = context;
+            this.imageResourcePath = imageResourcePath;
+            this.imageSuffix = imageSuffix;
+        }
+        @Override
+        public TextureData newTextureData() throws IOException {
+            final URLConnection urlConn = IOUtil.getResource(imageResourcePath, context.getClassLoader(), context);
+            if( null == urlConn ) {
+                throw new IOException("Image stream "+imageResourcePath+" not found");
+            }
+            final InputStream in = urlConn.getInputStream();
+            try {
+                return TextureIO.newTextureData(GLProfile.getGL2ES2(), in, false, imageSuffix);
+            } finally {
+                IOUtil.close(in, false);
+            }
+        }
+    }
+
     private final int textureUnit;
     private final boolean useBuildInTexLookup;
     private final List<TextureSequence.TextureFrame> frames = new ArrayList<TextureSequence.TextureFrame>();
@@ -54,6 +110,16 @@ public class ImageSequence implements TextureSequence {
     private volatile boolean manualStepping = false;
     private int textureFragmentShaderHashCode = 0;
 
+    // windowed mode
+    private int maxResidentFrames = 0; // 0 == all frames resident
+    private int prefetchDistance = 0;
+    private final List<FrameSource> sources = new ArrayList<FrameSource>();
+    private TextureSequence.TextureFrame[] slots = null;
+    private int[] slotFrameIdx = null;
+    private final Map<Integer, Future<TextureData>> prefetched = new HashMap<Integer, Future<TextureData>>();
+    private ExecutorService decoder = null;
+    private int residentHits = 0, prefetchHits = 0, stalls = 0;
+
     public ImageSequence(final int textureUnit, final boolean useBuildInTexLookup) {
         this.textureUnit = textureUnit;
         this.useBuildInTexLookup = useBuildInTexLookup;
@@ -66,9 +132,68 @@ public class ImageSequence implements TextureSequence {
         texWrapST[1] = wrapT;
     }
 
+    /**
+     * Enables windowed mode, must be called before adding any frame.
+     * <p>
+     * Only up to <code>maxResidentFrames</code> textures will be resident, recycled for the frames around the current index.
+     * The <code>prefetchDistance</code> frames following the current index are decoded in the background
+     * by {@link #addFrame(GL, Class, String, String) image stream} or {@link #addFrame(GL, FrameSource) custom source} frames.
+     * Frames can not be added as {@link #addFrame(GL, Texture) existing textures} in windowed mode.
+     * </p>
+     * @param maxResidentFrames maximum number of resident textures, at least 1
+     * @param prefetchDistance number of upcoming frames to decode ahead, may be 0
+     * @throws IllegalStateException if frames have been added already
+     */
+    public final void setWindowed(final int maxResidentFrames, final int prefetchDistance) throws IllegalStateException {
+        if( 0 < frames.size() || 0 < sources.size() ) {
+            throw new IllegalStateException("Frames already added");
+        }
+        if( 1 > maxResidentFrames || 0 > prefetchDistance ) {
+            throw new IllegalArgumentException("Invalid maxResidentFrames "+maxResidentFrames+" or prefetchDistance "+prefetchDistance);
+        }
+        this.maxResidentFrames = maxResidentFrames;
+        this.prefetchDistance = prefetchDistance;
+        slots = new TextureSequence.TextureFrame[maxResidentFrames];
+        slotFrameIdx = new int[maxResidentFrames];
+        for(int i=0; i<maxResidentFrames; i++) {
+            slotFrameIdx[i] = -1;
+        }
+    }
+    /** Returns true if {@link #setWindowed(int, int) windowed mode} is enabled. */
+    public final boolean isWindowed() { return 0 < maxResidentFrames; }
+    /** Returns the {@link #setWindowed(int, int) maximum number of resident textures} in windowed mode, otherwise 0. */
+    public final int getMaxResidentFrames() { return maxResidentFrames; }
+    /** Returns the {@link #setWindowed(int, int) prefetch distance} in windowed mode, otherwise 0. */
+    public final int getPrefetchDistance() { return prefetchDistance; }
+    /** Returns the number of frames currently resident as textures. */
+    public final int getResidentFrameCount() {
+        if( !isWindowed() ) {
+            return frames.size();
+        }
+        int n = 0;
+        for(int i=0; i<slotFrameIdx.length; i++) {
+            if( 0 <= slotFrameIdx[i] ) { n++; }
+        }
+        return n;
+    }
+    /** Returns the number of frames being decoded or decoded in the background, not yet resident. */
+    public final int getPrefetchedFrameCount() { return prefetched.size(); }
+    /** Returns the number of windowed mode frame requests served by an already resident texture. */
+    public final int getResidentHitCount() { return residentHits; }
+    /** Returns the number of windowed mode frame requests served by an already decoded prefetched image. */
+    public final int getPrefetchHitCount() { return prefetchHits; }
+    /** Returns the number of windowed mode frame requests which had to wait for decoding. */
+    public final int getStallCount() { return stalls; }
+
     public final void addFrame(final GL gl, final Texture tex) {
+        if( isWindowed() ) {
+            throw new IllegalStateException("Only image stream or custom source frames supported in windowed mode");
+        }
         final TextureSequence.TextureFrame frame = new TextureSequence.TextureFrame(tex);
         frames.add(frame);
+        setTexParams(gl, tex);
+    }
+    private void setTexParams(final GL gl, final Texture tex) {
         tex.bind(gl);
         gl.glTexParameteri(getTextureTarget(), GL.GL_TEXTURE_MIN_FILTER, texMinMagFilter[0]);
         gl.glTexParameteri(getTextureTarget(), GL.GL_TEXTURE_MAG_FILTER, texMinMagFilter[1]);
@@ -76,7 +201,21 @@ public class ImageSequence implements TextureSequence {
         gl.glTexParameteri(getTextureTarget(), GL.GL_TEXTURE_WRAP_T, texWrapST[1]);
     }
 
+    /**
+     * Adds the given image stream as a frame.
+     * <p>
+     * In {@link #setWindowed(int, int) windowed mode} the image stream is only validated to exist
+     * and decoded on demand, otherwise it is loaded synchronously into a new texture.
+     * </p>
+     */
     public final void addFrame(final GL gl, final Class<?> context, final String imageResourcePath, final String imageSuffix) throws IOException {
+        if( isWindowed() ) {
+            if( null == IOUtil.getResource(imageResourcePath, context.getClassLoader(), context) ) {
+                return; // same as non-windowed mode
+            }
+            sources.add(new ResourceFrameSource(context, imageResourcePath, imageSuffix));
+            return;
+        }
         final URLConnection urlConn = IOUtil.getResource(imageResourcePath, context.getClassLoader(), context);
         if(null != urlConn) {
             final TextureData texData = TextureIO.newTextureData(GLProfile.getGL2ES2(), urlConn.getInputStream(), false, imageSuffix);
@@ -85,23 +224,199 @@ public class ImageSequence implements TextureSequence {
             addFrame(gl, tex);
         }
     }
-    public final int getFrameCount() { return frames.size(); }
+
+    /**
+     * Adds a frame of the given custom image source, e.g. in-memory or procedurally generated images.
+     * <p>
+     * In {@link #setWindowed(int, int) windowed mode} the image is decoded on demand,
+     * otherwise it is loaded synchronously into a new texture.
+     * </p>
+     */
+    public final void addFrame(final GL gl, final FrameSource source) throws IOException {
+        if( isWindowed() ) {
+            sources.add(source);
+            return;
+        }
+        final TextureData texData = source.newTextureData();
+        final Texture tex = new Texture(getTextureTarget());
+        tex.updateImage(gl, texData);
+        texData.destroy();
+        addFrame(gl, tex);
+    }
+    public final int getFrameCount() { return isWindowed() ? sources.size() : frames.size(); }
     public final int getCurrentIdx() { return frameIdx; }
     public final void setCurrentIdx(final int idx) throws IndexOutOfBoundsException {
-        if( 0 > idx || idx >= frames.size() ) {
-            throw new IndexOutOfBoundsException("idx shall be within 0 <= "+idx+" < "+frames.size());
+        if( 0 > idx || idx >= getFrameCount() ) {
+            throw new IndexOutOfBoundsException("idx shall be within 0 <= "+idx+" < "+getFrameCount());
         }
         frameIdx=idx;
     }
     public final void setManualStepping(final boolean v) { manualStepping = v; }
     public final boolean getManualStepping() { return manualStepping; }
-    public final TextureSequence.TextureFrame getFrame(final int idx) { return frames.get(idx); }
+    /**
+     * Returns the frame at the given index.
+     * In {@link #setWindowed(int, int) windowed mode}, returns <code>null</code> if the frame is not resident.
+     */
+    public final TextureSequence.TextureFrame getFrame(final int idx) {
+        if( isWindowed() ) {
+            final int slot = findSlot(idx);
+            return 0 <= slot ? slots[slot] : null;
+        }
+        return frames.get(idx);
+    }
 
     public void destroy(final GL gl) throws GLException {
         for(int i=frames.size()-1; i>=0; i--) {
-            frames.get(i).getTexture().destroy(gl);
+            destroyTexture(gl, frames.get(i).getTexture());
         }
         frames.clear();
+        if( isWindowed() ) {
+            for(final Iterator<Future<TextureData>> it = prefetched.values().iterator(); it.hasNext(); ) {
+                destroyPrefetched(it.next());
+            }
+            prefetched.clear();
+            if( null != decoder ) {
+                decoder.shutdownNow();
+                decoder = null;
+            }
+            for(int i=0; i<slots.length; i++) {
+                if( null != slots[i] ) {
+                    destroyTexture(gl, slots[i].getTexture());
+                    slots[i] = null;
+                }
+                slotFrameIdx[i] = -1;
+            }
+            sources.clear();
+        }
+    }
+
+    private int findSlot(final int idx) {
+        for(int i=0; i<slotFrameIdx.length; i++) {
+            if( idx == slotFrameIdx[i] ) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Returns the empty slot or the one holding the frame farthest ahead in playback order, i.e. the one passed most recently. */
+    private int findVictimSlot(final int idx) {
+        final int n = sources.size();
+        int victim = 0, victimDist = -1;
+        for(int i=0; i<slotFrameIdx.length; i++) {
+            if( 0 > slotFrameIdx[i] ) {
+                return i;
+            }
+            final int dist = ( slotFrameIdx[i] - idx + n ) % n;
+            if( dist > victimDist ) {
+                victim = i;
+                victimDist = dist;
+            }
+        }
+        return victim;
+    }
+
+    /** Makes frame <code>idx</code> resident, waiting for its decoding if required, and schedules the upcoming frames. */
+    private TextureSequence.TextureFrame makeResident(final GL gl, final int idx) throws GLException {
+        int slot = findSlot(idx);
+        if( 0 <= slot ) {
+            residentHits++;
+        } else {
+            Future<TextureData> f = prefetched.remove(Integer.valueOf(idx));
+            if( null == f ) {
+                f = submitDecode(idx);
+                stalls++;
+            } else if( f.isDone() ) {
+                prefetchHits++;
+            } else {
+                stalls++;
+            }
+            final TextureData texData;
+            try {
+                texData = f.get();
+            } catch (final InterruptedException e) {
+                throw new GLException("Interrupted while decoding frame "+idx, e);
+            } catch (final ExecutionException e) {
+                throw new GLException("Decoding frame "+idx+" failed", e.getCause());
+            }
+            slot = findVictimSlot(idx);
+            if( null == slots[slot] ) {
+                slots[slot] = new TextureSequence.TextureFrame(newTexture(gl, texData));
+            } else {
+                updateTexture(gl, slots[slot].getTexture(), texData); // recycle texture object
+            }
+            slotFrameIdx[slot] = idx;
+            texData.destroy();
+        }
+        schedulePrefetch(idx);
+        return slots[slot];
+    }
+
+    /** Creates a texture w/ the given image for a windowed mode frame. */
+    protected Texture newTexture(final GL gl, final TextureData texData) throws GLException {
+        final Texture tex = new Texture(getTextureTarget());
+        tex.updateImage(gl, texData);
+        setTexParams(gl, tex);
+        return tex;
+    }
+
+    /** Replaces the image of a recycled windowed mode frame texture. */
+    protected void updateTexture(final GL gl, final Texture tex, final TextureData texData) throws GLException {
+        tex.updateImage(gl, texData);
+    }
+
+    /** Destroys a frame texture, called by {@link #destroy(GL)}. */
+    protected void destroyTexture(final GL gl, final Texture tex) throws GLException {
+        tex.destroy(gl);
+    }
+
+    /** Schedules decoding of the {@link #prefetchDistance} frames following <code>idx</code> and drops those out of this window. */
+    private void schedulePrefetch(final int idx) {
+        final int n = sources.size();
+        final int distance = Math.min(prefetchDistance, n - 1);
+        for(final Iterator<Map.Entry<Integer, Future<TextureData>>> it = prefetched.entrySet().iterator(); it.hasNext(); ) {
+            final Map.Entry<Integer, Future<TextureData>> e = it.next();
+            final int dist = ( e.getKey().intValue() - idx + n ) % n;
+            if( 0 == dist || dist > distance ) {
+                destroyPrefetched(e.getValue());
+                it.remove();
+            }
+        }
+        for(int d=1; d<=distance; d++) {
+            final int i = ( idx + d ) % n;
+            if( 0 > findSlot(i) && !prefetched.containsKey(Integer.valueOf(i)) ) {
+                prefetched.put(Integer.valueOf(i), submitDecode(i));
+            }
+        }
+    }
+
+    private Future<TextureData> submitDecode(final int idx) {
+        if( null == decoder ) {
+            final int threads = Math.max(1, Math.min(prefetchDistance, Runtime.getRuntime().availableProcessors() - 1));
+            decoder = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+                @Override
+                public Thread newThread(final Runnable r) {
+                    final Thread t = new Thread(r, "ImageSequence-Decoder-"+threadNum.getAndIncrement());
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+        }
+        final FrameSource src = sources.get(idx);
+        return decoder.submit(new Callable<TextureData>() {
+            @Override
+            public TextureData call() throws IOException {
+                return src.newTextureData();
+            }
+        });
+    }
+
+    private static void destroyPrefetched(final Future<TextureData> f) {
+        if( !f.cancel(false) && f.isDone() ) {
+            try {
+                f.get().destroy();
+            } catch (final Exception e) { /* failed decoding */ }
+        }
     }
 
     @Override
@@ -125,17 +440,20 @@ public class ImageSequence implements TextureSequence {
     }
 
     @Override
-    public boolean isTextureAvailable() { return frames.size() > 0; }
+    public boolean isTextureAvailable() { return getFrameCount() > 0; }
 
     @Override
     public TextureSequence.TextureFrame getLastTexture() throws IllegalStateException {
-        return frames.get(frameIdx); // may return null
+        return getFrame(frameIdx); // may return null
     }
 
     @Override
     public TextureSequence.TextureFrame getNextTexture(final GL gl) throws IllegalStateException {
         if( !manualStepping ) {
-            frameIdx = ( frameIdx + 1 ) % frames.size();
+            frameIdx = ( frameIdx + 1 ) % getFrameCount();
+        }
+        if( isWindowed() ) {
+            return makeResident(gl, frameIdx);
         }
         return frames.get(frameIdx);
     }
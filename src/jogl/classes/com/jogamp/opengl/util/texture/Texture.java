@@ -202,6 +202,9 @@ public class Texture {
     /** An estimate of the amount of texture memory this texture consumes. */
     private int estimatedMemorySize;
 
+    /** The {@link TextureManager} tracking this texture, if any. */
+    /* package */ TextureManager manager;
+
     private static final boolean DEBUG = Debug.debug("Texture");
     private static final boolean VERBOSE = Debug.verbose();
 
@@ -289,6 +292,9 @@ public class Texture {
      * OpenGL-related errors occurred
      */
     public void enable(final GL gl) throws GLException {
+        if( null != manager ) {
+            manager.touch(gl, this, false);
+        }
         if( !gl.isGLcore() && GLES2.GL_TEXTURE_EXTERNAL_OES != target) {
             gl.glEnable(target);
         }
@@ -331,11 +337,19 @@ public class Texture {
      * See the <a href="#perftips">performance tips</a> above for hints
      * on how to maximize performance when using many Texture objects.
      *
+     * <p>
+     * If this texture is managed by a {@link TextureManager} and has been evicted,
+     * it is reloaded before binding.
+     * </p>
+     *
      * @param gl the current GL context
      * @throws GLException if no OpenGL context was current or if any
      * OpenGL-related errors occurred
      */
     public void bind(final GL gl) throws GLException {
+        if( null != manager ) {
+            manager.touch(gl, this, true);
+        }
         validateTexID(gl, true);
         gl.glBindTexture(target, texID);
     }
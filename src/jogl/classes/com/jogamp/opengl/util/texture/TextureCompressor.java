@@ -0,0 +1,763 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util.texture;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GLException;
+
+import com.jogamp.common.nio.Buffers;
+
+/**
+ * CPU block compressor for {@link Format#BC1 BC1 (DXT1)}, {@link Format#BC3 BC3 (DXT5)}
+ * and {@link Format#ETC1 ETC1} textures.
+ * <p>
+ * {@link #compress(TextureData, Format, boolean)} turns uncompressed <code>GL_RGB</code> or <code>GL_RGBA</code>
+ * {@link TextureData} into compressed {@link TextureData}, optionally w/ a box filtered mip chain,
+ * which can be uploaded via {@link Texture#updateImage(com.jogamp.opengl.GL, TextureData)}
+ * or written via {@link TextureIO#write(TextureData, java.io.File)}, e.g. as DDS for BC1/BC3.
+ * </p>
+ * <p>
+ * Block rows are encoded concurrently on a pool of daemon threads.
+ * The encoders favor speed over quality: BC1/BC3 colors use principal axis endpoints
+ * refined once by least squares, ETC1 evaluates both subblock orientations and all modifier tables
+ * on the subblock averages.
+ * </p>
+ * <p>
+ * {@link #decompress(ByteBuffer, int, int, Format)} decodes all formats to RGBA,
+ * e.g. to measure quality or as fallback.
+ * </p>
+ */
+public class TextureCompressor {
+    /** GL_ETC1_RGB8_OES, OES_compressed_ETC1_RGB8_texture */
+    public static final int GL_ETC1_RGB8_OES = 0x8D64;
+
+    /** Supported block compression formats, all using 4x4 pixel blocks. */
+    public static enum Format {
+        /** BC1 aka DXT1, RGB w/o alpha, 8 bytes per block */
+        BC1(GL.GL_COMPRESSED_RGB_S3TC_DXT1_EXT, 8),
+        /** BC3 aka DXT5, RGBA w/ interpolated alpha, 16 bytes per block */
+        BC3(GL.GL_COMPRESSED_RGBA_S3TC_DXT5_EXT, 16),
+        /** ETC1, RGB w/o alpha, 8 bytes per block, supported by most ES2 implementations */
+        ETC1(GL_ETC1_RGB8_OES, 8);
+
+        /** The OpenGL internal format */
+        public final int glInternalFormat;
+        /** Bytes per 4x4 block */
+        public final int blockBytes;
+
+        Format(final int glInternalFormat, final int blockBytes) {
+            this.glInternalFormat = glInternalFormat;
+            this.blockBytes = blockBytes;
+        }
+    }
+
+    private static final AtomicInteger threadNum = new AtomicInteger(0);
+
+    private static final int[][] ETC1_MODIFIERS = {
+        { 2, 8 }, { 5, 17 }, { 9, 29 }, { 13, 42 }, { 18, 60 }, { 24, 80 }, { 33, 106 }, { 47, 183 } };
+
+    private final int threads;
+    private ExecutorService executor = null;
+
+    /**
+     * @param threads number of encoder threads, zero for the number of available processors
+     */
+    public TextureCompressor(final int threads) {
+        this.threads = 0 < threads ? threads : Runtime.getRuntime().availableProcessors();
+    }
+
+    /** Returns the number of encoder threads. */
+    public final int getThreadCount() { return threads; }
+
+    /** Shuts down the encoder threads, if any. A subsequent compression creates new ones. */
+    public final synchronized void destroy() {
+        if( null != executor ) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private synchronized ExecutorService getExecutor() {
+        if( null == executor ) {
+            executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+                @Override
+                public Thread newThread(final Runnable r) {
+                    final Thread t = new Thread(r, "TextureCompressor-"+threadNum.getAndIncrement());
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+        }
+        return executor;
+    }
+
+    /** Returns the size in bytes of a compressed image of the given size. */
+    public static int getCompressedSize(final int width, final int height, final Format fmt) {
+        return ( ( width + 3 ) / 4 ) * ( ( height + 3 ) / 4 ) * fmt.blockBytes;
+    }
+
+    /**
+     * Compresses the given uncompressed texture data.
+     * @param src uncompressed <code>GL_RGB</code> or <code>GL_RGBA</code> data of type <code>GL_UNSIGNED_BYTE</code>,
+     *            its first mipmap level is used if it holds a mip chain
+     * @param fmt the target format, alpha is dropped for {@link Format#BC1} and {@link Format#ETC1}
+     * @param mipmaps if true, a full mip chain down to 1x1 is generated and compressed
+     * @return compressed texture data w/ {@link TextureData#isDataCompressed()} == true
+     * @throws IllegalArgumentException if the source data is not supported
+     */
+    public TextureData compress(final TextureData src, final Format fmt, final boolean mipmaps) throws IllegalArgumentException {
+        if( src.isDataCompressed() ) {
+            throw new IllegalArgumentException("Source data already compressed: "+src);
+        }
+        int w = src.getWidth(), h = src.getHeight();
+        byte[] rgba = toRGBA(src);
+        if( !mipmaps ) {
+            return new TextureData(src.getGLProfile(), fmt.glInternalFormat, w, h, 0,
+                                   GL.GL_RGBA, GL.GL_UNSIGNED_BYTE, false, true /* dataIsCompressed */,
+                                   src.getMustFlipVertically(), compress(rgba, w, h, fmt), null);
+        }
+        final List<Buffer> levels = new ArrayList<Buffer>();
+        while( true ) {
+            levels.add(compress(rgba, w, h, fmt));
+            if( 1 == w && 1 == h ) {
+                break;
+            }
+            rgba = downsample(rgba, w, h);
+            w = Math.max(1, w / 2);
+            h = Math.max(1, h / 2);
+        }
+        return new TextureData(src.getGLProfile(), fmt.glInternalFormat, src.getWidth(), src.getHeight(), 0,
+                               GL.GL_RGBA, GL.GL_UNSIGNED_BYTE, true /* dataIsCompressed */,
+                               src.getMustFlipVertically(), levels.toArray(new Buffer[levels.size()]), null);
+    }
+
+    /**
+     * Compresses the given tightly packed RGBA pixels, 4 bytes per pixel.
+     * @return a new direct buffer of {@link #getCompressedSize(int, int, Format)} bytes
+     */
+    public ByteBuffer compress(final byte[] rgba, final int width, final int height, final Format fmt) {
+        final int blocksX = ( width + 3 ) / 4;
+        final int blocksY = ( height + 3 ) / 4;
+        final int rowBytes = blocksX * fmt.blockBytes;
+        final byte[] out = new byte[blocksY * rowBytes];
+        final int tasks = Math.min(blocksY, threads * 4);
+        if( 1 >= threads || 1 >= tasks ) {
+            encodeRows(rgba, width, height, fmt, out, 0, blocksY);
+        } else {
+            final List<Future<Object>> futures = new ArrayList<Future<Object>>(tasks);
+            final ExecutorService exec = getExecutor();
+            for(int t=0; t<tasks; t++) {
+                final int by0 = blocksY * t / tasks;
+                final int by1 = blocksY * ( t + 1 ) / tasks;
+                futures.add(exec.submit(new Callable<Object>() {
+                    @Override
+                    public Object call() {
+                        encodeRows(rgba, width, height, fmt, out, by0, by1);
+                        return null;
+                    }
+                }));
+            }
+            try {
+                for(int t=0; t<futures.size(); t++) {
+                    futures.get(t).get();
+                }
+            } catch (final InterruptedException e) {
+                throw new GLException("Interrupted while compressing", e);
+            } catch (final ExecutionException e) {
+                throw new GLException("Compression failed", e.getCause());
+            }
+        }
+        final ByteBuffer res = Buffers.newDirectByteBuffer(out.length);
+        res.put(out);
+        res.flip();
+        return res;
+    }
+
+    private static void encodeRows(final byte[] rgba, final int width, final int height, final Format fmt,
+                                   final byte[] out, final int by0, final int by1) {
+        final int blocksX = ( width + 3 ) / 4;
+        final int[] block = new int[16 * 4];
+        final int[] scratch = new int[16];
+        for(int by=by0; by<by1; by++) {
+            int o = by * blocksX * fmt.blockBytes;
+            for(int bx=0; bx<blocksX; bx++) {
+                fetchBlock(rgba, width, height, bx * 4, by * 4, block);
+                switch( fmt ) {
+                    case BC1:
+                        encodeBC1Color(block, out, o, scratch);
+                        break;
+                    case BC3:
+                        encodeBC3Alpha(block, out, o);
+                        encodeBC1Color(block, out, o + 8, scratch);
+                        break;
+                    case ETC1:
+                        encodeETC1(block, out, o, scratch);
+                        break;
+                }
+                o += fmt.blockBytes;
+            }
+        }
+    }
+
+    /** Fetches the 4x4 block at x/y as RGBA ints, clamping at the image edges. */
+    private static void fetchBlock(final byte[] rgba, final int width, final int height, final int x0, final int y0, final int[] block) {
+        for(int y=0; y<4; y++) {
+            final int sy = Math.min(y0 + y, height - 1);
+            for(int x=0; x<4; x++) {
+                final int sx = Math.min(x0 + x, width - 1);
+                final int s = ( sy * width + sx ) * 4;
+                final int d = ( y * 4 + x ) * 4;
+                block[d  ] = rgba[s  ] & 0xff;
+                block[d+1] = rgba[s+1] & 0xff;
+                block[d+2] = rgba[s+2] & 0xff;
+                block[d+3] = rgba[s+3] & 0xff;
+            }
+        }
+    }
+
+    //
+    // BC1 / BC3
+    //
+
+    private static int to565(final int r, final int g, final int b) {
+        return ( ( r * 31 + 127 ) / 255 ) << 11 | ( ( g * 63 + 127 ) / 255 ) << 5 | ( ( b * 31 + 127 ) / 255 );
+    }
+    private static void from565(final int c, final int[] rgb, final int o) {
+        final int r = ( c >>> 11 ) & 31, g = ( c >>> 5 ) & 63, b = c & 31;
+        rgb[o  ] = ( r << 3 ) | ( r >>> 2 );
+        rgb[o+1] = ( g << 2 ) | ( g >>> 4 );
+        rgb[o+2] = ( b << 3 ) | ( b >>> 2 );
+    }
+    /** 4 color BC1 palette */
+    private static void bc1Palette(final int c0, final int c1, final int[] pal) {
+        from565(c0, pal, 0);
+        from565(c1, pal, 3);
+        for(int i=0; i<3; i++) {
+            pal[6+i] = ( 2 * pal[i] + pal[3+i] ) / 3;
+            pal[9+i] = ( pal[i] + 2 * pal[3+i] ) / 3;
+        }
+    }
+    /** Stores the best palette index per pixel and returns the squared error. */
+    private static int matchColors(final int[] block, final int[] pal, final int[] indices) {
+        int err = 0;
+        for(int i=0; i<16; i++) {
+            final int r = block[i*4], g = block[i*4+1], b = block[i*4+2];
+            int best = 0, bestD = Integer.MAX_VALUE;
+            for(int p=0; p<4; p++) {
+                final int dr = r - pal[p*3], dg = g - pal[p*3+1], db = b - pal[p*3+2];
+                final int d = dr*dr + dg*dg + db*db;
+                if( d < bestD ) {
+                    bestD = d;
+                    best = p;
+                }
+            }
+            indices[i] = best;
+            err += bestD;
+        }
+        return err;
+    }
+
+    private static void encodeBC1Color(final int[] block, final byte[] out, final int o, final int[] indices) {
+        // Principal axis via power iteration on the color covariance
+        float mr = 0, mg = 0, mb = 0;
+        int minR = 255, minG = 255, minB = 255, maxR = 0, maxG = 0, maxB = 0;
+        for(int i=0; i<16; i++) {
+            final int r = block[i*4], g = block[i*4+1], b = block[i*4+2];
+            mr += r; mg += g; mb += b;
+            minR = Math.min(minR, r); minG = Math.min(minG, g); minB = Math.min(minB, b);
+            maxR = Math.max(maxR, r); maxG = Math.max(maxG, g); maxB = Math.max(maxB, b);
+        }
+        mr /= 16; mg /= 16; mb /= 16;
+        float crr = 0, crg = 0, crb = 0, cgg = 0, cgb = 0, cbb = 0;
+        for(int i=0; i<16; i++) {
+            final float r = block[i*4] - mr, g = block[i*4+1] - mg, b = block[i*4+2] - mb;
+            crr += r*r; crg += r*g; crb += r*b; cgg += g*g; cgb += g*b; cbb += b*b;
+        }
+        float vr = maxR - minR, vg = maxG - minG, vb = maxB - minB;
+        for(int it=0; it<4; it++) {
+            final float r = vr*crr + vg*crg + vb*crb;
+            final float g = vr*crg + vg*cgg + vb*cgb;
+            final float b = vr*crb + vg*cgb + vb*cbb;
+            final float m = Math.max(Math.abs(r), Math.max(Math.abs(g), Math.abs(b)));
+            if( m < 1e-4f ) {
+                break;
+            }
+            vr = r / m; vg = g / m; vb = b / m;
+        }
+        int iMin = 0, iMax = 0;
+        float dMin = Float.MAX_VALUE, dMax = -Float.MAX_VALUE;
+        for(int i=0; i<16; i++) {
+            final float d = block[i*4]*vr + block[i*4+1]*vg + block[i*4+2]*vb;
+            if( d < dMin ) { dMin = d; iMin = i; }
+            if( d > dMax ) { dMax = d; iMax = i; }
+        }
+        int c0 = to565(block[iMax*4], block[iMax*4+1], block[iMax*4+2]);
+        int c1 = to565(block[iMin*4], block[iMin*4+1], block[iMin*4+2]);
+        final int[] pal = new int[12];
+        bc1Palette(c0, c1, pal);
+        int err = matchColors(block, pal, indices);
+
+        // One least squares refinement of the endpoints for the chosen indices
+        if( 0 < err && c0 != c1 ) {
+            float aa = 0, bb = 0, ab = 0;
+            float axR = 0, axG = 0, axB = 0, bxR = 0, bxG = 0, bxB = 0;
+            for(int i=0; i<16; i++) {
+                final float a;
+                switch( indices[i] ) {
+                    case 0: a = 1f; break;
+                    case 1: a = 0f; break;
+                    case 2: a = 2f/3f; break;
+                    default: a = 1f/3f; break;
+                }
+                final float b = 1f - a;
+                aa += a*a; bb += b*b; ab += a*b;
+                axR += a*block[i*4]; axG += a*block[i*4+1]; axB += a*block[i*4+2];
+                bxR += b*block[i*4]; bxG += b*block[i*4+1]; bxB += b*block[i*4+2];
+            }
+            final float det = aa*bb - ab*ab;
+            if( Math.abs(det) > 1e-6f ) {
+                final int n0 = to565(clamp255(( axR*bb - bxR*ab ) / det), clamp255(( axG*bb - bxG*ab ) / det), clamp255(( axB*bb - bxB*ab ) / det));
+                final int n1 = to565(clamp255(( bxR*aa - axR*ab ) / det), clamp255(( bxG*aa - axG*ab ) / det), clamp255(( bxB*aa - axB*ab ) / det));
+                final int[] pal2 = new int[12];
+                final int[] idx2 = new int[16];
+                bc1Palette(n0, n1, pal2);
+                final int err2 = matchColors(block, pal2, idx2);
+                if( err2 < err ) {
+                    c0 = n0;
+                    c1 = n1;
+                    err = err2;
+                    System.arraycopy(idx2, 0, indices, 0, 16);
+                }
+            }
+        }
+        // 4 color mode requires c0 > c1
+        if( c0 < c1 ) {
+            final int t = c0; c0 = c1; c1 = t;
+            for(int i=0; i<16; i++) {
+                indices[i] ^= 1; // 0<->1, 2<->3
+            }
+        } else if( c0 == c1 ) {
+            for(int i=0; i<16; i++) {
+                indices[i] = 0;
+            }
+        }
+        int bits = 0;
+        for(int i=0; i<16; i++) {
+            bits |= indices[i] << ( 2 * i );
+        }
+        out[o  ] = (byte) c0;
+        out[o+1] = (byte) ( c0 >>> 8 );
+        out[o+2] = (byte) c1;
+        out[o+3] = (byte) ( c1 >>> 8 );
+        out[o+4] = (byte) bits;
+        out[o+5] = (byte) ( bits >>> 8 );
+        out[o+6] = (byte) ( bits >>> 16 );
+        out[o+7] = (byte) ( bits >>> 24 );
+    }
+
+    private static int clamp255(final float v) {
+        return v <= 0f ? 0 : v >= 255f ? 255 : (int) ( v + 0.5f );
+    }
+
+    private static void bc3AlphaPalette(final int a0, final int a1, final int[] pal) {
+        pal[0] = a0;
+        pal[1] = a1;
+        if( a0 > a1 ) {
+            for(int i=2; i<8; i++) {
+                pal[i] = ( ( 8 - i ) * a0 + ( i - 1 ) * a1 ) / 7;
+            }
+        } else {
+            for(int i=2; i<6; i++) {
+                pal[i] = ( ( 6 - i ) * a0 + ( i - 1 ) * a1 ) / 5;
+            }
+            pal[6] = 0;
+            pal[7] = 255;
+        }
+    }
+
+    private static void encodeBC3Alpha(final int[] block, final byte[] out, final int o) {
+        int aMin = 255, aMax = 0;
+        for(int i=0; i<16; i++) {
+            aMin = Math.min(aMin, block[i*4+3]);
+            aMax = Math.max(aMax, block[i*4+3]);
+        }
+        final int[] pal = new int[8];
+        bc3AlphaPalette(aMax, aMin, pal);
+        long bits = 0;
+        if( aMax != aMin ) {
+            for(int i=0; i<16; i++) {
+                final int a = block[i*4+3];
+                int best = 0, bestD = Integer.MAX_VALUE;
+                for(int p=0; p<8; p++) {
+                    final int d = Math.abs(a - pal[p]);
+                    if( d < bestD ) {
+                        bestD = d;
+                        best = p;
+                    }
+                }
+                bits |= (long) best << ( 3 * i );
+            }
+        }
+        out[o  ] = (byte) aMax;
+        out[o+1] = (byte) aMin;
+        for(int i=0; i<6; i++) {
+            out[o+2+i] = (byte) ( bits >>> ( 8 * i ) );
+        }
+    }
+
+    //
+    // ETC1
+    //
+
+    private static int expand4(final int c) { return ( c << 4 ) | c; }
+    private static int expand5(final int c) { return ( c << 3 ) | ( c >>> 2 ); }
+
+    /** Returns true if pixel i (row major) belongs to the second subblock. */
+    private static boolean inSubblock2(final int i, final boolean flip) {
+        return flip ? 2 <= ( i >>> 2 ) : 2 <= ( i & 3 );
+    }
+
+    /**
+     * Finds the best modifier table and per pixel modifiers of one subblock for the given base color.
+     * Stores the table in res[0], the error in res[1] and the pixel modifier indices in indices.
+     */
+    private static void etc1FitSubblock(final int[] block, final boolean flip, final boolean second,
+                                        final int br, final int bg, final int bb, final int[] indices, final int[] res) {
+        int bestErr = Integer.MAX_VALUE, bestTable = 0;
+        final int[] tmp = new int[16];
+        for(int t=0; t<8; t++) {
+            final int[] mods = ETC1_MODIFIERS[t];
+            int err = 0;
+            for(int i=0; i<16 && err < bestErr; i++) {
+                if( second != inSubblock2(i, flip) ) {
+                    continue;
+                }
+                final int r = block[i*4], g = block[i*4+1], b = block[i*4+2];
+                int best = 0, bestD = Integer.MAX_VALUE;
+                for(int m=0; m<4; m++) {
+                    final int mod = 0 == ( m & 2 ) ? mods[m & 1] : -mods[m & 1];
+                    final int dr = r - clamp(br + mod), dg = g - clamp(bg + mod), db = b - clamp(bb + mod);
+                    final int d = dr*dr + dg*dg + db*db;
+                    if( d < bestD ) {
+                        bestD = d;
+                        best = m;
+                    }
+                }
+                tmp[i] = best;
+                err += bestD;
+            }
+            if( err < bestErr ) {
+                bestErr = err;
+                bestTable = t;
+                for(int i=0; i<16; i++) {
+                    if( second == inSubblock2(i, flip) ) {
+                        indices[i] = tmp[i];
+                    }
+                }
+            }
+        }
+        res[0] = bestTable;
+        res[1] = bestErr;
+    }
+
+    private static int clamp(final int v) {
+        return v < 0 ? 0 : v > 255 ? 255 : v;
+    }
+
+    private static void encodeETC1(final int[] block, final byte[] out, final int o, final int[] indices) {
+        long bestBits = 0;
+        int bestErr = Integer.MAX_VALUE;
+        final int[] idx = new int[16];
+        final int[] res1 = new int[2], res2 = new int[2];
+        for(int f=0; f<2; f++) {
+            final boolean flip = 1 == f;
+            // subblock averages
+            final int[] sum = new int[6];
+            for(int i=0; i<16; i++) {
+                final int s = inSubblock2(i, flip) ? 3 : 0;
+                sum[s  ] += block[i*4];
+                sum[s+1] += block[i*4+1];
+                sum[s+2] += block[i*4+2];
+            }
+            final int[] q5 = new int[6];
+            for(int c=0; c<6; c++) {
+                q5[c] = ( sum[c] * 31 + 255 * 4 ) / ( 255 * 8 ); // round(avg * 31 / 255)
+            }
+            final boolean diff = fitsDelta(q5[3] - q5[0]) && fitsDelta(q5[4] - q5[1]) && fitsDelta(q5[5] - q5[2]);
+            final int[] base = new int[6];
+            final int[] q4 = new int[6];
+            for(int c=0; c<6; c++) {
+                if( diff ) {
+                    base[c] = expand5(q5[c]);
+                } else {
+                    q4[c] = ( sum[c] * 15 + 255 * 4 ) / ( 255 * 8 );
+                    base[c] = expand4(q4[c]);
+                }
+            }
+            etc1FitSubblock(block, flip, false, base[0], base[1], base[2], idx, res1);
+            etc1FitSubblock(block, flip, true,  base[3], base[4], base[5], idx, res2);
+            final int err = res1[1] + res2[1];
+            if( err < bestErr ) {
+                bestErr = err;
+                long bits;
+                if( diff ) {
+                    bits = (long) q5[0] << 59 | (long) ( ( q5[3] - q5[0] ) & 7 ) << 56 |
+                           (long) q5[1] << 51 | (long) ( ( q5[4] - q5[1] ) & 7 ) << 48 |
+                           (long) q5[2] << 43 | (long) ( ( q5[5] - q5[2] ) & 7 ) << 40 |
+                           1L << 33;
+                } else {
+                    bits = (long) q4[0] << 60 | (long) q4[3] << 56 |
+                           (long) q4[1] << 52 | (long) q4[4] << 48 |
+                           (long) q4[2] << 44 | (long) q4[5] << 40;
+                }
+                bits |= (long) res1[0] << 37 | (long) res2[0] << 34 | ( flip ? 1L << 32 : 0 );
+                for(int i=0; i<16; i++) {
+                    final int p = ( i & 3 ) * 4 + ( i >>> 2 ); // ETC1 pixels are column major
+                    bits |= (long) ( idx[i] >>> 1 ) << ( 16 + p ) | (long) ( idx[i] & 1 ) << p;
+                }
+                bestBits = bits;
+            }
+        }
+        for(int i=0; i<8; i++) {
+            out[o+i] = (byte) ( bestBits >>> ( 56 - 8 * i ) );
+        }
+    }
+
+    private static boolean fitsDelta(final int d) {
+        return -4 <= d && d <= 3;
+    }
+
+    //
+    // Decoding
+    //
+
+    /**
+     * Decodes the given compressed image to tightly packed RGBA pixels, 4 bytes per pixel.
+     * Alpha is 255 for {@link Format#BC1} and {@link Format#ETC1}.
+     * @param blocks compressed data starting at its position
+     */
+    public static byte[] decompress(final ByteBuffer blocks, final int width, final int height, final Format fmt) {
+        final byte[] rgba = new byte[width * height * 4];
+        final int blocksX = ( width + 3 ) / 4;
+        final int blocksY = ( height + 3 ) / 4;
+        final byte[] blk = new byte[fmt.blockBytes];
+        final int[] px = new int[16 * 4];
+        final int[] pal = new int[12];
+        final int[] apal = new int[8];
+        final int p0 = blocks.position();
+        for(int by=0; by<blocksY; by++) {
+            for(int bx=0; bx<blocksX; bx++) {
+                final int o = p0 + ( by * blocksX + bx ) * fmt.blockBytes;
+                for(int i=0; i<blk.length; i++) {
+                    blk[i] = blocks.get(o + i);
+                }
+                switch( fmt ) {
+                    case BC1:
+                        decodeBC1Color(blk, 0, px, pal, false);
+                        break;
+                    case BC3:
+                        decodeBC1Color(blk, 8, px, pal, true);
+                        decodeBC3Alpha(blk, px, apal);
+                        break;
+                    case ETC1:
+                        decodeETC1(blk, px);
+                        break;
+                }
+                for(int y=0; y<4; y++) {
+                    final int dy = by * 4 + y;
+                    if( dy >= height ) {
+                        break;
+                    }
+                    for(int x=0; x<4; x++) {
+                        final int dx = bx * 4 + x;
+                        if( dx >= width ) {
+                            break;
+                        }
+                        final int s = ( y * 4 + x ) * 4;
+                        final int d = ( dy * width + dx ) * 4;
+                        rgba[d  ] = (byte) px[s  ];
+                        rgba[d+1] = (byte) px[s+1];
+                        rgba[d+2] = (byte) px[s+2];
+                        rgba[d+3] = (byte) px[s+3];
+                    }
+                }
+            }
+        }
+        return rgba;
+    }
+
+    private static void decodeBC1Color(final byte[] blk, final int o, final int[] px, final int[] pal, final boolean force4) {
+        final int c0 = ( blk[o] & 0xff ) | ( blk[o+1] & 0xff ) << 8;
+        final int c1 = ( blk[o+2] & 0xff ) | ( blk[o+3] & 0xff ) << 8;
+        final int bits = ( blk[o+4] & 0xff ) | ( blk[o+5] & 0xff ) << 8 | ( blk[o+6] & 0xff ) << 16 | ( blk[o+7] & 0xff ) << 24;
+        int transparent = -1;
+        if( force4 || c0 > c1 ) {
+            bc1Palette(c0, c1, pal);
+        } else {
+            from565(c0, pal, 0);
+            from565(c1, pal, 3);
+            for(int i=0; i<3; i++) {
+                pal[6+i] = ( pal[i] + pal[3+i] ) / 2;
+                pal[9+i] = 0;
+            }
+            transparent = 3;
+        }
+        for(int i=0; i<16; i++) {
+            final int p = ( bits >>> ( 2 * i ) ) & 3;
+            px[i*4  ] = pal[p*3];
+            px[i*4+1] = pal[p*3+1];
+            px[i*4+2] = pal[p*3+2];
+            px[i*4+3] = p == transparent ? 0 : 255;
+        }
+    }
+
+    private static void decodeBC3Alpha(final byte[] blk, final int[] px, final int[] apal) {
+        bc3AlphaPalette(blk[0] & 0xff, blk[1] & 0xff, apal);
+        long bits = 0;
+        for(int i=0; i<6; i++) {
+            bits |= (long) ( blk[2+i] & 0xff ) << ( 8 * i );
+        }
+        for(int i=0; i<16; i++) {
+            px[i*4+3] = apal[(int) ( bits >>> ( 3 * i ) ) & 7];
+        }
+    }
+
+    private static void decodeETC1(final byte[] blk, final int[] px) {
+        long bits = 0;
+        for(int i=0; i<8; i++) {
+            bits = ( bits << 8 ) | ( blk[i] & 0xff );
+        }
+        final boolean diff = 0 != ( bits & ( 1L << 33 ) );
+        final boolean flip = 0 != ( bits & ( 1L << 32 ) );
+        final int[] base = new int[6];
+        if( diff ) {
+            for(int c=0; c<3; c++) {
+                final int shift = 59 - 8 * c;
+                final int q = (int) ( bits >>> shift ) & 31;
+                final int d = ( (int) ( bits >>> ( shift - 3 ) ) & 7 ) << 29 >> 29; // sign extend 3 bits
+                base[c] = expand5(q);
+                base[3+c] = expand5(( q + d ) & 31);
+            }
+        } else {
+            for(int c=0; c<3; c++) {
+                base[c]   = expand4((int) ( bits >>> ( 60 - 8 * c ) ) & 15);
+                base[3+c] = expand4((int) ( bits >>> ( 56 - 8 * c ) ) & 15);
+            }
+        }
+        final int t1 = (int) ( bits >>> 37 ) & 7;
+        final int t2 = (int) ( bits >>> 34 ) & 7;
+        for(int i=0; i<16; i++) {
+            final int p = ( i & 3 ) * 4 + ( i >>> 2 );
+            final int m = (int) ( ( bits >>> ( 16 + p ) ) & 1 ) << 1 | (int) ( ( bits >>> p ) & 1 );
+            final boolean second = inSubblock2(i, flip);
+            final int[] mods = ETC1_MODIFIERS[second ? t2 : t1];
+            final int mod = 0 == ( m & 2 ) ? mods[m & 1] : -mods[m & 1];
+            final int s = second ? 3 : 0;
+            px[i*4  ] = clamp(base[s  ] + mod);
+            px[i*4+1] = clamp(base[s+1] + mod);
+            px[i*4+2] = clamp(base[s+2] + mod);
+            px[i*4+3] = 255;
+        }
+    }
+
+    //
+    // Source conversion and mipmaps
+    //
+
+    /** Returns the first level of the given GL_RGB or GL_RGBA unsigned byte data as tightly packed RGBA. */
+    private static byte[] toRGBA(final TextureData src) throws IllegalArgumentException {
+        final int format = src.getPixelFormat();
+        final int bpp;
+        if( GL.GL_RGBA == format ) {
+            bpp = 4;
+        } else if( GL.GL_RGB == format ) {
+            bpp = 3;
+        } else {
+            throw new IllegalArgumentException("Only GL_RGB and GL_RGBA supported: "+src);
+        }
+        if( GL.GL_UNSIGNED_BYTE != src.getPixelType() ) {
+            throw new IllegalArgumentException("Only GL_UNSIGNED_BYTE supported: "+src);
+        }
+        final Buffer b = null != src.getMipmapData() ? src.getMipmapData()[0] : src.getBuffer();
+        if( !( b instanceof ByteBuffer ) ) {
+            throw new IllegalArgumentException("Only ByteBuffer data supported: "+src);
+        }
+        final ByteBuffer buf = (ByteBuffer) b;
+        final int w = src.getWidth(), h = src.getHeight();
+        final int rowLength = 0 < src.getRowLength() ? src.getRowLength() : w;
+        final int align = Math.max(1, src.getAlignment());
+        final int stride = ( rowLength * bpp + align - 1 ) / align * align;
+        final byte[] rgba = new byte[w * h * 4];
+        final int p0 = buf.position();
+        for(int y=0; y<h; y++) {
+            int s = p0 + y * stride;
+            int d = y * w * 4;
+            for(int x=0; x<w; x++) {
+                rgba[d  ] = buf.get(s);
+                rgba[d+1] = buf.get(s+1);
+                rgba[d+2] = buf.get(s+2);
+                rgba[d+3] = 4 == bpp ? buf.get(s+3) : (byte) 0xff;
+                s += bpp;
+                d += 4;
+            }
+        }
+        return rgba;
+    }
+
+    /** 2x2 box filter, clamping odd sizes. */
+    private static byte[] downsample(final byte[] rgba, final int w, final int h) {
+        final int nw = Math.max(1, w / 2), nh = Math.max(1, h / 2);
+        final byte[] res = new byte[nw * nh * 4];
+        for(int y=0; y<nh; y++) {
+            final int y0 = Math.min(2 * y, h - 1), y1 = Math.min(2 * y + 1, h - 1);
+            for(int x=0; x<nw; x++) {
+                final int x0 = Math.min(2 * x, w - 1), x1 = Math.min(2 * x + 1, w - 1);
+                final int s00 = ( y0 * w + x0 ) * 4, s01 = ( y0 * w + x1 ) * 4;
+                final int s10 = ( y1 * w + x0 ) * 4, s11 = ( y1 * w + x1 ) * 4;
+                final int d = ( y * nw + x ) * 4;
+                for(int c=0; c<4; c++) {
+                    res[d+c] = (byte) ( ( ( rgba[s00+c] & 0xff ) + ( rgba[s01+c] & 0xff ) +
+                                          ( rgba[s10+c] & 0xff ) + ( rgba[s11+c] & 0xff ) + 2 ) >>> 2 );
+                }
+            }
+        }
+        return res;
+    }
+}
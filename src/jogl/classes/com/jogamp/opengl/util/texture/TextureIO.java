@@ -77,6 +77,7 @@ import com.jogamp.opengl.util.GLPixelBuffer.GLPixelAttributes;
 import com.jogamp.opengl.util.texture.ImageType;
 import com.jogamp.opengl.util.texture.spi.DDSImage;
 import com.jogamp.opengl.util.texture.spi.JPEGImage;
+import com.jogamp.opengl.util.texture.spi.KTXImage;
 import com.jogamp.opengl.util.texture.spi.NetPbmTextureWriter;
 import com.jogamp.opengl.util.texture.spi.SGIImage;
 import com.jogamp.opengl.util.texture.spi.TGAImage;
@@ -142,6 +143,18 @@ public class TextureIO {
      */
     public static final String DDS     = ImageType.T_DDS;
 
+    /** Constant which can be used as a file suffix to indicate a
+        Khronos Texture file, version 1, value {@value}.
+        <p>Alias for {@link ImageType#T_KTX}.</p>
+     */
+    public static final String KTX     = ImageType.T_KTX;
+
+    /** Constant which can be used as a file suffix to indicate a
+        Khronos Texture file, version 2, value {@value}.
+        <p>Alias for {@link ImageType#T_KTX2}.</p>
+     */
+    public static final String KTX2    = ImageType.T_KTX2;
+
     /**
      * Constant which can be used as a file suffix to indicate an SGI RGB file, value {@value}.
      * <p>
@@ -786,6 +799,7 @@ public class TextureIO {
 
         // Other special-case providers
         addTextureProvider(new DDSTextureProvider());
+        addTextureProvider(new KTXTextureProvider());
         addTextureProvider(new SGITextureProvider());
         addTextureProvider(new TGATextureProvider());
         addTextureProvider(new JPGTextureProvider());
@@ -883,6 +897,16 @@ public class TextureIO {
         if (file == null) {
             throw new IOException("File was null");
         }
+        final String suffix = toLowerCase( (fileSuffix != null) ? fileSuffix : IOUtil.getFileSuffix(file) );
+        if ( KTX.equals(suffix) || KTX2.equals(suffix) ) {
+            final TextureProvider provider = getTextureProvider(new ImageType(suffix));
+            if( provider instanceof KTXTextureProvider ) {
+                // Memory map, handing the mip level slices straight to the texture
+                final TextureData data = KTXTextureProvider.newTextureData(glp, KTXImage.read(file), internalFormat, pixelFormat, mipmap);
+                data.srcImageType = new ImageType(suffix);
+                return data;
+            } // else a user registered provider takes precedence, reading the stream below
+        }
         final InputStream stream = new BufferedInputStream(new FileInputStream(file));
         try {
             return newTextureDataImpl( glp, stream, internalFormat, pixelFormat, mipmap,
@@ -893,6 +917,21 @@ public class TextureIO {
             stream.close();
         }
     }
+    /** Returns the first provider in order of precedence supporting the given {@link ImageType}, or null. */
+    private static TextureProvider getTextureProvider(final ImageType imageType) {
+        for (final Iterator<TextureProvider> iter = textureProviders.iterator(); iter.hasNext(); ) {
+            final TextureProvider provider = iter.next();
+            final ImageType[] imageTypes = provider.getImageTypes();
+            if( null != imageTypes ) {
+                for(int i=0; i<imageTypes.length; i++) {
+                    if( imageType.equals(imageTypes[i]) ) {
+                        return provider;
+                    }
+                }
+            }
+        }
+        return null;
+    }
     private static TextureData newTextureDataImpl(final GLProfile glp, final URL url,
                                                   final int internalFormat,
                                                   final int pixelFormat,
@@ -1020,6 +1059,55 @@ public class TextureIO {
         }
     }
 
+    //----------------------------------------------------------------------
+    // KTX image provider
+    static class KTXTextureProvider implements TextureProvider {
+        private static final ImageType[] imageTypes = new ImageType[] { new ImageType(ImageType.T_KTX), new ImageType(ImageType.T_KTX2) };
+        @Override
+        public final ImageType[] getImageTypes() {
+            return imageTypes;
+        }
+
+        @Override
+        public TextureData newTextureData(final GLProfile glp, final InputStream stream,
+                                          final int internalFormat,
+                                          final int pixelFormat,
+                                          final boolean mipmap,
+                                          final String fileSuffix) throws IOException {
+            if (ImageType.T_KTX.equals(fileSuffix) || ImageType.T_KTX2.equals(fileSuffix) ||
+                isKTX(ImageType.Util.getFileSuffix(stream))) {
+                final ByteBuffer buf = IOUtil.copyStream2ByteBuffer(stream);
+                return newTextureData(glp, KTXImage.read(buf), internalFormat, pixelFormat, mipmap);
+            }
+            return null;
+        }
+
+        private static boolean isKTX(final String suffix) {
+            return ImageType.T_KTX.equals(suffix) || ImageType.T_KTX2.equals(suffix);
+        }
+
+        /**
+         * Returns the {@link TextureData} of the first layer and face, see {@link KTXImage#newTexture(GL, boolean)} for all.
+         * <p>
+         * A non zero <code>internalFormat</code> or <code>pixelFormat</code> overrides the one of uncompressed images,
+         * while compressed images always use their stored internal format.
+         * </p>
+         */
+        static TextureData newTextureData(final GLProfile glp, final KTXImage image,
+                                          final int internalFormat, final int pixelFormat, final boolean mipmap) {
+            final TextureData data = image.newTextureData(glp, 0, 0, mipmap);
+            if( !image.isCompressed() ) {
+                if( 0 != internalFormat ) {
+                    data.setInternalFormat(internalFormat);
+                }
+                if( 0 != pixelFormat ) {
+                    data.setPixelFormat(pixelFormat);
+                }
+            }
+            return data;
+        }
+    }
+
     //----------------------------------------------------------------------
     // SGI RGB image provider
     static class SGITextureProvider implements TextureProvider {
@@ -1209,7 +1297,8 @@ public class TextureIO {
             if (ImageType.T_DDS.equals(IOUtil.getFileSuffix(file))) {
                 // See whether the DDS writer can handle this TextureData
                 final GLPixelAttributes pixelAttribs = data.getPixelAttributes();
-                final int pixelFormat = pixelAttribs.format;
+                // Compressed data, e.g. from TextureCompressor, is identified by its internal format
+                final int pixelFormat = data.isDataCompressed() ? data.getInternalFormat() : pixelAttribs.format;
                 final int pixelType   = pixelAttribs.type;
                 if (pixelType != GL.GL_BYTE &&
                     pixelType != GL.GL_UNSIGNED_BYTE) {
@@ -0,0 +1,431 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util.texture;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GLContext;
+import com.jogamp.opengl.GLException;
+import com.jogamp.opengl.GLProfile;
+
+import jogamp.opengl.Debug;
+
+/**
+ * Tracks the {@link Texture}s it creates and keeps their estimated memory usage within a byte budget,
+ * evicting the least recently used textures.
+ * <p>
+ * A texture counts as used when it is {@link Texture#bind(GL) bound} or {@link Texture#enable(GL) enabled}.
+ * Evicted textures keep their {@link Texture} instance but lose their OpenGL texture object.
+ * They are reloaded transparently from their {@link TextureDataSource} on the next {@link Texture#bind(GL)},
+ * which may in turn evict other textures.
+ * </p>
+ * <p>
+ * A manager is scoped to an OpenGL context and its shared contexts, see {@link #get(GLContext, long)},
+ * and shall only be used on the thread the context is current on.
+ * Managed textures shall be released via {@link #remove(GL, Texture)} instead of {@link Texture#destroy(GL)}.
+ * </p>
+ * <p>
+ * Memory usage is estimated via {@link Texture#getEstimatedMemorySize()}.
+ * A single texture exceeding the budget by itself stays resident while it is the most recently used one.
+ * {@link #pin(Texture) Pinned} textures are never evicted, hence may exceed the budget as well.
+ * </p>
+ */
+public class TextureManager {
+    private static final boolean DEBUG = Debug.debug("Texture");
+
+    /**
+     * Provides the {@link TextureData} of a managed {@link Texture}, invoked for its initial load and each reload.
+     */
+    public static interface TextureDataSource {
+        /**
+         * Returns a new {@link TextureData} instance, which will be {@link TextureData#destroy() destroyed} after upload.
+         * @param glp the {@link GLProfile} of the current context
+         */
+        TextureData newTextureData(GLProfile glp) throws IOException;
+
+        /**
+         * Called after each (re)load with the texture bound, allowing to set texture parameters.
+         * @param gl the current GL object
+         * @param tex the (re)loaded texture
+         */
+        void textureLoaded(GL gl, Texture tex);
+    }
+
+    /**
+     * Byte budget accounting of resident resources w/ least recently used eviction, independent of OpenGL.
+     * <p>
+     * Used by {@link TextureManager} for its textures, reusable for other budgeted resources.
+     * Not thread safe.
+     * </p>
+     * @param <K> the resource type, compared by {@link Object#equals(Object)}
+     */
+    public static class Residency<K> {
+        /** Releases an evicted resource, see {@link Residency#evict(Object, Evictor)}. */
+        public static interface Evictor<K> {
+            void evict(K key);
+        }
+
+        private static class Entry {
+            boolean resident;
+            boolean pinned;
+            /** Resident size in bytes, as accounted */
+            int size;
+        }
+
+        /** Access ordered, i.e. least recently used first */
+        private final LinkedHashMap<K, Entry> entries = new LinkedHashMap<K, Entry>(64, 0.75f, true);
+        private long budget;
+        private long residentBytes = 0;
+        private int residentCount = 0;
+        private long evictionCount = 0;
+        private long reloadCount = 0;
+
+        /** @param budget the budget in bytes */
+        public Residency(final long budget) {
+            this.budget = budget;
+        }
+
+        public final long getBudget() { return budget; }
+        /** Sets the budget in bytes, call {@link #evict(Object, Evictor)} afterwards to enforce it. */
+        public final void setBudget(final long budget) { this.budget = budget; }
+        /** Returns the accounted size in bytes of all resident resources. */
+        public final long getResidentBytes() { return residentBytes; }
+        public final int getResidentCount() { return residentCount; }
+        /** Returns the number of tracked resources, resident or evicted. */
+        public final int size() { return entries.size(); }
+        public final long getEvictionCount() { return evictionCount; }
+        public final long getReloadCount() { return reloadCount; }
+
+        public final boolean contains(final K key) { return entries.containsKey(key); }
+
+        public final boolean isResident(final K key) {
+            final Entry e = entries.get(key);
+            return null != e && e.resident;
+        }
+
+        /**
+         * Tracks a new resident resource as the most recently used one.
+         * @throws IllegalArgumentException if already tracked
+         */
+        public final void add(final K key, final int size) throws IllegalArgumentException {
+            if( entries.containsKey(key) ) {
+                throw new IllegalArgumentException("Already tracked: "+key);
+            }
+            final Entry e = new Entry();
+            e.resident = true;
+            e.size = size;
+            entries.put(key, e);
+            residentBytes += size;
+            residentCount++;
+        }
+
+        /**
+         * Stops tracking the given resource.
+         * @return true if it was tracked
+         */
+        public final boolean remove(final K key) {
+            final Entry e = entries.remove(key);
+            if( null == e ) {
+                return false;
+            }
+            if( e.resident ) {
+                residentBytes -= e.size;
+                residentCount--;
+            }
+            return true;
+        }
+
+        /** Stops tracking all resources. */
+        public final void clear() {
+            entries.clear();
+            residentBytes = 0;
+            residentCount = 0;
+        }
+
+        /** Returns all tracked resources, least recently used first. The returned view shall not be modified. */
+        public final Iterable<K> keys() { return entries.keySet(); }
+
+        /**
+         * Marks the given resource as most recently used.
+         * @return true if the resource is tracked but evicted, i.e. requires a reload via {@link #reloaded(Object, int)}
+         */
+        public final boolean touch(final K key) {
+            final Entry e = entries.get(key); // moves entry to most recently used
+            return null != e && !e.resident;
+        }
+
+        /** Marks the given evicted resource as resident again w/ its new size. */
+        public final void reloaded(final K key, final int size) {
+            final Entry e = entries.get(key);
+            if( null == e || e.resident ) {
+                return;
+            }
+            e.resident = true;
+            e.size = size;
+            residentBytes += size;
+            residentCount++;
+            reloadCount++;
+        }
+
+        /** Updates the accounted size of the given resident resource. */
+        public final void setSize(final K key, final int size) {
+            final Entry e = entries.get(key);
+            if( null == e || !e.resident ) {
+                return;
+            }
+            residentBytes += size - e.size;
+            e.size = size;
+        }
+
+        /**
+         * Pins or unpins the given resource. Pinned resources are never evicted, even if the budget is exceeded.
+         * @return true if the resource is tracked
+         */
+        public final boolean setPinned(final K key, final boolean pinned) {
+            final Entry e = entries.get(key);
+            if( null == e ) {
+                return false;
+            }
+            e.pinned = pinned;
+            return true;
+        }
+
+        public final boolean isPinned(final K key) {
+            final Entry e = entries.get(key);
+            return null != e && e.pinned;
+        }
+
+        /**
+         * Evicts least recently used resident resources until within budget,
+         * except pinned ones and <code>keep</code>.
+         * @param keep resource not to be evicted, e.g. the one just loaded, may be null
+         * @param evictor releases each evicted resource
+         * @return the number of evicted resources
+         */
+        public final int evict(final K keep, final Evictor<K> evictor) {
+            int n = 0;
+            for(final Iterator<Map.Entry<K, Entry>> it = entries.entrySet().iterator(); residentBytes > budget && it.hasNext(); ) {
+                final Map.Entry<K, Entry> me = it.next();
+                final Entry e = me.getValue();
+                final K key = me.getKey();
+                if( e.resident && !e.pinned && ( null == keep || !keep.equals(key) ) ) {
+                    e.resident = false;
+                    residentBytes -= e.size;
+                    residentCount--;
+                    evictionCount++;
+                    n++;
+                    evictor.evict(key);
+                }
+            }
+            return n;
+        }
+    }
+
+    private final Residency<Texture> residency;
+    private final Map<Texture, TextureDataSource> sources = new HashMap<Texture, TextureDataSource>();
+
+    /**
+     * Returns the {@link TextureManager} attached to the given context, creating and attaching a new one
+     * w/ the given budget if none exists.
+     * <p>
+     * The given budget is ignored if a manager already exists, use {@link #setBudget(GL, long)}.
+     * </p>
+     * @param context the OpenGL context the managed textures belong to
+     * @param budget the budget in bytes for a newly created manager
+     */
+    public static TextureManager get(final GLContext context, final long budget) {
+        final String key = TextureManager.class.getName();
+        TextureManager mgr = (TextureManager) context.getAttachedObject(key);
+        if( null == mgr ) {
+            mgr = new TextureManager(budget);
+            context.attachObject(key, mgr);
+        }
+        return mgr;
+    }
+
+    /**
+     * Creates a new manager, consider using {@link #get(GLContext, long)}.
+     * @param budget the budget in bytes
+     */
+    public TextureManager(final long budget) {
+        this.residency = new Residency<Texture>(budget);
+    }
+
+    /** Returns the budget in bytes. */
+    public final long getBudget() { return residency.getBudget(); }
+
+    /** Sets the budget in bytes, evicting textures if required. */
+    public final void setBudget(final GL gl, final long budget) {
+        residency.setBudget(budget);
+        evict(gl, null);
+    }
+
+    /** Returns the estimated memory size in bytes of all resident managed textures. */
+    public final long getResidentBytes() { return residency.getResidentBytes(); }
+
+    /** Returns the number of resident managed textures. */
+    public final int getResidentCount() { return residency.getResidentCount(); }
+
+    /** Returns the number of managed textures, resident or evicted. */
+    public final int getTextureCount() { return residency.size(); }
+
+    /** Returns the number of evictions since creation. */
+    public final long getEvictionCount() { return residency.getEvictionCount(); }
+
+    /** Returns the number of reloads of evicted textures since creation. */
+    public final long getReloadCount() { return residency.getReloadCount(); }
+
+    /** Returns true if the given texture is managed by this instance and resident. */
+    public final boolean isResident(final Texture tex) { return residency.isResident(tex); }
+
+    /**
+     * Pins the given managed texture, i.e. excludes it from eviction until {@link #unpin(GL, Texture) unpinned},
+     * even if the budget is exceeded. An evicted texture is reloaded on its next {@link Texture#bind(GL)} and then stays resident.
+     * @return true if the texture is managed by this instance
+     */
+    public final boolean pin(final Texture tex) { return residency.setPinned(tex, true); }
+
+    /**
+     * Unpins the given managed texture, evicting textures if the budget is exceeded.
+     * @return true if the texture is managed by this instance
+     */
+    public final boolean unpin(final GL gl, final Texture tex) {
+        if( !residency.setPinned(tex, false) ) {
+            return false;
+        }
+        evict(gl, null);
+        return true;
+    }
+
+    /** Returns true if the given texture is managed by this instance and {@link #pin(Texture) pinned}. */
+    public final boolean isPinned(final Texture tex) { return residency.isPinned(tex); }
+
+    /**
+     * Creates and loads a new managed texture, evicting least recently used textures if required.
+     * @param gl the current GL object
+     * @param source provides the texture data for the initial load and each reload
+     * @throws GLException if loading fails
+     */
+    public final Texture newTexture(final GL gl, final TextureDataSource source) throws GLException {
+        final TextureData data = load(gl, source);
+        final Texture tex;
+        try {
+            tex = new Texture(gl, data);
+        } finally {
+            data.destroy();
+        }
+        residency.add(tex, tex.getEstimatedMemorySize());
+        sources.put(tex, source);
+        tex.manager = this;
+        tex.bind(gl);
+        source.textureLoaded(gl, tex);
+        evict(gl, tex);
+        return tex;
+    }
+
+    /**
+     * Destroys the given managed texture and stops tracking it.
+     * @return true if the texture was managed by this instance, otherwise false and no action was taken
+     */
+    public final boolean remove(final GL gl, final Texture tex) {
+        if( !residency.remove(tex) ) {
+            return false;
+        }
+        sources.remove(tex);
+        tex.manager = null;
+        tex.destroy(gl);
+        return true;
+    }
+
+    /** Destroys all managed textures. */
+    public final void destroy(final GL gl) {
+        for(final Texture tex : residency.keys()) {
+            tex.manager = null;
+            tex.destroy(gl);
+        }
+        residency.clear();
+        sources.clear();
+    }
+
+    /**
+     * Marks the texture as most recently used, invoked by {@link Texture#bind(GL)} and {@link Texture#enable(GL)}.
+     * @param reload if true, an evicted texture is reloaded
+     */
+    /* package */ final void touch(final GL gl, final Texture tex, final boolean reload) {
+        if( !residency.touch(tex) || !reload ) { // moves entry to most recently used
+            return;
+        }
+        final TextureDataSource source = sources.get(tex);
+        final TextureData data = load(gl, source);
+        residency.reloaded(tex, 0); // Texture.updateImage(..) may bind recursively
+        try {
+            tex.updateImage(gl, data);
+        } finally {
+            data.destroy();
+        }
+        residency.setSize(tex, tex.getEstimatedMemorySize());
+        gl.glBindTexture(tex.getTarget(), tex.getTextureObject());
+        source.textureLoaded(gl, tex);
+        evict(gl, tex);
+    }
+
+    private static TextureData load(final GL gl, final TextureDataSource source) throws GLException {
+        try {
+            final TextureData data = source.newTextureData(gl.getGLProfile());
+            if( null == data ) {
+                throw new GLException("No TextureData from "+source);
+            }
+            return data;
+        } catch (final IOException ioe) {
+            throw new GLException("Loading TextureData from "+source+" failed", ioe);
+        }
+    }
+
+    /** Evicts least recently used resident textures, except pinned ones and <code>keep</code>, until within budget. */
+    private void evict(final GL gl, final Texture keep) {
+        residency.evict(keep, new Residency.Evictor<Texture>() {
+            @Override
+            public void evict(final Texture tex) {
+                tex.destroy(gl);
+                if( DEBUG ) {
+                    System.err.println("TextureManager: Evicted "+tex+", "+TextureManager.this);
+                }
+            } });
+    }
+
+    @Override
+    public String toString() {
+        return "TextureManager[textures "+residency.size()+", resident "+residency.getResidentCount()+" / "+residency.getResidentBytes()+
+               " of "+residency.getBudget()+" bytes, evictions "+residency.getEvictionCount()+", reloads "+residency.getReloadCount()+"]";
+    }
+}
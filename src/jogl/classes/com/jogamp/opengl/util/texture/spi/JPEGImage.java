@@ -60,95 +60,43 @@ public class JPEGImage {
         return new JPEGImage(in, ColorSpace.RGB);
     }
 
-    private static class JPEGColorSink implements JPEGDecoder.ColorSink  {
-        int width=0, height=0;
-        int sourceComponents=0;
-        ColorSpace sourceCS = ColorSpace.YCbCr;
-        int storageComponents;
-        final ColorSpace storageCS;
-        ByteBuffer data = null;
-
-        JPEGColorSink(final ColorSpace storageCM) {
-            this.storageCS = storageCM;
-            switch(storageCS) {
+    private JPEGImage(final InputStream in, final ColorSpace cs) throws IOException {
+        switch(cs) {
             case RGB:
             case YCbCr:
-                storageComponents = 3;
                 break;
             default:
-                throw new IllegalArgumentException("Unsupported storage color-space: "+storageCS);
-            }
-        }
-
-        @Override
-        public final ColorSpace allocate(final int width, final int height, final ColorSpace sourceCM, final int sourceComponents) throws RuntimeException {
-            this.width = width;
-            this.height = height;
-            this.sourceComponents = sourceComponents;
-            this.sourceCS = sourceCM;
-            this.data = Buffers.newDirectByteBuffer(width * height * storageComponents);
-            return storageCS;
-        }
-
-        @Override
-        public final void storeRGB(final int x, final int y, final byte r, final byte g, final byte b) {
-            int i = ( ( height - y - 1 ) * width + x ) * storageComponents;
-            data.put(i++, r);
-            data.put(i++, g);
-            data.put(i++, b);
-            // data.put(i++, (byte)0xff);
-        }
-
-        @Override
-        public final void store2(final int x, final int y, final byte c1, final byte c2) {
-            throw new RuntimeException("not supported yet");
+                throw new IllegalArgumentException("Unsupported storage color-space: "+cs);
         }
-
-        @Override
-        public final void storeYCbCr(final int x, final int y, final byte Y, final byte Cb, final byte Cr) {
-            int i = ( ( height - y - 1 ) * width + x ) * storageComponents;
-            data.put(i++, Y);
-            data.put(i++, Cb);
-            data.put(i++, Cr);
-        }
-
-        @Override
-        public String toString() {
-            return "JPEGPixels["+width+"x"+height+", sourceComp "+sourceComponents+", sourceCS "+sourceCS+", storageCS "+storageCS+", storageComp "+storageComponents+"]";
-        }
-    };
-
-    private JPEGImage(final InputStream in, final ColorSpace cs) throws IOException {
-        pixelStorage = new JPEGColorSink(cs);
+        storageCS = cs;
         final JPEGDecoder decoder = new JPEGDecoder();
         decoder.parse(in);
         pixelWidth = decoder.getWidth();
         pixelHeight = decoder.getHeight();
-        decoder.getPixel(pixelStorage, pixelWidth, pixelHeight);
-        data = pixelStorage.data;
         final boolean hasAlpha = false;
 
         bytesPerPixel = 3;
         glFormat = GL.GL_RGB;
         reversedChannels = false; // RGB[A]
+        data = Buffers.newDirectByteBuffer(pixelWidth * pixelHeight * bytesPerPixel);
+        decoder.getPixel(data, bytesPerPixel, storageCS, true /* glOriented */);
         if(DEBUG) {
             System.err.println("JPEGImage: alpha "+hasAlpha+", bytesPerPixel "+bytesPerPixel+
                                ", pixels "+pixelWidth+"x"+pixelHeight+", glFormat 0x"+Integer.toHexString(glFormat));
             System.err.println("JPEGImage: "+decoder);
-            System.err.println("JPEGImage: "+pixelStorage);
         }
         decoder.clear(null);
     }
-    private final JPEGColorSink pixelStorage;
+    private final ColorSpace storageCS;
     private final int pixelWidth, pixelHeight, glFormat, bytesPerPixel;
     private final boolean reversedChannels;
     private final ByteBuffer data;
 
     /** Returns the color space of the pixel data */
-    public ColorSpace getColorSpace() { return pixelStorage.storageCS; }
+    public ColorSpace getColorSpace() { return storageCS; }
 
     /** Returns the number of components of the pixel data */
-    public int getComponentCount() { return pixelStorage.storageComponents; }
+    public int getComponentCount() { return bytesPerPixel; }
 
     /** Returns the width of the image. */
     public int getWidth()    { return pixelWidth; }
@@ -173,5 +121,5 @@ public class JPEGImage {
     public ByteBuffer getData()  { return data; }
 
     @Override
-    public String toString() { return "JPEGImage["+pixelWidth+"x"+pixelHeight+", bytesPerPixel "+bytesPerPixel+", reversedChannels "+reversedChannels+", "+pixelStorage+", "+data+"]"; }
+    public String toString() { return "JPEGImage["+pixelWidth+"x"+pixelHeight+", bytesPerPixel "+bytesPerPixel+", reversedChannels "+reversedChannels+", storageCS "+storageCS+", "+data+"]"; }
 }
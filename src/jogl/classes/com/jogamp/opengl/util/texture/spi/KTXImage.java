@@ -0,0 +1,528 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util.texture.spi;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2ES2;
+import com.jogamp.opengl.GL2ES3;
+import com.jogamp.opengl.GLException;
+import com.jogamp.opengl.GLProfile;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.util.texture.Texture;
+import com.jogamp.opengl.util.texture.TextureData;
+
+/**
+ * A reader for Khronos Texture files, version 1 (<code>.ktx</code>) and version 2 (<code>.ktx2</code>).
+ * <p>
+ * Files are memory mapped via {@link #read(File)}, all image data returned are views
+ * into the mapped (or given) buffer, i.e. no data is copied. The only exception are
+ * uncompressed KTX1 images w/ a foreign byte order and a type size above one byte, which are swapped.
+ * </p>
+ * <p>
+ * Besides plain 2D textures w/ mip chains, cube maps, 3D textures and (cube map) texture arrays are supported,
+ * see {@link #newTexture(GL, boolean)}.
+ * KTX2 files using supercompression, e.g. Basis Universal, are not supported.
+ * </p>
+ */
+public class KTXImage {
+    private static final byte[] KTX1_IDENTIFIER = { (byte)0xAB, 'K', 'T', 'X', ' ', '1', '1', (byte)0xBB, '\r', '\n', 0x1A, '\n' };
+    private static final byte[] KTX2_IDENTIFIER = { (byte)0xAB, 'K', 'T', 'X', ' ', '2', '0', (byte)0xBB, '\r', '\n', 0x1A, '\n' };
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /** GL_TEXTURE_CUBE_MAP_ARRAY, GL 4.0 and ES 3.2 */
+    public static final int GL_TEXTURE_CUBE_MAP_ARRAY = 0x9009;
+
+    /** Key of the orientation metadata */
+    public static final String KEY_ORIENTATION = "KTXorientation";
+
+    /**
+     * Mapping of the KTX2 VkFormat to the OpenGL internal format, format and type.
+     * Format and type are zero for compressed formats.
+     */
+    private static final int[][] vkFormats = {
+        //   VkFormat,    internal format,  format,   type
+        {   9 /* R8_UNORM */,               0x8229 /* GL_R8 */,            0x1903 /* GL_RED */,  GL.GL_UNSIGNED_BYTE },
+        {  16 /* R8G8_UNORM */,             0x822B /* GL_RG8 */,           0x8227 /* GL_RG */,   GL.GL_UNSIGNED_BYTE },
+        {  23 /* R8G8B8_UNORM */,           0x8051 /* GL_RGB8 */,          GL.GL_RGB,            GL.GL_UNSIGNED_BYTE },
+        {  29 /* R8G8B8_SRGB */,            0x8C41 /* GL_SRGB8 */,         GL.GL_RGB,            GL.GL_UNSIGNED_BYTE },
+        {  37 /* R8G8B8A8_UNORM */,         0x8058 /* GL_RGBA8 */,         GL.GL_RGBA,           GL.GL_UNSIGNED_BYTE },
+        {  43 /* R8G8B8A8_SRGB */,          0x8C43 /* GL_SRGB8_ALPHA8 */,  GL.GL_RGBA,           GL.GL_UNSIGNED_BYTE },
+        {  44 /* B8G8R8A8_UNORM */,         0x8058 /* GL_RGBA8 */,         0x80E1 /* GL_BGRA */, GL.GL_UNSIGNED_BYTE },
+        {  97 /* R16G16B16A16_SFLOAT */,    0x881A /* GL_RGBA16F */,       GL.GL_RGBA,           0x140B /* GL_HALF_FLOAT */ },
+        { 109 /* R32G32B32A32_SFLOAT */,    0x8814 /* GL_RGBA32F */,       GL.GL_RGBA,           GL.GL_FLOAT },
+        { 131 /* BC1_RGB_UNORM_BLOCK */,    GL.GL_COMPRESSED_RGB_S3TC_DXT1_EXT,  0, 0 },
+        { 132 /* BC1_RGB_SRGB_BLOCK */,     0x8C4C /* GL_COMPRESSED_SRGB_S3TC_DXT1_EXT */, 0, 0 },
+        { 133 /* BC1_RGBA_UNORM_BLOCK */,   GL.GL_COMPRESSED_RGBA_S3TC_DXT1_EXT, 0, 0 },
+        { 134 /* BC1_RGBA_SRGB_BLOCK */,    0x8C4D /* GL_COMPRESSED_SRGB_ALPHA_S3TC_DXT1_EXT */, 0, 0 },
+        { 135 /* BC2_UNORM_BLOCK */,        GL.GL_COMPRESSED_RGBA_S3TC_DXT3_EXT, 0, 0 },
+        { 136 /* BC2_SRGB_BLOCK */,         0x8C4E /* GL_COMPRESSED_SRGB_ALPHA_S3TC_DXT3_EXT */, 0, 0 },
+        { 137 /* BC3_UNORM_BLOCK */,        GL.GL_COMPRESSED_RGBA_S3TC_DXT5_EXT, 0, 0 },
+        { 138 /* BC3_SRGB_BLOCK */,         0x8C4F /* GL_COMPRESSED_SRGB_ALPHA_S3TC_DXT5_EXT */, 0, 0 },
+        { 139 /* BC4_UNORM_BLOCK */,        0x8DBB /* GL_COMPRESSED_RED_RGTC1 */, 0, 0 },
+        { 140 /* BC4_SNORM_BLOCK */,        0x8DBC /* GL_COMPRESSED_SIGNED_RED_RGTC1 */, 0, 0 },
+        { 141 /* BC5_UNORM_BLOCK */,        0x8DBD /* GL_COMPRESSED_RG_RGTC2 */, 0, 0 },
+        { 142 /* BC5_SNORM_BLOCK */,        0x8DBE /* GL_COMPRESSED_SIGNED_RG_RGTC2 */, 0, 0 },
+        { 143 /* BC6H_UFLOAT_BLOCK */,      0x8E8F /* GL_COMPRESSED_RGB_BPTC_UNSIGNED_FLOAT */, 0, 0 },
+        { 144 /* BC6H_SFLOAT_BLOCK */,      0x8E8E /* GL_COMPRESSED_RGB_BPTC_SIGNED_FLOAT */, 0, 0 },
+        { 145 /* BC7_UNORM_BLOCK */,        0x8E8C /* GL_COMPRESSED_RGBA_BPTC_UNORM */, 0, 0 },
+        { 146 /* BC7_SRGB_BLOCK */,         0x8E8D /* GL_COMPRESSED_SRGB_ALPHA_BPTC_UNORM */, 0, 0 },
+        { 147 /* ETC2_R8G8B8_UNORM_BLOCK */,   0x9274 /* GL_COMPRESSED_RGB8_ETC2 */, 0, 0 },
+        { 148 /* ETC2_R8G8B8_SRGB_BLOCK */,    0x9275 /* GL_COMPRESSED_SRGB8_ETC2 */, 0, 0 },
+        { 149 /* ETC2_R8G8B8A1_UNORM_BLOCK */, 0x9276 /* GL_COMPRESSED_RGB8_PUNCHTHROUGH_ALPHA1_ETC2 */, 0, 0 },
+        { 150 /* ETC2_R8G8B8A1_SRGB_BLOCK */,  0x9277 /* GL_COMPRESSED_SRGB8_PUNCHTHROUGH_ALPHA1_ETC2 */, 0, 0 },
+        { 151 /* ETC2_R8G8B8A8_UNORM_BLOCK */, 0x9278 /* GL_COMPRESSED_RGBA8_ETC2_EAC */, 0, 0 },
+        { 152 /* ETC2_R8G8B8A8_SRGB_BLOCK */,  0x9279 /* GL_COMPRESSED_SRGB8_ALPHA8_ETC2_EAC */, 0, 0 },
+        { 153 /* EAC_R11_UNORM_BLOCK */,       0x9270 /* GL_COMPRESSED_R11_EAC */, 0, 0 },
+        { 154 /* EAC_R11_SNORM_BLOCK */,       0x9271 /* GL_COMPRESSED_SIGNED_R11_EAC */, 0, 0 },
+        { 155 /* EAC_R11G11_UNORM_BLOCK */,    0x9272 /* GL_COMPRESSED_RG11_EAC */, 0, 0 },
+        { 156 /* EAC_R11G11_SNORM_BLOCK */,    0x9273 /* GL_COMPRESSED_SIGNED_RG11_EAC */, 0, 0 },
+    };
+    /** First ASTC VkFormat, ASTC_4x4_UNORM_BLOCK, followed by UNORM/SRGB pairs of the 14 ASTC block sizes. */
+    private static final int VK_FORMAT_ASTC_FIRST = 157;
+    private static final int VK_FORMAT_ASTC_LAST  = 184;
+    /** GL_COMPRESSED_RGBA_ASTC_4x4_KHR, followed by the other 13 block sizes */
+    private static final int GL_COMPRESSED_RGBA_ASTC_4x4 = 0x93B0;
+    /** GL_COMPRESSED_SRGB8_ALPHA8_ASTC_4x4_KHR, followed by the other 13 block sizes */
+    private static final int GL_COMPRESSED_SRGB8_ALPHA8_ASTC_4x4 = 0x93D0;
+
+    private final ByteBuffer data;
+    private final ByteOrder order;
+    private final int version;
+    private final int vkFormat;
+    private final int glType;
+    private final int glTypeSize;
+    private final int glFormat;
+    private final int glInternalFormat;
+    private final int width, height, depth;
+    private final int layerCount, faceCount, levelCount;
+    private final Map<String, ByteBuffer> keyValueData;
+    private final int[] levelOffset;
+    private final int[] levelLength;
+    /** KTX1 non array cube maps only: size of one face, faces are padded to 4 bytes */
+    private final int[] faceSize;
+    private final boolean mustFlipVertically;
+    private final int alignment;
+
+    /**
+     * Reads the given file, memory mapping it.
+     */
+    public static KTXImage read(final File file) throws IOException {
+        final RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            final FileChannel fc = raf.getChannel();
+            return new KTXImage(fc.map(FileChannel.MapMode.READ_ONLY, 0, fc.size()));
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Reads the KTX data from the given buffer, starting at its position up to its limit.
+     * The buffer is not copied and must not be modified while this instance is in use.
+     */
+    public static KTXImage read(final ByteBuffer buf) throws IOException {
+        return new KTXImage(buf.slice());
+    }
+
+    /** Returns 1 or 2 if the given header starts with the KTX1 or KTX2 identifier, otherwise 0. */
+    public static int getVersion(final ByteBuffer header) {
+        if( matches(header, KTX1_IDENTIFIER) ) {
+            return 1;
+        } else if( matches(header, KTX2_IDENTIFIER) ) {
+            return 2;
+        }
+        return 0;
+    }
+    private static boolean matches(final ByteBuffer header, final byte[] id) {
+        if( header.remaining() < id.length ) {
+            return false;
+        }
+        final int p = header.position();
+        for(int i=0; i<id.length; i++) {
+            if( header.get(p + i) != id[i] ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private KTXImage(final ByteBuffer data) throws IOException {
+        this.version = getVersion(data);
+        if( 1 == version ) {
+            final int endianness = data.order(ByteOrder.LITTLE_ENDIAN).getInt(12);
+            if( 0x04030201 == endianness ) {
+                order = ByteOrder.LITTLE_ENDIAN;
+            } else if( 0x01020304 == endianness ) {
+                order = ByteOrder.BIG_ENDIAN;
+            } else {
+                throw new IOException("KTX: Invalid endianness 0x"+Integer.toHexString(endianness));
+            }
+            this.data = data.order(order);
+            vkFormat = 0;
+            glType = data.getInt(16);
+            glTypeSize = data.getInt(20);
+            glFormat = data.getInt(24);
+            glInternalFormat = data.getInt(28);
+            width = data.getInt(36);
+            height = data.getInt(40);
+            depth = data.getInt(44);
+            layerCount = data.getInt(48);
+            faceCount = data.getInt(52);
+            levelCount = Math.max(1, data.getInt(56));
+            final int kvBytes = data.getInt(60);
+            keyValueData = readKeyValueData(64, kvBytes);
+
+            levelOffset = new int[levelCount];
+            levelLength = new int[levelCount];
+            final boolean cubePadding = 6 == faceCount && 0 == layerCount;
+            faceSize = cubePadding ? new int[levelCount] : null;
+            int pos = 64 + kvBytes;
+            for(int i=0; i<levelCount; i++) {
+                checkRange(pos, 4);
+                final int imageSize = data.getInt(pos);
+                pos += 4;
+                levelOffset[i] = pos;
+                if( cubePadding ) {
+                    faceSize[i] = imageSize;
+                    levelLength[i] = 6 * pad4(imageSize);
+                } else {
+                    levelLength[i] = imageSize;
+                }
+                checkRange(pos, levelLength[i]);
+                pos += pad4(levelLength[i]);
+            }
+            alignment = 4; // KTX1 rows are padded to GL_UNPACK_ALIGNMENT 4
+        } else if( 2 == version ) {
+            order = ByteOrder.LITTLE_ENDIAN;
+            this.data = data.order(order);
+            vkFormat = data.getInt(12);
+            glTypeSize = data.getInt(16);
+            width = data.getInt(20);
+            height = data.getInt(24);
+            depth = data.getInt(28);
+            layerCount = data.getInt(32);
+            faceCount = data.getInt(36);
+            levelCount = Math.max(1, data.getInt(40));
+            final int scheme = data.getInt(44);
+            if( 0 != scheme ) {
+                throw new IOException("KTX2: Supercompression scheme "+scheme+" not supported");
+            }
+            keyValueData = readKeyValueData(data.getInt(56), data.getInt(60));
+
+            levelOffset = new int[levelCount];
+            levelLength = new int[levelCount];
+            faceSize = null;
+            for(int i=0; i<levelCount; i++) {
+                final int idx = 80 + i * 24;
+                levelOffset[i] = toInt(data.getLong(idx));
+                levelLength[i] = toInt(data.getLong(idx + 8));
+                checkRange(levelOffset[i], levelLength[i]);
+            }
+            final int[] fmt = getGLFormat(vkFormat);
+            if( null == fmt ) {
+                throw new IOException("KTX2: VkFormat "+vkFormat+" not supported");
+            }
+            glInternalFormat = fmt[0];
+            glFormat = fmt[1];
+            glType = fmt[2];
+            alignment = 1; // KTX2 rows are tightly packed
+        } else {
+            throw new IOException("Not a KTX file");
+        }
+        if( 1 != faceCount && 6 != faceCount ) {
+            throw new IOException("KTX: Invalid face count "+faceCount);
+        }
+        final ByteBuffer orientation = keyValueData.get(KEY_ORIENTATION);
+        mustFlipVertically = null == orientation || !decode(orientation).contains(1 == version ? "T=u" : "ru");
+    }
+
+    private static int toInt(final long v) throws IOException {
+        if( 0 > v || Integer.MAX_VALUE < v ) {
+            throw new IOException("KTX: Offset "+v+" out of range");
+        }
+        return (int) v;
+    }
+    private static int pad4(final int v) {
+        return ( v + 3 ) & ~3;
+    }
+    private void checkRange(final int offset, final int length) throws IOException {
+        if( 0 > offset || 0 > length || offset + length > data.limit() ) {
+            throw new IOException("KTX: Truncated file, range "+offset+" + "+length+" > "+data.limit());
+        }
+    }
+
+    private Map<String, ByteBuffer> readKeyValueData(int pos, final int length) throws IOException {
+        final Map<String, ByteBuffer> kv = new LinkedHashMap<String, ByteBuffer>();
+        if( 0 >= length ) {
+            return Collections.unmodifiableMap(kv);
+        }
+        checkRange(pos, length);
+        final int end = pos + length;
+        while( pos + 4 <= end ) {
+            final int kvLen = data.getInt(pos);
+            pos += 4;
+            if( 0 > kvLen || pos + kvLen > end ) {
+                break;
+            }
+            int keyEnd = pos;
+            while( keyEnd < pos + kvLen && 0 != data.get(keyEnd) ) {
+                keyEnd++;
+            }
+            final String key = decode(slice(pos, keyEnd - pos));
+            final int valueStart = Math.min(keyEnd + 1, pos + kvLen);
+            kv.put(key, slice(valueStart, pos + kvLen - valueStart).asReadOnlyBuffer());
+            pos += pad4(kvLen);
+        }
+        return Collections.unmodifiableMap(kv);
+    }
+
+    private static String decode(final ByteBuffer b) {
+        final ByteBuffer d = b.duplicate();
+        // values are usually NUL terminated
+        while( d.hasRemaining() && 0 == d.get(d.limit() - 1) ) {
+            d.limit(d.limit() - 1);
+        }
+        return UTF8.decode(d).toString();
+    }
+
+    private ByteBuffer slice(final int offset, final int length) {
+        final ByteBuffer d = data.duplicate();
+        d.position(offset);
+        d.limit(offset + length);
+        return d.slice().order(order);
+    }
+
+    /**
+     * Returns <code>{ internalFormat, format, type }</code> for the given KTX2 VkFormat,
+     * or <code>null</code> if not supported. Format and type are zero for compressed formats.
+     */
+    public static int[] getGLFormat(final int vkFormat) {
+        if( VK_FORMAT_ASTC_FIRST <= vkFormat && vkFormat <= VK_FORMAT_ASTC_LAST ) {
+            final int i = vkFormat - VK_FORMAT_ASTC_FIRST;
+            return new int[] { ( 0 == ( i & 1 ) ? GL_COMPRESSED_RGBA_ASTC_4x4 : GL_COMPRESSED_SRGB8_ALPHA8_ASTC_4x4 ) + i / 2, 0, 0 };
+        }
+        for(int i=0; i<vkFormats.length; i++) {
+            if( vkFormat == vkFormats[i][0] ) {
+                return new int[] { vkFormats[i][1], vkFormats[i][2], vkFormats[i][3] };
+            }
+        }
+        return null;
+    }
+
+    /** Returns the KTX version, 1 or 2. */
+    public int getVersion() { return version; }
+    /** Returns the KTX2 VkFormat, zero for KTX1. */
+    public int getVkFormat() { return vkFormat; }
+    /** Returns the OpenGL internal format. */
+    public int getInternalFormat() { return glInternalFormat; }
+    /** Returns the OpenGL pixel format, zero if compressed. */
+    public int getFormat() { return glFormat; }
+    /** Returns the OpenGL pixel type, zero if compressed. */
+    public int getType() { return glType; }
+    /** Returns true if the data is block compressed. */
+    public boolean isCompressed() { return 0 == glType; }
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+    /** Returns the depth of a 3D texture, otherwise zero. */
+    public int getDepth() { return depth; }
+    /** Returns the number of array layers of an array texture, otherwise zero. */
+    public int getLayerCount() { return layerCount; }
+    /** Returns 6 for cube maps, otherwise 1. */
+    public int getFaceCount() { return faceCount; }
+    /** Returns the number of mipmap levels, at least 1. */
+    public int getLevelCount() { return levelCount; }
+    /** Returns true if the image rows are stored top to bottom, i.e. not in OpenGL orientation. */
+    public boolean getMustFlipVertically() { return mustFlipVertically; }
+
+    /**
+     * Returns the read-only key/value metadata, the values being views into the file data
+     * including a potential NUL terminator.
+     */
+    public Map<String, ByteBuffer> getKeyValueData() { return keyValueData; }
+
+    /**
+     * Returns the OpenGL texture target matching this image, i.e.
+     * {@link GL#GL_TEXTURE_2D}, {@link GL#GL_TEXTURE_CUBE_MAP}, {@link GL2ES2#GL_TEXTURE_3D},
+     * {@link GL2ES3#GL_TEXTURE_2D_ARRAY} or {@link #GL_TEXTURE_CUBE_MAP_ARRAY}.
+     */
+    public int getTarget() {
+        if( 0 < layerCount ) {
+            return 6 == faceCount ? GL_TEXTURE_CUBE_MAP_ARRAY : GL2ES3.GL_TEXTURE_2D_ARRAY;
+        } else if( 6 == faceCount ) {
+            return GL.GL_TEXTURE_CUBE_MAP;
+        } else if( 0 < depth ) {
+            return GL2ES2.GL_TEXTURE_3D;
+        }
+        return GL.GL_TEXTURE_2D;
+    }
+
+    /**
+     * Returns a view of the image data of the given mip level, array layer and cube map face,
+     * including all slices of a 3D texture.
+     */
+    public ByteBuffer getImage(final int level, final int layer, final int face) {
+        if( null != faceSize ) {
+            return toNative(slice(levelOffset[level] + face * pad4(faceSize[level]), faceSize[level]));
+        }
+        final int images = Math.max(1, layerCount) * faceCount;
+        final int imageSize = levelLength[level] / images;
+        return toNative(slice(levelOffset[level] + ( layer * faceCount + face ) * imageSize, imageSize));
+    }
+
+    /**
+     * Returns a view of the whole data of the given mip level, i.e. all layers, faces and slices
+     * as expected by <code>glTexImage3D</code> for array and 3D textures.
+     * @throws IllegalStateException for KTX1 non-array cube maps, whose faces are padded
+     */
+    public ByteBuffer getLevel(final int level) throws IllegalStateException {
+        if( null != faceSize ) {
+            throw new IllegalStateException("Padded KTX1 cube map faces, use getImage(..)");
+        }
+        return toNative(slice(levelOffset[level], levelLength[level]));
+    }
+
+    /** Swaps uncompressed multibyte components of a foreign byte order KTX1 file, requiring a copy. */
+    private ByteBuffer toNative(final ByteBuffer b) {
+        if( order == ByteOrder.nativeOrder() || 1 >= glTypeSize || isCompressed() ) {
+            return b;
+        }
+        final ByteBuffer n = Buffers.newDirectByteBuffer(b.remaining());
+        if( 2 == glTypeSize ) {
+            n.asShortBuffer().put(b.asShortBuffer());
+        } else if( 4 == glTypeSize ) {
+            n.asIntBuffer().put(b.asIntBuffer());
+        } else {
+            n.put(b);
+            n.flip();
+        }
+        return n;
+    }
+
+    /**
+     * Returns a {@link TextureData} of the given array layer and cube map face, using views into the file data.
+     * @param glp the profile
+     * @param layer the array layer, zero if not an array texture
+     * @param face the cube map face, zero if not a cube map
+     * @param mipmap if true and the file contains a mip chain, all levels are included
+     */
+    public TextureData newTextureData(final GLProfile glp, final int layer, final int face, final boolean mipmap) {
+        final int pixelFormat = isCompressed() ? GL.GL_RGBA : glFormat;
+        final int pixelType = isCompressed() ? GL.GL_UNSIGNED_BYTE : glType;
+        final TextureData res;
+        if( mipmap && 1 < levelCount ) {
+            final Buffer[] mipmapData = new Buffer[levelCount];
+            for(int i=0; i<levelCount; i++) {
+                mipmapData[i] = getImage(i, layer, face);
+            }
+            res = new TextureData(glp, glInternalFormat, width, height, 0, pixelFormat, pixelType,
+                                  isCompressed(), mustFlipVertically, mipmapData, null);
+        } else {
+            res = new TextureData(glp, glInternalFormat, width, height, 0, pixelFormat, pixelType,
+                                  false, isCompressed(), mustFlipVertically, getImage(0, layer, face), null);
+        }
+        res.setAlignment(alignment);
+        return res;
+    }
+
+    /**
+     * Creates a new {@link Texture} of {@link #getTarget()} holding all layers, faces and, if requested, mip levels.
+     * <p>
+     * 2D textures and cube maps are uploaded via {@link Texture#updateImage(GL, TextureData, int)}.
+     * 3D and array textures are uploaded per mip level via <code>glTexImage3D</code> or <code>glCompressedTexImage3D</code>,
+     * requiring a {@link GL2ES3} context, except for 3D textures on {@link GL2ES2}.
+     * </p>
+     * @param gl the current GL object
+     * @param mipmap if true and the file contains a mip chain, all levels are uploaded
+     */
+    public Texture newTexture(final GL gl, final boolean mipmap) throws GLException {
+        final int target = getTarget();
+        final int levels = mipmap ? levelCount : 1;
+        if( GL.GL_TEXTURE_2D == target ) {
+            return new Texture(gl, newTextureData(gl.getGLProfile(), 0, 0, mipmap));
+        } else if( GL.GL_TEXTURE_CUBE_MAP == target ) {
+            final Texture tex = new Texture(target);
+            for(int f=0; f<6; f++) {
+                tex.updateImage(gl, newTextureData(gl.getGLProfile(), 0, f, mipmap), GL.GL_TEXTURE_CUBE_MAP_POSITIVE_X + f);
+            }
+            return tex;
+        }
+        final GL2ES2 gl2es2 = gl.getGL2ES2();
+        final int d = GL2ES2.GL_TEXTURE_3D == target ? depth : layerCount * faceCount;
+        final int[] tmp = new int[1];
+        gl.glGenTextures(1, tmp, 0);
+        gl.glBindTexture(target, tmp[0]);
+        final int[] align = new int[1];
+        gl.glGetIntegerv(GL.GL_UNPACK_ALIGNMENT, align, 0);
+        gl.glPixelStorei(GL.GL_UNPACK_ALIGNMENT, alignment);
+        try {
+            int w = width, h = height, z = d;
+            for(int i=0; i<levels; i++) {
+                final ByteBuffer level = getLevel(i);
+                if( isCompressed() ) {
+                    gl2es2.glCompressedTexImage3D(target, i, glInternalFormat, w, h, z, 0, level.remaining(), level);
+                } else {
+                    gl2es2.glTexImage3D(target, i, glInternalFormat, w, h, z, 0, glFormat, glType, level);
+                }
+                w = Math.max(1, w / 2);
+                h = Math.max(1, h / 2);
+                if( GL2ES2.GL_TEXTURE_3D == target ) {
+                    z = Math.max(1, z / 2);
+                }
+            }
+        } finally {
+            gl.glPixelStorei(GL.GL_UNPACK_ALIGNMENT, align[0]);
+        }
+        final int minFilter = 1 < levels ? GL.GL_LINEAR_MIPMAP_LINEAR : GL.GL_LINEAR;
+        gl.glTexParameteri(target, GL.GL_TEXTURE_MIN_FILTER, minFilter);
+        gl.glTexParameteri(target, GL.GL_TEXTURE_MAG_FILTER, GL.GL_LINEAR);
+        if( gl.isGL2ES3() ) {
+            gl.glTexParameteri(target, GL2ES3.GL_TEXTURE_MAX_LEVEL, levels - 1);
+        }
+        return new Texture(tmp[0], target, width, height, width, height, mustFlipVertically);
+    }
+
+    @Override
+    public String toString() {
+        return "KTXImage[v"+version+", "+width+"x"+height+"x"+depth+", layers "+layerCount+", faces "+faceCount+", levels "+levelCount+
+               ", ifmt 0x"+Integer.toHexString(glInternalFormat)+", fmt 0x"+Integer.toHexString(glFormat)+", type 0x"+Integer.toHexString(glType)+
+               ", vk "+vkFormat+", order "+order+", keys "+keyValueData.keySet()+"]";
+    }
+}
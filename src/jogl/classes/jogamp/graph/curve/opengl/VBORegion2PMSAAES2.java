@@ -28,6 +28,7 @@
 package jogamp.graph.curve.opengl;
 
 import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
 
 import com.jogamp.opengl.GL2ES2;
 import com.jogamp.opengl.GL;
@@ -213,6 +214,14 @@ public class VBORegion2PMSAAES2  extends GLRegion {
 
     @Override
     protected final void pushVertex(final float[] coords, final float[] texParams, final float[] rgba) {
+        if( gca_VerticesAttr.sealed() ) {
+            // appending to an uploaded region, requires a complete upload
+            gca_VerticesAttr.seal(false);
+            gca_CurveParamsAttr.seal(false);
+            if( null != gca_ColorsAttr ) {
+                gca_ColorsAttr.seal(false);
+            }
+        }
         gca_VerticesAttr.putf(coords[0]);
         gca_VerticesAttr.putf(coords[1]);
         gca_VerticesAttr.putf(coords[2]);
@@ -235,11 +244,58 @@ public class VBORegion2PMSAAES2  extends GLRegion {
 
     @Override
     protected final void pushIndex(final int idx) {
+        if( indicesBuffer.sealed() ) {
+            indicesBuffer.seal(false);
+        }
         indicesBuffer.puts((short)idx);
     }
 
+    @Override
+    protected final void setVertex(final int vIdx, final float[] coords, final float[] texParams, final float[] rgba) {
+        putf(gca_VerticesAttr, vIdx, coords);
+        putf(gca_CurveParamsAttr, vIdx, texParams);
+        if( null != gca_ColorsAttr ) {
+            if( null != rgba ) {
+                putf(gca_ColorsAttr, vIdx, rgba);
+            } else {
+                throw new IllegalArgumentException("Null color given for COLOR_CHANNEL rendering mode");
+            }
+        }
+    }
+
+    @Override
+    protected final void setIndex(final int iIdx, final int idx) {
+        ((ShortBuffer)indicesBuffer.getBuffer()).put(iIdx, (short)idx);
+    }
+
+    @Override
+    protected final int getIndex(final int iIdx) {
+        return ((ShortBuffer)indicesBuffer.getBuffer()).get(iIdx) & 0xffff;
+    }
+
+    @Override
+    protected final void moveVertices(final int srcVIdx, final int dstVIdx, final int count) {
+        moveVertices(gca_VerticesAttr, srcVIdx, dstVIdx, count);
+        moveVertices(gca_CurveParamsAttr, srcVIdx, dstVIdx, count);
+        if( null != gca_ColorsAttr ) {
+            moveVertices(gca_ColorsAttr, srcVIdx, dstVIdx, count);
+        }
+    }
+
+    @Override
+    protected final void truncate(final int vertexCount, final int indexCount) {
+        truncate(gca_VerticesAttr, vertexCount * gca_VerticesAttr.getComponentCount());
+        truncate(gca_CurveParamsAttr, vertexCount * gca_CurveParamsAttr.getComponentCount());
+        if( null != gca_ColorsAttr ) {
+            truncate(gca_ColorsAttr, vertexCount * gca_ColorsAttr.getComponentCount());
+        }
+        truncate(indicesBuffer, indexCount);
+    }
+
     @Override
     protected void updateImpl(final GL2ES2 gl) {
+        // upload in place modified ranges of already written buffers
+        updateDirtyRanges(gl, indicesBuffer, gca_VerticesAttr, gca_CurveParamsAttr, gca_ColorsAttr);
         // seal buffers
         indicesBuffer.seal(gl, true);
         indicesBuffer.enableBuffer(gl, false);
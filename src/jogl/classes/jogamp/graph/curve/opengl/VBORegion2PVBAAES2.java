@@ -28,6 +28,7 @@
 package jogamp.graph.curve.opengl;
 
 import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
 
 import com.jogamp.opengl.GL2ES2;
 import com.jogamp.opengl.GL;
@@ -40,6 +41,7 @@ import jogamp.opengl.Debug;
 import com.jogamp.common.util.PropertyAccess;
 import com.jogamp.graph.curve.Region;
 import com.jogamp.graph.curve.opengl.GLRegion;
+import com.jogamp.graph.curve.opengl.RegionFBOPool;
 import com.jogamp.graph.curve.opengl.RegionRenderer;
 import com.jogamp.graph.curve.opengl.RenderState;
 import com.jogamp.opengl.FBObject;
@@ -116,6 +118,12 @@ public class VBORegion2PVBAAES2  extends GLRegion {
     private int fboHeight = 0;
     private boolean fboDirty = true;
 
+    /** Target of the {@link RegionRenderer#getFBOPool() renderer's pool} if used, then {@link #fbo} is not owned. */
+    private RegionFBOPool.Target sharedTarget = null;
+    /** Requested size of the {@link #sharedTarget}, which may exceed it. */
+    private int sharedFboWidth = 0;
+    private int sharedFboHeight = 0;
+
     final int[] maxTexSize = new int[] { -1 } ;
 
     /**
@@ -254,6 +262,14 @@ public class VBORegion2PVBAAES2  extends GLRegion {
 
     @Override
     protected final void pushVertex(final float[] coords, final float[] texParams, final float[] rgba) {
+        if( gca_VerticesAttr.sealed() ) {
+            // appending to an uploaded region, requires a complete upload
+            gca_VerticesAttr.seal(false);
+            gca_CurveParamsAttr.seal(false);
+            if( null != gca_ColorsAttr ) {
+                gca_ColorsAttr.seal(false);
+            }
+        }
         gca_VerticesAttr.putf(coords[0]);
         gca_VerticesAttr.putf(coords[1]);
         gca_VerticesAttr.putf(coords[2]);
@@ -276,11 +292,58 @@ public class VBORegion2PVBAAES2  extends GLRegion {
 
     @Override
     protected final void pushIndex(final int idx) {
+        if( indicesBuffer.sealed() ) {
+            indicesBuffer.seal(false);
+        }
         indicesBuffer.puts((short)idx);
     }
 
+    @Override
+    protected final void setVertex(final int vIdx, final float[] coords, final float[] texParams, final float[] rgba) {
+        putf(gca_VerticesAttr, vIdx, coords);
+        putf(gca_CurveParamsAttr, vIdx, texParams);
+        if( null != gca_ColorsAttr ) {
+            if( null != rgba ) {
+                putf(gca_ColorsAttr, vIdx, rgba);
+            } else {
+                throw new IllegalArgumentException("Null color given for COLOR_CHANNEL rendering mode");
+            }
+        }
+    }
+
+    @Override
+    protected final void setIndex(final int iIdx, final int idx) {
+        ((ShortBuffer)indicesBuffer.getBuffer()).put(iIdx, (short)idx);
+    }
+
+    @Override
+    protected final int getIndex(final int iIdx) {
+        return ((ShortBuffer)indicesBuffer.getBuffer()).get(iIdx) & 0xffff;
+    }
+
+    @Override
+    protected final void moveVertices(final int srcVIdx, final int dstVIdx, final int count) {
+        moveVertices(gca_VerticesAttr, srcVIdx, dstVIdx, count);
+        moveVertices(gca_CurveParamsAttr, srcVIdx, dstVIdx, count);
+        if( null != gca_ColorsAttr ) {
+            moveVertices(gca_ColorsAttr, srcVIdx, dstVIdx, count);
+        }
+    }
+
+    @Override
+    protected final void truncate(final int vertexCount, final int indexCount) {
+        truncate(gca_VerticesAttr, vertexCount * gca_VerticesAttr.getComponentCount());
+        truncate(gca_CurveParamsAttr, vertexCount * gca_CurveParamsAttr.getComponentCount());
+        if( null != gca_ColorsAttr ) {
+            truncate(gca_ColorsAttr, vertexCount * gca_ColorsAttr.getComponentCount());
+        }
+        truncate(indicesBuffer, indexCount);
+    }
+
     @Override
     protected void updateImpl(final GL2ES2 gl) {
+        // upload in place modified ranges of already written buffers
+        updateDirtyRanges(gl, indicesBuffer, gca_VerticesAttr, gca_CurveParamsAttr, gca_ColorsAttr);
         // seal buffers
         indicesBuffer.seal(gl, true);
         indicesBuffer.enableBuffer(gl, false);
@@ -358,6 +421,26 @@ public class VBORegion2PVBAAES2  extends GLRegion {
                 gl.glGetIntegerv(GL.GL_MAX_TEXTURE_SIZE, maxTexSize, 0);
             }
             final RenderState rs = renderer.getRenderState();
+            final RegionFBOPool fboPool = renderer.getFBOPool();
+            if( null != fboPool ) {
+                if( null == sharedTarget && null != fbo ) {
+                    // Switched to the pool, drop own FBO
+                    fbo.destroy(gl);
+                    fbo = null;
+                    texA = null;
+                }
+                if( null == sharedTarget || !sharedTarget.isOwner(this) ) {
+                    // Shared target has been used by another region
+                    fboDirty = true;
+                }
+            } else if( null != sharedTarget ) {
+                // Switched from the pool, drop shared FBO
+                sharedTarget.release(this);
+                sharedTarget = null;
+                fbo = null;
+                texA = null;
+                fboDirty = true;
+            }
             final float winWidth, winHeight;
 
             final float ratioObjWinWidth, ratioObjWinHeight;
@@ -425,8 +508,8 @@ public class VBORegion2PVBAAES2  extends GLRegion {
                 // Nothing ..
                 return;
             }
-            final int deltaFboWidth = Math.abs(targetFboWidth-fboWidth);
-            final int deltaFboHeight = Math.abs(targetFboHeight-fboHeight);
+            final int deltaFboWidth = Math.abs(targetFboWidth-( null != fboPool ? sharedFboWidth : fboWidth ));
+            final int deltaFboHeight = Math.abs(targetFboHeight-( null != fboPool ? sharedFboHeight : fboHeight ));
             final boolean hasDelta = 0!=deltaFboWidth || 0!=deltaFboHeight;
             if( DEBUG_FBO_2 ) {
                 System.err.printf("XXX.maxDelta: hasDelta %b: %d / %d,  %.3f, %.3f%n",
@@ -460,7 +543,16 @@ public class VBORegion2PVBAAES2  extends GLRegion {
                 }
 
                 final int newFboWidth, newFboHeight, resizeCase;
-                if( 0 >= RESIZE_BOUNDARY ) {
+                if( null != fboPool ) {
+                    // Case: Shared target of at least target size
+                    sharedTarget = fboPool.acquire(gl, targetFboWidth, targetFboHeight,
+                                                   !rs.isHintMaskSet(RenderState.BITHINT_BLENDING_ENABLED), maxTexSize[0], this);
+                    sharedFboWidth = targetFboWidth;
+                    sharedFboHeight = targetFboHeight;
+                    newFboWidth = sharedTarget.getWidth();
+                    newFboHeight = sharedTarget.getHeight();
+                    resizeCase = 5;
+                } else if( 0 >= RESIZE_BOUNDARY ) {
                     // Resize w/o optimization
                     newFboWidth = targetFboWidth;
                     newFboHeight = targetFboHeight;
@@ -564,7 +656,20 @@ public class VBORegion2PVBAAES2  extends GLRegion {
 
         final boolean blendingEnabled = rs.isHintMaskSet(RenderState.BITHINT_BLENDING_ENABLED);
 
-        if(null == fbo) {
+        if( null != sharedTarget ) {
+            fbo = sharedTarget.getFBO();
+            texA = sharedTarget.getTexture();
+            if( newFboWidth != fboWidth || newFboHeight != fboHeight ) {
+                fboWidth  = newFboWidth;
+                fboHeight  = newFboHeight;
+                final FloatBuffer fboTexSize = (FloatBuffer) gcu_FboTexSize.getBuffer();
+                {
+                    fboTexSize.put(0, fboWidth);
+                    fboTexSize.put(1, fboHeight);
+                }
+            }
+            fbo.bind(gl);
+        } else if(null == fbo) {
             fboWidth  = newFboWidth;
             fboHeight  = newFboHeight;
             final FloatBuffer fboTexSize = (FloatBuffer) gcu_FboTexSize.getBuffer();
@@ -660,7 +765,12 @@ public class VBORegion2PVBAAES2  extends GLRegion {
             System.err.println("VBORegion2PES2 Destroy: " + this);
             // Thread.dumpStack();
         }
-        if(null != fbo) {
+        if( null != sharedTarget ) {
+            sharedTarget.release(this);
+            sharedTarget = null;
+            fbo = null;
+            texA = null;
+        } else if(null != fbo) {
             fbo.destroy(gl);
             fbo = null;
             texA = null;
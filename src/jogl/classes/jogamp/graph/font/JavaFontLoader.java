@@ -91,7 +91,7 @@ public class JavaFontLoader implements FontSet {
     }
 
     @Override
-    public Font get(final int family, final int style) throws IOException {
+    public synchronized Font get(final int family, final int style) throws IOException {
         if(null == javaFontPath) {
             throw new GLException("java font path undefined");
         }
@@ -86,7 +86,7 @@ public class UbuntuFontLoader implements FontSet {
     }
 
     @Override
-    public Font get(final int family, final int style) throws IOException {
+    public synchronized Font get(final int family, final int style) throws IOException {
         Font font = (Font)fontMap.get( ( family << 8 ) | style );
         if (font != null) {
             return font;
@@ -0,0 +1,380 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package jogamp.graph.font.typecast;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+
+import com.jogamp.common.util.IntIntHashMap;
+import com.jogamp.graph.curve.OutlineShape;
+import com.jogamp.graph.geom.Triangle;
+import com.jogamp.graph.geom.Vertex;
+import com.jogamp.opengl.math.geom.AABBox;
+
+/**
+ * Persistent cache of triangulated glyph meshes of one font,
+ * allowing to restore a {@link TypecastGlyph} w/o parsing its outline and w/o triangulation.
+ * <p>
+ * The cache file is keyed by the font's unique name and version, as well as by the mesh format and {@link OutlineShape#DEFAULT_SHARPNESS}.
+ * A file w/ a different key is ignored and replaced by the next {@link #store(ArrayList) store}.
+ * An existing file is memory mapped, glyphs are decoded on demand only.
+ * </p>
+ * <p>
+ * File layout, big endian:
+ * <pre>
+ *   int   magic, int format, float sharpness
+ *   short nameLen, byte[nameLen] UTF-8 unique name
+ *   short versionLen, byte[versionLen] UTF-8 version
+ *   int   glyphCount, glyphCount * { char symbol, int offset }
+ *   glyph record at offset:
+ *     short glyphID, float[6] glyph bbox, int advance,
+ *     int vertexCount (-1 w/o shape), float[6] shape bounds,
+ *     vertexCount * { float[3] coord, float[3] texCoord, byte onCurve },
+ *     int indexCount, indexCount * char index
+ * </pre>
+ * Triangle vertices added by the triangulation are appended to the vertices, hence all indices are valid vertex IDs.
+ * </p>
+ */
+class GlyphMeshCache {
+    static final boolean DEBUG = TypecastFont.DEBUG;
+
+    private static final int MAGIC = 0x4A474D43; // "JGMC"
+    private static final int FORMAT = 1;
+    private static final int VERTEX_SIZE = 6 * 4 + 1;
+    private static final String SUFFIX = ".jgm";
+
+    private final File file;
+    private final String uniqueName;
+    private final String version;
+    /** Mapped file content or null */
+    private final ByteBuffer data;
+    /** symbol -> record offset within {@link #data} */
+    private final IntIntHashMap index;
+
+    /**
+     * Opens the cache file for the given font key within the given directory, mapping it if existing and valid.
+     */
+    GlyphMeshCache(final File dir, final String uniqueName, final String version) {
+        this.file = new File(dir, getFileName(uniqueName, version));
+        this.uniqueName = uniqueName;
+        this.version = version;
+        this.index = new IntIntHashMap();
+        this.index.setKeyNotFoundValue(-1);
+        ByteBuffer _data = null;
+        if( file.isFile() ) {
+            try {
+                _data = map(file);
+                if( !readIndex(_data) ) {
+                    index.clear();
+                    _data = null;
+                }
+            } catch (final Exception e) {
+                // corrupt or truncated, will be replaced by store
+                if(DEBUG) {
+                    System.err.println("GlyphMeshCache: Ignoring "+file+": "+e.getMessage());
+                }
+                index.clear();
+                _data = null;
+            }
+        }
+        data = _data;
+        if(DEBUG) {
+            System.err.println("GlyphMeshCache: "+file+", cached glyphs "+index.size());
+        }
+    }
+
+    static String getFileName(final String uniqueName, final String version) {
+        final String key = uniqueName + "-" + version;
+        final StringBuilder sb = new StringBuilder(key.length() + SUFFIX.length());
+        for(int i=0; i<key.length(); i++) {
+            final char c = key.charAt(i);
+            sb.append( Character.isLetterOrDigit(c) || '-' == c || '.' == c ? c : '_' );
+        }
+        return sb.append(SUFFIX).toString();
+    }
+
+    File getFile() { return file; }
+
+    /** Returns the number of glyphs in the mapped cache file. */
+    int getCachedCount() { return index.size(); }
+
+    private static ByteBuffer map(final File file) throws IOException {
+        final RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            final FileChannel ch = raf.getChannel();
+            return ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+        } finally {
+            raf.close(); // mapping stays valid
+        }
+    }
+
+    private static String getString(final ByteBuffer bb, final int pos, final int len) throws IOException {
+        final byte[] b = new byte[len];
+        for(int i=0; i<len; i++) {
+            b[i] = bb.get(pos+i);
+        }
+        return new String(b, "UTF-8");
+    }
+
+    private boolean readIndex(final ByteBuffer bb) throws IOException {
+        int p = 0;
+        if( MAGIC != bb.getInt(p) || FORMAT != bb.getInt(p+4) ||
+            OutlineShape.DEFAULT_SHARPNESS != bb.getFloat(p+8) ) {
+            return false;
+        }
+        p += 12;
+        final int nameLen = bb.getChar(p);
+        final String name = getString(bb, p+2, nameLen);
+        p += 2 + nameLen;
+        final int versionLen = bb.getChar(p);
+        final String vers = getString(bb, p+2, versionLen);
+        p += 2 + versionLen;
+        if( !uniqueName.equals(name) || !version.equals(vers) ) {
+            return false;
+        }
+        final int count = bb.getInt(p);
+        p += 4;
+        for(int i=0; i<count; i++) {
+            index.put(bb.getChar(p), bb.getInt(p+2));
+            p += 6;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the cached glyph of the given symbol w/ its pre-triangulated shape, or null if not cached.
+     * Method is thread safe.
+     */
+    TypecastGlyph readGlyph(final TypecastFont font, final char symbol, final Vertex.Factory<? extends Vertex> vertexFactory) {
+        if( null == data ) {
+            return null;
+        }
+        final int offset = index.get(symbol);
+        if( 0 > offset ) {
+            return null;
+        }
+        final ByteBuffer bb = data; // absolute reads only
+        int p = offset;
+        final short code = bb.getShort(p);
+        p += 2;
+        final AABBox bbox = new AABBox(bb.getFloat(p), bb.getFloat(p+4), bb.getFloat(p+8),
+                                       bb.getFloat(p+12), bb.getFloat(p+16), bb.getFloat(p+20));
+        p += 24;
+        final int advance = bb.getInt(p);
+        final int vertexCount = bb.getInt(p+4);
+        p += 8;
+        final OutlineShape shape;
+        if( 0 > vertexCount ) {
+            shape = null;
+        } else {
+            final AABBox bounds = new AABBox(bb.getFloat(p), bb.getFloat(p+4), bb.getFloat(p+8),
+                                             bb.getFloat(p+12), bb.getFloat(p+16), bb.getFloat(p+20));
+            p += 24;
+            final ArrayList<Vertex> vertices = new ArrayList<Vertex>(vertexCount);
+            for(int i=0; i<vertexCount; i++) {
+                final Vertex v = vertexFactory.create(bb.getFloat(p), bb.getFloat(p+4), bb.getFloat(p+8), 0 != bb.get(p+24));
+                v.setTexCoord(bb.getFloat(p+12), bb.getFloat(p+16), bb.getFloat(p+20));
+                v.setId(i);
+                vertices.add(v);
+                p += VERTEX_SIZE;
+            }
+            final int indexCount = bb.getInt(p);
+            p += 4;
+            final ArrayList<Triangle> triangles = new ArrayList<Triangle>(indexCount / 3);
+            for(int i=0; i<indexCount; i+=3) {
+                triangles.add(new Triangle(vertices.get(bb.getChar(p)), vertices.get(bb.getChar(p+2)), vertices.get(bb.getChar(p+4)),
+                                           new boolean[3]));
+                p += 6;
+            }
+            shape = new OutlineShape(vertexFactory);
+            shape.setTriangulation(vertices, triangles, bounds);
+        }
+        return new TypecastGlyph(font, symbol, code, bbox, advance, shape);
+    }
+
+    /**
+     * Writes the given glyphs to the cache file, triangulating their shapes if not yet done,
+     * keeping mapped glyphs not contained in <code>glyphs</code>.
+     * <p>
+     * The file is written to a temporary file first and renamed afterwards.
+     * A mapped file may not be replaced on some platforms while in use, in which case an {@link IOException} is thrown.
+     * </p>
+     * @return the number of stored glyphs
+     */
+    int store(final ArrayList<TypecastGlyph> glyphs) throws IOException {
+        final IntIntHashMap written = new IntIntHashMap();
+        written.setKeyNotFoundValue(-1);
+        final ByteArrayOutputStream records = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(records);
+        for(int i=0; i<glyphs.size(); i++) {
+            final TypecastGlyph g = glyphs.get(i);
+            final int offset = out.size();
+            if( writeGlyph(out, g) ) {
+                written.put(g.getSymbol(), offset);
+            }
+        }
+        // keep not yet loaded glyphs of the mapped file
+        if( null != data ) {
+            for(final IntIntHashMap.Entry e : index) {
+                if( 0 > written.get(e.getKey()) ) {
+                    written.put(e.getKey(), out.size());
+                    out.write(getRecord(e.getValue()));
+                }
+            }
+        }
+        out.flush();
+
+        final byte[] name = uniqueName.getBytes("UTF-8");
+        final byte[] vers = version.getBytes("UTF-8");
+        final int count = written.size();
+        final int headerSize = 12 + 2 + name.length + 2 + vers.length + 4 + 6 * count;
+
+        final File tmp = new File(file.getPath()+".tmp");
+        final DataOutputStream fout = new DataOutputStream(new FileOutputStream(tmp));
+        try {
+            fout.writeInt(MAGIC);
+            fout.writeInt(FORMAT);
+            fout.writeFloat(OutlineShape.DEFAULT_SHARPNESS);
+            fout.writeShort(name.length);
+            fout.write(name);
+            fout.writeShort(vers.length);
+            fout.write(vers);
+            fout.writeInt(count);
+            for(final IntIntHashMap.Entry e : written) {
+                fout.writeChar(e.getKey());
+                fout.writeInt(headerSize + e.getValue());
+            }
+            records.writeTo(fout);
+        } finally {
+            fout.close();
+        }
+        if( !tmp.renameTo(file) && !( file.delete() && tmp.renameTo(file) ) ) {
+            tmp.delete();
+            throw new IOException("Could not replace "+file);
+        }
+        if(DEBUG) {
+            System.err.println("GlyphMeshCache: Stored "+count+" glyphs to "+file);
+        }
+        return count;
+    }
+
+    /** Returns a copy of the mapped glyph record at the given offset. */
+    private byte[] getRecord(final int offset) {
+        final ByteBuffer bb = data;
+        int p = offset + 2 + 24 + 4;
+        final int vertexCount = bb.getInt(p);
+        p += 4;
+        if( 0 <= vertexCount ) {
+            p += 24 + vertexCount * VERTEX_SIZE;
+            p += 4 + 2 * bb.getInt(p);
+        }
+        final byte[] b = new byte[p - offset];
+        for(int i=0; i<b.length; i++) {
+            b[i] = bb.get(offset+i);
+        }
+        return b;
+    }
+
+    private static void writeFloats(final DataOutputStream out, final float[] f) throws IOException {
+        for(int i=0; i<f.length; i++) {
+            out.writeFloat(f[i]);
+        }
+    }
+
+    /** Returns false if the glyph's mesh exceeds the 16-bit index range and hence is not written. */
+    private static boolean writeGlyph(final DataOutputStream out, final TypecastGlyph g) throws IOException {
+        final OutlineShape shape = g.getShape();
+        final ArrayList<Vertex> vertices;
+        final ArrayList<Triangle> triangles;
+        if( null != shape ) {
+            triangles = shape.getTriangles(OutlineShape.VerticesState.QUADRATIC_NURBS);
+            vertices = new ArrayList<Vertex>(shape.getVertices());
+            // vertices w/o valid ID, added by the triangulation, are appended as in Region.addOutlineShape(..)
+            final int knownCount = vertices.size();
+            for(int i=0; i<triangles.size(); i++) {
+                final Vertex[] tv = triangles.get(i).getVertices();
+                if( !isKnown(tv[0], knownCount) ) {
+                    vertices.add(tv[0]);
+                    vertices.add(tv[1]);
+                    vertices.add(tv[2]);
+                }
+            }
+            if( vertices.size() > 0xffff ) {
+                return false;
+            }
+        } else {
+            vertices = null;
+            triangles = null;
+        }
+        out.writeShort(g.getID());
+        writeFloats(out, g.getBBox().getLow());
+        writeFloats(out, g.getBBox().getHigh());
+        out.writeInt(g.getAdvanceUnsized());
+        if( null == shape ) {
+            out.writeInt(-1);
+            return true;
+        }
+        final int knownCount = shape.getVertices().size();
+        out.writeInt(vertices.size());
+        writeFloats(out, shape.getBounds().getLow());
+        writeFloats(out, shape.getBounds().getHigh());
+        for(int i=0; i<vertices.size(); i++) {
+            final Vertex v = vertices.get(i);
+            writeFloats(out, v.getCoord());
+            writeFloats(out, v.getTexCoord());
+            out.writeByte(v.isOnCurve() ? 1 : 0);
+        }
+        out.writeInt(triangles.size() * 3);
+        int added = knownCount;
+        for(int i=0; i<triangles.size(); i++) {
+            final Vertex[] tv = triangles.get(i).getVertices();
+            if( isKnown(tv[0], knownCount) ) {
+                out.writeChar(tv[0].getId());
+                out.writeChar(tv[1].getId());
+                out.writeChar(tv[2].getId());
+            } else {
+                out.writeChar(added++);
+                out.writeChar(added++);
+                out.writeChar(added++);
+            }
+        }
+        return true;
+    }
+
+    private static boolean isKnown(final Vertex v, final int knownCount) {
+        final int id = v.getId();
+        return 0 <= id && id < knownCount;
+    }
+}
@@ -27,6 +27,20 @@
  */
 package jogamp.graph.font.typecast;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
 import jogamp.graph.font.typecast.ot.OTFont;
 import jogamp.graph.font.typecast.ot.OTFontCollection;
 import jogamp.graph.font.typecast.ot.table.CmapFormat;
@@ -34,12 +48,17 @@ import jogamp.graph.font.typecast.ot.table.CmapIndexEntry;
 import jogamp.graph.font.typecast.ot.table.CmapTable;
 import jogamp.graph.font.typecast.ot.table.HdmxTable;
 import jogamp.graph.font.typecast.ot.table.ID;
+import jogamp.graph.font.typecast.ot.table.KernSubtable;
+import jogamp.graph.font.typecast.ot.table.KernTable;
+import jogamp.graph.font.typecast.ot.table.KerningPair;
+import jogamp.graph.font.typecast.ot.table.Table;
 import jogamp.graph.geom.plane.AffineTransform;
 
-import com.jogamp.common.util.IntObjectHashMap;
+import com.jogamp.common.util.IntIntHashMap;
 import com.jogamp.graph.curve.OutlineShape;
 import com.jogamp.graph.font.Font;
 import com.jogamp.graph.font.FontFactory;
+import com.jogamp.graph.font.TextLayout;
 import com.jogamp.graph.geom.SVertex;
 import com.jogamp.graph.geom.Vertex;
 import com.jogamp.opengl.math.geom.AABBox;
@@ -52,8 +71,13 @@ class TypecastFont implements Font {
     /* pp */ final OTFont font;
     private final CmapFormat cmapFormat;
     private final int cmapentries;
-    private final IntObjectHashMap char2Glyph;
+    /** Glyph cache, 256 lazily created pages of 256 glyphs indexed by the char's high and low byte, read w/o locking. */
+    private final AtomicReferenceArray<AtomicReferenceArray<TypecastGlyph>> char2Glyph = new AtomicReferenceArray<AtomicReferenceArray<TypecastGlyph>>(256);
     private final TypecastHMetrics metrics;
+    /** Horizontal kerning in font units, keyed by <code>leftGlyphID &lt;&lt; 16 | rightGlyphID</code>, read-only after construction. */
+    private final IntIntHashMap kerning;
+    /** Optional persistent glyph mesh cache */
+    private volatile GlyphMeshCache meshCache = null;
     private final float[] tmpV3 = new float[3];
     // FIXME: Add cache size to limit memory usage ??
 
@@ -144,8 +168,36 @@ class TypecastFont implements Font {
                 }
             }
         }
-        char2Glyph = new IntObjectHashMap(cmapentries + cmapentries/4);
         metrics = new TypecastHMetrics(this);
+        kerning = readKerning(font);
+        if(DEBUG) {
+            System.err.println("num kerning pairs: "+kerning.size());
+        }
+    }
+
+    private static IntIntHashMap readKerning(final OTFont font) {
+        final IntIntHashMap res = new IntIntHashMap();
+        res.setKeyNotFoundValue(0);
+        final KernTable kern = (KernTable) font.getTable(Table.kern);
+        if( null == kern ) {
+            return res;
+        }
+        for(int i=0; i<kern.getSubtableCount(); i++) {
+            final KernSubtable st = kern.getSubtable(i);
+            if( null == st ||
+                KernSubtable.COVERAGE_HORIZONTAL != ( st.getCoverage() & ( KernSubtable.COVERAGE_HORIZONTAL |
+                                                                           KernSubtable.COVERAGE_MINIMUM |
+                                                                           KernSubtable.COVERAGE_CROSS_STREAM ) ) ) {
+                continue;
+            }
+            final boolean override = 0 != ( st.getCoverage() & KernSubtable.COVERAGE_OVERRIDE );
+            for(int j=0; j<st.getKerningPairCount(); j++) {
+                final KerningPair kp = st.getKerningPair(j);
+                final int key = kp.getLeft() << 16 | kp.getRight();
+                res.put(key, override ? kp.getValue() : res.get(key) + kp.getValue());
+            }
+        }
+        return res;
     }
 
     @Override
@@ -172,57 +224,252 @@ class TypecastFont implements Font {
         return font.getHmtxTable().getAdvanceWidth(glyphID) * metrics.getScale(pixelSize);
     }
 
+    @Override
+    public float getKerning(final int leftGlyphID, final int rightGlyphID, final float pixelSize) {
+        final int value = kerning.get( ( leftGlyphID & 0xffff ) << 16 | ( rightGlyphID & 0xffff ) );
+        return 0 != value ? value * metrics.getScale(pixelSize) : 0f;
+    }
+
     @Override
     public final Metrics getMetrics() {
         return metrics;
     }
 
+    private TypecastGlyph getCachedGlyph(final char symbol) {
+        final AtomicReferenceArray<TypecastGlyph> page = char2Glyph.get(symbol >>> 8);
+        return null != page ? page.get(symbol & 0xff) : null;
+    }
+
+    /** Publishes the given glyph, unless another thread has done so before. Returns the cached glyph. */
+    private TypecastGlyph putCachedGlyph(final TypecastGlyph glyph) {
+        final int hi = glyph.getSymbol() >>> 8;
+        final int lo = glyph.getSymbol() & 0xff;
+        AtomicReferenceArray<TypecastGlyph> page = char2Glyph.get(hi);
+        if( null == page ) {
+            char2Glyph.compareAndSet(hi, null, new AtomicReferenceArray<TypecastGlyph>(256));
+            page = char2Glyph.get(hi);
+        }
+        if( page.compareAndSet(lo, null, glyph) ) {
+            return glyph;
+        }
+        return page.get(lo);
+    }
+
     @Override
     public Glyph getGlyph(final char symbol) {
-        TypecastGlyph result = (TypecastGlyph) char2Glyph.get(symbol);
-        if (null == result) {
-            // final short code = (short) char2Code.get(symbol);
-            short code = (short) cmapFormat.mapCharCode(symbol);
-            if(0 == code && 0 != symbol) {
-                // reserved special glyph IDs by convention
-                switch(symbol) {
-                    case ' ':  code = Glyph.ID_SPACE; break;
-                    case '\n': code = Glyph.ID_CR; break;
-                    default:   code = Glyph.ID_UNKNOWN;
-                }
+        final TypecastGlyph result = getCachedGlyph(symbol);
+        if (null != result) {
+            return result;
+        }
+        return putCachedGlyph(buildGlyph(symbol));
+    }
+
+    private TypecastGlyph buildGlyph(final char symbol) {
+        // final short code = (short) char2Code.get(symbol);
+        short code = (short) cmapFormat.mapCharCode(symbol);
+        if(0 == code && 0 != symbol) {
+            // reserved special glyph IDs by convention
+            switch(symbol) {
+                case ' ':  code = Glyph.ID_SPACE; break;
+                case '\n': code = Glyph.ID_CR; break;
+                default:   code = Glyph.ID_UNKNOWN;
             }
+        }
 
-            jogamp.graph.font.typecast.ot.OTGlyph glyph = font.getGlyph(code);
-            if(null == glyph) {
-                glyph = font.getGlyph(Glyph.ID_UNKNOWN);
+        final GlyphMeshCache mc = meshCache;
+        if( null != mc ) {
+            final TypecastGlyph cached = mc.readGlyph(this, symbol, vertexFactory);
+            if( null != cached ) {
+                addHdmxAdvances(cached, cached.getID());
+                return cached;
             }
-            if(null == glyph) {
-                throw new RuntimeException("Could not retrieve glyph for symbol: <"+symbol+"> "+(int)symbol+" -> glyph id "+code);
+        }
+
+        jogamp.graph.font.typecast.ot.OTGlyph glyph = font.getGlyph(code);
+        if(null == glyph) {
+            glyph = font.getGlyph(Glyph.ID_UNKNOWN);
+        }
+        if(null == glyph) {
+            throw new RuntimeException("Could not retrieve glyph for symbol: <"+symbol+"> "+(int)symbol+" -> glyph id "+code);
+        }
+        final OutlineShape shape = TypecastRenderer.buildShape(symbol, glyph, vertexFactory);
+        final TypecastGlyph result = new TypecastGlyph(this, symbol, code, glyph.getBBox(), glyph.getAdvanceWidth(), shape);
+        if(DEBUG) {
+            System.err.println("New glyph: " + (int)symbol + " ( " + symbol +" ) -> " + code + ", contours " + glyph.getPointCount() + ": " + shape);
+        }
+        glyph.clearPointData();
+
+        addHdmxAdvances(result, code);
+        return result;
+    }
+
+    private void addHdmxAdvances(final TypecastGlyph result, final short code) {
+        final HdmxTable hdmx = font.getHdmxTable();
+        if (null!= result && null != hdmx) {
+            /*if(DEBUG) {
+                System.err.println("hdmx "+hdmx);
+            }*/
+            for (int i=0; i<hdmx.getNumberOfRecords(); i++)
+            {
+                final HdmxTable.DeviceRecord dr = hdmx.getRecord(i);
+                result.addAdvance(dr.getWidth(code), dr.getPixelSize());
+                /* if(DEBUG) {
+                    System.err.println("hdmx advance : pixelsize = "+dr.getWidth(code)+" : "+ dr.getPixelSize());
+                } */
             }
-            final OutlineShape shape = TypecastRenderer.buildShape(symbol, glyph, vertexFactory);
-            result = new TypecastGlyph(this, symbol, code, glyph.getBBox(), glyph.getAdvanceWidth(), shape);
-            if(DEBUG) {
-                System.err.println("New glyph: " + (int)symbol + " ( " + symbol +" ) -> " + code + ", contours " + glyph.getPointCount() + ": " + shape);
+        }
+    }
+
+    @Override
+    public void setGlyphMeshCacheDir(final File dir) throws IOException {
+        if( null == dir ) {
+            meshCache = null;
+            return;
+        }
+        if( !dir.isDirectory() && !dir.mkdirs() ) {
+            throw new IOException("Could not create glyph mesh cache directory "+dir);
+        }
+        meshCache = new GlyphMeshCache(dir, getName(Font.NAME_UNIQUNAME), getName(Font.NAME_VERSION));
+    }
+
+    @Override
+    public int storeGlyphMeshCache() throws IOException {
+        final GlyphMeshCache mc = meshCache;
+        if( null == mc ) {
+            return -1;
+        }
+        final ArrayList<TypecastGlyph> glyphs = new ArrayList<TypecastGlyph>();
+        for(int i=0; i<char2Glyph.length(); i++) {
+            final AtomicReferenceArray<TypecastGlyph> page = char2Glyph.get(i);
+            for(int j=0; null != page && j<page.length(); j++) {
+                final TypecastGlyph g = page.get(j);
+                if( null != g ) {
+                    glyphs.add(g);
+                }
+            }
+        }
+        synchronized( mc ) {
+            return mc.store(glyphs);
+        }
+    }
+
+    /** Number of glyphs built per preload task. */
+    private static final int PRELOAD_CHUNK = 32;
+
+    /** Shared preload pool of daemon threads, created on first use. */
+    private static class PreloadPool {
+        static final ExecutorService pool;
+        static {
+            final int n = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+            final AtomicInteger threadNum = new AtomicInteger(0);
+            pool = Executors.newFixedThreadPool(n, new ThreadFactory() {
+                @Override
+                public Thread newThread(final Runnable r) {
+                    final Thread t = new Thread(r, "GlyphPreload-"+threadNum.getAndIncrement());
+                    t.setDaemon(true);
+                    return t;
+                } });
+        }
+    }
+
+    @Override
+    public Future<Integer> preloadGlyphs(final CharSequence chars, final ExecutorService executor) {
+        final char[] symbols = new char[chars.length()];
+        for(int i=0; i<symbols.length; i++) {
+            symbols[i] = chars.charAt(i);
+        }
+        return preloadImpl(symbols, executor);
+    }
+
+    @Override
+    public Future<Integer> preloadGlyphs(final char first, final char last, final ExecutorService executor) {
+        final char[] symbols = new char[Math.max(0, last - first + 1)];
+        for(int i=0; i<symbols.length; i++) {
+            symbols[i] = (char)(first + i);
+        }
+        return preloadImpl(symbols, executor);
+    }
+
+    private Future<Integer> preloadImpl(final char[] symbols, final ExecutorService executor) {
+        final ExecutorService pool = null != executor ? executor : PreloadPool.pool;
+        final ArrayList<Future<Integer>> tasks = new ArrayList<Future<Integer>>();
+        for(int i=0; i<symbols.length; i+=PRELOAD_CHUNK) {
+            final int from = i;
+            final int to = Math.min(symbols.length, i + PRELOAD_CHUNK);
+            tasks.add(pool.submit(new Callable<Integer>() {
+                @Override
+                public Integer call() {
+                    int built = 0;
+                    for(int j=from; j<to; j++) {
+                        if( null == getCachedGlyph(symbols[j]) ) {
+                            final TypecastGlyph glyph = buildGlyph(symbols[j]);
+                            final OutlineShape shape = glyph.getShape();
+                            if( null != shape ) {
+                                // triangulate before publishing, as performed by Region.addOutlineShape(..)
+                                shape.getTriangles(OutlineShape.VerticesState.QUADRATIC_NURBS);
+                                shape.getVertices();
+                            }
+                            if( glyph == putCachedGlyph(glyph) ) {
+                                built++;
+                            }
+                        }
+                    }
+                    return Integer.valueOf(built);
+                } }));
+        }
+        return new PreloadFuture(tasks);
+    }
+
+    /** Aggregates the preload tasks, resulting in the number of built glyphs. */
+    private static class PreloadFuture implements Future<Integer> {
+        private final ArrayList<Future<Integer>> tasks;
+
+        PreloadFuture(final ArrayList<Future<Integer>> tasks) {
+            this.tasks = tasks;
+        }
+        @Override
+        public boolean cancel(final boolean mayInterruptIfRunning) {
+            boolean res = false;
+            for(int i=0; i<tasks.size(); i++) {
+                res = tasks.get(i).cancel(mayInterruptIfRunning) || res;
             }
-            glyph.clearPointData();
-
-            final HdmxTable hdmx = font.getHdmxTable();
-            if (null!= result && null != hdmx) {
-                /*if(DEBUG) {
-                    System.err.println("hdmx "+hdmx);
-                }*/
-                for (int i=0; i<hdmx.getNumberOfRecords(); i++)
-                {
-                    final HdmxTable.DeviceRecord dr = hdmx.getRecord(i);
-                    result.addAdvance(dr.getWidth(code), dr.getPixelSize());
-                    /* if(DEBUG) {
-                        System.err.println("hdmx advance : pixelsize = "+dr.getWidth(code)+" : "+ dr.getPixelSize());
-                    } */
+            return res;
+        }
+        @Override
+        public boolean isCancelled() {
+            for(int i=0; i<tasks.size(); i++) {
+                if( tasks.get(i).isCancelled() ) {
+                    return true;
                 }
             }
-            char2Glyph.put(symbol, result);
+            return false;
+        }
+        @Override
+        public boolean isDone() {
+            for(int i=0; i<tasks.size(); i++) {
+                if( !tasks.get(i).isDone() ) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        @Override
+        public Integer get() throws InterruptedException, ExecutionException {
+            int built = 0;
+            for(int i=0; i<tasks.size(); i++) {
+                built += tasks.get(i).get().intValue();
+            }
+            return Integer.valueOf(built);
+        }
+        @Override
+        public Integer get(final long timeout, final TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            final long t1 = System.nanoTime() + unit.toNanos(timeout);
+            int built = 0;
+            for(int i=0; i<tasks.size(); i++) {
+                built += tasks.get(i).get(Math.max(0, t1 - System.nanoTime()), TimeUnit.NANOSECONDS).intValue();
+            }
+            return Integer.valueOf(built);
         }
-        return result;
     }
 
     @Override
@@ -242,18 +489,8 @@ class TypecastFont implements Font {
 
     @Override
     public float getMetricWidth(final CharSequence string, final float pixelSize) {
-        float width = 0;
-        final int len = string.length();
-        for (int i=0; i< len; i++) {
-            final char character = string.charAt(i);
-            if (character == '\n') {
-                width = 0;
-            } else {
-                final Glyph glyph = getGlyph(character);
-                width += glyph.getAdvance(pixelSize, false);
-            }
-        }
-        return (int)(width + 0.5f);
+        final TextLayout.GlyphRun run = TextLayout.getGlyphRun(this, string, pixelSize);
+        return (int)(run.getLineWidth(run.getLineCount()-1) + 0.5f);
     }
 
     @Override
@@ -276,27 +513,7 @@ class TypecastFont implements Font {
         if (string == null) {
             return new AABBox();
         }
-        final int charCount = string.length();
-        final float lineHeight = getLineHeight(pixelSize);
-        float totalHeight = 0;
-        float totalWidth = 0;
-        float curLineWidth = 0;
-        for (int i=0; i<charCount; i++) {
-            final char character = string.charAt(i);
-            if (character == '\n') {
-                totalWidth = Math.max(curLineWidth, totalWidth);
-                curLineWidth = 0;
-                totalHeight += lineHeight;
-                continue;
-            }
-            final Glyph glyph = getGlyph(character);
-            curLineWidth += glyph.getAdvance(pixelSize, true);
-        }
-        if (curLineWidth > 0) {
-            totalHeight += lineHeight;
-            totalWidth = Math.max(curLineWidth, totalWidth);
-        }
-        return new AABBox(0, 0, 0, totalWidth, totalHeight,0);
+        return TextLayout.getGlyphRun(this, string, pixelSize).getMetricBounds(new AABBox());
     }
     @Override
     public AABBox getPointsBounds(final AffineTransform transform, final CharSequence string, final float pixelSize,
@@ -304,42 +521,29 @@ class TypecastFont implements Font {
         if (string == null) {
             return new AABBox();
         }
-        final int charCount = string.length();
-        final float lineHeight = getLineHeight(pixelSize);
+        final TextLayout.GlyphRun run = TextLayout.getGlyphRun(this, string, pixelSize);
         final float scale = getMetrics().getScale(pixelSize);
         final AABBox tbox = new AABBox();
         final AABBox res = new AABBox();
 
-        float y = 0;
-        float advanceTotal = 0;
-
-        for(int i=0; i< charCount; i++) {
-            final char character = string.charAt(i);
-            if( '\n' == character ) {
-                y -= lineHeight;
-                advanceTotal = 0;
-            } else if (character == ' ') {
-                advanceTotal += getAdvanceWidth(Glyph.ID_SPACE, pixelSize);
+        final int glyphCount = run.getGlyphCount();
+        for(int i=0; i< glyphCount; i++) {
+            final char character = run.getSymbol(i);
+            if (character == ' ') {
+                continue;
+            }
+            // reset transform
+            if( null != transform ) {
+                temp1.setTransform(transform);
             } else {
-                // reset transform
-                if( null != transform ) {
-                    temp1.setTransform(transform);
-                } else {
-                    temp1.setToIdentity();
-                }
-                temp1.translate(advanceTotal, y, temp2);
-                temp1.scale(scale, scale, temp2);
-                tbox.reset();
-
-                final Font.Glyph glyph = getGlyph(character);
-                res.resize(temp1.transform(glyph.getBBox(), tbox));
-
-                final OutlineShape glyphShape = glyph.getShape();
-                if( null == glyphShape ) {
-                    continue;
-                }
-                advanceTotal += glyph.getAdvance(pixelSize, true);
+                temp1.setToIdentity();
             }
+            temp1.translate(run.getX(i), run.getY(i), temp2);
+            temp1.scale(scale, scale, temp2);
+            tbox.reset();
+
+            final Font.Glyph glyph = getGlyph(character);
+            res.resize(temp1.transform(glyph.getBBox(), tbox));
         }
         return res;
     }
@@ -30,21 +30,91 @@ package jogamp.graph.font.typecast;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.ArrayList;
 
 import jogamp.graph.font.FontConstructor;
 import jogamp.graph.font.typecast.ot.OTFontCollection;
 
+import com.jogamp.common.util.InterruptSource;
+import com.jogamp.common.util.PropertyAccess;
 import com.jogamp.graph.font.Font;
 
+/**
+ * The optional property <i>jogamp.graph.font.lazy</i>
+ * enables lazy glyph parsing, see {@link OTFontCollection#create(File, boolean)}.
+ * A font file is then memory mapped and only the glyphs in use are parsed,
+ * reducing open time and heap usage of fonts w/ many glyphs.
+ * <p>
+ * The optional property <i>jogamp.graph.font.meshcache</i> denotes a directory
+ * holding the persistent triangulated glyph meshes of created fonts, see {@link Font#setGlyphMeshCacheDir(File)}.
+ * The glyph meshes are stored at JVM shutdown.
+ * Combined w/ lazy glyph parsing, cached glyphs are neither parsed nor triangulated on the next start.
+ * </p>
+ */
 public class TypecastFontConstructor implements FontConstructor  {
+    private static final boolean LAZY = PropertyAccess.isPropertyDefined("jogamp.graph.font.lazy", true);
+    private static final File MESH_CACHE_DIR;
+    /** Fonts w/ an attached {@link #MESH_CACHE_DIR}, stored at JVM shutdown */
+    private static final ArrayList<WeakReference<Font>> meshCacheFonts = new ArrayList<WeakReference<Font>>();
+
+    static {
+        final String dir = PropertyAccess.getProperty("jogamp.graph.font.meshcache", true);
+        MESH_CACHE_DIR = null != dir && dir.length() > 0 ? new File(dir) : null;
+        if( null != MESH_CACHE_DIR ) {
+            AccessController.doPrivileged(new PrivilegedAction<Object>() {
+                @Override
+                public Object run() {
+                    Runtime.getRuntime().addShutdownHook(
+                        new InterruptSource.Thread(null, new Runnable() {
+                                    @Override
+                                    public void run() {
+                                        storeMeshCaches();
+                                    } }, "TypecastFont_MeshCacheHook" ) ) ;
+                    return null;
+                } } ) ;
+        }
+    }
+
+    private static void storeMeshCaches() {
+        synchronized( meshCacheFonts ) {
+            for(int i=0; i<meshCacheFonts.size(); i++) {
+                final Font f = meshCacheFonts.get(i).get();
+                if( null != f ) {
+                    try {
+                        f.storeGlyphMeshCache();
+                    } catch (final IOException e) {
+                        System.err.println("Warning: Could not store glyph mesh cache of "+f+": "+e.getMessage());
+                    }
+                }
+            }
+            meshCacheFonts.clear();
+        }
+    }
+
+    private static Font attachMeshCache(final Font f) {
+        if( null != MESH_CACHE_DIR ) {
+            try {
+                f.setGlyphMeshCacheDir(MESH_CACHE_DIR);
+                synchronized( meshCacheFonts ) {
+                    meshCacheFonts.add(new WeakReference<Font>(f));
+                }
+            } catch (final IOException e) {
+                System.err.println("Warning: Could not attach glyph mesh cache to "+f+": "+e.getMessage());
+            }
+        }
+        return f;
+    }
 
     @Override
     public Font create(final File ffile) throws IOException {
-        return new TypecastFont( OTFontCollection.create(ffile) );
+        return attachMeshCache( new TypecastFont( OTFontCollection.create(ffile, LAZY) ) );
     }
 
     @Override
     public Font create(final InputStream istream, final int streamLen) throws IOException {
-        return new TypecastFont( OTFontCollection.create(istream, streamLen) );
+        return attachMeshCache( new TypecastFont( OTFontCollection.create(istream, streamLen, LAZY) ) );
     }
 }
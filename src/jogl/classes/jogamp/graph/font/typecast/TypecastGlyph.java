@@ -33,6 +33,7 @@ import com.jogamp.graph.font.Font;
 import com.jogamp.opengl.math.geom.AABBox;
 
 public final class TypecastGlyph implements Font.Glyph {
+    /** Advance per pixel-size, computed on demand. Thread safe, as glyphs are shared by concurrent text layouts. */
     public static final class Advance
     {
         private final Font      font;
@@ -46,7 +47,7 @@ public final class TypecastGlyph implements Font.Glyph {
             size2advanceI.setKeyNotFoundValue(0);
         }
 
-        public final void reset() {
+        public final synchronized void reset() {
             size2advanceI.clear();
         }
 
@@ -57,12 +58,12 @@ public final class TypecastGlyph implements Font.Glyph {
             return this.font.getMetrics().getScale(pixelSize);
         }
 
-        public final void add(final float advance, final float size)
+        public final synchronized void add(final float advance, final float size)
         {
             size2advanceI.put(Float.floatToIntBits(size), Float.floatToIntBits(advance));
         }
 
-        public final float get(final float pixelSize, final boolean useFrationalMetrics)
+        public final synchronized float get(final float pixelSize, final boolean useFrationalMetrics)
         {
             final int sI = Float.floatToIntBits(pixelSize);
             final int aI = size2advanceI.get(sI);
@@ -81,7 +82,7 @@ public final class TypecastGlyph implements Font.Glyph {
         }
 
         @Override
-        public final String toString()
+        public final synchronized String toString()
         {
             return "\nAdvance:"+
                 "\n  advance: "+this.advance+
@@ -164,6 +165,11 @@ public final class TypecastGlyph implements Font.Glyph {
         return this.metrics.getBBox();
     }
 
+    /** Returns the advance in font units. */
+    final int getAdvanceUnsized() {
+        return (int)this.metrics.advance.advance;
+    }
+
     @Override
     public final AABBox getBBox() {
         return this.metrics.getBBox();
@@ -81,6 +81,7 @@ public class OTFont {
 
     private final OTFontCollection _fc;
     private TableDirectory _tableDirectory = null;
+    private int _tablesOrigin = 0;
     private Table[] _tables;
     private Os2Table _os2;
     private CmapTable _cmap;
@@ -200,6 +201,11 @@ public class OTFont {
         return _tableDirectory;
     }
 
+    /** Returns the point the table offsets are calculated from, see {@link #read(DataInputStream, int, int)}. */
+    public int getTablesOrigin() {
+        return _tablesOrigin;
+    }
+
     private Table readTable(
             final DataInputStream dis,
             final int tablesOrigin,
@@ -229,6 +235,8 @@ public class OTFont {
             final int directoryOffset,
             final int tablesOrigin) throws IOException {
 
+        _tablesOrigin = tablesOrigin;
+
         // Load the table directory
         dis.reset();
         dis.skip(directoryOffset);
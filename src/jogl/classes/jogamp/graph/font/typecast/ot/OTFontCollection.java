@@ -26,6 +26,8 @@ import java.io.DataInputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 import java.util.ArrayList;
 
@@ -51,6 +53,8 @@ public class OTFontCollection {
     private OTFont[] _fonts;
     private final ArrayList<Table> _tables = new ArrayList<Table>();
     private boolean _resourceFork = false;
+    /** Font data if loaded lazily, memory mapped for a file, otherwise null */
+    private ByteBuffer _data = null;
 
     /** Creates new FontCollection */
     protected OTFontCollection() {
@@ -60,8 +64,17 @@ public class OTFontCollection {
      * @param file The OpenType font file
      */
     public static OTFontCollection create(final File file) throws IOException {
+        return create(file, false);
+    }
+
+    /**
+     * @param file The OpenType font file
+     * @param lazy if true, the file is memory mapped and the 'loca', 'glyf' and 'CFF ' charstring data
+     *             is parsed per glyph on first access, see {@link #isLazy()}.
+     */
+    public static OTFontCollection create(final File file, final boolean lazy) throws IOException {
         final OTFontCollection fc = new OTFontCollection();
-        fc.read(file);
+        fc.read(file, lazy);
         return fc;
     }
 
@@ -70,11 +83,47 @@ public class OTFontCollection {
      * @param streamLen the length of the OpenType font segment in the stream
      */
     public static OTFontCollection create(final InputStream istream, final int streamLen) throws IOException {
+        return create(istream, streamLen, false);
+    }
+
+    /**
+     * @param istream The OpenType font input stream
+     * @param streamLen the length of the OpenType font segment in the stream
+     * @param lazy if true, the font segment is kept in memory and the 'loca', 'glyf' and 'CFF ' charstring data
+     *             is parsed per glyph on first access, see {@link #isLazy()}.
+     */
+    public static OTFontCollection create(final InputStream istream, final int streamLen, final boolean lazy) throws IOException {
         final OTFontCollection fc = new OTFontCollection();
-        fc.read(istream, streamLen);
+        fc.read(istream, streamLen, lazy);
         return fc;
     }
 
+    /**
+     * Returns true if glyph data is parsed lazily on first access,
+     * otherwise all glyphs have been parsed while reading the font.
+     * <p>
+     * In lazy mode only the tables' raw data of 'loca' and 'glyf' is retained,
+     * memory mapped if read from a file.
+     * </p>
+     */
+    public boolean isLazy() {
+        return null != _data;
+    }
+
+    /**
+     * Returns a read-only view of the raw data of the given table if {@link #isLazy() lazy}, otherwise null.
+     * @param tablesOrigin the point the table offsets are calculated from, see {@link OTFont#getTablesOrigin()}
+     */
+    public ByteBuffer getTableData(final int tablesOrigin, final DirectoryEntry de) {
+        if( null == _data ) {
+            return null;
+        }
+        final ByteBuffer data = _data.duplicate();
+        data.position(tablesOrigin + de.getOffset());
+        data.limit(tablesOrigin + de.getOffset() + de.getLength());
+        return data.slice().asReadOnlyBuffer();
+    }
+
     public String getPathName() {
         return _pathName;
     }
@@ -112,8 +161,9 @@ public class OTFontCollection {
 
     /**
      * @param file The OpenType font file
+     * @param lazy if true, the file is memory mapped and glyph data is parsed on first access
      */
-    protected void read(File file) throws IOException {
+    protected void read(File file, final boolean lazy) throws IOException {
         _pathName = file.getPath();
         _fileName = file.getName();
 
@@ -131,28 +181,95 @@ public class OTFontCollection {
             _resourceFork = true;
         }
         final int streamLen = (int) file.length();
-        final BufferedInputStream bis = new BufferedInputStream(new FileInputStream(file), streamLen);
-        try {
-            readImpl(bis, streamLen);
-        } finally {
-            bis.close();
+        if( lazy ) {
+            final FileInputStream fis = new FileInputStream(file);
+            try {
+                // mapping stays valid after closing the channel
+                _data = fis.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, streamLen);
+            } finally {
+                fis.close();
+            }
+            readImpl(new ByteBufferInputStream(_data.duplicate()), streamLen);
+        } else {
+            final BufferedInputStream bis = new BufferedInputStream(new FileInputStream(file), streamLen);
+            try {
+                readImpl(bis, streamLen);
+            } finally {
+                bis.close();
+            }
         }
     }
 
     /**
      * @param is The OpenType font stream
      * @param streamLen the length of the OpenType font segment in the stream
+     * @param lazy if true, the font segment is kept in memory and glyph data is parsed on first access
      */
-    protected void read(final InputStream is, final int streamLen) throws IOException {
+    protected void read(final InputStream is, final int streamLen, final boolean lazy) throws IOException {
         _pathName = "";
         _fileName = "";
-        final InputStream bis;
-        if( is.markSupported() ) {
-            bis = is;
+        if( lazy ) {
+            final byte[] buf = new byte[streamLen];
+            new DataInputStream(is).readFully(buf);
+            _data = ByteBuffer.wrap(buf);
+            readImpl(new ByteBufferInputStream(_data.duplicate()), streamLen);
         } else {
-            bis = new BufferedInputStream(is, streamLen);
+            final InputStream bis;
+            if( is.markSupported() ) {
+                bis = is;
+            } else {
+                bis = new BufferedInputStream(is, streamLen);
+            }
+            readImpl(bis, streamLen);
+        }
+    }
+
+    /** Markable {@link InputStream} reading a {@link ByteBuffer} w/o copying it. */
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buf;
+        private int mark = 0;
+
+        ByteBufferInputStream(final ByteBuffer buf) {
+            this.buf = buf;
+        }
+        @Override
+        public int read() {
+            return buf.hasRemaining() ? buf.get() & 0xff : -1;
+        }
+        @Override
+        public int read(final byte[] b, final int off, final int len) {
+            if( 0 == len ) {
+                return 0;
+            }
+            if( !buf.hasRemaining() ) {
+                return -1;
+            }
+            final int n = Math.min(len, buf.remaining());
+            buf.get(b, off, n);
+            return n;
+        }
+        @Override
+        public long skip(final long n) {
+            final int k = (int) Math.max(0, Math.min(n, buf.remaining()));
+            buf.position(buf.position() + k);
+            return k;
+        }
+        @Override
+        public int available() {
+            return buf.remaining();
+        }
+        @Override
+        public boolean markSupported() {
+            return true;
+        }
+        @Override
+        public synchronized void mark(final int readlimit) {
+            mark = buf.position();
+        }
+        @Override
+        public synchronized void reset() {
+            buf.position(mark);
         }
-        readImpl(bis, streamLen);
     }
 
     /**
@@ -498,6 +498,14 @@ public class CffTable implements Table {
 
     /** Creates a new instance of CffTable */
     protected CffTable(final DirectoryEntry de, final DataInput di) throws IOException {
+        this(de, di, false);
+    }
+
+    /**
+     * Creates a new instance of CffTable
+     * @param lazy if true, the charstrings are created on first {@link #getCharstring(int, int)}
+     */
+    protected CffTable(final DirectoryEntry de, final DataInput di, final boolean lazy) throws IOException {
         _de = (DirectoryEntry) de.clone();
 
         // Load entire table into a buffer, and create another input stream
@@ -560,21 +568,27 @@ public class CffTable implements Table {
 
             // Create the charstrings
             _charstringsArray[i] = new Charstring[glyphCount];
-            for (int j = 0; j < glyphCount; ++j) {
-                final int offset = _charStringsIndexArray[i].getOffset(j) - 1;
-                final int len = _charStringsIndexArray[i].getOffset(j + 1) - offset - 1;
-                _charstringsArray[i][j] = new CharstringType2(
-                        i,
-                        _stringIndex.getString(_charsets[i].getSID(j)),
-                        _charStringsIndexArray[i].getData(),
-                        offset,
-                        len,
-                        null,
-                        null);
+            if (!lazy) {
+                for (int j = 0; j < glyphCount; ++j) {
+                    _charstringsArray[i][j] = createCharstring(i, j);
+                }
             }
         }
     }
 
+    private Charstring createCharstring(final int fontIndex, final int gid) {
+        final int offset = _charStringsIndexArray[fontIndex].getOffset(gid) - 1;
+        final int len = _charStringsIndexArray[fontIndex].getOffset(gid + 1) - offset - 1;
+        return new CharstringType2(
+                fontIndex,
+                _stringIndex.getString(_charsets[fontIndex].getSID(gid)),
+                _charStringsIndexArray[fontIndex].getData(),
+                offset,
+                len,
+                null,
+                null);
+    }
+
     private DataInput getDataInputForOffset(final int offset) {
         return new DataInputStream(new ByteArrayInputStream(
                 _buf, offset,
@@ -589,8 +603,13 @@ public class CffTable implements Table {
         return _charsets[fontIndex];
     }
 
-    public Charstring getCharstring(final int fontIndex, final int gid) {
-        return _charstringsArray[fontIndex][gid];
+    public synchronized Charstring getCharstring(final int fontIndex, final int gid) {
+        Charstring cs = _charstringsArray[fontIndex][gid];
+        if (cs == null) {
+            cs = createCharstring(fontIndex, gid);
+            _charstringsArray[fontIndex][gid] = cs;
+        }
+        return cs;
     }
 
     public int getCharstringCount(final int fontIndex) {
@@ -54,6 +54,7 @@ import java.io.ByteArrayInputStream;
 import java.io.DataInput;
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * @version $Id: GlyfTable.java,v 1.6 2010-08-10 11:46:30 davidsch Exp $
@@ -63,6 +64,11 @@ public class GlyfTable implements Table {
 
     private final DirectoryEntry _de;
     private final GlyfDescript[] _descript;
+    /** Raw table data if parsed lazily, otherwise null */
+    private final ByteBuffer _data;
+    private final LocaTable _loca;
+    private final boolean[] _loaded;
+    private int _loadedCount;
 
     protected GlyfTable(
             final DirectoryEntry de,
@@ -71,6 +77,10 @@ public class GlyfTable implements Table {
             final LocaTable loca) throws IOException {
         _de = (DirectoryEntry) de.clone();
         _descript = new GlyfDescript[maxp.getNumGlyphs()];
+        _data = null;
+        _loca = null;
+        _loaded = null;
+        _loadedCount = maxp.getNumGlyphs();
 
         // Buffer the whole table so we can randomly access it
         final byte[] buf = new byte[de.getLength()];
@@ -108,14 +118,67 @@ public class GlyfTable implements Table {
         }
     }
 
+    /**
+     * Creates a lazy table, parsing a glyph's description from the given raw table data
+     * on its first {@link #getDescription(int)}.
+     */
+    protected GlyfTable(
+            final DirectoryEntry de,
+            final ByteBuffer data,
+            final MaxpTable maxp,
+            final LocaTable loca) {
+        _de = (DirectoryEntry) de.clone();
+        _descript = new GlyfDescript[maxp.getNumGlyphs()];
+        _data = data;
+        _loca = loca;
+        _loaded = new boolean[maxp.getNumGlyphs()];
+        _loadedCount = 0;
+    }
+
     public GlyfDescript getDescription(final int i) {
         if (i < _descript.length) {
+            if (_data != null) {
+                return loadDescription(i);
+            }
             return _descript[i];
         } else {
             return null;
         }
     }
 
+    /** Returns the number of parsed glyph descriptions, i.e. all if not parsed lazily. */
+    public synchronized int getLoadedCount() {
+        return _loadedCount;
+    }
+
+    private synchronized GlyfDescript loadDescription(final int i) {
+        if (!_loaded[i]) {
+            // marked before parsing, composite glyphs recursively load their components
+            _loaded[i] = true;
+            _loadedCount++;
+            final int offset = _loca.getOffset(i);
+            final int len = _loca.getOffset(i + 1) - offset;
+            if (len > 0) {
+                final byte[] buf = new byte[len];
+                final ByteBuffer data = _data.duplicate();
+                data.position(offset);
+                data.get(buf);
+                final DataInputStream dis = new DataInputStream(new ByteArrayInputStream(buf));
+                try {
+                    final short numberOfContours = dis.readShort();
+                    if (numberOfContours >= 0) {
+                        _descript[i] = new GlyfSimpleDescript(this, i, numberOfContours, dis);
+                    } else {
+                        _descript[i] = new GlyfCompositeDescript(this, i, dis);
+                    }
+                } catch (final IOException e) {
+                    throw new RuntimeException("Malformed glyph "+i, e);
+                }
+            }
+        }
+        return _descript[i];
+    }
+
     @Override
     public int getType() {
         return glyf;
@@ -18,10 +18,26 @@ import java.io.IOException;
  */
 public abstract class KernSubtable {
 
+    /** Coverage bit: horizontal kerning, otherwise vertical */
+    public static final int COVERAGE_HORIZONTAL = 1 << 0;
+    /** Coverage bit: minimum values instead of kerning values */
+    public static final int COVERAGE_MINIMUM = 1 << 1;
+    /** Coverage bit: kerning is perpendicular to the flow of the text */
+    public static final int COVERAGE_CROSS_STREAM = 1 << 2;
+    /** Coverage bit: values replace the accumulated value */
+    public static final int COVERAGE_OVERRIDE = 1 << 3;
+
+    private int coverage;
+
     /** Creates new KernSubtable */
     protected KernSubtable() {
     }
 
+    /** Returns the coverage bits of this subtable, see {@link #COVERAGE_HORIZONTAL} etc. */
+    public int getCoverage() {
+        return coverage & 0xff;
+    }
+
     public abstract int getKerningPairCount();
 
     public abstract KerningPair getKerningPair(int i);
@@ -29,7 +45,7 @@ public abstract class KernSubtable {
     public static KernSubtable read(final DataInput di) throws IOException {
         KernSubtable table = null;
         /* final int version = */ di.readUnsignedShort();
-        /* final int length = */ di.readUnsignedShort();
+        final int length = di.readUnsignedShort();
         final int coverage = di.readUnsignedShort();
         final int format = coverage >> 8;
 
@@ -39,10 +55,16 @@ public abstract class KernSubtable {
             break;
         case 2:
             table = new KernSubtableFormat2(di);
+            // class tables are not parsed, skip them to stay aligned w/ the next subtable
+            di.skipBytes(length - 6 - 8);
             break;
         default:
+            di.skipBytes(length - 6);
             break;
         }
+        if( null != table ) {
+            table.coverage = coverage;
+        }
         return table;
     }
 
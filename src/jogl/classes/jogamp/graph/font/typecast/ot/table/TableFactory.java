@@ -52,6 +52,7 @@ package jogamp.graph.font.typecast.ot.table;
 
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import jogamp.graph.font.typecast.ot.OTFont;
 import jogamp.graph.font.typecast.ot.OTFontCollection;
@@ -84,7 +85,7 @@ public class TableFactory {
             t = new BaseTable(de, dis);
             break;
         case Table.CFF:
-            t = new CffTable(de, dis);
+            t = new CffTable(de, dis, null != fc && fc.isLazy());
             break;
         case Table.DSIG:
             t = new DsigTable(de, dis);
@@ -135,9 +136,15 @@ public class TableFactory {
         case Table.gasp:
             t = new GaspTable(de, dis);
             break;
-        case Table.glyf:
-            t = new GlyfTable(de, dis, font.getMaxpTable(), font.getLocaTable());
+        case Table.glyf: {
+            final ByteBuffer data = null != fc ? fc.getTableData(font.getTablesOrigin(), de) : null;
+            if( null != data ) {
+                t = new GlyfTable(de, data, font.getMaxpTable(), font.getLocaTable());
+            } else {
+                t = new GlyfTable(de, dis, font.getMaxpTable(), font.getLocaTable());
+            }
             break;
+        }
         case Table.hdmx:
             t = new HdmxTable(de, dis, font.getMaxpTable());
             break;
@@ -153,9 +160,15 @@ public class TableFactory {
         case Table.kern:
             t = new KernTable(de, dis);
             break;
-        case Table.loca:
-            t = new LocaTable(de, dis, font.getHeadTable(), font.getMaxpTable());
+        case Table.loca: {
+            final ByteBuffer data = null != fc ? fc.getTableData(font.getTablesOrigin(), de) : null;
+            if( null != data ) {
+                t = new LocaTable(de, data, font.getHeadTable(), font.getMaxpTable());
+            } else {
+                t = new LocaTable(de, dis, font.getHeadTable(), font.getMaxpTable());
+            }
             break;
+        }
         case Table.maxp:
             t = new MaxpTable(de, dis);
             break;
@@ -46,6 +46,7 @@ import java.util.StringTokenizer;
 import com.jogamp.opengl.GL;
 import com.jogamp.opengl.GL2ES3;
 import com.jogamp.opengl.GLContext;
+import com.jogamp.opengl.GLExtensions;
 import com.jogamp.common.ExceptionUtils;
 import com.jogamp.common.util.VersionNumber;
 
@@ -72,6 +73,9 @@ final class ExtensionAvailabilityCache {
     glXExtensions = null;
     glXExtensionCount = 0;
     availableExtensionCache.clear();
+    for(int i=0; i<availableExtensionIDs.length; i++) {
+        availableExtensionIDs[i] = 0;
+    }
   }
 
   /**
@@ -96,6 +100,18 @@ final class ExtensionAvailabilityCache {
     return null != availableExtensionCache.get(glExtensionName);
   }
 
+  /**
+   * @param glExtensionID one of the {@link GLExtensions} IDs
+   * @throws IndexOutOfBoundsException if the ID is invalid
+   */
+  final boolean isExtensionAvailable(final int glExtensionID) {
+    validateInitialization();
+    if( 0 > glExtensionID || glExtensionID >= GLExtensions.ID_COUNT ) {
+        throw new IndexOutOfBoundsException("Invalid extension ID "+glExtensionID);
+    }
+    return 0 != ( availableExtensionIDs[glExtensionID >>> 6] & ( 1L << glExtensionID ) );
+  }
+
   final int getPlatformExtensionCount() {
     validateInitialization();
     return glXExtensionCount;
@@ -246,6 +262,13 @@ final class ExtensionAvailabilityCache {
       // no extensions are in the GL_EXTENSIONS string
       availableExtensionCache.put("<INTERNAL_DUMMY_PLACEHOLDER>", "<INTERNAL_DUMMY_PLACEHOLDER>");
 
+      // Resolve the well known extension IDs once, incl. their platform specific aliases
+      for(int id=0; id<GLExtensions.ID_COUNT; id++) {
+          if( null != availableExtensionCache.get(context.mapToRealGLExtensionName(GLExtensions.getName(id))) ) {
+              availableExtensionIDs[id >>> 6] |= 1L << id;
+          }
+      }
+
       initialized = true;
   }
 
@@ -258,6 +281,8 @@ final class ExtensionAvailabilityCache {
   private int glExtensionCount = 0;
   private String glXExtensions = null;
   private int glXExtensionCount = 0;
+  /** Bitset of available {@link GLExtensions} IDs */
+  private final long[] availableExtensionIDs = new long[( GLExtensions.ID_COUNT + 63 ) / 64];
   private final HashMap<String, String> availableExtensionCache = new HashMap<String, String>(100);
 
   static String getThreadName() { return Thread.currentThread().getName(); }
@@ -105,6 +105,10 @@ public abstract class GLContextImpl extends GLContext {
   private String glRenderer;
   private String glRendererLowerCase;
   private String glVersion;
+  /** Positive and negative results of {@link #isFunctionAvailable(String)}, valid while the function tables are unchanged */
+  private final HashMap<String, Boolean> functionAvailabilityCache = new HashMap<String, Boolean>();
+  /** Driver identity of the 1st successful probe while mapping GL versions, stored in the {@link GLVersionProbeCache} */
+  private GLVersionProbeCache.Entry probeCacheEntry;
   private boolean glGetPtrInit = false;
   private long glGetStringPtr = 0;
   private long glGetIntegervPtr = 0;
@@ -199,6 +203,9 @@ public abstract class GLContextImpl extends GLContext {
       }
       extensionAvailability = null;
       glProcAddressTable = null;
+      if( !isInit ) { // <init>: functionAvailabilityCache is not written yet
+          clearFunctionAvailabilityCache();
+      }
       gl = null;
       contextFQN = null;
       additionalCtxCreationFlags = 0;
@@ -692,8 +699,10 @@ public abstract class GLContextImpl extends GLContext {
           }
           isSurfaceless = true;
       }
+      contextSwitchCount++;
       setCurrent(this);
       if( CONTEXT_CURRENT_NEW == res ) {
+        contextCreationCount++;
         // check if the drawable's and the GL's GLProfile are equal
         // throws an GLException if not
         // FIXME: drawable.getGLProfile().verifyEquality(gl.getGLProfile());
@@ -734,6 +743,25 @@ public abstract class GLContextImpl extends GLContext {
     return res;
   }
 
+  /**
+   * Returns the number of times this context has been made current, excluding recursive {@link #makeCurrent()} calls.
+   * <p>
+   * Allows pipelines shadowing GL state, e.g. {@link GLStateCache}, to detect that shared objects may have been
+   * deleted by other contexts of the {@link #isShared() share set} while this context was not current.
+   * </p>
+   */
+  public final int getContextSwitchCount() { return contextSwitchCount; }
+  private int contextSwitchCount = 0;
+
+  /**
+   * Returns the number of times the native context has been created, i.e. its GL state has been reset to defaults.
+   * <p>
+   * Allows pipelines shadowing GL state, e.g. {@link GLStateCache}, to detect that the shadow became stale.
+   * </p>
+   */
+  public final int getContextCreationCount() { return contextCreationCount; }
+  private int contextCreationCount = 0;
+
   private final GLContextImpl getOtherSharedMaster() {
       final GLContextImpl sharedMaster = (GLContextImpl) GLContextShareSet.getSharedMaster(this);
       return this != sharedMaster ? sharedMaster : null;
@@ -1168,15 +1196,41 @@ public abstract class GLContextImpl extends GLContext {
     }
   }
 
+  /** Per device lock of {@link #mapGLVersions(AbstractGraphicsDevice)}, allowing concurrent mapping of different devices. */
+  private static final IdentityHashMap<String, Object> mapGLVersionsLocks = new IdentityHashMap<String, Object>();
+
+  private static Object getMapGLVersionsLock(final AbstractGraphicsDevice device) {
+    synchronized (mapGLVersionsLocks) {
+        final String key = device.getUniqueID(); // interned
+        Object lock = mapGLVersionsLocks.get(key);
+        if( null == lock ) {
+            lock = new Object();
+            mapGLVersionsLocks.put(key, lock);
+        }
+        return lock;
+    }
+  }
+
   private final boolean mapGLVersions(final AbstractGraphicsDevice device) {
-    synchronized (GLContext.deviceVersionAvailable) {
+    synchronized ( getMapGLVersionsLock(device) ) {
         final boolean hasOpenGLESSupport = drawable.getFactory().hasOpenGLESSupport();
         final boolean hasOpenGLDesktopSupport = drawable.getFactory().hasOpenGLDesktopSupport();
         final boolean hasMinorVersionSupport = drawable.getFactoryImpl().hasMajorMinorCreateContextARB();
         if (DEBUG) {
             System.err.println(getThreadName() + ": createContextARB-MapGLVersions START (GLDesktop "+hasOpenGLDesktopSupport+", GLES "+hasOpenGLESSupport+", minorVersion "+hasMinorVersionSupport+") on "+device);
         }
-        final long t0 = ( DEBUG ) ? System.nanoTime() : 0;
+        final long t0 = ( DEBUG || GLVersionProbeCache.TIMING ) ? System.nanoTime() : 0;
+        probeCacheEntry = null;
+        if( GLVersionProbeCache.isEnabled() ) {
+            final GLVersionProbeCache.Entry cached = GLVersionProbeCache.load(device);
+            if( null != cached ) {
+                final boolean valid = mapGLVersionsCached(device, cached);
+                GLVersionProbeCache.logTime(device, "MapGLVersions cache validation, valid "+valid, t0);
+                if( valid ) {
+                    return true;
+                }
+            }
+        }
         boolean success = false;
         // Following GLProfile.GL_PROFILE_LIST_ALL order of profile detection { GL4bc, GL3bc, GL2, GL4, GL3, GL2GL3, GLES2, GL2ES2, GLES1, GL2ES1 }
         boolean hasGL4bc = false;
@@ -1324,7 +1378,12 @@ public abstract class GLContextImpl extends GLContext {
         if(success) {
             // only claim GL versions set [and hence detected] if ARB context creation was successful
             GLContext.setAvailableGLVersionsSet(device, true);
+            if( null != probeCacheEntry ) {
+                storeGLVersionsCached(device, probeCacheEntry);
+                probeCacheEntry = null;
+            }
         }
+        GLVersionProbeCache.logTime(device, "MapGLVersions total, success "+success, t0);
         if(DEBUG) {
             final long t1 = System.nanoTime();
             System.err.println(getThreadName() + ": createContextARB-MapGLVersions END (success "+success+") on "+device+", profileAliasing: "+PROFILE_ALIASING+", total "+(t1-t0)/1e6 +"ms");
@@ -1336,12 +1395,67 @@ public abstract class GLContextImpl extends GLContext {
     }
   }
 
+  /**
+   * Validates the given cached GL version mapping by creating the first probed context only
+   * and comparing its driver identity. If matching, the cached mapping is restored.
+   * @return true if the cached mapping is valid and has been restored, otherwise false
+   */
+  private final boolean mapGLVersionsCached(final AbstractGraphicsDevice device, final GLVersionProbeCache.Entry cached) {
+    final int major[] = new int[1];
+    final int minor[] = new int[1];
+    final long _context = createContextARBVersions(0, true, cached.probeCtp,
+                                                   /* max */ cached.probeMajor, cached.probeMinor,
+                                                   /* min */ cached.probeMajor, cached.probeMinor,
+                                                   /* res */ major, minor);
+    if( 0 == _context ) {
+        return false;
+    }
+    final boolean match = cached.matches(glVendor, glRenderer, glVersion,
+                                         null != extensionAvailability ? extensionAvailability.getGLExtensionsString() : null);
+    destroyContextARBImpl(_context);
+    resetStates(false); // clean context states, since creation was temporary
+    if( !match ) {
+        if (DEBUG) {
+            System.err.println(getThreadName() + ": createContextARB-MapGLVersions cache mismatch on "+device+": "+cached);
+        }
+        return false;
+    }
+    for(int i=0; i<cached.stickyQuirks.size(); i++) {
+        GLRendererQuirks.addStickyDeviceQuirk(device, cached.stickyQuirks.get(i).intValue());
+    }
+    final GLRendererQuirks quirks = GLRendererQuirks.getStickyDeviceQuirks(device);
+    for(int i=0; i<cached.mappings.size(); i++) {
+        final GLVersionProbeCache.Mapping m = cached.mappings.get(i);
+        mapAvailableGLVersion(device, m.reqMajor, m.reqProfile, new VersionNumber(m.major, m.minor, 0), m.ctp, quirks);
+    }
+    GLContext.setAvailableGLVersionsSet(device, true);
+    return true;
+  }
+
+  private static final int[] probeCacheProfiles = { CTX_PROFILE_COMPAT, CTX_PROFILE_CORE, CTX_PROFILE_ES };
+
+  private static void storeGLVersionsCached(final AbstractGraphicsDevice device, final GLVersionProbeCache.Entry entry) {
+    final int[] ctp = { 0 };
+    for(int reqMajor=1; reqMajor<=4; reqMajor++) {
+        for(int j=0; j<probeCacheProfiles.length; j++) {
+            final Integer val = GLContext.getAvailableGLVersion(device, reqMajor, probeCacheProfiles[j]);
+            if( null != val ) {
+                final VersionNumber v = decomposeBits(val.intValue(), ctp);
+                entry.mappings.add(new GLVersionProbeCache.Mapping(reqMajor, probeCacheProfiles[j], v.getMajor(), v.getMinor(), ctp[0]));
+            }
+        }
+    }
+    GLVersionProbeCache.collectStickyQuirks(device, entry.stickyQuirks);
+    GLVersionProbeCache.store(device, entry);
+  }
+
   /**
    * Note: Since context creation is temporary, caller need to issue {@link #resetStates(boolean)}, if creation was successful, i.e. returns true.
    * This method does not reset the states, allowing the caller to utilize the state variables.
    **/
   private final boolean createContextARBMapVersionsAvailable(final AbstractGraphicsDevice device, final int reqMajor, final int reqProfile,
                                                              final boolean hasMinorVersionSupport) {
+    final long t0 = GLVersionProbeCache.TIMING ? System.nanoTime() : 0;
     long _context;
     int ctp = CTX_IS_ARB_CREATED | reqProfile;
 
@@ -1421,6 +1535,12 @@ public abstract class GLContextImpl extends GLContext {
         // ctxMajorVersion, ctxMinorVersion, ctxOptions is being set by
         //   createContextARBVersions(..) -> setGLFunctionAvailbility(..) -> setContextVersion(..)
         final MappedGLVersion me = mapAvailableGLVersion(device, reqMajor, reqProfile, ctxVersion, ctxOptions, glRendererQuirks);
+        if( GLVersionProbeCache.isEnabled() && null == probeCacheEntry ) {
+            // 1st successful probe identifies the driver and serves as the validation context of the cache
+            probeCacheEntry = new GLVersionProbeCache.Entry(glVendor, glRenderer, glVersion,
+                                                            null != extensionAvailability ? extensionAvailability.getGLExtensionsString() : null,
+                                                            ctp, major[0], minor[0]);
+        }
         destroyContextARBImpl(_context);
         if (DEBUG) {
           System.err.println(getThreadName() + ": createContextARB-MapGLVersions HAVE "+me.toString(new StringBuilder(), minMajor, minMinor, maxMajor, maxMinor).toString());
@@ -1432,6 +1552,9 @@ public abstract class GLContextImpl extends GLContext {
         }
         res = false;
     }
+    if( GLVersionProbeCache.TIMING ) {
+        GLVersionProbeCache.logTime(device, "MapGLVersions probe "+reqMajor+" ("+GLContext.getGLProfile(new StringBuilder(), reqProfile).toString()+"), available "+res, t0);
+    }
     return res;
   }
 
@@ -1762,6 +1885,7 @@ public abstract class GLContextImpl extends GLContext {
     if( null != this.gl && null != glProcAddressTable && !force ) {
         return true; // already done and not forced
     }
+    clearFunctionAvailabilityCache();
 
     if ( 1 < Bitfield.Util.bitCount( reqCtxProfileBits & ( CTX_PROFILE_ES | CTX_PROFILE_CORE | CTX_PROFILE_COMPAT ) ) ) {
         final String reqCtxProfileString = getGLProfile(new StringBuilder(), reqCtxProfileBits).toString();
@@ -2640,6 +2764,21 @@ public abstract class GLContextImpl extends GLContext {
 
   @Override
   public final boolean isFunctionAvailable(final String glFunctionName) {
+    synchronized( functionAvailabilityCache ) {
+        final Boolean cached = functionAvailabilityCache.get(glFunctionName);
+        if( null != cached ) {
+            return cached.booleanValue();
+        }
+    }
+    final boolean res = isFunctionAvailableImpl(glFunctionName);
+    if( null != glProcAddressTable ) { // only cache results of a created context
+        synchronized( functionAvailabilityCache ) {
+            functionAvailabilityCache.put(glFunctionName, Boolean.valueOf(res));
+        }
+    }
+    return res;
+  }
+  private final boolean isFunctionAvailableImpl(final String glFunctionName) {
     // Check GL 1st (cached)
     if( null != glProcAddressTable ) { // null if this context wasn't not created
         try {
@@ -2693,6 +2832,23 @@ public abstract class GLContextImpl extends GLContext {
       return false;
   }
 
+  private final void clearFunctionAvailabilityCache() {
+      synchronized( functionAvailabilityCache ) {
+          functionAvailabilityCache.clear();
+      }
+  }
+
+  @Override
+  public final boolean isExtensionAvailable(final int glExtensionID) {
+      if( 0 > glExtensionID || glExtensionID >= GLExtensions.ID_COUNT ) {
+          throw new IndexOutOfBoundsException("Invalid extension ID "+glExtensionID);
+      }
+      if(null!=extensionAvailability) {
+        return extensionAvailability.isExtensionAvailable(glExtensionID);
+      }
+      return false;
+  }
+
   @Override
   public final int getPlatformExtensionCount() {
       return null != extensionAvailability ? extensionAvailability.getPlatformExtensionCount() : 0;
@@ -0,0 +1,198 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package jogamp.opengl;
+
+/**
+ * Error check scheduling and call history of a generated <code>DebugGL*</code> pipeline.
+ * <p>
+ * By default each call is checked via <code>glGetError()</code>, i.e. an error is raised at exactly the failing call
+ * at the cost of one driver round-trip per call.
+ * Using a {@link #setCheckInterval(int) check interval} other than one, errors are only checked every N calls
+ * and at {@link #endFrame() frame boundaries}. A thus deferred detected error is reported
+ * along with the last calls since the previous check, as recorded in a ring buffer.
+ * </p>
+ * <p>
+ * If {@link #setEscalateOnError(boolean) escalation} is enabled, a deferred detected error
+ * switches to checking each call until the end of the next frame, to pin down the failing call.
+ * </p>
+ * <p>
+ * Recording a call does not allocate and does not synchronize,
+ * hence instances shall only be used by the thread the context is current on.
+ * </p>
+ */
+public class GLDebugErrorCheck {
+    /** Default {@link #setCallHistorySize(int) call history size}. */
+    public static final int DEFAULT_HISTORY_SIZE = 64;
+
+    private final String[] names;
+    private int[] history;
+    private int historyMask;
+    private long callCount;
+    /** Checked calls range (checkedFrom, checkedTo] of the current check. */
+    private long checkedFrom, checkedTo;
+    private int interval;
+    private int countdown;
+    private boolean escalate;
+    private boolean perCall;
+    private long frameCount;
+    /** Checking each call until this frame has been completed, or -1. */
+    private long escalatedFrame;
+    private int deferredErrorCount;
+
+    /**
+     * @param names entry point names indexed as passed to {@link #call(int)}, shared and not copied
+     */
+    public GLDebugErrorCheck(final String[] names) {
+        this.names = names;
+        this.escalatedFrame = -1;
+        setCallHistorySize(DEFAULT_HISTORY_SIZE);
+        setCheckInterval(1);
+    }
+
+    /**
+     * Sets the error check interval.
+     * @param n <code>1</code> checks each call (default),
+     *          <code>0</code> only checks at frame boundaries and
+     *          <code>N &gt; 1</code> checks every N calls as well as at frame boundaries.
+     * @throws IllegalArgumentException if <code>n</code> is negative
+     */
+    public final void setCheckInterval(final int n) throws IllegalArgumentException {
+        if( 0 > n ) {
+            throw new IllegalArgumentException("Negative interval "+n);
+        }
+        interval = n;
+        countdown = n;
+        updatePerCall();
+    }
+    public final int getCheckInterval() { return interval; }
+
+    /**
+     * Enables checking each call until the end of the next frame after a deferred detected error.
+     * <p>
+     * The deferred error is reported on {@link System#err} instead of raising a GLException,
+     * allowing the next frame to raise the error at exactly the failing call.
+     * </p>
+     */
+    public final void setEscalateOnError(final boolean v) { escalate = v; }
+    public final boolean getEscalateOnError() { return escalate; }
+
+    /**
+     * Sets the number of recorded calls, rounded up to the next power of two.
+     * @throws IllegalArgumentException if <code>n</code> is less than one
+     */
+    public final void setCallHistorySize(final int n) throws IllegalArgumentException {
+        if( 1 > n ) {
+            throw new IllegalArgumentException("Invalid size "+n);
+        }
+        final int size = 1 < n ? Integer.highestOneBit(n - 1) << 1 : 1;
+        history = new int[size];
+        historyMask = size - 1;
+        checkedFrom = checkedTo = callCount = 0;
+    }
+    public final int getCallHistorySize() { return history.length; }
+
+    /** Returns true if each call is checked, either due to an interval of one or {@link #setEscalateOnError(boolean) escalation}. */
+    public final boolean isPerCall() { return perCall; }
+
+    /** Returns the number of deferred detected errors. */
+    public final int getDeferredErrorCount() { return deferredErrorCount; }
+
+    /**
+     * Records a call of entry point <code>idx</code>.
+     * @return true if the call shall be checked
+     */
+    public final boolean call(final int idx) {
+        history[(int)(callCount++) & historyMask] = idx;
+        if( perCall || ( 0 < interval && 0 == --countdown ) ) {
+            countdown = interval;
+            checkedFrom = checkedTo;
+            checkedTo = callCount;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Marks a frame boundary and ends a completed {@link #setEscalateOnError(boolean) escalation}.
+     * @return true if the calls of the ending frame shall be checked, i.e. if not {@link #isPerCall() checked each}
+     */
+    public final boolean endFrame() {
+        final boolean check = !perCall;
+        if( check ) {
+            countdown = interval;
+            checkedFrom = checkedTo;
+            checkedTo = callCount;
+        }
+        frameCount++;
+        if( 0 <= escalatedFrame && frameCount > escalatedFrame ) {
+            escalatedFrame = -1;
+            updatePerCall();
+        }
+        return check;
+    }
+
+    /**
+     * Notifies a deferred detected error and starts the {@link #setEscalateOnError(boolean) escalation}, if enabled.
+     * @param frameBoundary true if detected at a frame boundary, i.e. after {@link #endFrame()}
+     * @return true if escalated, otherwise the error shall be raised
+     */
+    public final boolean deferredError(final boolean frameBoundary) {
+        deferredErrorCount++;
+        if( !escalate ) {
+            return false;
+        }
+        escalatedFrame = frameBoundary ? frameCount : frameCount + 1;
+        perCall = true;
+        return true;
+    }
+
+    private final void updatePerCall() {
+        perCall = 1 == interval || 0 <= escalatedFrame;
+    }
+
+    /** Returns the number of calls covered by the current check, i.e. since the previous one. */
+    public final long getCheckedCallCount() { return checkedTo - checkedFrom; }
+
+    /**
+     * Appends the recorded calls covered by the current check, oldest first,
+     * limited to the {@link #getCallHistorySize() call history size}.
+     */
+    public final StringBuilder appendCheckedCalls(final StringBuilder sb) {
+        final long from = Math.max(checkedFrom, checkedTo - history.length);
+        if( from > checkedFrom ) {
+            sb.append("..., ");
+        }
+        for(long i = from; i < checkedTo; i++) {
+            if( i > from ) {
+                sb.append(", ");
+            }
+            sb.append(names[history[(int)i & historyMask]]);
+        }
+        return sb;
+    }
+}
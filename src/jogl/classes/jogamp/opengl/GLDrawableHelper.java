@@ -58,6 +58,7 @@ import com.jogamp.opengl.GLDrawableFactory;
 import com.jogamp.opengl.GLEventListener;
 import com.jogamp.opengl.GLException;
 import com.jogamp.opengl.GLFBODrawable;
+import com.jogamp.opengl.GLFrameBoundaryListener;
 import com.jogamp.opengl.GLRunnable;
 
 import com.jogamp.common.ExceptionUtils;
@@ -677,6 +678,15 @@ public class GLDrawableHelper {
         displayImpl(drawable);
         // runForAllGLEventListener(drawable, displayAction);
     }
+    frameBoundary(drawable);
+  }
+  /** Notifies all {@link GLFrameBoundaryListener} within the drawable's GL pipeline hierarchy. */
+  private static final void frameBoundary(final GLAutoDrawable drawable) {
+      for(GL gl = drawable.getGL(); null != gl; gl = gl.getDownstreamGL()) {
+          if( gl instanceof GLFrameBoundaryListener ) {
+              ((GLFrameBoundaryListener)gl).frameBoundary(drawable);
+          }
+      }
   }
   private final void displayImpl(final GLAutoDrawable drawable) {
       synchronized(listenersLock) {
@@ -0,0 +1,387 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package jogamp.opengl;
+
+import java.util.Arrays;
+
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2ES2;
+import com.jogamp.opengl.GL2ES3;
+import com.jogamp.opengl.GL2GL3;
+import com.jogamp.opengl.GL3ES3;
+import com.jogamp.opengl.GL4;
+import com.jogamp.opengl.GLContext;
+import com.jogamp.opengl.GLES2;
+
+/**
+ * Shadow of binding and enable states as issued through a generated <code>StateCacheGL*</code> pipeline,
+ * allowing the pipeline to drop calls which would not change any state.
+ * <p>
+ * Each filter method returns <code>true</code> if the call must be passed downstream,
+ * otherwise <code>false</code> and the call is counted as filtered.
+ * A state value is <i>unknown</i> until it has been set through the pipeline once,
+ * hence the first call for each state is always passed downstream.
+ * </p>
+ * <p>
+ * The GL state is owned by the context and survives releasing and making it current again,
+ * hence the shadow is kept across context switches and frames.
+ * The complete shadow is only invalidated once the associated {@link GLContextImpl} has been recreated,
+ * see {@link GLContextImpl#getContextCreationCount()}, as well as while compiling display lists.
+ * </p>
+ * <p>
+ * If the context {@link GLContext#isShared() shares} its objects, the texture, buffer and program bindings
+ * are invalidated after each context switch, see {@link GLContextImpl#getContextSwitchCount()}.
+ * Another context of the share set may have deleted a bound object meanwhile and its name may be reused,
+ * hence binding the same name again may bind a different object.
+ * </p>
+ * <p>
+ * All other state changes bypassing the pipeline must be announced via {@link #invalidate()}.
+ * </p>
+ * <p>
+ * A call producing a GL error is still shadowed, i.e. a repeated faulty call
+ * may be dropped instead of raising the same error again.
+ * </p>
+ */
+public class GLStateCache {
+    private static final long UNKNOWN = -1;
+    private static final byte CAP_UNKNOWN = 0;
+    private static final byte CAP_DISABLED = 1;
+    private static final byte CAP_ENABLED = 2;
+    /** Upper bound of tracked texture units, exceeding units are passed through. */
+    private static final int MAX_TEXTURE_UNITS = 192;
+
+    private static final int[] textureTargets = new int[] {
+        GL.GL_TEXTURE_2D, GL.GL_TEXTURE_CUBE_MAP, GL2ES2.GL_TEXTURE_3D, GL2ES3.GL_TEXTURE_2D_ARRAY,
+        GL2GL3.GL_TEXTURE_1D, GL2GL3.GL_TEXTURE_1D_ARRAY, GL2GL3.GL_TEXTURE_RECTANGLE,
+        GL2ES2.GL_TEXTURE_2D_MULTISAMPLE, GL2ES2.GL_TEXTURE_2D_MULTISAMPLE_ARRAY,
+        GL2ES3.GL_TEXTURE_BUFFER, GLES2.GL_TEXTURE_EXTERNAL_OES };
+    private static final int[] bufferTargets = new int[] {
+        GL.GL_ARRAY_BUFFER, GL.GL_ELEMENT_ARRAY_BUFFER, GL2ES3.GL_PIXEL_PACK_BUFFER, GL2ES3.GL_PIXEL_UNPACK_BUFFER,
+        GL2ES3.GL_UNIFORM_BUFFER, GL2ES3.GL_COPY_READ_BUFFER, GL2ES3.GL_COPY_WRITE_BUFFER,
+        GL2ES3.GL_TRANSFORM_FEEDBACK_BUFFER, GL2ES3.GL_ATOMIC_COUNTER_BUFFER, GL2ES3.GL_TEXTURE_BUFFER,
+        GL3ES3.GL_DRAW_INDIRECT_BUFFER, GL3ES3.GL_DISPATCH_INDIRECT_BUFFER, GL3ES3.GL_SHADER_STORAGE_BUFFER,
+        GL4.GL_QUERY_BUFFER };
+    /** Non-indexed capabilities w/o per texture-unit semantics. */
+    private static final int[] capabilities = new int[] {
+        GL.GL_BLEND, GL.GL_CULL_FACE, GL.GL_DEPTH_TEST, GL.GL_STENCIL_TEST, GL.GL_SCISSOR_TEST,
+        GL.GL_DITHER, GL.GL_POLYGON_OFFSET_FILL, GL.GL_SAMPLE_ALPHA_TO_COVERAGE, GL.GL_SAMPLE_COVERAGE,
+        GL.GL_MULTISAMPLE };
+
+    private static final int indexOf(final int[] table, final int value) {
+        for(int i=0; i<table.length; i++) {
+            if( table[i] == value ) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private final GLContextImpl context;
+    private int contextSwitchCount;
+    private int contextCreationCount;
+    private boolean compilingList;
+    private long filteredCalls;
+
+    private long activeTextureUnit;
+    /** Texture bindings, indexed by <code>unit * textureTargets.length + target-index</code>. */
+    private long[] textureBindings;
+    private final long[] bufferBindings = new long[bufferTargets.length];
+    private long program;
+    private final byte[] capStates = new byte[capabilities.length];
+    private final long[] blendFunc = new long[4];
+    private final long[] viewport = new long[4];
+    private final long[] scissor = new long[4];
+    private long depthFunc;
+    private byte depthMask;
+
+    /**
+     * @param context the context the pipeline is bound to, may be <code>null</code>
+     *        in which case context recreation must be announced via {@link #invalidate()}.
+     */
+    public GLStateCache(final GLContext context) {
+        this.context = context instanceof GLContextImpl ? (GLContextImpl) context : null;
+        textureBindings = new long[8 * textureTargets.length];
+        invalidate();
+    }
+
+    /** Returns the number of calls not passed downstream. */
+    public final long getFilteredCallCount() { return filteredCalls; }
+
+    /** Resets the {@link #getFilteredCallCount() filtered call count}. */
+    public final void resetFilteredCallCount() { filteredCalls = 0; }
+
+    /** Marks all shadowed states unknown, hence the next call of each kind is passed downstream. */
+    public final void invalidate() {
+        if( null != context ) {
+            contextSwitchCount = context.getContextSwitchCount();
+            contextCreationCount = context.getContextCreationCount();
+        }
+        activeTextureUnit = UNKNOWN;
+        invalidateObjects();
+        invalidateCapabilities();
+        invalidateBlendFunc();
+        invalidateViewport();
+        invalidateScissor();
+        depthFunc = UNKNOWN;
+        depthMask = CAP_UNKNOWN;
+    }
+    /** Invalidates the bindings of shareable objects, i.e. textures, buffers and the program. */
+    public final void invalidateObjects() {
+        invalidateTextures();
+        invalidateBuffers();
+        invalidateProgram();
+    }
+    public final void invalidateTextures() {
+        Arrays.fill(textureBindings, UNKNOWN);
+    }
+    public final void invalidateBuffers() {
+        Arrays.fill(bufferBindings, UNKNOWN);
+    }
+    public final void invalidateBuffer(final int target) {
+        final int idx = indexOf(bufferTargets, target);
+        if( 0 <= idx ) {
+            bufferBindings[idx] = UNKNOWN;
+        }
+    }
+    /** Invalidates the current program, e.g. after <code>glUseProgramObjectARB</code> or <code>glUseShaderProgramEXT</code>. */
+    public final void invalidateProgram() {
+        program = UNKNOWN;
+    }
+    /** Invalidates the {@link GL#GL_ELEMENT_ARRAY_BUFFER} binding, being vertex array object state. */
+    public final void invalidateVertexArray() {
+        invalidateBuffer(GL.GL_ELEMENT_ARRAY_BUFFER);
+    }
+    public final void invalidateCapabilities() {
+        Arrays.fill(capStates, CAP_UNKNOWN);
+    }
+    public final void invalidateCapability(final int cap) {
+        final int idx = indexOf(capabilities, cap);
+        if( 0 <= idx ) {
+            capStates[idx] = CAP_UNKNOWN;
+        }
+    }
+    public final void invalidateBlendFunc() {
+        Arrays.fill(blendFunc, UNKNOWN);
+    }
+    public final void invalidateViewport() {
+        Arrays.fill(viewport, UNKNOWN);
+    }
+    public final void invalidateScissor() {
+        Arrays.fill(scissor, UNKNOWN);
+    }
+
+    /** Invalidates all states and bypasses the shadow until {@link #endList()}. */
+    public final void beginList() {
+        invalidate();
+        compilingList = true;
+    }
+    public final void endList() {
+        compilingList = false;
+    }
+
+    /**
+     * Returns true if the shadow may be used, i.e. not compiling a display list.
+     * Invalidates the shadow if the context has been recreated
+     * or the object bindings if the shared context has been switched.
+     */
+    private final boolean validate() {
+        if( compilingList ) {
+            return false;
+        }
+        if( null != context ) {
+            if( context.getContextCreationCount() != contextCreationCount ) {
+                invalidate();
+            } else if( context.getContextSwitchCount() != contextSwitchCount ) {
+                contextSwitchCount = context.getContextSwitchCount();
+                if( context.isShared() ) {
+                    invalidateObjects();
+                }
+            }
+        }
+        return true;
+    }
+
+    private final boolean update(final long[] state, final int idx, final int value) {
+        final long v = value & 0xffffffffL;
+        if( state[idx] == v ) {
+            filteredCalls++;
+            return false;
+        }
+        state[idx] = v;
+        return true;
+    }
+
+    public final boolean activeTexture(final int texture) {
+        if( !validate() ) {
+            return true;
+        }
+        final long unit = ( texture & 0xffffffffL ) - GL.GL_TEXTURE0;
+        if( 0 > unit || MAX_TEXTURE_UNITS <= unit ) {
+            activeTextureUnit = UNKNOWN;
+            return true;
+        }
+        if( activeTextureUnit == unit ) {
+            filteredCalls++;
+            return false;
+        }
+        activeTextureUnit = unit;
+        return true;
+    }
+
+    public final boolean bindTexture(final int target, final int texture) {
+        if( !validate() ) {
+            return true;
+        }
+        final int t = indexOf(textureTargets, target);
+        if( 0 > t || UNKNOWN == activeTextureUnit ) {
+            return true;
+        }
+        final int idx = (int)activeTextureUnit * textureTargets.length + t;
+        if( idx >= textureBindings.length ) {
+            final int oldLen = textureBindings.length;
+            textureBindings = Arrays.copyOf(textureBindings, ( (int)activeTextureUnit + 8 ) * textureTargets.length);
+            Arrays.fill(textureBindings, oldLen, textureBindings.length, UNKNOWN);
+        }
+        return update(textureBindings, idx, texture);
+    }
+
+    public final boolean bindBuffer(final int target, final int buffer) {
+        if( !validate() ) {
+            return true;
+        }
+        final int idx = indexOf(bufferTargets, target);
+        if( 0 > idx ) {
+            return true;
+        }
+        return update(bufferBindings, idx, buffer);
+    }
+
+    /** <code>glBindBufferBase</code> and <code>glBindBufferRange</code> also set the generic binding point. */
+    public final void bindBufferIndexed(final int target, final int buffer) {
+        final int idx = indexOf(bufferTargets, target);
+        if( 0 <= idx ) {
+            bufferBindings[idx] = compilingList ? UNKNOWN : buffer & 0xffffffffL;
+        }
+    }
+
+    public final boolean useProgram(final int program) {
+        if( !validate() ) {
+            return true;
+        }
+        final long v = program & 0xffffffffL;
+        if( this.program == v ) {
+            filteredCalls++;
+            return false;
+        }
+        this.program = v;
+        return true;
+    }
+
+    public final boolean enable(final int cap, final boolean enable) {
+        if( !validate() ) {
+            return true;
+        }
+        final int idx = indexOf(capabilities, cap);
+        if( 0 > idx ) {
+            return true;
+        }
+        final byte v = enable ? CAP_ENABLED : CAP_DISABLED;
+        if( capStates[idx] == v ) {
+            filteredCalls++;
+            return false;
+        }
+        capStates[idx] = v;
+        return true;
+    }
+
+    public final boolean blendFunc(final int sfactor, final int dfactor) {
+        return blendFuncSeparate(sfactor, dfactor, sfactor, dfactor);
+    }
+
+    public final boolean blendFuncSeparate(final int srcRGB, final int dstRGB, final int srcAlpha, final int dstAlpha) {
+        if( !validate() ) {
+            return true;
+        }
+        return update4(blendFunc, srcRGB, dstRGB, srcAlpha, dstAlpha);
+    }
+
+    public final boolean viewport(final int x, final int y, final int width, final int height) {
+        if( !validate() ) {
+            return true;
+        }
+        return update4(viewport, x, y, width, height);
+    }
+
+    public final boolean scissor(final int x, final int y, final int width, final int height) {
+        if( !validate() ) {
+            return true;
+        }
+        return update4(scissor, x, y, width, height);
+    }
+
+    private final boolean update4(final long[] state, final int v0, final int v1, final int v2, final int v3) {
+        final long l0 = v0 & 0xffffffffL, l1 = v1 & 0xffffffffL, l2 = v2 & 0xffffffffL, l3 = v3 & 0xffffffffL;
+        if( state[0] == l0 && state[1] == l1 && state[2] == l2 && state[3] == l3 ) {
+            filteredCalls++;
+            return false;
+        }
+        state[0] = l0; state[1] = l1; state[2] = l2; state[3] = l3;
+        return true;
+    }
+
+    public final boolean depthFunc(final int func) {
+        if( !validate() ) {
+            return true;
+        }
+        final long v = func & 0xffffffffL;
+        if( depthFunc == v ) {
+            filteredCalls++;
+            return false;
+        }
+        depthFunc = v;
+        return true;
+    }
+
+    public final boolean depthMask(final boolean flag) {
+        if( !validate() ) {
+            return true;
+        }
+        final byte v = flag ? CAP_ENABLED : CAP_DISABLED;
+        if( depthMask == v ) {
+            filteredCalls++;
+            return false;
+        }
+        depthMask = v;
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "GLStateCache[filtered "+filteredCalls+", ctxSwitch "+contextSwitchCount+", ctxCreation "+contextCreationCount+", list "+compilingList+"]";
+    }
+}
@@ -0,0 +1,337 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package jogamp.opengl;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import com.jogamp.common.util.IOUtil;
+import com.jogamp.nativewindow.AbstractGraphicsDevice;
+import com.jogamp.opengl.GLRendererQuirks;
+
+/**
+ * Optional persistent cache of the GL versions mapped per {@link AbstractGraphicsDevice}
+ * by {@link GLContextImpl}'s version probing, avoiding the creation of one context per probed
+ * major version and profile on each JVM start.
+ * <p>
+ * The cache is enabled by setting property <code>jogl.glversions.cache</code> to a writable directory.
+ * It stays disabled if the JOGL implementation version is unknown, e.g. for development builds w/o manifest,
+ * since cached entries could not be told apart from those of a different build.
+ * Each device is stored in its own properties file keyed by {@link AbstractGraphicsDevice#getUniqueID()}
+ * and holds the mapped versions, the sticky {@link GLRendererQuirks} of the device and
+ * the identity of the driver, i.e. GL vendor, renderer, version and extensions string
+ * of the first successfully probed context.
+ * </p>
+ * <p>
+ * A cached entry is only used after recreating the first probed context and matching the driver identity,
+ * otherwise the full probing is performed and the cache entry is rewritten.
+ * </p>
+ * <p>
+ * Property <code>jogl.debug.GLProfile.Timing</code> enables timing output of each probing step.
+ * </p>
+ */
+public class GLVersionProbeCache {
+    private static final boolean DEBUG;
+    /** Property <code>jogl.debug.GLProfile.Timing</code> */
+    public static final boolean TIMING;
+    private static final File cacheDir;
+    /** JOGL implementation version or null if unknown */
+    private static final String joglVersion;
+
+    /** Bump whenever the stored layout or the probing semantics change. */
+    private static final int FORMAT_VERSION = 1;
+
+    static {
+        Debug.initSingleton();
+        DEBUG = Debug.debug("GLContext");
+        TIMING = Debug.debug("GLProfile.Timing");
+        final String dir = AccessController.doPrivileged(new PrivilegedAction<String>() {
+            @Override
+            public String run() {
+                return Debug.getProperty("jogl.glversions.cache", true);
+            } } );
+        final Package p = Package.getPackage("com.jogamp.opengl");
+        joglVersion = null != p ? p.getImplementationVersion() : null;
+        if( null != dir && dir.length() > 0 ) {
+            if( null != joglVersion ) {
+                cacheDir = new File(dir);
+            } else {
+                cacheDir = null;
+                if( DEBUG ) {
+                    System.err.println("GLVersionProbeCache: Disabled, unknown JOGL implementation version");
+                }
+            }
+        } else {
+            cacheDir = null;
+        }
+    }
+
+    /** Returns true if the persistent cache is enabled, requiring a known JOGL implementation version. */
+    public static boolean isEnabled() { return null != cacheDir; }
+
+    /** Prints the duration of one probing step if {@link #TIMING} is enabled. */
+    public static void logTime(final AbstractGraphicsDevice device, final String step, final long t0) {
+        if( TIMING ) {
+            System.err.println("GLProfile.Timing: "+device.getUniqueID()+": "+step+": "+( System.nanoTime() - t0 ) / 1e6+" ms");
+        }
+    }
+
+    /** One mapped GL version. */
+    public static class Mapping {
+        public final int reqMajor, reqProfile;
+        public final int major, minor, ctp;
+
+        public Mapping(final int reqMajor, final int reqProfile, final int major, final int minor, final int ctp) {
+            this.reqMajor = reqMajor;
+            this.reqProfile = reqProfile;
+            this.major = major;
+            this.minor = minor;
+            this.ctp = ctp;
+        }
+    }
+
+    /** A cached or to be cached device entry. */
+    public static class Entry {
+        /** Driver identity of the validation context */
+        public final String vendor, renderer, version, extensions;
+        /** Requested context options of the validation context */
+        public final int probeCtp;
+        /** Created version of the validation context */
+        public final int probeMajor, probeMinor;
+        public final List<Mapping> mappings = new ArrayList<Mapping>();
+        public final List<Integer> stickyQuirks = new ArrayList<Integer>();
+
+        public Entry(final String vendor, final String renderer, final String version, final String extensions,
+                     final int probeCtp, final int probeMajor, final int probeMinor) {
+            this.vendor = null != vendor ? vendor : "";
+            this.renderer = null != renderer ? renderer : "";
+            this.version = null != version ? version : "";
+            this.extensions = null != extensions ? extensions : "";
+            this.probeCtp = probeCtp;
+            this.probeMajor = probeMajor;
+            this.probeMinor = probeMinor;
+        }
+
+        /** Returns true if the given driver identity matches this entry's one. */
+        public boolean matches(final String vendor, final String renderer, final String version, final String extensions) {
+            return this.vendor.equals(null != vendor ? vendor : "") &&
+                   this.renderer.equals(null != renderer ? renderer : "") &&
+                   this.version.equals(null != version ? version : "") &&
+                   this.extensions.equals(null != extensions ? extensions : "");
+        }
+
+        @Override
+        public String toString() {
+            return "GLVersionProbeCache.Entry["+vendor+", "+renderer+", "+version+", probe "+probeMajor+"."+probeMinor+
+                   " (0x"+Integer.toHexString(probeCtp)+"), mappings "+mappings.size()+", quirks "+stickyQuirks+"]";
+        }
+    }
+
+    private static File getFile(final File dir, final String id) {
+        final StringBuilder sb = new StringBuilder(id.length()+16);
+        for(int i=0; i<id.length(); i++) {
+            final char c = id.charAt(i);
+            sb.append( Character.isLetterOrDigit(c) || '-' == c || '.' == c ? c : '_' );
+        }
+        return new File(dir, "glversions"+sb.append(".properties").toString());
+    }
+
+    /**
+     * Returns the cached entry for the given device or null if none exists, the cache is disabled
+     * or the entry stems from a different JOGL version.
+     */
+    public static Entry load(final AbstractGraphicsDevice device) {
+        if( !isEnabled() ) {
+            return null;
+        }
+        return load(cacheDir, joglVersion, device.getUniqueID());
+    }
+
+    /**
+     * Returns the entry of the given device ID cached in the given directory or null if none exists,
+     * the entry stems from a different JOGL version or device or the file is broken.
+     * <p>
+     * Independent of the cache configuration, see {@link #load(AbstractGraphicsDevice)}.
+     * </p>
+     * @param dir the cache directory
+     * @param joglVersion the JOGL implementation version the entry must stem from
+     * @param deviceID the {@link AbstractGraphicsDevice#getUniqueID() unique device ID}
+     */
+    public static Entry load(final File dir, final String joglVersion, final String deviceID) {
+        final File file = getFile(dir, deviceID);
+        final Properties props = new Properties();
+        try {
+            final Boolean ok = AccessController.doPrivileged(new PrivilegedAction<Boolean>() {
+                @Override
+                public Boolean run() {
+                    if( !file.canRead() ) {
+                        return Boolean.FALSE;
+                    }
+                    InputStream in = null;
+                    try {
+                        in = new FileInputStream(file);
+                        props.load(in);
+                        return Boolean.TRUE;
+                    } catch (final IOException ioe) {
+                        if( DEBUG ) {
+                            System.err.println("GLVersionProbeCache: Failed to read "+file+": "+ioe.getMessage());
+                        }
+                        return Boolean.FALSE;
+                    } finally {
+                        IOUtil.close(in, false);
+                    }
+                } } );
+            if( !ok.booleanValue() ||
+                !String.valueOf(FORMAT_VERSION).equals(props.getProperty("format")) ||
+                !joglVersion.equals(props.getProperty("jogl")) ||
+                !deviceID.equals(props.getProperty("device")) ) {
+                return null;
+            }
+            final String[] probe = props.getProperty("probe").split(" ");
+            final Entry e = new Entry(props.getProperty("gl.vendor"), props.getProperty("gl.renderer"),
+                                      props.getProperty("gl.version"), props.getProperty("gl.extensions"),
+                                      Integer.parseInt(probe[0], 16), Integer.parseInt(probe[1]), Integer.parseInt(probe[2]));
+            final int count = Integer.parseInt(props.getProperty("mappings"));
+            for(int i=0; i<count; i++) {
+                final String[] m = props.getProperty("mapping."+i).split(" ");
+                e.mappings.add(new Mapping(Integer.parseInt(m[0]), Integer.parseInt(m[1], 16),
+                                           Integer.parseInt(m[2]), Integer.parseInt(m[3]), Integer.parseInt(m[4], 16)));
+            }
+            final String quirks = props.getProperty("quirks", "").trim();
+            if( quirks.length() > 0 ) {
+                final String[] q = quirks.split(" ");
+                for(int i=0; i<q.length; i++) {
+                    e.stickyQuirks.add(Integer.valueOf(q[i]));
+                }
+            }
+            if( DEBUG ) {
+                System.err.println("GLVersionProbeCache: Loaded "+file+": "+e);
+            }
+            return e;
+        } catch (final RuntimeException re) {
+            // NumberFormatException, NullPointerException, ArrayIndexOutOfBoundsException of a broken file
+            if( DEBUG ) {
+                System.err.println("GLVersionProbeCache: Ignoring broken "+file+": "+re.getMessage());
+            }
+            return null;
+        }
+    }
+
+    /** Stores the given entry for the given device, failures are ignored. */
+    public static void store(final AbstractGraphicsDevice device, final Entry e) {
+        if( !isEnabled() ) {
+            return;
+        }
+        store(cacheDir, joglVersion, device.getUniqueID(), e);
+    }
+
+    /**
+     * Stores the given entry for the given device ID in the given directory, failures are ignored.
+     * <p>
+     * Independent of the cache configuration, see {@link #store(AbstractGraphicsDevice, Entry)}.
+     * </p>
+     * @param dir the cache directory, created if not existing
+     * @param joglVersion the JOGL implementation version
+     * @param deviceID the {@link AbstractGraphicsDevice#getUniqueID() unique device ID}
+     * @param e the entry to store
+     */
+    public static void store(final File dir, final String joglVersion, final String deviceID, final Entry e) {
+        final File file = getFile(dir, deviceID);
+        final Properties props = new Properties();
+        props.setProperty("format", String.valueOf(FORMAT_VERSION));
+        props.setProperty("jogl", joglVersion);
+        props.setProperty("device", deviceID);
+        props.setProperty("gl.vendor", e.vendor);
+        props.setProperty("gl.renderer", e.renderer);
+        props.setProperty("gl.version", e.version);
+        props.setProperty("gl.extensions", e.extensions);
+        props.setProperty("probe", Integer.toHexString(e.probeCtp)+" "+e.probeMajor+" "+e.probeMinor);
+        props.setProperty("mappings", String.valueOf(e.mappings.size()));
+        for(int i=0; i<e.mappings.size(); i++) {
+            final Mapping m = e.mappings.get(i);
+            props.setProperty("mapping."+i, m.reqMajor+" "+Integer.toHexString(m.reqProfile)+" "+m.major+" "+m.minor+" "+Integer.toHexString(m.ctp));
+        }
+        final StringBuilder quirks = new StringBuilder();
+        for(int i=0; i<e.stickyQuirks.size(); i++) {
+            if( i > 0 ) {
+                quirks.append(' ');
+            }
+            quirks.append(e.stickyQuirks.get(i));
+        }
+        props.setProperty("quirks", quirks.toString());
+        AccessController.doPrivileged(new PrivilegedAction<Object>() {
+            @Override
+            public Object run() {
+                final File tmp = new File(file.getPath()+".tmp");
+                OutputStream out = null;
+                try {
+                    dir.mkdirs();
+                    out = new FileOutputStream(tmp);
+                    props.store(out, "JOGL GL version probe cache");
+                    out.close();
+                    out = null;
+                    if( !tmp.renameTo(file) ) {
+                        file.delete();
+                        if( !tmp.renameTo(file) ) {
+                            throw new IOException("Cannot rename "+tmp+" to "+file);
+                        }
+                    }
+                    if( DEBUG ) {
+                        System.err.println("GLVersionProbeCache: Stored "+file+": "+e);
+                    }
+                } catch (final IOException ioe) {
+                    if( DEBUG ) {
+                        System.err.println("GLVersionProbeCache: Failed to write "+file+": "+ioe.getMessage());
+                    }
+                    tmp.delete();
+                } finally {
+                    IOUtil.close(out, false);
+                }
+                return null;
+            } } );
+    }
+
+    /** Adds the sticky quirk bits of the given device to <code>dest</code>. */
+    public static void collectStickyQuirks(final AbstractGraphicsDevice device, final List<Integer> dest) {
+        final GLRendererQuirks sq = GLRendererQuirks.getStickyDeviceQuirks(device);
+        for(int i=0; i<GLRendererQuirks.getCount(); i++) {
+            if( sq.exist(i) ) {
+                dest.add(Integer.valueOf(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package jogamp.opengl;
+
+import java.util.HashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import com.jogamp.common.util.InterruptSource;
+import com.jogamp.nativewindow.AbstractGraphicsDevice;
+import com.jogamp.opengl.GLException;
+
+/**
+ * Device initializations running on their own daemon thread, see {@link com.jogamp.opengl.GLProfile#isConcurrentInit()}.
+ * <p>
+ * Each initialization is keyed by its device's {@link AbstractGraphicsDevice#getUniqueID() unique ID}
+ * and is joined via {@link #await(String)} once the device is first requested.
+ * Only the initializing thread itself passes {@link #await(String)} w/o joining,
+ * all other threads wait for the initialization and receive its failure, if any.
+ * </p>
+ */
+public class PendingDeviceInits {
+    /** A pending device initialization */
+    public static class Task {
+        private final String key;
+        private final FutureTask<Boolean> future;
+        private final Thread thread;
+
+        private Task(final String key, final FutureTask<Boolean> future, final Thread thread) {
+            this.key = key;
+            this.future = future;
+            this.thread = thread;
+        }
+        /** Returns the device's unique ID. */
+        public final String getKey() { return key; }
+        /** Returns the initializing daemon thread, started by the caller of {@link PendingDeviceInits#add(String, String, Callable)}. */
+        public final Thread getThread() { return thread; }
+        /** Returns the future of the initialization. */
+        public final Future<Boolean> getFuture() { return future; }
+        /** Returns true if the initialization has completed, successfully or not. */
+        public final boolean isDone() { return future.isDone(); }
+
+        /** Waits until the initialization has completed, disregarding its result and interruption. */
+        public final void awaitDone() {
+            boolean interrupted = false;
+            while( !future.isDone() ) {
+                try {
+                    future.get();
+                } catch (final InterruptedException ie) {
+                    interrupted = true;
+                } catch (final ExecutionException ee) {
+                    // reported to the awaiting callers
+                }
+            }
+            if( interrupted ) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private final HashMap<String /*device_connection*/, Task> tasks = new HashMap<String, Task>();
+
+    /**
+     * Adds a pending initialization of the device w/ the given unique ID,
+     * which runs <code>init</code> on a new daemon thread to be started by the caller via {@link Task#getThread()}.
+     * @throws IllegalArgumentException if an initialization for the given key is already pending
+     */
+    public final Task add(final String key, final String threadName, final Callable<Boolean> init) throws IllegalArgumentException {
+        final FutureTask<Boolean> future = new FutureTask<Boolean>(init);
+        final Thread thread = new InterruptSource.Thread(null, future, threadName);
+        thread.setDaemon(true);
+        final Task task = new Task(key, future, thread);
+        synchronized( tasks ) {
+            if( tasks.containsKey(key) ) {
+                throw new IllegalArgumentException("Initialization of "+key+" already pending");
+            }
+            tasks.put(key, task);
+        }
+        return task;
+    }
+
+    /** Returns the pending initialization of the device w/ the given unique ID or null. */
+    public final Task get(final String key) {
+        synchronized( tasks ) {
+            return tasks.get(key);
+        }
+    }
+
+    /** Returns the number of pending initializations. */
+    public final int size() {
+        synchronized( tasks ) {
+            return tasks.size();
+        }
+    }
+
+    /**
+     * Joins the pending initialization of the device w/ the given unique ID, if any,
+     * and removes it.
+     * <p>
+     * Returns immediately if called on the initializing thread itself.
+     * </p>
+     * @return the initialization's result or null if none was joined
+     * @throws GLException if the initialization failed or the current thread was interrupted while waiting
+     */
+    public final Boolean await(final String key) throws GLException {
+        final Task task = get(key);
+        if( null == task || Thread.currentThread() == task.thread ) {
+            return null;
+        }
+        try {
+            return task.future.get();
+        } catch (final InterruptedException ie) {
+            throw new GLException("Interrupted while awaiting initialization of "+key, ie);
+        } catch (final ExecutionException ee) {
+            throw new GLException("Initialization of "+key+" failed", ee.getCause());
+        } finally {
+            if( task.isDone() ) {
+                synchronized( tasks ) {
+                    if( task == tasks.get(key) ) {
+                        tasks.remove(key);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Joins and removes all pending initializations.
+     * @throws GLException after all have been joined, carrying the first failure;
+     *                     further failures are {@link Throwable#addSuppressed(Throwable) suppressed} by the former.
+     */
+    public final void awaitAll() throws GLException {
+        final Task[] pending;
+        synchronized( tasks ) {
+            pending = tasks.values().toArray(new Task[tasks.size()]);
+            tasks.clear();
+        }
+        GLException failure = null;
+        for(int i=0; i<pending.length; i++) {
+            final Task task = pending[i];
+            task.awaitDone();
+            try {
+                task.future.get();
+            } catch (final InterruptedException ie) {
+                // not reached, task is done
+            } catch (final ExecutionException ee) {
+                final GLException e = new GLException("Initialization of "+task.key+" failed", ee.getCause());
+                if( null == failure ) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if( null != failure ) {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,586 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package jogamp.opengl.util.av;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.jogamp.nativewindow.util.PixelFormat;
+
+import jogamp.opengl.util.jpeg.JPEGDecoder;
+
+import com.jogamp.common.net.Uri;
+import com.jogamp.common.net.UriQueryProps;
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.common.util.IOUtil;
+import com.jogamp.opengl.util.PNGPixelRect;
+import com.jogamp.opengl.util.texture.TextureData.ColorSpace;
+
+/**
+ * Decoder of numbered PNG/JPEG image sequences and MJPEG files used by {@link ImageSequenceMediaPlayer}, independent of OpenGL.
+ * <p>
+ * See {@link ImageSequenceMediaPlayer} for the supported stream locations and URI query properties.
+ * </p>
+ * <p>
+ * Frames are decoded into pooled RGBA pixel buffers, already in OpenGL orientation, on a pool of decoder threads.
+ * Decoding runs ahead of the consumed frame by {@link #getDecodeAhead()} frames, which bounds memory usage.
+ * Each {@link #next() consumed} frame shall be {@link #release(Frame) released} after use, returning its buffer to the pool.
+ * Frames decoded ahead and dropped by {@link #seek(int)} return their buffers to the pool as well, even if still decoding.
+ * </p>
+ * <p>
+ * The PTS of frame <code>n</code> is <code>n * 1000 / fps</code>. Seeking is frame accurate.
+ * </p>
+ * <p>
+ * Frames shall be consumed by one thread only.
+ * </p>
+ */
+public class ImageSequenceDecoder {
+    public static final int FPS_DEFAULT = 25;
+
+    private static final AtomicInteger threadNum = new AtomicInteger(0);
+
+    /** Frame source abstraction */
+    static interface FrameSource {
+        int getFrameCount();
+        /** Returns a new stream of the encoded frame <code>idx</code>. Must be thread safe. */
+        InputStream open(int idx) throws IOException;
+        String getCodec();
+        void close();
+    }
+
+    /** Decoded RGBA frame in OpenGL orientation */
+    public static final class Frame {
+        /** Frame index within the sequence */
+        public final int index;
+        /** Presentation time stamp in milliseconds */
+        public final int pts;
+        /** Pooled RGBA pixels, tightly packed, valid until {@link ImageSequenceDecoder#release(Frame) released} */
+        public final ByteBuffer pixels;
+        Frame(final int index, final int pts, final ByteBuffer pixels) {
+            this.index = index;
+            this.pts = pts;
+            this.pixels = pixels;
+        }
+    }
+
+    /**
+     * Decoding of one frame. Returns its pixel buffer to the pool itself
+     * if {@link #cancel() cancelled} while running, otherwise the buffer is returned by {@link #cancel()}.
+     */
+    private final class DecodeTask implements Callable<Frame> {
+        final int index;
+        Future<Frame> future;
+        private boolean cancelled = false;
+        private Frame result = null;
+
+        DecodeTask(final int index) {
+            this.index = index;
+        }
+
+        @Override
+        public Frame call() throws IOException {
+            final Frame frame = decodeFrame(index);
+            synchronized( this ) {
+                if( cancelled ) {
+                    pixelPool.offer(frame.pixels);
+                    return null;
+                }
+                result = frame;
+            }
+            return frame;
+        }
+
+        void cancel() {
+            future.cancel(false);
+            final Frame frame;
+            synchronized( this ) {
+                cancelled = true;
+                frame = result;
+                result = null;
+            }
+            if( null != frame ) {
+                pixelPool.offer(frame.pixels);
+            }
+        }
+    }
+
+    private final FrameSource source;
+    private final int width, height;
+    private final int fps;
+    private final int threads;
+    private final int decodeAhead;
+    private ExecutorService decoder;
+    private final ArrayDeque<DecodeTask> pending = new ArrayDeque<DecodeTask>();
+    private final ConcurrentLinkedQueue<ByteBuffer> pixelPool = new ConcurrentLinkedQueue<ByteBuffer>();
+    private final AtomicInteger allocatedBuffers = new AtomicInteger(0);
+    /** next frame index to be submitted for decoding */
+    private int nextSubmit = 0;
+
+    /**
+     * Creates a decoder for the given stream location, using its URI query properties
+     * <code>fps</code>, <code>start</code> and <code>threads</code>, see {@link ImageSequenceMediaPlayer}.
+     * @throws IOException if the stream location is not supported, contains no frames or the first frame can't be read
+     */
+    public ImageSequenceDecoder(final Uri uri) throws IOException {
+        this(uri, getProperties(uri));
+    }
+    private ImageSequenceDecoder(final Uri uri, final Map<String, String> props) throws IOException {
+        this(uri,
+             props.containsKey("fps") ? Integer.parseInt(props.get("fps")) : FPS_DEFAULT,
+             props.containsKey("start") ? Integer.parseInt(props.get("start")) : -1,
+             props.containsKey("threads") ? Integer.parseInt(props.get("threads")) : 0);
+    }
+    private static Map<String, String> getProperties(final Uri uri) {
+        return UriQueryProps.create(uri, ';').getProperties();
+    }
+
+    /**
+     * Creates a decoder for the given stream location, ignoring its URI query properties.
+     * @param uri the stream location, see {@link ImageSequenceMediaPlayer}
+     * @param fps frame rate
+     * @param start first frame number of a numbered file pattern, or -1 to use 0 or 1, whichever exists
+     * @param threads number of decoder threads, or 0 to use the number of processors minus one
+     * @throws IOException if the stream location is not supported, contains no frames or the first frame can't be read
+     */
+    public ImageSequenceDecoder(final Uri uri, final int fps, final int start, final int threads) throws IOException {
+        this(createFrameSource(uri, start), uri.toString(), fps, threads);
+    }
+
+    ImageSequenceDecoder(final FrameSource source, final String location, final int fps, final int threads) throws IOException {
+        this.source = source;
+        this.fps = Math.max(1, fps);
+        this.threads = 0 < threads ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        if( 0 == source.getFrameCount() ) {
+            source.close();
+            throw new IOException("No frames found at "+location);
+        }
+        // Stream size is given by the first frame
+        final int[] size;
+        try {
+            size = readFrameSize(source, 0);
+        } catch (final IOException ioe) {
+            source.close();
+            throw ioe;
+        }
+        width = size[0];
+        height = size[1];
+        decodeAhead = Math.max(2, this.threads * 2);
+        decoder = Executors.newFixedThreadPool(this.threads, new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable r) {
+                final Thread t = new Thread(r, "ImageSequenceDecoder-"+threadNum.getAndIncrement());
+                t.setDaemon(true);
+                return t;
+            }
+        });
+    }
+
+    public final int getWidth() { return width; }
+    public final int getHeight() { return height; }
+    public final int getFPS() { return fps; }
+    public final int getFrameCount() { return source.getFrameCount(); }
+    /** Returns the duration in milliseconds. */
+    public final int getDuration() { return (int) ( (long)source.getFrameCount() * 1000 / fps ); }
+    public final String getCodec() { return source.getCodec(); }
+
+    /** Returns the number of decoder threads. */
+    public final int getDecoderThreads() { return threads; }
+
+    /** Returns the number of frames decoded ahead of the consumed frame. */
+    public final int getDecodeAhead() { return decodeAhead; }
+
+    /** Returns the number of pixel buffers allocated so far, i.e. not taken from the pool. */
+    public final int getAllocatedBufferCount() { return allocatedBuffers.get(); }
+
+    /** Returns the number of pixel buffers available in the pool. */
+    public final int getPooledBufferCount() { return pixelPool.size(); }
+
+    /** Returns the PTS in milliseconds of frame <code>idx</code>. */
+    public final int getFramePTS(final int idx) {
+        return (int) ( (long)idx * 1000 / fps );
+    }
+
+    /** Starts decoding ahead, if not yet running. Implicitly performed by {@link #next()} and {@link #seek(int)}. */
+    public final void prefetch() {
+        final int frameCount = source.getFrameCount();
+        while( pending.size() < decodeAhead && nextSubmit < frameCount ) {
+            final DecodeTask task = new DecodeTask(nextSubmit++);
+            task.future = decoder.submit(task);
+            pending.addLast(task);
+        }
+    }
+
+    /**
+     * Drops all frames decoded ahead and continues decoding at the frame of the given PTS,
+     * clipped to the sequence.
+     * @return the PTS of the frame returned by the following {@link #next()}
+     */
+    public final int seek(final int msec) {
+        final int idx = Math.max(0, Math.min(source.getFrameCount() - 1, (int) ( (long)msec * fps / 1000 )));
+        cancelPending();
+        nextSubmit = idx;
+        prefetch();
+        return getFramePTS(idx);
+    }
+
+    /**
+     * Waits for and returns the next decoded frame, which shall be {@link #release(Frame) released} after use.
+     * @return the next frame or null at the end of the sequence
+     * @throws IOException if decoding the frame failed
+     */
+    public final Frame next() throws InterruptedException, IOException {
+        prefetch();
+        final DecodeTask task = pending.pollFirst();
+        if( null == task ) {
+            return null;
+        }
+        final Frame frame;
+        try {
+            frame = task.future.get();
+        } catch (final ExecutionException e) {
+            throw new IOException("Decoding frame "+task.index+" failed", e.getCause());
+        }
+        prefetch();
+        return frame;
+    }
+
+    /** Returns the pixel buffer of the given consumed frame to the pool. */
+    public final void release(final Frame frame) {
+        pixelPool.offer(frame.pixels);
+    }
+
+    /** Stops decoding and releases all resources. */
+    public final void destroy() {
+        if( null != decoder ) {
+            cancelPending();
+            decoder.shutdownNow();
+            decoder = null;
+        }
+        pixelPool.clear();
+        source.close();
+    }
+
+    private void cancelPending() {
+        DecodeTask task;
+        while( null != ( task = pending.pollFirst() ) ) {
+            task.cancel();
+        }
+    }
+
+    private ByteBuffer acquirePixels() {
+        final ByteBuffer bb = pixelPool.poll();
+        if( null != bb ) {
+            bb.clear();
+            return bb;
+        }
+        allocatedBuffers.incrementAndGet();
+        return Buffers.newDirectByteBuffer(width * height * 4);
+    }
+
+    /** Decodes frame <code>idx</code> into a pooled RGBA buffer in OpenGL orientation. Runs on the decoder threads. */
+    private Frame decodeFrame(final int idx) throws IOException {
+        final InputStream in = new BufferedInputStream(source.open(idx));
+        try {
+            in.mark(2);
+            final int b0 = in.read(), b1 = in.read();
+            in.reset();
+            final ByteBuffer pixels = acquirePixels();
+            boolean decoded = false;
+            try {
+                if( 0x89 == b0 && 'P' == b1 ) {
+                    final PNGPixelRect image;
+                    try {
+                        image = PNGPixelRect.read(in, PixelFormat.RGBA8888, pixels, width * 4 /* destMinStrideInBytes */, true /* destIsGLOriented */);
+                    } catch (final IndexOutOfBoundsException e) {
+                        throw new IOException("Frame "+idx+": Exceeds stream size "+width+"x"+height, e);
+                    }
+                    checkSize(idx, image.getSize().getWidth(), image.getSize().getHeight());
+                } else if( 0xFF == b0 && 0xD8 == b1 ) {
+                    final JPEGDecoder jpeg = new JPEGDecoder();
+                    jpeg.parse(in);
+                    checkSize(idx, jpeg.getWidth(), jpeg.getHeight());
+                    jpeg.getPixel(pixels, 4, ColorSpace.RGB, true /* glOriented */);
+                    jpeg.clear(null);
+                } else {
+                    throw new IOException("Frame "+idx+": Neither PNG nor JPEG data");
+                }
+                decoded = true;
+            } finally {
+                if( !decoded ) {
+                    pixelPool.offer(pixels); // return the buffer on any failure
+                }
+            }
+            return new Frame(idx, getFramePTS(idx), pixels);
+        } finally {
+            IOUtil.close(in, false);
+        }
+    }
+
+    private void checkSize(final int idx, final int w, final int h) throws IOException {
+        if( w != width || h != height ) {
+            throw new IOException("Frame "+idx+": Size "+w+"x"+h+" != stream size "+width+"x"+height);
+        }
+    }
+
+    /** Returns <code>{ width, height }</code> of frame <code>idx</code>, parsing only the image header. */
+    static int[] readFrameSize(final FrameSource source, final int idx) throws IOException {
+        final InputStream in = source.open(idx);
+        try {
+            final byte[] hdr = new byte[24];
+            int n = 0;
+            while( n < 2 ) {
+                final int r = in.read(hdr, n, hdr.length - n);
+                if( 0 > r ) { break; }
+                n += r;
+            }
+            if( 2 <= n && ( hdr[0] & 0xff ) == 0x89 && hdr[1] == 'P' ) {
+                while( n < 24 ) {
+                    final int r = in.read(hdr, n, 24 - n);
+                    if( 0 > r ) { throw new IOException("Frame "+idx+": Truncated PNG header"); }
+                    n += r;
+                }
+                // signature (8), IHDR length (4), type (4), width (4), height (4)
+                return new int[] { readInt32(hdr, 16), readInt32(hdr, 20) };
+            }
+        } finally {
+            IOUtil.close(in, false);
+        }
+        // JPEG (or unknown, which fails here): decoding the first frame is cheap enough
+        final InputStream in2 = new BufferedInputStream(source.open(idx));
+        try {
+            final JPEGDecoder jpeg = new JPEGDecoder();
+            jpeg.parse(in2);
+            return new int[] { jpeg.getWidth(), jpeg.getHeight() };
+        } finally {
+            IOUtil.close(in2, false);
+        }
+    }
+    private static int readInt32(final byte[] b, final int off) {
+        return ( ( b[off] & 0xff ) << 24 ) | ( ( b[off+1] & 0xff ) << 16 ) | ( ( b[off+2] & 0xff ) << 8 ) | ( b[off+3] & 0xff );
+    }
+
+    private static final Pattern numberPattern = Pattern.compile("%(0?)(\\d*)d");
+
+    static FrameSource createFrameSource(final Uri uri, final int start) throws IOException {
+        final File file = uri.isFileScheme() ? uri.toFile() : null;
+        final String path = null != file ? file.getPath() : uri.path.decode();
+        final String lpath = path.toLowerCase();
+        final boolean isMJPEG = lpath.endsWith(".mjpeg") || lpath.endsWith(".mjpg");
+        if( null == file ) {
+            if( !isMJPEG ) {
+                throw new IOException("Only MJPEG supported for non file URI: "+uri);
+            }
+            final InputStream in = uri.toURL().openStream();
+            try {
+                final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                IOUtil.copyStream2Stream(in, out, -1);
+                return new MJPEGSource(ByteBuffer.wrap(out.toByteArray()));
+            } finally {
+                IOUtil.close(in, false);
+            }
+        }
+        if( isMJPEG ) {
+            final RandomAccessFile raf = new RandomAccessFile(file, "r");
+            try {
+                final FileChannel fc = raf.getChannel();
+                return new MJPEGSource(fc.map(FileChannel.MapMode.READ_ONLY, 0, fc.size()));
+            } finally {
+                IOUtil.close(raf, false);
+            }
+        }
+        if( file.isDirectory() ) {
+            final File[] files = file.listFiles();
+            final ArrayList<File> frames = new ArrayList<File>();
+            if( null != files ) {
+                Arrays.sort(files);
+                for(int i=0; i<files.length; i++) {
+                    final String n = files[i].getName().toLowerCase();
+                    if( files[i].isFile() && ( n.endsWith(".png") || n.endsWith(".jpg") || n.endsWith(".jpeg") ) ) {
+                        frames.add(files[i]);
+                    }
+                }
+            }
+            return new FileListSource(frames.toArray(new File[frames.size()]));
+        }
+        final Matcher m = numberPattern.matcher(path);
+        if( !m.find() ) {
+            throw new IOException("Neither MJPEG, directory nor numbered file pattern: "+uri);
+        }
+        final ArrayList<File> frames = new ArrayList<File>();
+        int i = start;
+        if( 0 > i ) {
+            i = new File(String.format(path, 0)).isFile() ? 0 : 1;
+        }
+        File f;
+        while( ( f = new File(String.format(path, i)) ).isFile() ) {
+            frames.add(f);
+            i++;
+        }
+        return new FileListSource(frames.toArray(new File[frames.size()]));
+    }
+
+    static final class FileListSource implements FrameSource {
+        private final File[] files;
+        FileListSource(final File[] files) {
+            this.files = files;
+        }
+        @Override
+        public int getFrameCount() { return files.length; }
+        @Override
+        public InputStream open(final int idx) throws IOException {
+            return new FileInputStream(files[idx]);
+        }
+        @Override
+        public String getCodec() {
+            return 0 < files.length && files[0].getName().toLowerCase().endsWith(".png") ? "png-seq" : "jpeg-seq";
+        }
+        @Override
+        public void close() { }
+    }
+
+    /** Concatenated JPEG images, indexed by walking the JPEG marker segments. */
+    static final class MJPEGSource implements FrameSource {
+        private final ByteBuffer data;
+        private final int[] offsets;
+        private final int[] lengths;
+
+        MJPEGSource(final ByteBuffer data) throws IOException {
+            this.data = data;
+            final ArrayList<int[]> frames = indexFrames(data);
+            offsets = new int[frames.size()];
+            lengths = new int[frames.size()];
+            for(int i=0; i<offsets.length; i++) {
+                offsets[i] = frames.get(i)[0];
+                lengths[i] = frames.get(i)[1];
+            }
+        }
+        @Override
+        public int getFrameCount() { return offsets.length; }
+        @Override
+        public InputStream open(final int idx) throws IOException {
+            final byte[] frame = new byte[lengths[idx]];
+            final ByteBuffer d = data.duplicate(); // thread safe w/ own position
+            d.position(offsets[idx]);
+            d.get(frame);
+            return new ByteArrayInputStream(frame);
+        }
+        @Override
+        public String getCodec() { return "mjpeg"; }
+        @Override
+        public void close() { }
+    }
+
+    /**
+     * Returns <code>{ offset, length }</code> of each complete JPEG image (SOI .. EOI) within <code>data</code>.
+     * <p>
+     * Marker segments are skipped by their length, so embedded thumbnails don't terminate a frame.
+     * The entropy coded data following each SOS segment is scanned for the next marker,
+     * skipping stuffed <code>0xFF00</code> bytes and restart markers.
+     * A trailing incomplete frame is ignored.
+     * </p>
+     */
+    public static ArrayList<int[]> indexFrames(final ByteBuffer data) {
+        final ArrayList<int[]> frames = new ArrayList<int[]>();
+        final int limit = data.limit();
+        int pos = 0;
+        while( pos + 1 < limit ) {
+            if( 0xFF == ( data.get(pos) & 0xff ) && 0xD8 == ( data.get(pos+1) & 0xff ) ) {
+                final int end = findFrameEnd(data, pos + 2, limit);
+                if( 0 > end ) {
+                    break;
+                }
+                frames.add(new int[] { pos, end - pos });
+                pos = end;
+            } else {
+                pos++;
+            }
+        }
+        return frames;
+    }
+
+    /** Returns the position after the EOI marker of the frame, or -1 if incomplete. */
+    private static int findFrameEnd(final ByteBuffer data, int pos, final int limit) {
+        while( pos + 1 < limit ) {
+            if( 0xFF != ( data.get(pos) & 0xff ) ) {
+                pos++; // garbage, resync to next marker
+                continue;
+            }
+            final int marker = data.get(pos+1) & 0xff;
+            pos += 2;
+            if( 0xFF == marker ) {
+                pos--; // fill byte
+            } else if( 0xD9 == marker ) {
+                return pos; // EOI
+            } else if( 0x01 == marker || ( 0xD0 <= marker && marker <= 0xD7 ) ) {
+                // TEM or RSTn, no length
+            } else {
+                if( pos + 1 >= limit ) {
+                    return -1;
+                }
+                pos += ( ( data.get(pos) & 0xff ) << 8 ) | ( data.get(pos+1) & 0xff );
+                if( 0xDA == marker ) {
+                    // SOS: skip entropy coded data up to the next marker
+                    while( pos + 1 < limit ) {
+                        if( 0xFF == ( data.get(pos) & 0xff ) ) {
+                            final int m = data.get(pos+1) & 0xff;
+                            if( 0x00 == m || ( 0xD0 <= m && m <= 0xD7 ) ) {
+                                pos += 2;
+                                continue;
+                            }
+                            break;
+                        }
+                        pos++;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,171 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package jogamp.opengl.util.av;
+
+import java.io.IOException;
+
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GLException;
+
+import com.jogamp.opengl.util.TimeFrameI;
+import com.jogamp.opengl.util.av.GLMediaPlayer;
+import com.jogamp.opengl.util.texture.Texture;
+import com.jogamp.opengl.util.texture.TextureSequence;
+import com.jogamp.opengl.util.texture.TextureSequence.TextureFrame;
+
+/**
+ * Pure Java {@link GLMediaPlayer} for numbered PNG/JPEG image sequences and MJPEG files,
+ * w/o audio, available on all platforms.
+ * <p>
+ * Supported stream locations:
+ * <ul>
+ *   <li>a numbered file pattern, using <code>%d</code> or <code>%0Nd</code> for the frame number,
+ *       e.g. <code>Uri.valueOf(new File("frames/img_%05d.png"))</code>.
+ *       The sequence starts at frame number 0 or 1, whichever exists, and ends before the first missing number.</li>
+ *   <li>a directory, using all contained <code>png</code> and <code>jpg</code> files in lexicographic order.</li>
+ *   <li>a <code>mjpeg</code> or <code>mjpg</code> file, i.e. concatenated JPEG images.
+ *       Local files are memory mapped, other URIs are read into memory.</li>
+ * </ul>
+ * </p>
+ * <p>
+ * The following URI query properties, separated by <code>;</code>, are supported:
+ * <ul>
+ *   <li><code>fps</code>: frame rate, defaults to {@value ImageSequenceDecoder#FPS_DEFAULT}</li>
+ *   <li><code>start</code>: first frame number of a numbered file pattern</li>
+ *   <li><code>threads</code>: number of decoder threads, defaults to the number of processors minus one</li>
+ * </ul>
+ * </p>
+ * <p>
+ * Frames are decoded into pooled RGBA pixel buffers, already in OpenGL orientation, on a pool of decoder threads
+ * by an {@link ImageSequenceDecoder}. Decoding runs ahead of the uploaded frame by {@link #getDecodeAhead()} frames,
+ * which bounds memory usage.
+ * {@link #getNextTextureImpl(GL, TextureFrame)} merely waits for the next decoded frame and uploads it
+ * into the {@link TextureFrame} of the ring buffer handed over by the <i>StreamWorker</i>.
+ * </p>
+ * <p>
+ * The PTS of frame <code>n</code> is <code>n * 1000 / fps</code>, hence playback is deterministic
+ * and paced by the video SCR. Seeking is frame accurate.
+ * </p>
+ */
+public class ImageSequenceMediaPlayer extends GLMediaPlayerImpl {
+    public static final int FPS_DEFAULT = ImageSequenceDecoder.FPS_DEFAULT;
+
+    private ImageSequenceDecoder decoder = null;
+
+    public ImageSequenceMediaPlayer() {
+        super();
+    }
+
+    /** Always available. */
+    public static final boolean isAvailable() { return true; }
+
+    /** Returns the number of decoder threads, valid after stream initialization. */
+    public final int getDecoderThreads() { return null != decoder ? decoder.getDecoderThreads() : 0; }
+
+    /** Returns the number of frames decoded ahead of the uploaded frame, valid after stream initialization. */
+    public final int getDecodeAhead() { return null != decoder ? decoder.getDecodeAhead() : 0; }
+
+    @Override
+    protected final boolean setPlaySpeedImpl(final float rate) {
+        // No audio, video pacing simply follows the SCR
+        return true;
+    }
+
+    @Override
+    protected final boolean playImpl() {
+        return true;
+    }
+
+    @Override
+    protected final boolean pauseImpl() {
+        return true;
+    }
+
+    @Override
+    protected final int seekImpl(final int msec) {
+        // StreamWorker is paused while seeking
+        return decoder.seek(msec);
+    }
+
+    @Override
+    protected final int getNextTextureImpl(final GL gl, final TextureFrame nextFrame) throws InterruptedException {
+        if( null == nextFrame ) {
+            return TimeFrameI.INVALID_PTS;
+        }
+        final ImageSequenceDecoder.Frame frame;
+        try {
+            frame = decoder.next();
+        } catch (final IOException e) {
+            throw new GLException(e.getMessage(), e);
+        }
+        if( null == frame ) {
+            return TimeFrameI.END_OF_STREAM_PTS;
+        }
+        try {
+            final Texture tex = nextFrame.getTexture();
+            tex.enable(gl);
+            tex.bind(gl);
+            gl.glPixelStorei(GL.GL_UNPACK_ALIGNMENT, 1);
+            gl.glTexSubImage2D(getTextureTarget(), 0, 0, 0, getWidth(), getHeight(),
+                               getTextureFormat(), getTextureType(), frame.pixels);
+            gl.glFinish(); // texture is shared w/ the presenting context
+        } finally {
+            decoder.release(frame);
+        }
+        nextFrame.setPTS(frame.pts);
+        return frame.pts;
+    }
+
+    @Override
+    protected final void destroyImpl(final GL gl) {
+        if( null != decoder ) {
+            decoder.destroy();
+            decoder = null;
+        }
+    }
+
+    @Override
+    protected final void initStreamImpl(final int vid, final int aid) throws Exception {
+        decoder = new ImageSequenceDecoder(getUri());
+        updateAttributes(0 /* fake */, GLMediaPlayer.STREAM_ID_NONE,
+                         decoder.getWidth(), decoder.getHeight(), 0,
+                         0, 0, decoder.getFPS(),
+                         decoder.getFrameCount(), 0, decoder.getDuration(), decoder.getCodec(), null);
+    }
+
+    @Override
+    protected final void initGLImpl(final GL gl) throws IOException, GLException {
+        setIsGLOriented(true);
+        decoder.prefetch();
+    }
+
+    @Override
+    protected final TextureSequence.TextureFrame createTexImage(final GL gl, final int texName) {
+        return new TextureSequence.TextureFrame( createTexImageImpl(gl, texName, getWidth(), getHeight()) );
+    }
+}
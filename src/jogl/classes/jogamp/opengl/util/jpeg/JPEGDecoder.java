@@ -58,13 +58,20 @@ package jogamp.opengl.util.jpeg;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import jogamp.opengl.Debug;
 
 import com.jogamp.common.util.ArrayHashSet;
 import com.jogamp.common.util.Bitstream;
+import com.jogamp.common.util.PropertyAccess;
 import com.jogamp.common.util.VersionNumber;
 import com.jogamp.opengl.util.texture.TextureData;
 import com.jogamp.opengl.util.texture.TextureData.ColorSpace;
@@ -89,6 +96,81 @@ public class JPEGDecoder {
     private static final boolean DEBUG = Debug.debug("JPEGImage");
     private static final boolean DEBUG_IN = false;
 
+    /**
+     * Number of threads used for IDCT and bulk color conversion of larger images,
+     * property <code>jogl.jpeg.threads</code>. Defaults to the number of processors, 1 disables parallel processing.
+     */
+    private static final int THREADS;
+    /** Minimum number of 8x8 blocks (per component) or 64-pixel units (color conversion) to use {@link #THREADS} */
+    private static final int PARALLEL_MIN_BLOCKS = 1024;
+
+    static {
+        Debug.initSingleton();
+        final int t = PropertyAccess.getIntProperty("jogl.jpeg.threads", true, 0);
+        THREADS = 0 < t ? t : Runtime.getRuntime().availableProcessors();
+    }
+    private static ExecutorService workers = null;
+
+    private static synchronized ExecutorService getWorkers() {
+        if( null == workers ) {
+            workers = Executors.newFixedThreadPool(THREADS - 1, new ThreadFactory() {
+                private int num = 0;
+                @Override
+                public Thread newThread(final Runnable r) {
+                    final Thread t = new Thread(r, "JPEGDecoder-Worker-"+(num++));
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+        }
+        return workers;
+    }
+
+    /** Work on a range of independent rows. */
+    static interface RowRangeTask {
+        void run(int rowStart, int rowEnd);
+    }
+
+    /**
+     * Runs <code>task</code> over <code>[0..rowCount)</code>, split in ranges being processed concurrently
+     * if <code>units</code> &ge; {@link #PARALLEL_MIN_BLOCKS} and more than one thread is available.
+     * The calling thread processes the last range itself.
+     */
+    static void runRows(final int rowCount, final int units, final RowRangeTask task) {
+        final int threads = Math.min(THREADS, rowCount);
+        if( 1 >= threads || PARALLEL_MIN_BLOCKS > units ) {
+            task.run(0, rowCount);
+            return;
+        }
+        final ExecutorService pool = getWorkers();
+        final int rowsPerTask = ( rowCount + threads - 1 ) / threads;
+        final ArrayList<Future<?>> futures = new ArrayList<Future<?>>(threads);
+        int rowStart = 0;
+        for(; rowStart + rowsPerTask < rowCount; rowStart += rowsPerTask) {
+            final int s = rowStart, e = rowStart + rowsPerTask;
+            futures.add(pool.submit(new Runnable() {
+                @Override
+                public void run() {
+                    task.run(s, e);
+                }
+            }));
+        }
+        task.run(rowStart, rowCount);
+        for(int i=0; i<futures.size(); i++) {
+            try {
+                futures.get(i).get();
+            } catch (final InterruptedException e) {
+                throw new CodecException("Interrupted", e);
+            } catch (final ExecutionException e) {
+                final Throwable c = e.getCause();
+                if( c instanceof RuntimeException ) {
+                    throw (RuntimeException)c;
+                }
+                throw new CodecException("Worker failed", c);
+            }
+        }
+    }
+
     /** Allows user to hook a {@link ColorSink} to another toolkit to produce {@link TextureData}. */
     public static interface ColorSink {
         /**
@@ -203,6 +285,9 @@ public class JPEGDecoder {
         CodecException(final String message) {
             super(message);
         }
+        CodecException(final String message, final Throwable cause) {
+            super(message, cause);
+        }
     }
     @SuppressWarnings("serial")
     public static class MarkerException extends CodecException {
@@ -828,38 +913,45 @@ public class JPEGDecoder {
 
     private final Output output = new Output();
     static class Output {
-        private int blocksPerLine;
-        private int blocksPerColumn;
-        private int samplesPerLine;
-
         private ArrayList<byte[]> buildComponentData(final Frame frame, final ComponentIn component) {
-            final ArrayList<byte[]> lines = new ArrayList<byte[]>();
-            blocksPerLine = component.blocksPerLine;
-            blocksPerColumn = component.blocksPerColumn;
-            samplesPerLine = blocksPerLine << 3;
+            final int blocksPerLine = component.blocksPerLine;
+            final int blocksPerColumn = component.blocksPerColumn;
+            final int samplesPerLine = blocksPerLine << 3;
+            final int[] qt = frame.qtt[component.qttIdx];
+            final int lineCount = blocksPerColumn << 3;
+            final ArrayList<byte[]> lines = new ArrayList<byte[]>(lineCount);
+            for (int i = 0; i < lineCount; i++) {
+                lines.add(new byte[samplesPerLine]);
+            }
+            // All coefficients are final at this point, hence block rows are independent.
+            runRows(blocksPerColumn, blocksPerColumn * blocksPerLine, new RowRangeTask() {
+                @Override
+                public void run(final int rowStart, final int rowEnd) {
+                    buildBlockRows(component, qt, lines, rowStart, rowEnd);
+                }
+            });
+            return lines;
+        }
+
+        private static void buildBlockRows(final ComponentIn component, final int[] qt, final ArrayList<byte[]> lines,
+                                           final int blockRowStart, final int blockRowEnd) {
+            final int blocksPerLine = component.blocksPerLine;
             final int[] R = new int[64];
             final byte[] r = new byte[64];
 
-            for (int blockRow = 0; blockRow < blocksPerColumn; blockRow++) {
+            for (int blockRow = blockRowStart; blockRow < blockRowEnd; blockRow++) {
                 final int scanLine = blockRow << 3;
-                // System.err.println("JPG.buildComponentData: row "+blockRow+"/"+blocksPerColumn+" -> scanLine "+scanLine); // JAU
-                for (int i = 0; i < 8; i++) {
-                    lines.add(new byte[samplesPerLine]);
-                }
                 for (int blockCol = 0; blockCol < blocksPerLine; blockCol++) {
-                    // System.err.println("JPG.buildComponentData: col "+blockCol+"/"+blocksPerLine+", comp.qttIdx "+component.qttIdx+", qtt "+frame.qtt[component.qttIdx]); // JAU
-                    quantizeAndInverse(component.getBlock(blockRow, blockCol), r, R, frame.qtt[component.qttIdx]);
+                    quantizeAndInverse(component.getBlock(blockRow, blockCol), r, R, qt);
 
                     final int sample = blockCol << 3;
                     int offset = 0;
                     for (int j = 0; j < 8; j++) {
-                        final byte[] line = lines.get(scanLine + j);
-                        for (int i = 0; i < 8; i++)
-                            line[sample + i] = r[offset++];
+                        System.arraycopy(r, offset, lines.get(scanLine + j), sample, 8);
+                        offset += 8;
                     }
                 }
             }
-            return lines;
         }
 
         // A port of poppler's IDCT method which in turn is taken from:
@@ -867,7 +959,7 @@ public class JPEGDecoder {
         //   "Practical Fast 1-D DCT Algorithms with 11 Multiplications",
         //   IEEE Intl. Conf. on Acoustics, Speech & Signal Processing, 1989,
         //   988-991.
-        private void quantizeAndInverse(final int[] zz, final byte[] dataOut, final int[] dataIn, final int[] qt) {
+        private static void quantizeAndInverse(final int[] zz, final byte[] dataOut, final int[] dataIn, final int[] qt) {
             int v0, v1, v2, v3, v4, v5, v6, v7, t;
             final int[] p = dataIn;
             int i;
@@ -1510,6 +1602,177 @@ public class JPEGDecoder {
         }
     }
 
+    /** YCbCr -> RGB product tables, bit-identical to the per pixel float expressions used in {@link #getPixel(ColorSink, int, int)}. */
+    private static final float[] CR_R = new float[256];
+    private static final float[] CB_G = new float[256];
+    private static final float[] CR_G = new float[256];
+    private static final float[] CB_B = new float[256];
+    static {
+        for(int i=0; i<256; i++) {
+            CR_R[i] = 1.402f * (i - 128f);
+            CB_G[i] = 0.3441363f * (i - 128f);
+            CR_G[i] = 0.71413636f * (i - 128f);
+            CB_B[i] = 1.772f * (i - 128f);
+        }
+    }
+
+    /**
+     * Bulk variant of {@link #getPixel(ColorSink, int, int)}, storing all pixels of the decoded image
+     * into the given buffer, line by line w/o any virtual call per pixel.
+     * <p>
+     * Pixels are stored tightly packed with <code>destComponents</code> bytes each,
+     * starting at absolute position zero. If <code>destComponents</code> is 4, the 4th component is set to 0xff, i.e. opaque alpha.
+     * The buffer's position and limit are not modified.
+     * </p>
+     * <p>
+     * Lines are converted concurrently for larger images, see property <code>jogl.jpeg.threads</code>.
+     * </p>
+     * @param dest destination buffer of at least {@link #getWidth()} x {@link #getHeight()} x <code>destComponents</code> bytes
+     * @param destComponents 3 or 4
+     * @param storageCS storage color space, either {@link ColorSpace#RGB} or {@link ColorSpace#YCbCr}
+     * @param glOriented if <code>true</code>, the first stored line is the bottom line, as expected by <code>glTexImage2D</code>.
+     */
+    public synchronized void getPixel(final ByteBuffer dest, final int destComponents, final ColorSpace storageCS, final boolean glOriented) {
+        if( 3 != destComponents && 4 != destComponents ) {
+            throw new IllegalArgumentException("Unsupported destComponents "+destComponents);
+        }
+        if( ColorSpace.RGB != storageCS && ColorSpace.YCbCr != storageCS ) {
+            throw new IllegalArgumentException("Unsupported storage color space: "+storageCS);
+        }
+        final int lineBytes = width * destComponents;
+        if( dest.capacity() < lineBytes * height ) {
+            throw new IndexOutOfBoundsException("Dest buffer has insufficient bytes, needs "+(lineBytes * height)+": "+dest);
+        }
+        final int componentCount = this.components.length;
+        final ColorSpace sourceCS = ( null != adobe ) ? adobe.colorSpace : ColorSpace.YCbCr;
+        switch (componentCount) {
+            case 1:
+                break;
+            case 3:
+                if (ColorSpace.YCbCr != sourceCS) {
+                    throw new CodecException("Unsupported source color space w 3 components: "+sourceCS);
+                }
+                break;
+            case 4:
+                if (ColorSpace.YCCK != sourceCS && ColorSpace.CMYK != sourceCS) {
+                    throw new CodecException("Unsupported source color space w 4 components: "+sourceCS);
+                }
+                if (ColorSpace.YCbCr == storageCS && ColorSpace.YCCK != sourceCS) {
+                    throw new CodecException("Unsupported storage color space "+storageCS+" with source color space "+sourceCS);
+                }
+                break;
+            default:
+                throw new CodecException("Unsupported color model: Space "+sourceCS+", components "+componentCount);
+        }
+        // per component sample index for each x
+        final int[][] xIdx = new int[componentCount][width];
+        for(int c=0; c<componentCount; c++) {
+            final float scaleX = components[c].scaleX;
+            final int[] idx = xIdx[c];
+            for (int x = 0; x < width; x++) {
+                idx[x] = (int)(x * scaleX);
+            }
+        }
+        runRows(height, ( width * height ) >>> 6, new RowRangeTask() {
+            @Override
+            public void run(final int rowStart, final int rowEnd) {
+                final ByteBuffer d = dest.duplicate();
+                final byte[] line = new byte[lineBytes];
+                for (int y = rowStart; y < rowEnd; y++) {
+                    convertLine(line, destComponents, y, componentCount, sourceCS, storageCS, xIdx);
+                    d.position( ( glOriented ? height - 1 - y : y ) * lineBytes );
+                    d.put(line, 0, lineBytes);
+                }
+            }
+        });
+    }
+
+    private void convertLine(final byte[] line, final int destComponents, final int y, final int componentCount,
+                             final ColorSpace sourceCS, final ColorSpace storageCS, final int[][] xIdx) {
+        final byte A = (byte)0xff;
+        final boolean hasAlpha = 4 == destComponents;
+        int o = 0;
+        switch (componentCount) {
+        case 1: {
+            final byte[] l1 = components[0].getLine((int)(y * components[0].scaleY));
+            final int[] i1 = xIdx[0];
+            final boolean ycbcr = ColorSpace.YCbCr == storageCS;
+            for (int x = 0; x < width; x++) {
+                final byte Y = l1[i1[x]];
+                line[o++] = Y;
+                line[o++] = ycbcr ? 0 : Y;
+                line[o++] = ycbcr ? 0 : Y;
+                if( hasAlpha ) { line[o++] = A; }
+            }
+        }
+        break;
+        case 3: {
+            final byte[] l1 = components[0].getLine((int)(y * components[0].scaleY));
+            final byte[] l2 = components[1].getLine((int)(y * components[1].scaleY));
+            final byte[] l3 = components[2].getLine((int)(y * components[2].scaleY));
+            final int[] i1 = xIdx[0], i2 = xIdx[1], i3 = xIdx[2];
+            if( ColorSpace.YCbCr == storageCS ) {
+                for (int x = 0; x < width; x++) {
+                    line[o++] = l1[i1[x]];
+                    line[o++] = l2[i2[x]];
+                    line[o++] = l3[i3[x]];
+                    if( hasAlpha ) { line[o++] = A; }
+                }
+            } else {
+                for (int x = 0; x < width; x++) {
+                    final int Y  = 0x000000FF & l1[i1[x]];
+                    final int Cb = 0x000000FF & l2[i2[x]];
+                    final int Cr = 0x000000FF & l3[i3[x]];
+                    line[o++] = clampTo8bit(Y + CR_R[Cr]);
+                    line[o++] = clampTo8bit(Y - CB_G[Cb] - CR_G[Cr]);
+                    line[o++] = clampTo8bit(Y + CB_B[Cb]);
+                    if( hasAlpha ) { line[o++] = A; }
+                }
+            }
+        }
+        break;
+        case 4: {
+            final byte[] l1 = components[0].getLine((int)(y * components[0].scaleY));
+            final byte[] l2 = components[1].getLine((int)(y * components[1].scaleY));
+            final byte[] l3 = components[2].getLine((int)(y * components[2].scaleY));
+            final byte[] l4 = components[3].getLine((int)(y * components[3].scaleY));
+            final int[] i1 = xIdx[0], i2 = xIdx[1], i3 = xIdx[2], i4 = xIdx[3];
+            if( ColorSpace.YCbCr == storageCS ) {
+                // FIXME: YCCK is not really YCbCr, since K (black) is missing!
+                for (int x = 0; x < width; x++) {
+                    line[o++] = l1[i1[x]];
+                    line[o++] = l2[i2[x]];
+                    line[o++] = l3[i3[x]];
+                    if( hasAlpha ) { line[o++] = A; }
+                }
+            } else if (ColorSpace.CMYK == sourceCS) {
+                for (int x = 0; x < width; x++) {
+                    final int cK = 0x000000FF & l4[i4[x]];
+                    line[o++] = clampTo8bit( ( ( 0x000000FF & l1[i1[x]] ) * cK ) / 255f );
+                    line[o++] = clampTo8bit( ( ( 0x000000FF & l2[i2[x]] ) * cK ) / 255f );
+                    line[o++] = clampTo8bit( ( ( 0x000000FF & l3[i3[x]] ) * cK ) / 255f );
+                    if( hasAlpha ) { line[o++] = A; }
+                }
+            } else { // ColorModel.YCCK == sourceCM
+                for (int x = 0; x < width; x++) {
+                    final int Y  = 0x000000FF & l1[i1[x]];
+                    final int Cb = 0x000000FF & l2[i2[x]];
+                    final int Cr = 0x000000FF & l3[i3[x]];
+                    final int cK = 0x000000FF & l4[i4[x]];
+                    final float cC = 255f - ( Y + CR_R[Cr] );
+                    final float cM = 255f - ( Y - CB_G[Cb] - CR_G[Cr] );
+                    final float cY = 255f - ( Y + CB_B[Cb] );
+                    line[o++] = clampTo8bit( ( cC * cK ) / 255f );
+                    line[o++] = clampTo8bit( ( cM * cK ) / 255f );
+                    line[o++] = clampTo8bit( ( cY * cK ) / 255f );
+                    if( hasAlpha ) { line[o++] = A; }
+                }
+            }
+        }
+        break;
+        }
+    }
+
     private static byte clampTo8bit(final float a) {
         return (byte) ( a < 0f ? 0 : a > 255f ? 255 : a );
     }
@@ -0,0 +1,246 @@
+package jogamp.opengl.util.pngj;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Adler32;
+import java.util.zip.Deflater;
+
+/**
+ * Produces a single zlib stream, like a {@link java.util.zip.DeflaterOutputStream}, but deflating
+ * blocks of the (already filtered) data concurrently on a pool of worker threads.
+ * <p>
+ * Each block is compressed as raw deflate data by its own {@link Deflater}, primed with the last 32k
+ * of the preceding block as dictionary, so back references may still cross block boundaries.
+ * All but the last block are terminated with {@link Deflater#SYNC_FLUSH}, which ends on a byte
+ * boundary with a non-final empty stored block, hence the compressed blocks can simply be
+ * concatenated in order. The zlib header and the Adler32 trailer over the whole uncompressed data
+ * are written by this stream.
+ * <p>
+ * The number of blocks in flight is bounded, so memory usage does not grow with the image size.
+ */
+class PngDeflaterParallelOutputStream extends OutputStream {
+	static final int DICT_SIZE = 32768;
+	static final int BLOCK_SIZE_DEFAULT = 128 * 1024;
+
+	private static final AtomicInteger threadNum = new AtomicInteger(0);
+
+	private final OutputStream out;
+	private final int compLevel;
+	private final int deflaterStrategy;
+	private final int blockSize;
+	private final int maxBlocksInFlight;
+	private final ExecutorService executor;
+	private final LinkedList<Future<byte[]>> pending = new LinkedList<Future<byte[]>>();
+	private final Adler32 adler = new Adler32();
+
+	private byte[] block;
+	private int blockLen = 0;
+	private byte[] dict = null;
+	private boolean headerWritten = false;
+	private boolean finished = false;
+	private int blocksWritten = 0;
+
+	/**
+	 * @param out
+	 *            destination, usually the {@link PngIDatChunkOutputStream}
+	 * @param compLevel
+	 *            0 - 9
+	 * @param deflaterStrategy
+	 *            see {@link Deflater#setStrategy(int)}
+	 * @param threads
+	 *            number of worker threads, at least 1
+	 * @param blockSize
+	 *            uncompressed bytes per block, 0 for default (128k). Values below 32k are raised to 32k.
+	 */
+	PngDeflaterParallelOutputStream(final OutputStream out, final int compLevel, final int deflaterStrategy,
+			final int threads, final int blockSize) {
+		this.out = out;
+		this.compLevel = compLevel;
+		this.deflaterStrategy = deflaterStrategy;
+		this.blockSize = blockSize <= 0 ? BLOCK_SIZE_DEFAULT : Math.max(blockSize, DICT_SIZE);
+		this.maxBlocksInFlight = Math.max(threads, 1) * 2;
+		this.block = new byte[this.blockSize];
+		this.executor = Executors.newFixedThreadPool(Math.max(threads, 1), new ThreadFactory() {
+			@Override
+			public Thread newThread(final Runnable r) {
+				final Thread t = new Thread(r, "PngWriter-Deflate-" + threadNum.getAndIncrement());
+				t.setDaemon(true);
+				return t;
+			}
+		});
+	}
+
+	@Override
+	public void write(final int b) throws IOException {
+		write(new byte[] { (byte) b }, 0, 1);
+	}
+
+	@Override
+	public void write(final byte[] b, int off, int len) throws IOException {
+		if (finished)
+			throw new IOException("stream already finished");
+		adler.update(b, off, len);
+		try {
+			while (len > 0) {
+				final int n = Math.min(len, blockSize - blockLen);
+				System.arraycopy(b, off, block, blockLen, n);
+				blockLen += n;
+				off += n;
+				len -= n;
+				if (blockLen == blockSize)
+					submitBlock(false);
+			}
+		} catch (final IOException e) {
+			abort();
+			throw e;
+		} catch (final RuntimeException e) {
+			abort();
+			throw e;
+		}
+	}
+
+	/**
+	 * Compresses the remaining data, writes all pending blocks and the zlib trailer, and shuts down
+	 * the worker threads. Does not close the underlying stream.
+	 */
+	public void finish() throws IOException {
+		if (finished)
+			return;
+		try {
+			submitBlock(true);
+			while (!pending.isEmpty())
+				writeFirstPending();
+			final long a = adler.getValue();
+			out.write(new byte[] { (byte) (a >>> 24), (byte) (a >>> 16), (byte) (a >>> 8), (byte) a });
+		} finally {
+			finished = true;
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Discards all pending blocks and shuts down the worker threads, w/o writing the zlib trailer.
+	 * Does not close the underlying stream. Called on write failures, further writes fail.
+	 */
+	public void abort() {
+		finished = true;
+		for (final Future<byte[]> f : pending)
+			f.cancel(true);
+		pending.clear();
+		executor.shutdownNow();
+	}
+
+	@Override
+	public void close() throws IOException {
+		finish();
+		out.close();
+	}
+
+	/** number of compressed blocks written so far */
+	int getBlocksWritten() {
+		return blocksWritten;
+	}
+
+	private void writeHeader() throws IOException {
+		// CMF: deflate, 32k window. FLG: level hint, FCHECK s.t. (CMF*256 + FLG) % 31 == 0, no dictionary
+		final int flg;
+		if (compLevel <= 1)
+			flg = 0x01;
+		else if (compLevel <= 5)
+			flg = 0x5E;
+		else if (compLevel == 6)
+			flg = 0x9C;
+		else
+			flg = 0xDA;
+		out.write(new byte[] { 0x78, (byte) flg });
+		headerWritten = true;
+	}
+
+	private void submitBlock(final boolean last) throws IOException {
+		if (!headerWritten)
+			writeHeader();
+		final byte[] data = block;
+		final int len = blockLen;
+		final byte[] blockDict = dict;
+		if (!last) {
+			// blockSize >= DICT_SIZE, so the next dictionary is the tail of this block
+			dict = new byte[DICT_SIZE];
+			System.arraycopy(data, len - DICT_SIZE, dict, 0, DICT_SIZE);
+			block = new byte[blockSize];
+		}
+		blockLen = 0;
+		pending.add(executor.submit(new Callable<byte[]>() {
+			@Override
+			public byte[] call() {
+				return deflateBlock(data, len, blockDict, last, compLevel, deflaterStrategy);
+			}
+		}));
+		while (pending.size() > maxBlocksInFlight)
+			writeFirstPending();
+	}
+
+	private void writeFirstPending() throws IOException {
+		final Future<byte[]> f = pending.removeFirst();
+		final byte[] compressed;
+		try {
+			compressed = f.get();
+		} catch (final InterruptedException e) {
+			throw new IOException(e);
+		} catch (final ExecutionException e) {
+			throw new IOException(e.getCause());
+		}
+		out.write(compressed);
+		blocksWritten++;
+	}
+
+	static byte[] deflateBlock(final byte[] data, final int len, final byte[] dict, final boolean last,
+			final int compLevel, final int deflaterStrategy) {
+		final Deflater def = new Deflater(compLevel, true); // raw deflate, no zlib wrapper
+		try {
+			byte[] buf = new byte[len / 2 + 64];
+			int pos = 0;
+			// The strategy is applied lazily by the next deflate call via deflateParams() only,
+			// which would also drop a dictionary set before. Apply it first, w/o any input.
+			def.setStrategy(deflaterStrategy);
+			pos += def.deflate(buf, 0, buf.length, Deflater.NO_FLUSH);
+			if (dict != null)
+				def.setDictionary(dict);
+			def.setInput(data, 0, len);
+			if (last) {
+				def.finish();
+				while (!def.finished()) {
+					if (pos == buf.length)
+						buf = grow(buf);
+					pos += def.deflate(buf, pos, buf.length - pos);
+				}
+			} else {
+				while (true) {
+					if (pos == buf.length)
+						buf = grow(buf);
+					pos += def.deflate(buf, pos, buf.length - pos, Deflater.SYNC_FLUSH);
+					if (pos < buf.length && def.needsInput())
+						break; // all input consumed and flushed
+				}
+			}
+			final byte[] res = new byte[pos];
+			System.arraycopy(buf, 0, res, 0, pos);
+			return res;
+		} finally {
+			def.end();
+		}
+	}
+
+	private static byte[] grow(final byte[] buf) {
+		final byte[] nbuf = new byte[buf.length * 2];
+		System.arraycopy(buf, 0, nbuf, 0, buf.length);
+		return nbuf;
+	}
+}
@@ -57,7 +57,11 @@ public class PngWriter {
 
 	private PngIDatChunkOutputStream datStream;
 
-	private DeflaterOutputStream datStreamDeflated;
+	private OutputStream datStreamDeflated; // DeflaterOutputStream or PngDeflaterParallelOutputStream
+
+	private int parallelDeflateThreads = 0; // 0 or 1: single DeflaterOutputStream
+
+	private int parallelDeflateBlockSize = 0; // 0=use default (PngDeflaterParallelOutputStream 128k)
 
 	/**
 	 * Deflate algortithm compression strategy
@@ -111,9 +115,14 @@ public class PngWriter {
 
 	private void init() {
 		datStream = new PngIDatChunkOutputStream(this.os, idatMaxSize);
-		final Deflater def = new Deflater(compLevel);
-		def.setStrategy(deflaterStrategy);
-		datStreamDeflated = new DeflaterOutputStream(datStream, def);
+		if (parallelDeflateThreads > 1) {
+			datStreamDeflated = new PngDeflaterParallelOutputStream(datStream, compLevel, deflaterStrategy,
+					parallelDeflateThreads, parallelDeflateBlockSize);
+		} else {
+			final Deflater def = new Deflater(compLevel);
+			def.setStrategy(deflaterStrategy);
+			datStreamDeflated = new DeflaterOutputStream(datStream, def);
+		}
 		writeSignatureAndIHDR();
 		writeFirstChunks();
 	}
@@ -474,7 +483,10 @@ public class PngWriter {
 		if (rowNum != imgInfo.rows - 1)
 			throw new PngjOutputException("all rows have not been written");
 		try {
-			datStreamDeflated.finish();
+			if (datStreamDeflated instanceof PngDeflaterParallelOutputStream)
+				((PngDeflaterParallelOutputStream) datStreamDeflated).finish();
+			else
+				((DeflaterOutputStream) datStreamDeflated).finish();
 			datStream.flush();
 			writeLastChunks();
 			writeEndChunk();
@@ -485,6 +497,26 @@ public class PngWriter {
 		}
 	}
 
+	/**
+	 * Releases the resources w/o finishing the image, e.g. after a failed write or when abandoning
+	 * the image before {@link #end()}. Stops the worker threads of the
+	 * {@link #setParallelDeflate(int, int) parallel deflate} mode and closes the stream if
+	 * {@link #setShouldCloseStream(boolean)}. Does nothing after a successful {@link #end()}.
+	 */
+	public void abort() {
+		if (currentChunkGroup >= ChunksList.CHUNK_GROUP_6_END)
+			return;
+		if (datStreamDeflated instanceof PngDeflaterParallelOutputStream)
+			((PngDeflaterParallelOutputStream) datStreamDeflated).abort();
+		if (shouldCloseStream) {
+			try {
+				os.close();
+			} catch (final IOException e) {
+				// ignore, aborting anyway
+			}
+		}
+	}
+
 	/**
 	 * returns the chunks list (queued and writen chunks)
 	 */
@@ -550,6 +582,27 @@ public class PngWriter {
 		this.idatMaxSize = idatMaxSize;
 	}
 
+	/**
+	 * Enables parallel compression of the IDAT stream.
+	 * <p>
+	 * Rows are still filtered in order, but the filtered data is split in blocks which are deflated
+	 * concurrently, see {@link PngDeflaterParallelOutputStream}. The result is a single valid zlib
+	 * stream, usually only marginally larger than the sequential one.
+	 * <p>
+	 * This must be called just after constructor, before starting writing.
+	 *
+	 * @param threads
+	 *            number of deflate threads, 0 or 1 disables parallel mode (default)
+	 * @param blockSize
+	 *            uncompressed bytes per block, 0 for default (128K)
+	 */
+	public void setParallelDeflate(final int threads, final int blockSize) {
+		if (datStream != null)
+			throw new PngjOutputException("parallel deflate must be set before writing rows");
+		this.parallelDeflateThreads = threads;
+		this.parallelDeflateBlockSize = blockSize;
+	}
+
 	/**
 	 * if true, input stream will be closed after ending write
 	 * <p>
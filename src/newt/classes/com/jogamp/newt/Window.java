@@ -37,7 +37,9 @@ import com.jogamp.newt.event.WindowListener;
 import com.jogamp.newt.event.KeyListener;
 import com.jogamp.newt.event.KeyEvent;
 import com.jogamp.newt.event.InputEvent;
+import com.jogamp.newt.event.MouseEvent;
 import com.jogamp.newt.event.MouseListener;
+import com.jogamp.newt.util.InputLatencyMonitor;
 
 import jogamp.newt.Debug;
 import jogamp.newt.WindowImpl;
@@ -1199,6 +1201,40 @@ public interface Window extends NativeWindow, WindowClosingProtocol, ScalableSur
      */
     MouseListener[] getMouseListeners();
 
+    /**
+     * Enable or disable batched pointer input. Default is disabled.
+     * <p>
+     * If enabled, consecutive {@link MouseEvent#EVENT_MOUSE_MOVED moved} or {@link MouseEvent#EVENT_MOUSE_DRAGGED dragged}
+     * samples of the same pointers, arriving before their pending event has been dispatched,
+     * are coalesced into one {@link MouseEvent}. The latter carries the latest sample as its current position
+     * and the former samples as {@link MouseEvent#getHistorySize() historical samples}.
+     * Any other event sent for this window ends the coalescing, i.e. the event order is preserved.
+     * </p>
+     * <p>
+     * Hence {@link MouseListener}s are called once per dispatch instead of once per sample,
+     * reducing the load on the event dispatch thread w/ high frequency pointing devices.
+     * The historical sample storage is recycled.
+     * </p>
+     */
+    void setPointerBatchingEnabled(boolean enable);
+
+    /** Returns true if batched pointer input is enabled, see {@link #setPointerBatchingEnabled(boolean)}. */
+    boolean isPointerBatchingEnabled();
+
+    /**
+     * Sets the {@link InputLatencyMonitor} measuring the latency of this window's {@link InputEvent}s,
+     * from their native timestamp until the end of the next buffer swap. Default is none.
+     * <p>
+     * {@link com.jogamp.newt.opengl.GLWindow} signals its buffer swaps to the monitor,
+     * otherwise the renderer shall call {@link InputLatencyMonitor#frameSwapped()}.
+     * </p>
+     * @param monitor the monitor, or null to disable the measurement
+     */
+    void setInputLatencyMonitor(InputLatencyMonitor monitor);
+
+    /** Returns the {@link InputLatencyMonitor}, or null if none is set, see {@link #setInputLatencyMonitor(InputLatencyMonitor)}. */
+    InputLatencyMonitor getInputLatencyMonitor();
+
     /** Enable or disable default {@link GestureHandler}. Default is enabled. */
     void setDefaultGesturesEnabled(boolean enable);
     /** Return true if default {@link GestureHandler} are enabled. */
@@ -207,6 +207,7 @@ public class MouseEvent extends InputEvent
         this.rotationXYZ = rotationXYZ;
         this.rotationScale = rotationScale;
         this.pointerType = constMousePointerTypes;
+        this.history = null;
     }
 
     /**
@@ -238,6 +239,24 @@ public class MouseEvent extends InputEvent
                       final PointerType pointerType[], final short[] pointerID,
                       final int[] x, final int[] y, final float[] pressure, final float maxPressure,
                       final short button, final short clickCount, final float[] rotationXYZ, final float rotationScale)
+    {
+        this(eventType, source, when, modifiers, pointerType, pointerID, x, y, pressure, maxPressure,
+             button, clickCount, rotationXYZ, rotationScale, null);
+    }
+
+    /**
+     * Constructor for a batched multiple-pointer event w/ historical samples.
+     * <p>
+     * See {@link #MouseEvent(short, Object, long, int, PointerType[], short[], int[], int[], float[], float, short, short, float[], float)}
+     * and {@link #getHistorySize()}.
+     * </p>
+     * @param history the coalesced samples, the last sample shall equal the given current one. May be <code>null</code>.
+     */
+    public MouseEvent(final short eventType, final Object source, final long when, final int modifiers,
+                      final PointerType pointerType[], final short[] pointerID,
+                      final int[] x, final int[] y, final float[] pressure, final float maxPressure,
+                      final short button, final short clickCount, final float[] rotationXYZ, final float rotationScale,
+                      final History history)
     {
         super(eventType, source, when, modifiers);
         this.x = x;
@@ -260,11 +279,161 @@ public class MouseEvent extends InputEvent
         this.rotationXYZ = rotationXYZ;
         this.rotationScale = rotationScale;
         this.pointerType = pointerType;
+        if( null != history && history.getPointerCount() != pointerCount ) {
+            throw new IllegalArgumentException("History pointer count "+history.getPointerCount()+" != "+pointerCount);
+        }
+        this.history = history;
     }
 
     public final MouseEvent createVariant(final short newEventType) {
         return new MouseEvent(newEventType, source, getWhen(), getModifiers(), pointerType, pointerID,
-                              x, y, pressure, maxPressure, button, clickCount, rotationXYZ, rotationScale);
+                              x, y, pressure, maxPressure, button, clickCount, rotationXYZ, rotationScale, history);
+    }
+
+    /**
+     * Pointer samples coalesced into one batched {@link MouseEvent},
+     * stored in primitive arrays w/o per sample allocation.
+     * <p>
+     * Instances are recycled by the event producer after dispatching the event,
+     * see {@link MouseEvent#getHistorySize()}.
+     * </p>
+     */
+    public static final class History {
+        private int pointerCount;
+        private int size;
+        private long[] when;
+        private int[] x;
+        private int[] y;
+        private float[] pressure;
+
+        /**
+         * @param pointerCount number of pointers per sample
+         * @param capacity initial number of samples
+         */
+        public History(final int pointerCount, final int capacity) {
+            this.pointerCount = pointerCount;
+            this.size = 0;
+            final int cap = Math.max(1, capacity);
+            when = new long[cap];
+            x = new int[cap*pointerCount];
+            y = new int[cap*pointerCount];
+            pressure = new float[cap*pointerCount];
+        }
+
+        /** Removes all samples and sets the number of pointers per sample, keeping the storage if sufficient. */
+        public final void reset(final int pointerCount) {
+            if( this.pointerCount != pointerCount ) {
+                this.pointerCount = pointerCount;
+                x = new int[when.length*pointerCount];
+                y = new int[when.length*pointerCount];
+                pressure = new float[when.length*pointerCount];
+            }
+            size = 0;
+        }
+
+        /**
+         * Appends one sample, the pointer arrays are copied.
+         * @throws IllegalArgumentException if the pointer arrays don't match {@link #getPointerCount()}
+         */
+        public final void add(final long when, final int[] x, final int[] y, final float[] pressure) throws IllegalArgumentException {
+            if( pointerCount != x.length || pointerCount != y.length || pointerCount != pressure.length ) {
+                throw new IllegalArgumentException("Pointer arrays must be of size "+pointerCount);
+            }
+            if( size == this.when.length ) {
+                final int cap = size * 2;
+                this.when = Arrays.copyOf(this.when, cap);
+                this.x = Arrays.copyOf(this.x, cap*pointerCount);
+                this.y = Arrays.copyOf(this.y, cap*pointerCount);
+                this.pressure = Arrays.copyOf(this.pressure, cap*pointerCount);
+            }
+            this.when[size] = when;
+            final int o = size*pointerCount;
+            System.arraycopy(x, 0, this.x, o, pointerCount);
+            System.arraycopy(y, 0, this.y, o, pointerCount);
+            System.arraycopy(pressure, 0, this.pressure, o, pointerCount);
+            size++;
+        }
+
+        /** Returns the number of samples, incl. the current one. */
+        public final int size() { return size; }
+        public final int getPointerCount() { return pointerCount; }
+        public final long getWhen(final int pos) { return when[pos]; }
+        public final int getX(final int index, final int pos) { return x[pos*pointerCount+index]; }
+        public final int getY(final int index, final int pos) { return y[pos*pointerCount+index]; }
+        public final float getPressure(final int index, final int pos) { return pressure[pos*pointerCount+index]; }
+
+        /** Copies the x, y and pressure values of sample <code>pos</code> into the given arrays. */
+        public final void get(final int pos, final int[] x, final int[] y, final float[] pressure) {
+            final int o = pos*pointerCount;
+            System.arraycopy(this.x, o, x, 0, pointerCount);
+            System.arraycopy(this.y, o, y, 0, pointerCount);
+            System.arraycopy(this.pressure, o, pressure, 0, pointerCount);
+        }
+    }
+
+    /**
+     * Returns the number of historical samples of this batched event, preceding the current sample, or zero if none.
+     * <p>
+     * Consecutive {@link #EVENT_MOUSE_MOVED moved} or {@link #EVENT_MOUSE_DRAGGED dragged} samples
+     * are coalesced into one event if pointer batching is enabled via
+     * {@link com.jogamp.newt.Window#setPointerBatchingEnabled(boolean)}.
+     * The current sample is reflected by {@link #getX(int)}, {@link #getY(int)} and {@link #getPressure(int, boolean)},
+     * the historical samples are ordered from oldest at position <code>0</code> to newest.
+     * </p>
+     * <p>
+     * The historical samples are recycled after the event is dispatched,
+     * hence they shall only be queried within the listener callback.
+     * </p>
+     */
+    public final int getHistorySize() {
+        return null != history ? Math.max(0, history.size() - 1) : 0;
+    }
+
+    /**
+     * Returns the time of the historical sample at position <code>pos</code> within [0 .. {@link #getHistorySize()}-1].
+     */
+    public final long getHistoricalWhen(final int pos) {
+        return history.getWhen(pos);
+    }
+
+    /**
+     * Returns the X-axis of pointer-index 0 of the historical sample at position <code>pos</code> within [0 .. {@link #getHistorySize()}-1].
+     */
+    public final int getHistoricalX(final int pos) {
+        return history.getX(0, pos);
+    }
+
+    /**
+     * Returns the Y-axis of pointer-index 0 of the historical sample at position <code>pos</code> within [0 .. {@link #getHistorySize()}-1].
+     */
+    public final int getHistoricalY(final int pos) {
+        return history.getY(0, pos);
+    }
+
+    /**
+     * @param index pointer-index within [0 .. {@link #getPointerCount()}-1]
+     * @param pos historical sample position within [0 .. {@link #getHistorySize()}-1]
+     */
+    public final int getHistoricalX(final int index, final int pos) {
+        return history.getX(index, pos);
+    }
+
+    /**
+     * @param index pointer-index within [0 .. {@link #getPointerCount()}-1]
+     * @param pos historical sample position within [0 .. {@link #getHistorySize()}-1]
+     */
+    public final int getHistoricalY(final int index, final int pos) {
+        return history.getY(index, pos);
+    }
+
+    /**
+     * @param index pointer-index within [0 .. {@link #getPointerCount()}-1]
+     * @param pos historical sample position within [0 .. {@link #getHistorySize()}-1]
+     * @param normalized if true, method returns the normalized pressure, i.e. <code>pressure / maxPressure</code>
+     */
+    public final float getHistoricalPressure(final int index, final int pos, final boolean normalized) {
+        final float p = history.getPressure(index, pos);
+        return normalized ? p / maxPressure : p;
     }
 
     /**
@@ -524,6 +693,9 @@ public class MouseEvent extends InputEvent
         .append(", ").append(Arrays.toString(x)).append("/").append(Arrays.toString(y))
         .append(", button ").append(button).append(", count ")
         .append(clickCount).append(", rotation [").append(rotationXYZ[0]).append(", ").append(rotationXYZ[1]).append(", ").append(rotationXYZ[2]).append("] * ").append(rotationScale);
+        if( null != history ) {
+            sb.append(", history ").append(getHistorySize());
+        }
         if(pointerID.length>0) {
             sb.append(", pointer<").append(pointerID.length).append(">[");
             for(int i=0; i<pointerID.length; i++) {
@@ -578,6 +750,8 @@ public class MouseEvent extends InputEvent
     /** Rotation scale */
     private final float rotationScale;
     private final float maxPressure;
+    /** Coalesced samples of a batched event or null */
+    private final History history;
 
     private static final float[] constMousePressure0 = new float[]{0f};
     private static final float[] constMousePressure1 = new float[]{1f};
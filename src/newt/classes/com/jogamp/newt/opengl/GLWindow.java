@@ -91,6 +91,7 @@ import com.jogamp.newt.event.WindowAdapter;
 import com.jogamp.newt.event.WindowEvent;
 import com.jogamp.newt.event.WindowListener;
 import com.jogamp.newt.event.WindowUpdateEvent;
+import com.jogamp.newt.util.InputLatencyMonitor;
 import com.jogamp.opengl.JoglVersion;
 import com.jogamp.opengl.GLStateKeeper;
 
@@ -787,6 +788,12 @@ public class GLWindow extends GLAutoDrawableBase implements GLAutoDrawable, Wind
         } finally {
             lock.unlock();
         }
+        if( done && getAutoSwapBufferMode() ) {
+            final InputLatencyMonitor latencyMonitor = window.getInputLatencyMonitor();
+            if( null != latencyMonitor ) {
+                latencyMonitor.frameSwapped();
+            }
+        }
         if( !done && ( 0 < getSurfaceWidth() && 0 < getSurfaceHeight() ) ) {
             // retry drawable and context creation, will itself issue resize -> display
             setVisible(true);
@@ -815,6 +822,10 @@ public class GLWindow extends GLAutoDrawableBase implements GLAutoDrawable, Wind
     @Override
     public final void swapBuffers() throws GLException {
          defaultSwapBuffers();
+         final InputLatencyMonitor latencyMonitor = window.getInputLatencyMonitor();
+         if( null != latencyMonitor ) {
+             latencyMonitor.frameSwapped();
+         }
     }
 
     //----------------------------------------------------------------------
@@ -933,6 +944,22 @@ public class GLWindow extends GLAutoDrawableBase implements GLAutoDrawable, Wind
         return window.getMouseListeners();
     }
 
+    @Override
+    public void setPointerBatchingEnabled(final boolean enable) {
+        window.setPointerBatchingEnabled(enable);
+    }
+    @Override
+    public boolean isPointerBatchingEnabled() {
+        return window.isPointerBatchingEnabled();
+    }
+    @Override
+    public void setInputLatencyMonitor(final InputLatencyMonitor monitor) {
+        window.setInputLatencyMonitor(monitor);
+    }
+    @Override
+    public InputLatencyMonitor getInputLatencyMonitor() {
+        return window.getInputLatencyMonitor();
+    }
     @Override
     public void setDefaultGesturesEnabled(final boolean enable) {
         window.setDefaultGesturesEnabled(enable);
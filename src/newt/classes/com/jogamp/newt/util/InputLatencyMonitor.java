@@ -0,0 +1,366 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.newt.util;
+
+import java.util.Arrays;
+
+import com.jogamp.newt.Window;
+import com.jogamp.newt.event.InputEvent;
+import com.jogamp.newt.event.NEWTEvent;
+
+/**
+ * Measures the input-to-photon latency of a {@link Window}'s {@link InputEvent}s.
+ * <p>
+ * Each dispatched input event is tagged w/ its enqueue, dispatch and listener completion time,
+ * and is finalized by the next {@link #frameSwapped() buffer swap} showing its result.
+ * The durations of the following stages are collected in allocation free {@link Histogram}s:
+ * <ul>
+ *   <li>{@link #STAGE_QUEUE}: enqueued into the display's event queue until dispatched on the EDT, zero if not queued</li>
+ *   <li>{@link #STAGE_LISTENER}: dispatched until all listeners returned</li>
+ *   <li>{@link #STAGE_SWAP}: listeners returned until the end of the next buffer swap</li>
+ *   <li>{@link #STAGE_TOTAL}: the native {@link NEWTEvent#getWhen() event timestamp} until the end of the next buffer swap.
+ *       Since the native timestamp is given in milliseconds, this stage has millisecond resolution.</li>
+ * </ul>
+ * </p>
+ * <p>
+ * Usage:
+ * <pre>
+ *   final InputLatencyMonitor monitor = new InputLatencyMonitor(64);
+ *   window.setInputLatencyMonitor(monitor);
+ *   ..
+ *   System.err.println(monitor);
+ *   final InputLatencyMonitor.Histogram total = new InputLatencyMonitor.Histogram();
+ *   monitor.getHistogram(InputLatencyMonitor.STAGE_TOTAL, total);
+ *   final long p99 = total.getPercentile(0.99);
+ * </pre>
+ * {@link com.jogamp.newt.opengl.GLWindow} calls {@link #frameSwapped()} after each swap,
+ * other renderer shall call it after their own buffer swap.
+ * </p>
+ * <p>
+ * Input events are dispatched on the EDT while the swap usually happens on the rendering thread,
+ * hence the pending samples and histograms are guarded by this instance.
+ * </p>
+ */
+public class InputLatencyMonitor {
+    /** Stage: enqueued until dispatched */
+    public static final int STAGE_QUEUE = 0;
+    /** Stage: dispatched until the listeners returned */
+    public static final int STAGE_LISTENER = 1;
+    /** Stage: listeners returned until the end of the next buffer swap */
+    public static final int STAGE_SWAP = 2;
+    /** Stage: native event timestamp until the end of the next buffer swap */
+    public static final int STAGE_TOTAL = 3;
+    /** Number of stages */
+    public static final int STAGE_COUNT = 4;
+
+    private static final String[] STAGE_NAMES = { "queue", "listener", "swap", "total" };
+
+    /** Returns the name of the given stage. */
+    public static String getStageName(final int stage) {
+        return STAGE_NAMES[stage];
+    }
+
+    /**
+     * Receives the latency of each input event when the buffer swap showing its result completed.
+     * <p>
+     * Called on the swapping thread while holding the {@link InputLatencyMonitor} lock,
+     * hence implementations shall return quickly and shall not block.
+     * </p>
+     */
+    public static interface Listener {
+        /**
+         * @param monitor the source
+         * @param eventType the {@link NEWTEvent#getEventType() event type}
+         * @param queueNanos {@link #STAGE_QUEUE} duration in nanoseconds
+         * @param listenerNanos {@link #STAGE_LISTENER} duration in nanoseconds
+         * @param swapNanos {@link #STAGE_SWAP} duration in nanoseconds
+         * @param totalNanos {@link #STAGE_TOTAL} duration in nanoseconds
+         */
+        void inputLatency(InputLatencyMonitor monitor, short eventType, long queueNanos, long listenerNanos, long swapNanos, long totalNanos);
+    }
+
+    /**
+     * Allocation free histogram of durations in nanoseconds.
+     * <p>
+     * Durations are bucketed in microseconds w/ four linear sub-buckets per power of two,
+     * i.e. w/ a relative error of at most 25%, covering up to ~67s.
+     * Minimum, maximum and mean are exact.
+     * </p>
+     */
+    public static class Histogram {
+        /** Number of buckets, the last one collects all larger durations. */
+        public static final int BUCKET_COUNT = 100;
+
+        private final long[] counts = new long[BUCKET_COUNT];
+        private long count;
+        private long sum;
+        private long min;
+        private long max;
+
+        public Histogram() {
+            reset();
+        }
+
+        /** Returns the bucket index of the given duration in nanoseconds. */
+        public static int getBucket(final long nanos) {
+            final long us = Math.max(0, nanos / 1000);
+            if( us < 4 ) {
+                return (int)us;
+            }
+            final int msb = 63 - Long.numberOfLeadingZeros(us);
+            final int idx = ( msb - 1 ) * 4 + (int)( ( us >>> ( msb - 2 ) ) & 3 );
+            return Math.min(idx, BUCKET_COUNT - 1);
+        }
+
+        /** Returns the lower bound of the given bucket in nanoseconds. */
+        public static long getBucketLowerBound(final int bucket) {
+            if( bucket < 4 ) {
+                return bucket * 1000L;
+            }
+            final int msb = bucket / 4 + 1;
+            return ( (long)( 4 + bucket % 4 ) << ( msb - 2 ) ) * 1000L;
+        }
+
+        /** Adds one duration in nanoseconds. */
+        public final void record(final long nanos) {
+            counts[getBucket(nanos)]++;
+            count++;
+            sum += nanos;
+            if( nanos < min ) {
+                min = nanos;
+            }
+            if( nanos > max ) {
+                max = nanos;
+            }
+        }
+
+        public final void reset() {
+            Arrays.fill(counts, 0);
+            count = 0;
+            sum = 0;
+            min = Long.MAX_VALUE;
+            max = Long.MIN_VALUE;
+        }
+
+        /** Copies the given histogram into this instance. */
+        public final void set(final Histogram o) {
+            System.arraycopy(o.counts, 0, counts, 0, BUCKET_COUNT);
+            count = o.count;
+            sum = o.sum;
+            min = o.min;
+            max = o.max;
+        }
+
+        /** Adds the given histogram to this instance. */
+        public final void add(final Histogram o) {
+            for(int i=0; i<BUCKET_COUNT; i++) {
+                counts[i] += o.counts[i];
+            }
+            count += o.count;
+            sum += o.sum;
+            min = Math.min(min, o.min);
+            max = Math.max(max, o.max);
+        }
+
+        public final long getCount() { return count; }
+        public final long getBucketCount(final int bucket) { return counts[bucket]; }
+        /** Returns the minimum duration in nanoseconds, or zero if empty. */
+        public final long getMin() { return 0 < count ? min : 0; }
+        /** Returns the maximum duration in nanoseconds, or zero if empty. */
+        public final long getMax() { return 0 < count ? max : 0; }
+        /** Returns the mean duration in nanoseconds, or zero if empty. */
+        public final long getMean() { return 0 < count ? sum / count : 0; }
+
+        /**
+         * Returns the duration in nanoseconds below which the given fraction of samples falls,
+         * i.e. the upper bound of the containing bucket clamped to [{@link #getMin()} .. {@link #getMax()}], or zero if empty.
+         * @param fraction within [0..1], e.g. 0.99 for the 99th percentile
+         */
+        public final long getPercentile(final double fraction) {
+            if( 0 == count ) {
+                return 0;
+            }
+            final long rank = Math.max(1, (long)Math.ceil(fraction * count));
+            long acc = 0;
+            for(int i=0; i<BUCKET_COUNT; i++) {
+                acc += counts[i];
+                if( acc >= rank ) {
+                    final long upper = i < BUCKET_COUNT - 1 ? getBucketLowerBound(i+1) : max;
+                    return Math.max(min, Math.min(max, upper));
+                }
+            }
+            return max;
+        }
+
+        public final StringBuilder toString(StringBuilder sb) {
+            if( null == sb ) {
+                sb = new StringBuilder();
+            }
+            sb.append(String.format("count %d, min %.3f, mean %.3f, p50 %.3f, p90 %.3f, p99 %.3f, max %.3f ms",
+                                    count, getMin()/1e6, getMean()/1e6, getPercentile(0.5)/1e6,
+                                    getPercentile(0.9)/1e6, getPercentile(0.99)/1e6, getMax()/1e6));
+            return sb;
+        }
+
+        @Override
+        public String toString() {
+            return toString(null).toString();
+        }
+    }
+
+    private final Histogram[] histograms = new Histogram[STAGE_COUNT];
+
+    /** Dispatched input events awaiting the next swap */
+    private final short[] pendingType;
+    private final long[] pendingQueue;
+    private final long[] pendingListener;
+    private final long[] pendingListenerEnd;
+    /** Native timestamp until listeners returned, in nanoseconds w/ millisecond resolution */
+    private final long[] pendingSinceWhen;
+    private int pendingCount;
+    private long droppedCount;
+    private volatile Listener listener;
+
+    /**
+     * @param capacity maximum number of input events awaiting the next swap,
+     *        further events are only accounted for the {@link #STAGE_QUEUE} and {@link #STAGE_LISTENER} stage
+     *        and counted as {@link #getDroppedCount() dropped}.
+     */
+    public InputLatencyMonitor(final int capacity) {
+        final int cap = Math.max(1, capacity);
+        for(int i=0; i<STAGE_COUNT; i++) {
+            histograms[i] = new Histogram();
+        }
+        pendingType = new short[cap];
+        pendingQueue = new long[cap];
+        pendingListener = new long[cap];
+        pendingListenerEnd = new long[cap];
+        pendingSinceWhen = new long[cap];
+        pendingCount = 0;
+        droppedCount = 0;
+        listener = null;
+    }
+
+    /** Sets the {@link Listener} receiving each input event's latency, may be null. */
+    public final void setListener(final Listener l) { listener = l; }
+    public final Listener getListener() { return listener; }
+
+    /**
+     * Tags a dispatched input event, called by the NEWT implementation on the EDT after the listeners returned.
+     * @param eventType the {@link NEWTEvent#getEventType() event type}
+     * @param whenMillis the native {@link NEWTEvent#getWhen() event timestamp} in milliseconds
+     * @param queueNanos duration between enqueue and dispatch in nanoseconds, zero if not queued
+     * @param dispatchTime {@link System#nanoTime()} before calling the listeners
+     * @param listenerEndTime {@link System#nanoTime()} after the listeners returned
+     */
+    public final synchronized void eventDispatched(final short eventType, final long whenMillis, final long queueNanos,
+                                                   final long dispatchTime, final long listenerEndTime) {
+        final long listenerNanos = listenerEndTime - dispatchTime;
+        histograms[STAGE_QUEUE].record(queueNanos);
+        histograms[STAGE_LISTENER].record(listenerNanos);
+        if( pendingCount == pendingType.length ) {
+            droppedCount++;
+            return;
+        }
+        final long sinceWhen = Math.max(0, System.currentTimeMillis() - whenMillis) * 1000000L;
+        final int i = pendingCount++;
+        pendingType[i] = eventType;
+        pendingQueue[i] = queueNanos;
+        pendingListener[i] = listenerNanos;
+        pendingListenerEnd[i] = listenerEndTime;
+        pendingSinceWhen[i] = Math.max(sinceWhen, queueNanos + listenerNanos);
+    }
+
+    /**
+     * Finalizes all pending input events w/ the current time as the end of the buffer swap showing their result.
+     * <p>
+     * Shall be called right after the buffer swap, which is performed by {@link com.jogamp.newt.opengl.GLWindow} automatically.
+     * </p>
+     */
+    public final synchronized void frameSwapped() {
+        if( 0 == pendingCount ) {
+            return;
+        }
+        final long now = System.nanoTime();
+        final Listener l = listener;
+        for(int i=0; i<pendingCount; i++) {
+            final long swapNanos = now - pendingListenerEnd[i];
+            final long totalNanos = pendingSinceWhen[i] + swapNanos;
+            histograms[STAGE_SWAP].record(swapNanos);
+            histograms[STAGE_TOTAL].record(totalNanos);
+            if( null != l ) {
+                l.inputLatency(this, pendingType[i], pendingQueue[i], pendingListener[i], swapNanos, totalNanos);
+            }
+        }
+        pendingCount = 0;
+    }
+
+    /** Returns the number of input events awaiting the next swap. */
+    public final synchronized int getPendingCount() { return pendingCount; }
+
+    /** Returns the number of input events not awaiting a swap due to exceeded capacity. */
+    public final synchronized long getDroppedCount() { return droppedCount; }
+
+    /**
+     * Copies the histogram of the given stage into <code>result</code>.
+     * @param stage one of {@link #STAGE_QUEUE}, {@link #STAGE_LISTENER}, {@link #STAGE_SWAP} or {@link #STAGE_TOTAL}
+     * @param result the destination
+     * @return the given <code>result</code>
+     */
+    public final synchronized Histogram getHistogram(final int stage, final Histogram result) {
+        result.set(histograms[stage]);
+        return result;
+    }
+
+    /** Clears all histograms and pending events. */
+    public final synchronized void reset() {
+        for(int i=0; i<STAGE_COUNT; i++) {
+            histograms[i].reset();
+        }
+        pendingCount = 0;
+        droppedCount = 0;
+    }
+
+    public final synchronized StringBuilder toString(StringBuilder sb) {
+        if( null == sb ) {
+            sb = new StringBuilder();
+        }
+        sb.append(String.format("InputLatencyMonitor: pending %d, dropped %d%n", pendingCount, droppedCount));
+        for(int i=0; i<STAGE_COUNT; i++) {
+            sb.append(String.format("  %-8s: ", STAGE_NAMES[i]));
+            histograms[i].toString(sb);
+            sb.append(String.format("%n"));
+        }
+        return sb;
+    }
+
+    @Override
+    public String toString() {
+        return toString(null).toString();
+    }
+}
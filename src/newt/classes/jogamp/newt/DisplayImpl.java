@@ -692,6 +692,27 @@ public abstract class DisplayImpl extends Display {
         }
     }
 
+    /** EDT only: enqueue time of the currently dispatched queued event, see {@link #takeDispatchQueueTime(long)} */
+    private long dispatchEnqueueTime = 0;
+    private boolean dispatchQueued = false;
+
+    /**
+     * Returns the duration in nanoseconds the currently dispatched event spent in the event queue
+     * and clears it, i.e. nested events dispatched directly return zero.
+     * <p>
+     * Shall only be called on the EDT.
+     * </p>
+     * @param dispatchTime {@link System#nanoTime()} of the dispatch
+     * @return the queue duration or zero if the current event was not queued
+     */
+    final long takeDispatchQueueTime(final long dispatchTime) {
+        if( dispatchQueued ) {
+            dispatchQueued = false;
+            return Math.max(0, dispatchTime - dispatchEnqueueTime);
+        }
+        return 0;
+    }
+
     final void dispatchMessage(final NEWTEventTask eventTask) {
         final NEWTEvent event = eventTask.get();
         try {
@@ -701,6 +722,8 @@ public abstract class DisplayImpl extends Display {
                 ExceptionUtils.dumpStack(System.err);
                 return;
             }
+            dispatchEnqueueTime = eventTask.getEnqueueTime();
+            dispatchQueued = true;
             dispatchMessage(event);
         } catch (final RuntimeException re) {
             if( eventTask.isCallerWaiting() ) {
@@ -710,6 +733,7 @@ public abstract class DisplayImpl extends Display {
                 throw re;
             }
         } finally {
+            dispatchQueued = false;
             eventTask.notifyCaller();
         }
     }
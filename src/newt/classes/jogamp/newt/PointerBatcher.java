@@ -0,0 +1,224 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package jogamp.newt;
+
+import java.util.ArrayList;
+
+import com.jogamp.newt.event.MouseEvent;
+import com.jogamp.newt.event.MouseEvent.PointerType;
+import com.jogamp.newt.event.NEWTEvent;
+
+/**
+ * Coalesces consecutive MOVED or DRAGGED pointer samples of one window into batched {@link MouseEvent}s
+ * carrying a {@link MouseEvent.History}, see {@link com.jogamp.newt.Window#setPointerBatchingEnabled(boolean)}.
+ * <p>
+ * The event producer {@link #add(Object, PointerType[], short, long, int, short[], int[], int[], float[], float, short, short, float[], float) adds}
+ * each sample and sends the returned event, if any. The open batch accepts further compatible samples
+ * until its event gets {@link #take(MouseEvent) taken} for dispatch, or until any other event
+ * is {@link #sent(NEWTEvent) sent} for the window, preserving the event order.
+ * Taken batches shall be {@link #recycle(Batch) recycled} after dispatch, reusing their sample buffers.
+ * </p>
+ * <p>
+ * Thread safe, samples are usually added by the native event thread and taken on the EDT.
+ * </p>
+ */
+public class PointerBatcher {
+    /** Upper bound of samples per batch, a new batch is started if exceeded. */
+    public static final int MAX_SAMPLES = 256;
+    /** Number of recycled batches kept. */
+    public static final int POOL_SIZE = 4;
+
+    /** Coalesced MOVED or DRAGGED samples of one batched {@link MouseEvent}. */
+    public static class Batch {
+        private final MouseEvent.History samples = new MouseEvent.History(1, 16);
+        /** Sent event of the first sample */
+        private MouseEvent event;
+        private short eventType;
+        private int modifiers;
+        private short button;
+        private short[] pIDs = new short[1];
+
+        private void set(final short eventType, final int modifiers, final short button, final short[] pIDs) {
+            this.eventType = eventType;
+            this.modifiers = modifiers;
+            this.button = button;
+            if( this.pIDs.length != pIDs.length ) {
+                this.pIDs = new short[pIDs.length];
+            }
+            System.arraycopy(pIDs, 0, this.pIDs, 0, pIDs.length);
+            samples.reset(pIDs.length);
+        }
+
+        private boolean isCompatible(final short eventType, final int modifiers, final short button, final short[] pIDs) {
+            if( this.eventType != eventType || this.modifiers != modifiers || this.button != button || this.pIDs.length != pIDs.length ) {
+                return false;
+            }
+            for(int i=0; i<pIDs.length; i++) {
+                if( this.pIDs[i] != pIDs[i] ) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /** Returns the number of coalesced samples, including the first one. */
+        public final int getSampleCount() { return samples.size(); }
+
+        /**
+         * Returns the event to be dispatched, i.e. the sent event if no samples were merged,
+         * otherwise a variant reflecting the last sample as current and the previous ones as history.
+         */
+        public final MouseEvent createEvent() {
+            final int last = samples.size() - 1;
+            if( 0 >= last ) {
+                return event;
+            }
+            final int pCount = samples.getPointerCount();
+            final int[] x = new int[pCount];
+            final int[] y = new int[pCount];
+            final float[] pressure = new float[pCount];
+            samples.get(last, x, y, pressure);
+            return new MouseEvent(eventType, event.getSource(), samples.getWhen(last), modifiers,
+                                  event.getAllPointerTypes(), event.getAllPointerIDs(), x, y, pressure, event.getMaxPressure(),
+                                  button, event.getClickCount(), event.getRotation(), event.getRotationScale(), samples);
+        }
+    }
+
+    /** Batch accepting further samples, or null */
+    private Batch openBatch = null;
+    /** Sent batches not yet taken, in order */
+    private final ArrayList<Batch> pending = new ArrayList<Batch>();
+    private final ArrayList<Batch> pool = new ArrayList<Batch>();
+
+    /**
+     * Appends the given MOVED or DRAGGED sample to the open batch if compatible,
+     * otherwise opens a new batch and returns its {@link MouseEvent} carrying the {@link MouseEvent.History}.
+     * @return the new batch's event to be sent, or null if the sample has been merged into the open batch.
+     */
+    public final MouseEvent add(final Object source, final PointerType[] pTypes,
+                                final short eventType, final long when, final int modifiers, final short[] pID,
+                                final int[] pX, final int[] pY, final float[] pPressure, final float maxPressure,
+                                final short button, final short clickCount, final float[] rotationXYZ, final float rotationScale)
+    {
+        synchronized( this ) {
+            final Batch open = openBatch;
+            if( null != open && open.samples.size() < MAX_SAMPLES &&
+                open.isCompatible(eventType, modifiers, button, pID) )
+            {
+                open.samples.add(when, pX, pY, pPressure);
+                return null;
+            }
+            final Batch batch = 0 < pool.size() ? pool.remove(pool.size()-1) : new Batch();
+            batch.set(eventType, modifiers, button, pID);
+            batch.samples.add(when, pX, pY, pPressure);
+            batch.event = new MouseEvent(eventType, source, when, modifiers, pTypes, pID,
+                                         pX, pY, pPressure, maxPressure, button, clickCount, rotationXYZ, rotationScale, batch.samples);
+            pending.add(batch);
+            openBatch = batch;
+            return batch.event;
+        }
+    }
+
+    /** Stops merging samples into the open batch, if any. */
+    public final void close() {
+        synchronized( this ) {
+            openBatch = null;
+        }
+    }
+
+    /**
+     * Notifies that the given event is being sent or enqueued for the window,
+     * {@link #close() closing} the open batch unless the event is the open batch's own event.
+     */
+    public final void sent(final NEWTEvent e) {
+        synchronized( this ) {
+            if( null != openBatch && openBatch.event != e ) {
+                openBatch = null;
+            }
+        }
+    }
+
+    /** Returns true if a batch accepts further samples. */
+    public final boolean isOpen() {
+        synchronized( this ) {
+            return null != openBatch;
+        }
+    }
+
+    /**
+     * Removes and returns the pending batch of the given event, or null if not batched.
+     * The returned batch is closed and shall be passed to {@link #recycle(Batch)} after dispatch.
+     */
+    public final Batch take(final MouseEvent e) {
+        synchronized( this ) {
+            for(int i=0; i<pending.size(); i++) {
+                final Batch batch = pending.get(i);
+                if( batch.event == e ) {
+                    pending.remove(i);
+                    if( openBatch == batch ) {
+                        openBatch = null;
+                    }
+                    return batch;
+                }
+            }
+            return null;
+        }
+    }
+
+    /** Returns the given dispatched batch to the pool, invalidating its event's history. */
+    public final void recycle(final Batch batch) {
+        synchronized( this ) {
+            batch.event = null;
+            if( pool.size() < POOL_SIZE ) {
+                pool.add(batch);
+            }
+        }
+    }
+
+    /** Drops all pending batches, e.g. at destruction. */
+    public final void clear() {
+        synchronized( this ) {
+            openBatch = null;
+            pending.clear();
+        }
+    }
+
+    /** Returns the number of sent batches not yet taken. */
+    public final int getPendingCount() {
+        synchronized( this ) {
+            return pending.size();
+        }
+    }
+
+    /** Returns the number of recycled batches available for reuse. */
+    public final int getPooledCount() {
+        synchronized( this ) {
+            return pool.size();
+        }
+    }
+}
@@ -93,6 +93,7 @@ import com.jogamp.newt.event.NEWTEventConsumer;
 import com.jogamp.newt.event.WindowEvent;
 import com.jogamp.newt.event.WindowListener;
 import com.jogamp.newt.event.WindowUpdateEvent;
+import com.jogamp.newt.util.InputLatencyMonitor;
 
 public abstract class WindowImpl implements Window, NEWTEventConsumer
 {
@@ -584,6 +585,10 @@ public abstract class WindowImpl implements Window, NEWTEventConsumer
     }
     private final PointerState1 pState1 = new PointerState1();
 
+    private volatile InputLatencyMonitor inputLatencyMonitor = null;
+    private volatile boolean pointerBatchingEnabled = false;
+    private final PointerBatcher pointerBatcher = new PointerBatcher();
+
     /** Pointer names -> pointer ID (consecutive index, starting w/ 0) */
     private final ArrayHashSet<Short> pName2pID = new ArrayHashSet<Short>(false, ArrayHashSet.DEFAULT_INITIAL_CAPACITY, ArrayHashSet.DEFAULT_LOAD_FACTOR);
 
@@ -1526,6 +1531,7 @@ public abstract class WindowImpl implements Window, NEWTEventConsumer
                 resetStateMask();
                 fullscreenMonitors = null;
                 parentWindowHandle = 0;
+                pointerBatcher.clear();
                 hasPixelScale[0] = ScalableSurface.IDENTITY_PIXELSCALE;
                 hasPixelScale[1] = ScalableSurface.IDENTITY_PIXELSCALE;
                 minPixelScale[0] = ScalableSurface.IDENTITY_PIXELSCALE;
@@ -3398,6 +3404,7 @@ public abstract class WindowImpl implements Window, NEWTEventConsumer
     //
     private void doEvent(final boolean enqueue, boolean wait, final com.jogamp.newt.event.NEWTEvent event) {
         boolean done = false;
+        pointerBatcher.sent(event); // keep order: following samples must not be merged into an earlier event
 
         if(!enqueue) {
             done = consumeEvent(event);
@@ -3411,6 +3418,7 @@ public abstract class WindowImpl implements Window, NEWTEventConsumer
 
     @Override
     public final void enqueueEvent(final boolean wait, final com.jogamp.newt.event.NEWTEvent event) {
+        pointerBatcher.sent(event);
         if(isNativeValid()) {
             ((DisplayImpl)screen.getDisplay()).enqueueEvent(wait, event);
         }
@@ -3453,15 +3461,37 @@ public abstract class WindowImpl implements Window, NEWTEventConsumer
             default:
                 break;
         }
+        final InputLatencyMonitor latencyMonitor = inputLatencyMonitor;
+        final boolean measureLatency = null != latencyMonitor && e instanceof InputEvent;
+        final long dispatchTime, queueTime;
+        if( measureLatency ) {
+            dispatchTime = System.nanoTime();
+            queueTime = ((DisplayImpl) screen.getDisplay()).takeDispatchQueueTime(dispatchTime);
+        } else {
+            dispatchTime = 0;
+            queueTime = 0;
+        }
         if(e instanceof WindowEvent) {
             consumeWindowEvent((WindowEvent)e);
         } else if(e instanceof KeyEvent) {
             consumeKeyEvent((KeyEvent)e);
         } else if(e instanceof MouseEvent) {
-            consumePointerEvent((MouseEvent)e);
+            final PointerBatcher.Batch batch = pointerBatcher.take((MouseEvent)e);
+            if( null != batch ) {
+                try {
+                    consumePointerEvent(batch.createEvent());
+                } finally {
+                    pointerBatcher.recycle(batch);
+                }
+            } else {
+                consumePointerEvent((MouseEvent)e);
+            }
         } else {
             throw new NativeWindowException("Unexpected NEWTEvent type " + e);
         }
+        if( measureLatency ) {
+            latencyMonitor.eventDispatched(e.getEventType(), e.getWhen(), queueTime, dispatchTime, System.nanoTime());
+        }
         return true;
     }
 
@@ -3826,10 +3856,20 @@ public abstract class WindowImpl implements Window, NEWTEventConsumer
                 break;
             case MouseEvent.EVENT_MOUSE_MOVED:
                 if ( 0 != pState1.buttonPressedMask ) { // any button or pointer move -> drag
+                    pState1.dragging = true;
+                    if( pointerBatchingEnabled ) {
+                        doBatchedPointerEvent(enqueue, wait, pTypes, MouseEvent.EVENT_MOUSE_DRAGGED, when, modifiers, pID,
+                                              pX, pY, pPressure, maxPressure, pState1.buttonPressed, (short)1, rotationXYZ, rotationScale);
+                        return;
+                    }
                     e = new MouseEvent(MouseEvent.EVENT_MOUSE_DRAGGED, this, when, modifiers, pTypes, pID,
                                        pX, pY, pPressure, maxPressure, pState1.buttonPressed, (short)1, rotationXYZ, rotationScale);
-                    pState1.dragging = true;
                 } else {
+                    if( pointerBatchingEnabled ) {
+                        doBatchedPointerEvent(enqueue, wait, pTypes, eventType, when, modifiers, pID,
+                                              pX, pY, pPressure, maxPressure, button, (short)0, rotationXYZ, rotationScale);
+                        return;
+                    }
                     e = new MouseEvent(eventType, this, when, modifiers, pTypes, pID,
                                        pX, pY, pPressure, maxPressure, button, (short)0, rotationXYZ, rotationScale);
                 }
@@ -3839,13 +3879,39 @@ public abstract class WindowImpl implements Window, NEWTEventConsumer
                     pPressure[0] = maxPressure;
                 }
                 pState1.dragging = true;
+                if( pointerBatchingEnabled ) {
+                    doBatchedPointerEvent(enqueue, wait, pTypes, eventType, when, modifiers, pID,
+                                          pX, pY, pPressure, maxPressure, button, (short)0, rotationXYZ, rotationScale);
+                    return;
+                }
                 // Fall through intended!
             default:
                 e = new MouseEvent(eventType, this, when, modifiers, pTypes, pID,
                                    pX, pY, pPressure, maxPressure, button, (short)0, rotationXYZ, rotationScale);
         }
 
-        doEvent(enqueue, wait, e); // actual mouse event
+        doEvent(enqueue, wait, e); // actual mouse event, closes the open pointer batch
+    }
+
+    /**
+     * Appends the given MOVED or DRAGGED sample to the open batch if compatible,
+     * otherwise opens a new batch and sends its {@link MouseEvent} carrying the {@link MouseEvent.History}.
+     * <p>
+     * The batch stays open, i.e. accepts further samples, until its event gets consumed
+     * or any other event is sent for this window, see {@link PointerBatcher}.
+     * </p>
+     * @see #setPointerBatchingEnabled(boolean)
+     */
+    private void doBatchedPointerEvent(final boolean enqueue, final boolean wait, final PointerType[] pTypes,
+                                       final short eventType, final long when, final int modifiers, final short[] pID,
+                                       final int[] pX, final int[] pY, final float[] pPressure, final float maxPressure,
+                                       final short button, final short clickCount, final float[] rotationXYZ, final float rotationScale)
+    {
+        final MouseEvent e = pointerBatcher.add(this, pTypes, eventType, when, modifiers, pID,
+                                                pX, pY, pPressure, maxPressure, button, clickCount, rotationXYZ, rotationScale);
+        if( null != e ) {
+            doEvent(enqueue, wait, e);
+        }
     }
 
     private static int step(final int lower, final int edge, final int value) {
@@ -4124,6 +4190,25 @@ public abstract class WindowImpl implements Window, NEWTEventConsumer
         return mouseListeners.toArray(new MouseListener[mouseListeners.size()]);
     }
 
+    @Override
+    public final void setInputLatencyMonitor(final InputLatencyMonitor monitor) {
+        inputLatencyMonitor = monitor;
+    }
+    @Override
+    public final InputLatencyMonitor getInputLatencyMonitor() {
+        return inputLatencyMonitor;
+    }
+    @Override
+    public final void setPointerBatchingEnabled(final boolean enable) {
+        pointerBatchingEnabled = enable;
+        if( !enable ) {
+            pointerBatcher.close();
+        }
+    }
+    @Override
+    public final boolean isPointerBatchingEnabled() {
+        return pointerBatchingEnabled;
+    }
     @Override
     public final void setDefaultGesturesEnabled(final boolean enable) {
         defaultGestureHandlerEnabled = enable;
@@ -4261,6 +4346,7 @@ public abstract class WindowImpl implements Window, NEWTEventConsumer
     }
 
     public void sendKeyEvent(final short eventType, final int modifiers, final short keyCode, final short keySym, final char keyChar) {
+        pointerBatcher.close();
         // Always add currently pressed mouse buttons to modifier mask
         consumeKeyEvent( KeyEvent.create(eventType, this, System.currentTimeMillis(), modifiers | pState1.buttonPressedMask, keyCode, keySym, keyChar) );
     }
@@ -4396,6 +4482,7 @@ public abstract class WindowImpl implements Window, NEWTEventConsumer
     //
     @Override
     public final void sendWindowEvent(final int eventType) {
+        pointerBatcher.close();
         consumeWindowEvent( new WindowEvent((short)eventType, this, System.currentTimeMillis()) );
     }
 
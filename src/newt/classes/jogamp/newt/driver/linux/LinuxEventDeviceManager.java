@@ -0,0 +1,259 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+package jogamp.newt.driver.linux;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.jogamp.common.util.InterruptSource;
+import com.jogamp.newt.Window;
+
+/**
+ * Hotplug manager of Linux input event devices within one directory,
+ * e.g. <code>/dev/input/by-path/</code>.
+ * <p>
+ * A {@link LinuxEventDeviceReader} is started for each existing device file
+ * accepted by the {@link Filter} and for each one created later on.
+ * Device creation and removal is tracked via a {@link WatchService}, i.e. inotify,
+ * hence no polling of the directory is required.
+ * </p>
+ * <p>
+ * Plain files and named pipes are accepted as well,
+ * allowing to test input handling w/o actual devices.
+ * </p>
+ */
+public class LinuxEventDeviceManager implements Runnable {
+
+    public static interface Filter {
+        /** Returns true if the given device file name shall be read. */
+        boolean accept(String name);
+    }
+
+    public static interface ListenerFactory {
+        /**
+         * Returns the {@link LinuxEventDeviceReader.Listener} for a newly added device,
+         * allowing to keep the decoding state per device.
+         */
+        LinuxEventDeviceReader.Listener create(File deviceFile);
+    }
+
+    /** Accepts all file names with the given suffix, e.g. <code>-event-kbd</code>. */
+    public static Filter createSuffixFilter(final String suffix) {
+        return new Filter() {
+            @Override
+            public boolean accept(final String name) {
+                return name.endsWith(suffix);
+            }
+        };
+    }
+
+    /** Accepts all file names <code>eventN</code> with <code>0 &le; N &lt; maxNumber</code>. */
+    public static Filter createEventXFilter(final int maxNumber) {
+        return new Filter() {
+            @Override
+            public boolean accept(final String name) {
+                if( name.startsWith("event") ) {
+                    try {
+                        final int number = Integer.parseInt(name.substring(5));
+                        return number < maxNumber && number >= 0;
+                    } catch (final NumberFormatException nfe) { }
+                }
+                return false;
+            }
+        };
+    }
+
+    private final File rootDir;
+    private final Filter filter;
+    private final ListenerFactory listenerFactory;
+    private final String threadNamePrefix;
+    private final Map<String, LinuxEventDeviceReader> readerMap = new HashMap<String, LinuxEventDeviceReader>();
+    private volatile WatchService watchService = null;
+    private volatile boolean stop = false;
+
+    /**
+     * @param rootDir the directory containing the device files
+     * @param filter the {@link Filter} selecting the device files to read
+     * @param listenerFactory the {@link ListenerFactory} creating the listener of each device
+     * @param threadNamePrefix prefix of the reader thread names
+     */
+    public LinuxEventDeviceManager(final File rootDir, final Filter filter, final ListenerFactory listenerFactory,
+                                   final String threadNamePrefix) {
+        this.rootDir = rootDir;
+        this.filter = filter;
+        this.listenerFactory = listenerFactory;
+        this.threadNamePrefix = threadNamePrefix;
+    }
+
+    public final File getRootDir() { return rootDir; }
+
+    /** Returns the number of currently running {@link LinuxEventDeviceReader}. */
+    public final int getReaderCount() {
+        synchronized( readerMap ) {
+            return readerMap.size();
+        }
+    }
+
+    /** Stops tracking the directory and all running {@link LinuxEventDeviceReader}. */
+    public final void stop() {
+        stop = true;
+        final WatchService ws = watchService;
+        if( null != ws ) {
+            try {
+                ws.close();
+            } catch (final IOException e) { }
+        }
+        synchronized( readerMap ) {
+            for(final LinuxEventDeviceReader reader : readerMap.values()) {
+                reader.stop();
+            }
+            readerMap.clear();
+        }
+    }
+
+    private void startReader(final String name) {
+        if( stop || !filter.accept(name) ) {
+            return;
+        }
+        synchronized( readerMap ) {
+            if( readerMap.containsKey(name) ) {
+                return;
+            }
+            final File file = new File(rootDir, name);
+            if( !file.canRead() ) {
+                // device node w/o permissions yet, retry on attribute change
+                return;
+            }
+            final LinuxEventDeviceReader.Listener listener = listenerFactory.create(file);
+            final LinuxEventDeviceReader reader = new LinuxEventDeviceReader(file, new LinuxEventDeviceReader.Listener() {
+                @Override
+                public void inputEvent(final LinuxEventDeviceReader reader, final long timeSeconds, final long timeMicroseconds,
+                                       final short type, final short code, final int value) {
+                    listener.inputEvent(reader, timeSeconds, timeMicroseconds, type, code, value);
+                }
+                @Override
+                public void stopped(final LinuxEventDeviceReader reader) {
+                    synchronized( readerMap ) {
+                        if( readerMap.get(name) == reader ) {
+                            // clear stopped entry, will restart if device gets re-created
+                            readerMap.remove(name);
+                        }
+                    }
+                    listener.stopped(reader);
+                }
+            });
+            readerMap.put(name, reader);
+            final Thread t = new InterruptSource.Thread(null, reader, threadNamePrefix+name);
+            t.setDaemon(true);
+            t.start();
+        }
+    }
+
+    private void stopReader(final String name) {
+        synchronized( readerMap ) {
+            final LinuxEventDeviceReader reader = readerMap.remove(name);
+            if( null != reader ) {
+                reader.stop();
+            }
+        }
+    }
+
+    private void scan() {
+        final String[] names = rootDir.list();
+        if( null != names ) {
+            for(final String name : names) {
+                startReader(name);
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        final Path rootPath = rootDir.toPath();
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            rootPath.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                                            StandardWatchEventKinds.ENTRY_DELETE,
+                                            StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (final IOException e) {
+            if(Window.DEBUG_KEY_EVENT) {
+                System.err.println("LinuxEventDeviceManager: Hotplug disabled, "+e.getMessage()+" on "+rootDir);
+            }
+        }
+        if(Window.DEBUG_KEY_EVENT) {
+            System.err.println("LinuxEventDeviceManager: Started "+rootDir);
+        }
+        // register before scanning, not to miss any device added in between
+        scan();
+
+        final WatchService ws = watchService;
+        while( !stop && null != ws ) {
+            final WatchKey key;
+            try {
+                key = ws.take();
+            } catch (final InterruptedException e) {
+                break;
+            } catch (final ClosedWatchServiceException e) {
+                break;
+            }
+            for(final WatchEvent<?> event : key.pollEvents()) {
+                final WatchEvent.Kind<?> kind = event.kind();
+                if( StandardWatchEventKinds.OVERFLOW == kind ) {
+                    scan();
+                    continue;
+                }
+                final String name = ((Path)event.context()).getFileName().toString();
+                if( StandardWatchEventKinds.ENTRY_DELETE == kind ) {
+                    if(Window.DEBUG_KEY_EVENT) {
+                        System.err.println("LinuxEventDeviceManager: Removed "+name);
+                    }
+                    stopReader(name);
+                } else {
+                    // ENTRY_CREATE, or ENTRY_MODIFY for permission changes
+                    startReader(name);
+                }
+            }
+            if( !key.reset() ) {
+                break; // directory removed
+            }
+        }
+        if(Window.DEBUG_KEY_EVENT) {
+            System.err.println("LinuxEventDeviceManager: Stopped "+rootDir);
+        }
+    }
+}
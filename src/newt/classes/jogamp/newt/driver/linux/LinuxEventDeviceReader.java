@@ -0,0 +1,200 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+package jogamp.newt.driver.linux;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import com.jogamp.common.os.Platform;
+import com.jogamp.newt.Window;
+
+/**
+ * Batched reader of Linux input event device files, i.e. <code>/dev/input/event*</code>.
+ * <p>
+ * Each read syscall fetches as many <code>struct input_event</code> as available,
+ * up to {@link #BATCH_SIZE}, into a reusable buffer. All complete events are
+ * decoded and passed to the {@link Listener} without allocating any objects,
+ * a partially read event is carried over to the next read.
+ * </p>
+ * <p>
+ * The Linux input event interface, see http://www.kernel.org/doc/Documentation/input/input.txt
+ * <pre>
+ * struct input_event {
+ *  struct timeval time;
+ *  unsigned short type;
+ *  unsigned short code;
+ *  unsigned int value;
+ * };
+ * </pre>
+ * </p>
+ */
+public class LinuxEventDeviceReader implements Runnable {
+    /** Maximum number of <code>struct input_event</code> read per syscall, {@value}. */
+    public static final int BATCH_SIZE = 64;
+
+    /** Size of <code>struct input_event</code> on this platform, 16 bytes on 32bit and 24 bytes on 64bit. */
+    public static final int INPUT_EVENT_STRUCT_SIZE = Platform.is64Bit() ? 24 : 16;
+
+    public static interface Listener {
+        /**
+         * Notification of one decoded <code>struct input_event</code>
+         * on the reader's thread.
+         */
+        void inputEvent(LinuxEventDeviceReader reader, long timeSeconds, long timeMicroseconds, short type, short code, int value);
+
+        /**
+         * Notification that the reader stopped due to EOF, an I/O error
+         * or {@link LinuxEventDeviceReader#stop()}.
+         */
+        void stopped(LinuxEventDeviceReader reader);
+    }
+
+    private final File eventDeviceFile;
+    private final Listener listener;
+    private final byte[] buffer;
+    private final ByteBuffer bb;
+    private volatile boolean stop = false;
+    private long readCount = 0;
+    private long eventCount = 0;
+
+    public LinuxEventDeviceReader(final File eventDeviceFile, final Listener listener) {
+        this.eventDeviceFile = eventDeviceFile;
+        this.listener = listener;
+        this.buffer = new byte[BATCH_SIZE * INPUT_EVENT_STRUCT_SIZE];
+        this.bb = ByteBuffer.wrap(buffer).order(ByteOrder.nativeOrder());
+    }
+
+    public final File getFile() { return eventDeviceFile; }
+
+    /**
+     * Returns true if {@link #stop()} has been requested or the reader terminated,
+     * e.g. due to EOF, removal of the device or an I/O error. Returns false before the reader has been started.
+     */
+    public final boolean isStopped() { return stop; }
+
+    /**
+     * Requests this reader to stop.
+     * <p>
+     * Since reading from the device blocks, the reader stops with the next
+     * read returning, i.e. the next event or removal of the device.
+     * </p>
+     */
+    public final void stop() { stop = true; }
+
+    /** Returns the number of read syscalls so far. */
+    public final long getReadCount() { return readCount; }
+
+    /** Returns the number of decoded events so far. */
+    public final long getEventCount() { return eventCount; }
+
+    @Override
+    public void run() {
+        if(Window.DEBUG_KEY_EVENT) {
+            System.err.println("LinuxEventDeviceReader: Started "+eventDeviceFile);
+        }
+        InputStream fis = null;
+        try {
+            fis = new FileInputStream(eventDeviceFile);
+            read(fis);
+        } catch (final IOException e) {
+            if(Window.DEBUG_KEY_EVENT) {
+                System.err.println("LinuxEventDeviceReader: "+e.getMessage()+" on "+eventDeviceFile);
+                e.printStackTrace();
+            }
+        } finally {
+            stop = true;
+            if(null != fis) {
+                try {
+                    fis.close();
+                } catch (final IOException e) { }
+            }
+            if(Window.DEBUG_KEY_EVENT) {
+                System.err.println("LinuxEventDeviceReader: Stopped "+eventDeviceFile+", reads "+readCount+", events "+eventCount);
+            }
+            listener.stopped(this);
+        }
+    }
+
+    /**
+     * Reads and decodes events from the given stream until EOF or {@link #stop()}.
+     * @param in the input stream of the event device
+     * @throws IOException
+     */
+    public final void read(final InputStream in) throws IOException {
+        final int structSize = INPUT_EVENT_STRUCT_SIZE;
+        int filled = 0;
+        while( !stop ) {
+            final int read = in.read(buffer, filled, buffer.length - filled);
+            if( 0 > read ) {
+                if(Window.DEBUG_KEY_EVENT) {
+                    System.err.println("LinuxEventDeviceReader: EOF on "+eventDeviceFile);
+                }
+                break;
+            }
+            readCount++;
+            filled += read;
+            final int complete = filled - ( filled % structSize );
+            for(int off = 0; off < complete; off += structSize) {
+                decode(off);
+            }
+            filled -= complete;
+            if( 0 < filled ) {
+                System.arraycopy(buffer, complete, buffer, 0, filled);
+            }
+        }
+    }
+
+    private final void decode(final int off) {
+        final long timeSeconds;
+        final long timeMicroseconds;
+        final short type, code;
+        final int value;
+        if( 16 == INPUT_EVENT_STRUCT_SIZE ) {
+            // 32bit: 16 bytes
+            timeSeconds = bb.getInt(off);
+            timeMicroseconds = bb.getInt(off+4);
+            type = bb.getShort(off+8);
+            code = bb.getShort(off+10);
+            value = bb.getInt(off+12);
+        } else {
+            // 64bit: 24 bytes
+            timeSeconds = bb.getLong(off);
+            timeMicroseconds = bb.getLong(off+8);
+            type = bb.getShort(off+16);
+            code = bb.getShort(off+18);
+            value = bb.getInt(off+20);
+        }
+        eventCount++;
+        listener.inputEvent(this, timeSeconds, timeMicroseconds, type, code, value);
+    }
+}
@@ -29,23 +29,13 @@
 package jogamp.newt.driver.linux;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.IOException;
-import java.io.InputStream;
-import java.lang.Integer;
 import java.lang.Runnable;
 import java.lang.String;
 import java.lang.Thread;
-import java.nio.ByteBuffer;
-import java.util.HashMap;
-import java.util.Map;
 
 import jogamp.newt.WindowImpl;
 import jogamp.newt.driver.KeyTracker;
 
-import com.jogamp.common.nio.StructAccessor;
-import com.jogamp.common.os.Platform;
 import com.jogamp.common.util.InterruptSource;
 import com.jogamp.common.util.PropertyAccess;
 import com.jogamp.newt.Window;
@@ -77,6 +67,10 @@ import com.jogamp.newt.event.KeyEvent;
  * The last method must be enabled by setting the property <code>newt.enable.LinuxKeyEventTracker.eventx</code>.
  * </p>
  * <p>
+ * Devices are added and removed via the {@link LinuxEventDeviceManager}'s hotplug tracking,
+ * each device's events are read in batches by a {@link LinuxEventDeviceReader}.
+ * </p>
+ * <p>
  * This tracker can be completely disabled by setting property <code>newt.disable.LinuxKeyEventTracker</code>.
  * </p>
  */
@@ -106,18 +100,6 @@ public class LinuxKeyEventTracker implements WindowListener, KeyTracker {
     private WindowImpl focusedWindow = null;
     private final EventDeviceManager eventDeviceManager = new EventDeviceManager();
 
-    /**
-     * Mapping of input event basename file to spawn of EventDevicePoller.
-     * <p>
-     * String key is the base filename one of either (in that order):
-     * <ol>
-     * <li>try /dev/input/by-path/*-event-kbd</li>
-     * <li>try /dev/input/by-id/*-event-kbd</li>
-     * <li>try /dev/input/event* (Warning: Unreliable due to fiddling with all native input events !)</li>
-     * </ol>
-     */
-    private final Map<String, EventDevicePoller> edpMap = new HashMap<String, EventDevicePoller>();
-
     private LinuxKeyEventTracker() {}
 
     @Override
@@ -178,312 +160,173 @@ public class LinuxKeyEventTracker implements WindowListener, KeyTracker {
 
     class EventDeviceManager implements Runnable {
 
-        private volatile boolean stop = false;
-
-        private void managePaths(final String rootPath, final String suffix, final String[] subPaths) {
-            for(final String path : subPaths ) {
-                if( path.endsWith(suffix) ) {
-                    final EventDevicePoller edpOld = edpMap.get(path);
-                    if( null == edpOld ) {
-                        final EventDevicePoller edpNew = new EventDevicePoller( rootPath + path );
-                        edpMap.put(path, edpNew);
-                        final Thread t = new InterruptSource.Thread(null, edpNew, "NEWT-KeyEventTracker-"+path);
-                        t.setDaemon(true);
-                        t.start();
-                    } else if( edpOld.stop ) {
-                        // clear stopped entry, will restart after sleep
-                        edpMap.put(path, null);
-                    }
-                }
-            }
-            try {
-                Thread.sleep(2000);
-            } catch (final InterruptedException e) {
-                e.printStackTrace();
+        private final LinuxEventDeviceManager.ListenerFactory pollerFactory = new LinuxEventDeviceManager.ListenerFactory() {
+            @Override
+            public LinuxEventDeviceReader.Listener create(final File deviceFile) {
+                return new EventDevicePoller();
             }
+        };
+
+        private boolean useDir(final String rootPath) {
+            final File dir = new File(rootPath);
+            final String[] subPaths = dir.list();
+            return null != subPaths && 0 < subPaths.length && dir.exists() && dir.isDirectory();
         }
 
         @Override
         public void run() {
-            // 1) try /dev/input/by-path/*-event-kbd
-            {
-                final File devInputByPath = new File(linuxDevInputByPathRoot);
-                final String[] devInputPaths = devInputByPath.list();
-                final boolean useDevInputByPath = null != devInputPaths && 0 < devInputPaths.length && devInputByPath.exists() && devInputByPath.isDirectory();
-                if( useDevInputByPath ) {
-                    while(!stop){
-                        managePaths(linuxDevInputByPathRoot, "-event-kbd", devInputPaths);
-                    }
-                    return;
-                }
-            }
-
-            // 2) try /dev/input/by-id/*-event-kbd
-            {
-                final File devInputByID = new File(linuxDevInputByIDRoot);
-                final String[] devInputIDs = devInputByID.list();
-                final boolean useDevInputByID = null != devInputIDs && 0 < devInputIDs.length && devInputByID.exists() && devInputByID.isDirectory();
-                if( useDevInputByID ) {
-                    while(!stop){
-                        managePaths(linuxDevInputByIDRoot, "-event-kbd", devInputIDs);
-                    }
-                    return;
-                }
-            }
-
-            // 3) try /dev/input/event* (Warning: Unreliable due to fiddling with all native input events !)
-            if( ENABLE_PLAIN_EVENTX ) {
-                final File devInputByEventX = new File(linuxDevInputByEventXRoot);
-                while(!stop){
-                    for( final String path : devInputByEventX.list() ) {
-                        if( path.startsWith("event") ) {
-                            final String stringNumber = path.substring(5);
-                            final int number = Integer.parseInt(stringNumber);
-                            if( number<32 && number>=0 ) {
-                                final EventDevicePoller edpOld = edpMap.get(path);
-                                if( null == edpOld || edpOld.stop ) {
-                                    final EventDevicePoller edpNew = new EventDevicePoller( linuxDevInputByEventXRoot + path );
-                                    final Thread t = new InterruptSource.Thread(null, edpNew, "NEWT-KeyEventTracker-"+path);
-                                    t.setDaemon(true);
-                                    t.start();
-                                } else if( edpOld.stop ) {
-                                    // clear stopped entry, will restart after sleep
-                                    edpMap.put(path, null);
-                                }
-                            }
-                        }
-                    }
-                    try {
-                        Thread.sleep(2000);
-                    } catch (final InterruptedException e) {
-                        // TODO Auto-generated catch block
-                        e.printStackTrace();
-                    }
-                }
+            final String rootPath;
+            final LinuxEventDeviceManager.Filter filter;
+            if( useDir(linuxDevInputByPathRoot) ) {
+                // 1) try /dev/input/by-path/*-event-kbd
+                rootPath = linuxDevInputByPathRoot;
+                filter = LinuxEventDeviceManager.createSuffixFilter("-event-kbd");
+            } else if( useDir(linuxDevInputByIDRoot) ) {
+                // 2) try /dev/input/by-id/*-event-kbd
+                rootPath = linuxDevInputByIDRoot;
+                filter = LinuxEventDeviceManager.createSuffixFilter("-event-kbd");
+            } else if( ENABLE_PLAIN_EVENTX ) {
+                // 3) try /dev/input/event* (Warning: Unreliable due to fiddling with all native input events !)
+                rootPath = linuxDevInputByEventXRoot;
+                filter = LinuxEventDeviceManager.createEventXFilter(32);
+            } else {
+                return;
             }
+            new LinuxEventDeviceManager(new File(rootPath), filter, pollerFactory, "NEWT-KeyEventTracker-").run();
         }
     }
 
-    class EventDevicePoller implements Runnable {
+    /**
+     * Decodes the events of one input event device read by its {@link LinuxEventDeviceReader},
+     * maintaining the device's modifier state.
+     */
+    class EventDevicePoller implements LinuxEventDeviceReader.Listener {
 
-        private volatile boolean stop = false;
-        private final String eventDeviceFileName;
-        public final int inputEventStructSize;
+        private short keyCode=KeyEvent.VK_UNDEFINED;
+        private char keyChar=' ';
+        private short eventType=0;
+        private int modifiers=0;
 
-        public EventDevicePoller(final String eventDeviceFileName) {
-            this.eventDeviceFileName = eventDeviceFileName;
-            this.inputEventStructSize = Platform.is64Bit() ? 24 : 16;
-        }
+        @Override
+        public void stopped(final LinuxEventDeviceReader reader) { }
 
         @Override
-        public void run() {
-            final File eventDeviceFile = new File(eventDeviceFileName);
-            if(Window.DEBUG_KEY_EVENT) {
-                System.err.println("LinuxKeyEventTracker: Started "+eventDeviceFile);
-            }
-            eventDeviceFile.setReadOnly();
-
-            final byte[] b = new byte[inputEventStructSize];
-            /**
-             * The Linux input event interface.
-             * http://www.kernel.org/doc/Documentation/input/input.txt
-             *
-             * struct input_event {
-             *  struct timeval time;
-             *	unsigned short type;
-             *	unsigned short code;
-             *	unsigned int value;
-             * };
+        public void inputEvent(final LinuxEventDeviceReader reader, final long timeSeconds, final long timeSecondFraction,
+                               final short type, final short code, final int value) {
+            /*
+             * Linux sends Keyboard events in the following order:
+             * EV_MSC (optional, contains scancode)
+             * EV_KEY
+             * SYN_REPORT (sent before next key)
              */
-            final ByteBuffer bb = ByteBuffer.wrap(b);
-            final StructAccessor s = new StructAccessor(bb);
-            InputStream fis;
-            try {
-                fis = new FileInputStream(eventDeviceFile);
-            } catch (final FileNotFoundException e) {
-                stop=true;
-                return;
-            }
 
-            long timeSeconds;
-            long timeSecondFraction;
-            short type;
-            short code;
-            int value;
-
-            short keyCode=KeyEvent.VK_UNDEFINED;
-            char keyChar=' ';
-            short eventType=0;
-            int modifiers=0;
-
-            loop:
-                while(!stop) {
-                    int remaining = inputEventStructSize;
-                    while( remaining > 0 ) {
-                        int read = 0;
-                        try {
-                            read = fis.read(b, 0, remaining);
-                        } catch (final IOException e) {
-                            stop = true;
-                            if(Window.DEBUG_KEY_EVENT) {
-                                System.err.println("LinuxKeyEventTracker: [read "+read+", remaining "+remaining+"] "+e.getMessage()+" on "+eventDeviceFile);
-                                e.printStackTrace();
-                            }
-                            break loop;
-                        }
-                        if(read<0) {
-                            stop = true; // EOF of event device file !?
-                            if(Window.DEBUG_KEY_EVENT) {
-                                System.err.println("LinuxKeyEventTracker: [read "+read+", remaining "+remaining+"] EOF on "+eventDeviceFile);
-                            }
-                            break loop;
-                        } else {
-                            remaining -= read;
-                        }
+            switch(type) {
+            case 0: // SYN_REPORT
+                // Clear
+                eventType = 0;
+                keyCode = KeyEvent.VK_UNDEFINED;
+                keyChar = 0; // Print null for unprintable char.
+                if(Window.DEBUG_KEY_EVENT) {
+                    System.err.println("[SYN_REPORT----]");
+                }
+                break;
+            case 1: // EV_KEY
+                keyCode = LinuxEVKey2NewtVKey(code); // The device independent code.
+                keyChar = NewtVKey2Unicode(keyCode, modifiers); // The printable character w/ key modifiers.
+                if(Window.DEBUG_KEY_EVENT) {
+                    System.err.println("[EV_KEY: [time "+timeSeconds+":"+timeSecondFraction+"] type "+type+" / code "+code+" = value "+value);
+                }
+
+                switch(value) {
+                case 0:
+                    eventType=KeyEvent.EVENT_KEY_RELEASED;
+
+                    switch(keyCode) {
+                    case KeyEvent.VK_SHIFT:
+                        modifiers &= ~InputEvent.SHIFT_MASK;
+                        break;
+                    case KeyEvent.VK_ALT:
+                        modifiers &= ~InputEvent.ALT_MASK;
+                        break;
+                    case KeyEvent.VK_ALT_GRAPH:
+                        modifiers &= ~InputEvent.ALT_GRAPH_MASK;
+                        break;
+                    case KeyEvent.VK_CONTROL:
+                        modifiers &= ~InputEvent.CTRL_MASK;
+                        break;
+                    }
+
+                    sendKeyEvent(eventType, modifiers, keyCode, keyCode, keyChar);
+                    if(Window.DEBUG_KEY_EVENT) {
+                        System.err.println("[event released] keyCode: "+keyCode+" keyChar: "+keyChar+ " modifiers: "+modifiers);
                     }
+                    break;
+                case 1:
+                    eventType=KeyEvent.EVENT_KEY_PRESSED;
 
-                    if( 16 == inputEventStructSize ) {
-                        // 32bit: 16 bytes
-                        timeSeconds = s.getIntAt(0);
-                        timeSecondFraction = s.getShortAt(4);
-                        type = s.getShortAt(8);
-                        code = s.getShortAt(10);
-                        value = s.getIntAt(12);
-                    } else {
-                        // 64bit: 24 bytes
-                        timeSeconds = s.getLongAt(0);
-                        timeSecondFraction = s.getLongAt(8);
-                        type = s.getShortAt(16);
-                        code = s.getShortAt(18);
-                        value = s.getIntAt(20);
+                    switch(keyCode) {
+                    case KeyEvent.VK_SHIFT:
+                        modifiers |= InputEvent.SHIFT_MASK;
+                        break;
+                    case KeyEvent.VK_ALT:
+                        modifiers |= InputEvent.ALT_MASK;
+                        break;
+                    case KeyEvent.VK_ALT_GRAPH:
+                        modifiers |= InputEvent.ALT_GRAPH_MASK;
+                        break;
+                    case KeyEvent.VK_CONTROL:
+                        modifiers |= InputEvent.CTRL_MASK;
+                        break;
                     }
 
-                    /*
-                     * Linux sends Keyboard events in the following order:
-                     * EV_MSC (optional, contains scancode)
-                     * EV_KEY
-                     * SYN_REPORT (sent before next key)
-                     */
-
-                    switch(type) {
-                    case 0: // SYN_REPORT
-                        // Clear
-                        eventType = 0;
-                        keyCode = KeyEvent.VK_UNDEFINED;
-                        keyChar = 0; // Print null for unprintable char.
-                        if(Window.DEBUG_KEY_EVENT) {
-                            System.err.println("[SYN_REPORT----]");
-                        }
+                    sendKeyEvent(eventType, modifiers, keyCode, keyCode, keyChar);
+                    if(Window.DEBUG_KEY_EVENT) {
+                        System.err.println("[event pressed] keyCode: "+keyCode+" keyChar: "+keyChar+ " modifiers: "+modifiers);
+                    }
+                    break;
+                case 2:
+                    eventType=KeyEvent.EVENT_KEY_PRESSED;
+                    modifiers |= InputEvent.AUTOREPEAT_MASK;
+
+                    switch(keyCode) {
+                    case KeyEvent.VK_SHIFT:
+                        modifiers |= InputEvent.SHIFT_MASK;
+                        break;
+                    case KeyEvent.VK_ALT:
+                        modifiers |= InputEvent.ALT_MASK;
                         break;
-                    case 1: // EV_KEY
-                        keyCode = LinuxEVKey2NewtVKey(code); // The device independent code.
-                        keyChar = NewtVKey2Unicode(keyCode, modifiers); // The printable character w/ key modifiers.
-                        if(Window.DEBUG_KEY_EVENT) {
-                            System.err.println("[EV_KEY: [time "+timeSeconds+":"+timeSecondFraction+"] type "+type+" / code "+code+" = value "+value);
-                        }
-
-                        switch(value) {
-                        case 0:
-                            eventType=KeyEvent.EVENT_KEY_RELEASED;
-
-                            switch(keyCode) {
-                            case KeyEvent.VK_SHIFT:
-                                modifiers &= ~InputEvent.SHIFT_MASK;
-                                break;
-                            case KeyEvent.VK_ALT:
-                                modifiers &= ~InputEvent.ALT_MASK;
-                                break;
-                            case KeyEvent.VK_ALT_GRAPH:
-                                modifiers &= ~InputEvent.ALT_GRAPH_MASK;
-                                break;
-                            case KeyEvent.VK_CONTROL:
-                                modifiers &= ~InputEvent.CTRL_MASK;
-                                break;
-                            }
-
-                            sendKeyEvent(eventType, modifiers, keyCode, keyCode, keyChar);
-                            if(Window.DEBUG_KEY_EVENT) {
-                                System.err.println("[event released] keyCode: "+keyCode+" keyChar: "+keyChar+ " modifiers: "+modifiers);
-                            }
-                            break;
-                        case 1:
-                            eventType=KeyEvent.EVENT_KEY_PRESSED;
-
-                            switch(keyCode) {
-                            case KeyEvent.VK_SHIFT:
-                                modifiers |= InputEvent.SHIFT_MASK;
-                                break;
-                            case KeyEvent.VK_ALT:
-                                modifiers |= InputEvent.ALT_MASK;
-                                break;
-                            case KeyEvent.VK_ALT_GRAPH:
-                                modifiers |= InputEvent.ALT_GRAPH_MASK;
-                                break;
-                            case KeyEvent.VK_CONTROL:
-                                modifiers |= InputEvent.CTRL_MASK;
-                                break;
-                            }
-
-                            sendKeyEvent(eventType, modifiers, keyCode, keyCode, keyChar);
-                            if(Window.DEBUG_KEY_EVENT) {
-                                System.err.println("[event pressed] keyCode: "+keyCode+" keyChar: "+keyChar+ " modifiers: "+modifiers);
-                            }
-                            break;
-                        case 2:
-                            eventType=KeyEvent.EVENT_KEY_PRESSED;
-                            modifiers |= InputEvent.AUTOREPEAT_MASK;
-
-                            switch(keyCode) {
-                            case KeyEvent.VK_SHIFT:
-                                modifiers |= InputEvent.SHIFT_MASK;
-                                break;
-                            case KeyEvent.VK_ALT:
-                                modifiers |= InputEvent.ALT_MASK;
-                                break;
-                            case KeyEvent.VK_ALT_GRAPH:
-                                modifiers |= InputEvent.ALT_GRAPH_MASK;
-                                break;
-                            case KeyEvent.VK_CONTROL:
-                                modifiers |= InputEvent.CTRL_MASK;
-                                break;
-                            }
-
-                            //Send syntetic autorepeat release
-                            sendKeyEvent(KeyEvent.EVENT_KEY_RELEASED, modifiers, keyCode, keyCode, keyChar);
-                            sendKeyEvent(eventType, modifiers, keyCode, keyCode, keyChar);
-                            if(Window.DEBUG_KEY_EVENT) {
-                                System.err.println("[event released auto] keyCode: "+keyCode+" keyChar: "+keyChar+ " modifiers: "+modifiers);
-                                System.err.println("[event pressed auto] keyCode: "+keyCode+" keyChar: "+keyChar+ " modifiers: "+modifiers);
-                            }
-                            modifiers &= ~InputEvent.AUTOREPEAT_MASK;
-                            break;
-                        }
+                    case KeyEvent.VK_ALT_GRAPH:
+                        modifiers |= InputEvent.ALT_GRAPH_MASK;
                         break;
-                    case 4: // EV_MSC
-                        if(code==4) { // MSC_SCAN
-                            // scancode ignore, linux kernel specific
-                        }
+                    case KeyEvent.VK_CONTROL:
+                        modifiers |= InputEvent.CTRL_MASK;
                         break;
-                        // TODO: handle joystick events
-                        // TODO: handle mouse events
-                        // TODO: handle headphone/hdmi connector events
-                    default: // Print number.
-                        if(Window.DEBUG_KEY_EVENT) {
-                            System.err.println("TODO EventDevicePoller: [time "+timeSeconds+":"+timeSecondFraction+"] type "+type+" / code "+code+" = value "+value);
-                        }
                     }
-                }
 
-            if(null != fis) {
-                try {
-                    fis.close();
-                } catch (final IOException e) {
+                    //Send syntetic autorepeat release
+                    sendKeyEvent(KeyEvent.EVENT_KEY_RELEASED, modifiers, keyCode, keyCode, keyChar);
+                    sendKeyEvent(eventType, modifiers, keyCode, keyCode, keyChar);
+                    if(Window.DEBUG_KEY_EVENT) {
+                        System.err.println("[event released auto] keyCode: "+keyCode+" keyChar: "+keyChar+ " modifiers: "+modifiers);
+                        System.err.println("[event pressed auto] keyCode: "+keyCode+" keyChar: "+keyChar+ " modifiers: "+modifiers);
+                    }
+                    modifiers &= ~InputEvent.AUTOREPEAT_MASK;
+                    break;
+                }
+                break;
+            case 4: // EV_MSC
+                if(code==4) { // MSC_SCAN
+                    // scancode ignore, linux kernel specific
+                }
+                break;
+                // TODO: handle joystick events
+                // TODO: handle mouse events
+                // TODO: handle headphone/hdmi connector events
+            default: // Print number.
+                if(Window.DEBUG_KEY_EVENT) {
+                    System.err.println("TODO EventDevicePoller: [time "+timeSeconds+":"+timeSecondFraction+"] type "+type+" / code "+code+" = value "+value);
                 }
             }
-            if(Window.DEBUG_KEY_EVENT) {
-                System.err.println("LinuxKeyEventTracker: Stopped "+eventDeviceFile);
-            }
-            stop=true;
         }
 
         private char NewtVKey2Unicode(final short VK, final int modifiers) {
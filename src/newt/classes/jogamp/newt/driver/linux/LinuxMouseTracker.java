@@ -50,7 +50,7 @@ import com.jogamp.newt.event.WindowUpdateEvent;
  * Native mouse tracker thread for GNU/Linux.
  * <p>
  * Implementation is reading <code>/dev/input/mice</code>
- * within it's own polling thread.
+ * within it's own polling thread, fetching all available packets per read.
  * <p>
  * This tracker can be completely disabled by setting property <code>newt.disable.LinuxMouseTracker</code>.
  * </p>
@@ -128,7 +128,8 @@ public class LinuxMouseTracker implements WindowListener, MouseTracker {
     class MouseDevicePoller implements Runnable {
         @Override
         public void run() {
-            final byte[] b = new byte[3];
+            // read up to BATCH_SIZE 3-byte packets per syscall
+            final byte[] b = new byte[3*LinuxEventDeviceReader.BATCH_SIZE];
             final File f = new File("/dev/input/mice");
             f.setReadOnly();
             if(Window.DEBUG_MOUSE_EVENT) {
@@ -145,93 +146,97 @@ public class LinuxMouseTracker implements WindowListener, MouseTracker {
             int xd=0,yd=0; //x/y movement delta
             boolean xo=false,yo=false; // x/y overflow (out of range -255 to +255)
             boolean lb=false,mb=false,rb=false,hs=false,vs=false; //left/middle/right mousebutton
+            int filled = 0;
             while(!stop) {
-                int remaining=3;
-                while(remaining>0) {
-                    int read = 0;
-                    try {
-                        read = fis.read(b, 0, remaining);
-                    } catch (final IOException e) {
-                        // TODO Auto-generated catch block
-                        e.printStackTrace();
-                    }
-                    if(read<0) {
-                        stop = true; // EOF of mouse !?
-                    } else {
-                        remaining -= read;
-                    }
-                }
-                lb=(b[0]&1)>0;
-                rb=(b[0]&2)>0;
-                mb=(b[0]&4)>0;
-                hs=(b[0]&16)>0;
-                vs=(b[0]&32)>0;
-                xo=(b[0]&64)>0;
-                yo=(b[0]&128)>0;
-                xd=b[1];
-                yd=b[2];
-
-                x+=xd;
-                y-=yd;
-
-                if(x<0) {
-                    x=0;
+                int read = 0;
+                try {
+                    read = fis.read(b, filled, b.length - filled);
+                } catch (final IOException e) {
+                    // TODO Auto-generated catch block
+                    e.printStackTrace();
                 }
-                if(y<0) {
-                    y=0;
+                if(read<0) {
+                    stop = true; // EOF of mouse !?
+                    break;
                 }
+                filled += read;
+                final int complete = filled - ( filled % 3 );
+                for(int off = 0; off < complete; off += 3) {
+                    lb=(b[off]&1)>0;
+                    rb=(b[off]&2)>0;
+                    mb=(b[off]&4)>0;
+                    hs=(b[off]&16)>0;
+                    vs=(b[off]&32)>0;
+                    xo=(b[off]&64)>0;
+                    yo=(b[off]&128)>0;
+                    xd=b[off+1];
+                    yd=b[off+2];
+
+                    x+=xd;
+                    y-=yd;
+
+                    if(x<0) {
+                        x=0;
+                    }
+                    if(y<0) {
+                        y=0;
+                    }
 
-                buttonDown = 0;
-                if(lb) {
-                    buttonDown = MouseEvent.BUTTON1;
-                }
-                if(mb) {
-                    buttonDown = MouseEvent.BUTTON2;
-                }
-                if(rb) {
-                    buttonDown = MouseEvent.BUTTON3;
-                }
+                    buttonDown = 0;
+                    if(lb) {
+                        buttonDown = MouseEvent.BUTTON1;
+                    }
+                    if(mb) {
+                        buttonDown = MouseEvent.BUTTON2;
+                    }
+                    if(rb) {
+                        buttonDown = MouseEvent.BUTTON3;
+                    }
 
-                if(null != focusedWindow) {
-                    // Clip to Screen Size
-                    {
-                        final Screen focusedScreen = focusedWindow.getScreen();
-                        final int sw = focusedScreen.getWidth();
-                        final int sh = focusedScreen.getHeight();
-                        if( x >= sw ) {
-                            x = sw - 1;
+                    if(null != focusedWindow) {
+                        // Clip to Screen Size
+                        {
+                            final Screen focusedScreen = focusedWindow.getScreen();
+                            final int sw = focusedScreen.getWidth();
+                            final int sh = focusedScreen.getHeight();
+                            if( x >= sw ) {
+                                x = sw - 1;
+                            }
+                            if( y >= sh ) {
+                                y = sh - 1;
+                            }
                         }
-                        if( y >= sh ) {
-                            y = sh - 1;
+                        final int[] winScreenPos = focusedWindow.convertToPixelUnits(new int[] { focusedWindow.getX(), focusedWindow.getY() });
+                        final int wx = x - winScreenPos[0], wy = y - winScreenPos[1];
+                        if(old_x != x || old_y != y) {
+                            // mouse moved
+                            lastFocusedX = wx;
+                            lastFocusedY = wy;
+                            focusedWindow.sendMouseEvent(MouseEvent.EVENT_MOUSE_MOVED, 0, wx, wy, (short)0, 0 );
                         }
-                    }
-                    final int[] winScreenPos = focusedWindow.convertToPixelUnits(new int[] { focusedWindow.getX(), focusedWindow.getY() });
-                    final int wx = x - winScreenPos[0], wy = y - winScreenPos[1];
-                    if(old_x != x || old_y != y) {
-                        // mouse moved
-                        lastFocusedX = wx;
-                        lastFocusedY = wy;
-                        focusedWindow.sendMouseEvent(MouseEvent.EVENT_MOUSE_MOVED, 0, wx, wy, (short)0, 0 );
-                    }
 
-                    if(old_buttonDown != buttonDown) {
-                        // press/release
-                        if( 0 != buttonDown ) {
-                            focusedWindow.sendMouseEvent(MouseEvent.EVENT_MOUSE_PRESSED, 0, wx, wy, buttonDown, 0 );
-                        } else {
-                            focusedWindow.sendMouseEvent(MouseEvent.EVENT_MOUSE_RELEASED, 0, wx, wy, old_buttonDown, 0 );
+                        if(old_buttonDown != buttonDown) {
+                            // press/release
+                            if( 0 != buttonDown ) {
+                                focusedWindow.sendMouseEvent(MouseEvent.EVENT_MOUSE_PRESSED, 0, wx, wy, buttonDown, 0 );
+                            } else {
+                                focusedWindow.sendMouseEvent(MouseEvent.EVENT_MOUSE_RELEASED, 0, wx, wy, old_buttonDown, 0 );
+                            }
+                        }
+                    } else {
+                        if(Window.DEBUG_MOUSE_EVENT) {
+                            System.out.println(x+"/"+y+", hs="+hs+",vs="+vs+",lb="+lb+",rb="+rb+",mb="+mb+",xo="+xo+",yo="+yo+"xd="+xd+",yd="+yd);
                         }
                     }
-                } else {
-                    if(Window.DEBUG_MOUSE_EVENT) {
-                        System.out.println(x+"/"+y+", hs="+hs+",vs="+vs+",lb="+lb+",rb="+rb+",mb="+mb+",xo="+xo+",yo="+yo+"xd="+xd+",yd="+yd);
-                    }
-                }
-
-                old_x = x;
-                old_y = y;
-                old_buttonDown = buttonDown;
 
+                    old_x = x;
+                    old_y = y;
+                    old_buttonDown = buttonDown;
+                }
+                filled -= complete;
+                if( 0 < filled ) {
+                    System.arraycopy(b, complete, b, 0, filled);
+                }
             }
             if(null != fis) {
                 try {
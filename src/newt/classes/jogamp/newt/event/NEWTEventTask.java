@@ -37,17 +37,21 @@ import com.jogamp.newt.event.NEWTEvent;
 public class NEWTEventTask {
     private final NEWTEvent event;
     private final Object notifyObject;
+    private final long enqueueTime;
     private RuntimeException exception;
     private volatile boolean dispatched;
 
     public NEWTEventTask(final NEWTEvent event, final Object notifyObject) {
         this.event = event ;
         this.notifyObject = notifyObject ;
+        this.enqueueTime = System.nanoTime();
         this.exception = null;
         this.dispatched = false;
     }
 
     public final NEWTEvent get() { return event; }
+    /** Returns the {@link System#nanoTime()} of this task's creation, i.e. when the event was enqueued. */
+    public final long getEnqueueTime() { return enqueueTime; }
     public final void setException(final RuntimeException e) { exception = e; }
     public final RuntimeException getException() { return exception; }
     public final boolean isCallerWaiting() { return null != notifyObject; }
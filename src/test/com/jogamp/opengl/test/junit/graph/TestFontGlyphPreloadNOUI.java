@@ -0,0 +1,103 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.graph;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.common.util.IOUtil;
+import com.jogamp.graph.font.Font;
+import com.jogamp.graph.font.FontFactory;
+
+/**
+ * Validates {@link Font#preloadGlyphs(CharSequence, ExecutorService)},
+ * i.e. preloaded glyphs are cached and shared w/ {@link Font#getGlyph(char)} from concurrent threads.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestFontGlyphPreloadNOUI {
+
+    static Font loadFont() throws IOException {
+        return FontFactory.get(IOUtil.getResource("fonts/freefont/FreeSerif.ttf",
+                TestFontGlyphPreloadNOUI.class.getClassLoader(), TestFontGlyphPreloadNOUI.class).getInputStream(), true);
+    }
+
+    @Test
+    public void test01PreloadRange() throws IOException, InterruptedException, ExecutionException {
+        final Font font = loadFont();
+        final long t0 = System.nanoTime();
+        final Future<Integer> f = font.preloadGlyphs('!', '~', null);
+        Assert.assertEquals(Integer.valueOf('~' - '!' + 1), f.get());
+        final long t1 = System.nanoTime();
+        Assert.assertTrue(f.isDone());
+
+        final Font.Glyph a = font.getGlyph('A');
+        final long t2 = System.nanoTime();
+        Assert.assertEquals('A', a.getSymbol());
+        Assert.assertSame(a, font.getGlyph('A'));
+        System.err.printf("Preloaded %d glyphs in %.3f ms, cached getGlyph %.3f ms%n", f.get(), (t1-t0)/1e6, (t2-t1)/1e6);
+
+        // already cached
+        Assert.assertEquals(Integer.valueOf(0), font.preloadGlyphs("ABC", null).get());
+        Assert.assertEquals(Integer.valueOf(0), font.preloadGlyphs('Z', 'A', null).get());
+    }
+
+    @Test
+    public void test02PreloadConcurrent() throws IOException, InterruptedException, ExecutionException {
+        final Font font = loadFont();
+        final String text = "The quick brown fox jumps over the lazy dog, 0123456789 \u00c4\u00d6\u00dc\u00e4\u00f6\u00fc\u00df";
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final Future<Integer> f0 = font.preloadGlyphs(text, executor);
+            final Future<Integer> f1 = font.preloadGlyphs(text, executor);
+            // concurrent on demand usage
+            final Font.Glyph[] glyphs = new Font.Glyph[text.length()];
+            for(int i=0; i<text.length(); i++) {
+                glyphs[i] = font.getGlyph(text.charAt(i));
+            }
+            final int built = f0.get().intValue() + f1.get().intValue();
+            Assert.assertTrue(built <= text.length());
+            for(int i=0; i<text.length(); i++) {
+                Assert.assertSame(glyphs[i], font.getGlyph(text.charAt(i)));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestFontGlyphPreloadNOUI.class.getName());
+    }
+}
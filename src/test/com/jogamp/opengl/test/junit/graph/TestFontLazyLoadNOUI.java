@@ -0,0 +1,182 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.graph;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import jogamp.graph.font.typecast.ot.OTFont;
+import jogamp.graph.font.typecast.ot.OTFontCollection;
+import jogamp.graph.font.typecast.ot.OTGlyph;
+import jogamp.graph.font.typecast.ot.Point;
+import jogamp.graph.font.typecast.ot.table.GlyfCompositeDescript;
+import jogamp.graph.font.typecast.ot.table.GlyfDescript;
+import jogamp.graph.font.typecast.ot.table.GlyfTable;
+import jogamp.graph.font.typecast.ot.table.Table;
+
+/**
+ * Validates lazy glyph parsing of {@link OTFontCollection#create(File, boolean)} against the eager mode,
+ * reporting font open time and heap usage of both modes.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestFontLazyLoadNOUI {
+    static final String fontName = "fonts/freefont/FreeSerif.ttf";
+    static final int loops = 10;
+    static File fontFile;
+
+    @BeforeClass
+    public static void setup() throws IOException {
+        fontFile = File.createTempFile("jogl.font", ".ttf");
+        final InputStream in = TestFontLazyLoadNOUI.class.getResourceAsStream(fontName);
+        Assert.assertNotNull(fontName, in);
+        final OutputStream out = new FileOutputStream(fontFile);
+        try {
+            final byte[] buf = new byte[4096];
+            int n;
+            while( 0 < ( n = in.read(buf) ) ) {
+                out.write(buf, 0, n);
+            }
+        } finally {
+            out.close();
+            in.close();
+        }
+    }
+
+    @AfterClass
+    public static void release() {
+        fontFile.delete();
+    }
+
+    private static long usedHeap() {
+        final Runtime rt = Runtime.getRuntime();
+        for(int i=0; i<3; i++) {
+            System.gc();
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    private static void assertEquals(final int id, final OTGlyph exp, final OTGlyph has) {
+        if( null == exp ) {
+            Assert.assertNull("glyph "+id, has);
+            return;
+        }
+        Assert.assertNotNull("glyph "+id, has);
+        Assert.assertEquals("glyph "+id, exp.getAdvanceWidth(), has.getAdvanceWidth());
+        Assert.assertEquals("glyph "+id, exp.getPointCount(), has.getPointCount());
+        for(int i=0; i<exp.getPointCount(); i++) {
+            final Point p0 = exp.getPoint(i);
+            final Point p1 = has.getPoint(i);
+            Assert.assertEquals("glyph "+id, p0.x, p1.x);
+            Assert.assertEquals("glyph "+id, p0.y, p1.y);
+            Assert.assertEquals("glyph "+id, p0.onCurve, p1.onCurve);
+            Assert.assertEquals("glyph "+id, p0.endOfContour, p1.endOfContour);
+        }
+    }
+
+    @Test
+    public void test01LazyEqualsEager() throws IOException {
+        final OTFont eager = OTFontCollection.create(fontFile, false).getFont(0);
+        final OTFontCollection fc = OTFontCollection.create(fontFile, true);
+        Assert.assertTrue(fc.isLazy());
+        final OTFont lazy = fc.getFont(0);
+        final GlyfTable glyf = (GlyfTable) lazy.getTable(Table.glyf);
+        Assert.assertEquals(0, glyf.getLoadedCount());
+        Assert.assertEquals(eager.getNumGlyphs(), lazy.getNumGlyphs());
+
+        assertEquals(10, eager.getGlyph(10), lazy.getGlyph(10));
+        Assert.assertTrue(1 <= glyf.getLoadedCount());
+        final GlyfTable eagerGlyf = (GlyfTable) eager.getTable(Table.glyf);
+        int skipped = 0;
+        for(int i=0; i<eager.getNumGlyphs(); i++) {
+            if( hasNestedComposite(eagerGlyf, i) ) {
+                // eager mode parses composites in index order, missing the point offsets of later nested composites
+                lazy.getGlyph(i);
+                skipped++;
+            } else {
+                assertEquals(i, eager.getGlyph(i), lazy.getGlyph(i));
+            }
+        }
+        System.err.println("Compared "+(eager.getNumGlyphs()-skipped)+" glyphs, skipped "+skipped+" w/ nested composites");
+        Assert.assertEquals(lazy.getNumGlyphs(), glyf.getLoadedCount());
+    }
+
+    private static boolean hasNestedComposite(final GlyfTable glyf, final int id) {
+        final GlyfDescript gd = glyf.getDescription(id);
+        if( null != gd && gd.isComposite() ) {
+            final GlyfCompositeDescript cgd = (GlyfCompositeDescript) gd;
+            for(int j=0; j<cgd.getComponentCount(); j++) {
+                final GlyfDescript c = glyf.getDescription(cgd.getComponent(j).getGlyphIndex());
+                if( null == c || c.isComposite() ) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Test
+    public void test02OpenTimeAndHeap() throws IOException {
+        for(int mode=0; mode<2; mode++) {
+            final boolean lazyMode = 1 == mode;
+            final OTFontCollection[] fcs = new OTFontCollection[loops];
+            final long heap0 = usedHeap();
+            final long t0 = System.nanoTime();
+            for(int i=0; i<loops; i++) {
+                fcs[i] = OTFontCollection.create(fontFile, lazyMode);
+            }
+            final long t1 = System.nanoTime();
+            // typical text usage, 30 glyphs
+            for(int i=0; i<loops; i++) {
+                for(int j=0; j<30; j++) {
+                    fcs[i].getFont(0).getGlyph(36+j);
+                }
+            }
+            final long t2 = System.nanoTime();
+            final long heap1 = usedHeap();
+            final GlyfTable glyf = (GlyfTable) fcs[0].getFont(0).getTable(Table.glyf);
+            System.err.printf("%s: open %.3f ms, 30 glyphs %.3f ms, heap %d kB per font, %d / %d glyphs parsed, file %d kB%n",
+                    lazyMode ? "lazy " : "eager", (t1-t0)/1e6/loops, (t2-t1)/1e6/loops, (heap1-heap0)/1024/loops,
+                    glyf.getLoadedCount(), fcs[0].getFont(0).getNumGlyphs(), fontFile.length()/1024);
+            Assert.assertEquals(lazyMode, fcs[0].isLazy());
+        }
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestFontLazyLoadNOUI.class.getName());
+    }
+}
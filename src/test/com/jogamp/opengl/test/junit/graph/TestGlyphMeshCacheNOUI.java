@@ -0,0 +1,172 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.graph;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.common.util.IOUtil;
+import com.jogamp.graph.curve.OutlineShape;
+import com.jogamp.graph.font.Font;
+import com.jogamp.graph.font.FontFactory;
+import com.jogamp.graph.geom.Triangle;
+import com.jogamp.graph.geom.Vertex;
+
+/**
+ * Validates {@link Font#setGlyphMeshCacheDir(File)} and {@link Font#storeGlyphMeshCache()},
+ * i.e. glyphs restored from the cache have the same triangulation and metrics w/o being triangulated again.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestGlyphMeshCacheNOUI {
+    static final String TEXT = "Hello, W\u00f6rld 42!";
+
+    static Font loadFont() throws IOException {
+        return FontFactory.get(IOUtil.getResource("fonts/freefont/FreeSerif.ttf",
+                TestGlyphMeshCacheNOUI.class.getClassLoader(), TestGlyphMeshCacheNOUI.class).getInputStream(), true);
+    }
+
+    static File createTempDir() throws IOException {
+        final File dir = File.createTempFile("glyphmesh", "");
+        Assert.assertTrue(dir.delete());
+        Assert.assertTrue(dir.mkdirs());
+        return dir;
+    }
+
+    static void deleteDir(final File dir) {
+        final File[] files = dir.listFiles();
+        for(int i=0; null != files && i<files.length; i++) {
+            files[i].delete();
+        }
+        dir.delete();
+    }
+
+    static int countDistinct(final String s) {
+        int n = 0;
+        for(int i=0; i<s.length(); i++) {
+            if( s.indexOf(s.charAt(i)) == i ) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    static void assertEqualMesh(final OutlineShape exp, final OutlineShape has) {
+        final ArrayList<Triangle> expTris = exp.getTriangles(OutlineShape.VerticesState.QUADRATIC_NURBS);
+        final ArrayList<Triangle> hasTris = has.getTriangles(OutlineShape.VerticesState.QUADRATIC_NURBS);
+        Assert.assertEquals(expTris.size(), hasTris.size());
+        for(int i=0; i<expTris.size(); i++) {
+            final Vertex[] ev = expTris.get(i).getVertices();
+            final Vertex[] hv = hasTris.get(i).getVertices();
+            for(int j=0; j<3; j++) {
+                Assert.assertArrayEquals(ev[j].getCoord(), hv[j].getCoord(), 0f);
+                Assert.assertArrayEquals(ev[j].getTexCoord(), hv[j].getTexCoord(), 0f);
+            }
+        }
+        Assert.assertTrue(exp.getVertices().size() <= has.getVertices().size());
+        Assert.assertEquals(exp.getBounds(), has.getBounds());
+    }
+
+    @Test
+    public void test01StoreAndRestore() throws IOException {
+        final File dir = createTempDir();
+        try {
+            final Font font1 = loadFont();
+            Assert.assertEquals(-1, font1.storeGlyphMeshCache());
+            font1.setGlyphMeshCacheDir(dir);
+            for(int i=0; i<TEXT.length(); i++) {
+                font1.getGlyph(TEXT.charAt(i));
+            }
+            long t0 = System.nanoTime();
+            Assert.assertEquals(countDistinct(TEXT), font1.storeGlyphMeshCache());
+            long t1 = System.nanoTime();
+            Assert.assertEquals(1, dir.listFiles().length);
+            System.err.printf("Stored %d glyphs in %.3f ms, %d bytes%n", countDistinct(TEXT), (t1-t0)/1e6, dir.listFiles()[0].length());
+
+            final Font font2 = loadFont();
+            font2.setGlyphMeshCacheDir(dir);
+            t0 = System.nanoTime();
+            for(int i=0; i<TEXT.length(); i++) {
+                final char c = TEXT.charAt(i);
+                final Font.Glyph g1 = font1.getGlyph(c);
+                final Font.Glyph g2 = font2.getGlyph(c);
+                Assert.assertEquals(g1.getID(), g2.getID());
+                Assert.assertEquals(g1.getBBox(), g2.getBBox());
+                Assert.assertEquals(g1.getAdvance(24f, true), g2.getAdvance(24f, true), 0f);
+                Assert.assertEquals(g1.getAdvance(24f, false), g2.getAdvance(24f, false), 0f);
+                if( null == g1.getShape() ) {
+                    Assert.assertNull(g2.getShape());
+                } else {
+                    // restored w/o outlines
+                    Assert.assertEquals(0, g2.getShape().getOutline(0).getVertexCount());
+                    assertEqualMesh(g1.getShape(), g2.getShape());
+                }
+            }
+            t1 = System.nanoTime();
+            System.err.printf("Restored and validated %d glyphs in %.3f ms%n", countDistinct(TEXT), (t1-t0)/1e6);
+        } finally {
+            deleteDir(dir);
+        }
+    }
+
+    @Test
+    public void test02KeepUnusedGlyphs() throws IOException {
+        final File dir = createTempDir();
+        try {
+            final Font font1 = loadFont();
+            font1.setGlyphMeshCacheDir(dir);
+            for(int i=0; i<TEXT.length(); i++) {
+                font1.getGlyph(TEXT.charAt(i));
+            }
+            Assert.assertEquals(countDistinct(TEXT), font1.storeGlyphMeshCache());
+
+            // uses only one cached and one new glyph
+            final Font font2 = loadFont();
+            font2.setGlyphMeshCacheDir(dir);
+            font2.getGlyph('H');
+            font2.getGlyph('Z');
+            Assert.assertEquals(countDistinct(TEXT) + 1, font2.storeGlyphMeshCache());
+
+            final Font font3 = loadFont();
+            font3.setGlyphMeshCacheDir(dir);
+            assertEqualMesh(font1.getGlyph('W').getShape(), font3.getGlyph('W').getShape());
+            Assert.assertEquals(0, font3.getGlyph('Z').getShape().getOutline(0).getVertexCount());
+        } finally {
+            deleteDir(dir);
+        }
+    }
+
+    public static void main(final String args[]) throws IOException {
+        org.junit.runner.JUnitCore.main(TestGlyphMeshCacheNOUI.class.getName());
+    }
+}
@@ -0,0 +1,83 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.graph;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.graph.curve.opengl.RegionFBOPool;
+
+/**
+ * Validates the {@link RegionFBOPool} bucket sizes, not requiring a GL context.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestRegionFBOPoolNOUI {
+
+    @Test
+    public void test01BucketSize() {
+        Assert.assertEquals(RegionFBOPool.MIN_BUCKET_SIZE, RegionFBOPool.getBucketSize(1));
+        Assert.assertEquals(RegionFBOPool.MIN_BUCKET_SIZE, RegionFBOPool.getBucketSize(RegionFBOPool.MIN_BUCKET_SIZE));
+        Assert.assertEquals(40, RegionFBOPool.getBucketSize(33));
+        Assert.assertEquals(448, RegionFBOPool.getBucketSize(400));
+        Assert.assertEquals(512, RegionFBOPool.getBucketSize(512));
+        Assert.assertEquals(640, RegionFBOPool.getBucketSize(513));
+        int buckets = 0;
+        int last = 0;
+        for(int size=1; size<=4096; size++) {
+            final int b = RegionFBOPool.getBucketSize(size);
+            Assert.assertTrue(b >= size);
+            Assert.assertTrue("size "+size+" -> "+b, size <= RegionFBOPool.MIN_BUCKET_SIZE || b <= size + size / 4);
+            Assert.assertTrue(b >= last);
+            if( b != last ) {
+                buckets++;
+                last = b;
+            }
+        }
+        // 1 + 4 buckets per power of two from 32 to 4096
+        Assert.assertEquals(1+4*7, buckets);
+    }
+
+    @Test
+    public void test02MaxTargets() {
+        final RegionFBOPool pool = new RegionFBOPool();
+        Assert.assertEquals(RegionFBOPool.DEFAULT_MAX_TARGETS, pool.getMaxTargets());
+        Assert.assertEquals(0, pool.getTargetCount());
+        pool.setMaxTargets(2);
+        Assert.assertEquals(2, pool.getMaxTargets());
+        try {
+            pool.setMaxTargets(0);
+            Assert.fail("IllegalArgumentException expected");
+        } catch (final IllegalArgumentException e) { }
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestRegionFBOPoolNOUI.class.getName());
+    }
+}
@@ -0,0 +1,216 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.graph;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.graph.curve.OutlineShape;
+import com.jogamp.graph.curve.Region;
+import com.jogamp.graph.geom.SVertex;
+
+/**
+ * Validates the per shape ranges of {@link Region#replaceOutlineShape(int, OutlineShape, jogamp.graph.geom.plane.AffineTransform, float[])},
+ * i.e. in place replacement, relocation w/ slack and compaction, using an array backed region not requiring a GL context.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestRegionShapeRangesNOUI {
+
+    /** Array backed region, recording the written elements. */
+    static class ArrayRegion extends Region {
+        float[] coords = new float[0];
+        int[] indices = new int[0];
+        int vertexCount = 0, indexCount = 0;
+        int fullUploads = 0;
+
+        ArrayRegion() {
+            super(0);
+        }
+        @Override
+        protected void pushVertex(final float[] xyz, final float[] texParams, final float[] rgba) {
+            if( vertexCount * 3 == coords.length ) {
+                coords = Arrays.copyOf(coords, Math.max(24, coords.length * 2));
+            }
+            setVertex(vertexCount++, xyz, texParams, rgba);
+        }
+        @Override
+        protected void pushIndex(final int idx) {
+            if( indexCount == indices.length ) {
+                indices = Arrays.copyOf(indices, Math.max(24, indices.length * 2));
+            }
+            setIndex(indexCount++, idx);
+        }
+        @Override
+        protected void setVertex(final int vIdx, final float[] xyz, final float[] texParams, final float[] rgba) {
+            System.arraycopy(xyz, 0, coords, vIdx*3, 3);
+        }
+        @Override
+        protected void setIndex(final int iIdx, final int idx) {
+            indices[iIdx] = idx;
+        }
+        @Override
+        protected int getIndex(final int iIdx) {
+            return indices[iIdx];
+        }
+        @Override
+        protected void moveVertices(final int srcVIdx, final int dstVIdx, final int count) {
+            System.arraycopy(coords, srcVIdx*3, coords, dstVIdx*3, count*3);
+        }
+        @Override
+        protected void truncate(final int vertexCnt, final int indexCnt) {
+            vertexCount = vertexCnt;
+            indexCount = indexCnt;
+            fullUploads++;
+        }
+        int getDirtyIndices() {
+            return Math.max(0, getDirtyIndexTo() - getDirtyIndexFrom());
+        }
+        int getFirstDirtyIndex() {
+            return getDirtyIndexFrom();
+        }
+        void upload() {
+            clearDirtyRanges();
+        }
+    }
+
+    private static OutlineShape createRect(final float x, final float y, final float w, final float h) {
+        final OutlineShape shape = new OutlineShape(SVertex.factory());
+        shape.addVertex(x, y, true);
+        shape.addVertex(x+w, y, true);
+        shape.addVertex(x+w, y+h, true);
+        shape.addVertex(x, y+h, true);
+        shape.closeLastOutline(true);
+        return shape;
+    }
+
+    private static OutlineShape createRectWithHole(final float x, final float y, final float w, final float h) {
+        final OutlineShape shape = createRect(x, y, w, h);
+        shape.addEmptyOutline();
+        shape.addVertex(x+w/4, y+h/4, true);
+        shape.addVertex(x+w/4, y+3*h/4, true);
+        shape.addVertex(x+3*w/4, y+3*h/4, true);
+        shape.addVertex(x+3*w/4, y+h/4, true);
+        shape.closeLastOutline(true);
+        return shape;
+    }
+
+    private static OutlineShape createPolygon(final float cx, final float cy, final float r, final int n) {
+        final OutlineShape shape = new OutlineShape(SVertex.factory());
+        for(int i=0; i<n; i++) {
+            final double a = 2.0 * Math.PI * i / n;
+            shape.addVertex(cx + r * (float)Math.cos(a), cy + r * (float)Math.sin(a), true);
+        }
+        shape.closeLastOutline(true);
+        return shape;
+    }
+
+    /** Asserts all triangles reference written vertices and returns the number of non degenerated triangles within the given x range. */
+    private static int countTriangles(final ArrayRegion region, final float x0, final float x1) {
+        int n = 0;
+        for(int i=0; i<region.indexCount; i+=3) {
+            final int a = region.indices[i], b = region.indices[i+1], c = region.indices[i+2];
+            Assert.assertTrue(a < region.vertexCount && b < region.vertexCount && c < region.vertexCount);
+            if( a != b || b != c ) {
+                final float x = region.coords[a*3];
+                if( x0 <= x && x <= x1 ) {
+                    n++;
+                }
+            }
+        }
+        return n;
+    }
+
+    @Test
+    public void test01ReplaceInPlace() {
+        final ArrayRegion region = new ArrayRegion();
+        Assert.assertEquals(0, region.addOutlineShape(createRect(0, 0, 10, 10), null, null));
+        Assert.assertEquals(1, region.addOutlineShape(createRect(100, 0, 10, 10), null, null));
+        Assert.assertEquals(2, region.getShapeCount());
+        region.upload();
+        final int vertices = region.vertexCount;
+        final int indices = region.indexCount;
+        final int tris = countTriangles(region, 100, 110);
+        Assert.assertTrue(0 < tris);
+
+        region.replaceOutlineShape(0, createRect(0, 0, 20, 20), null, null);
+        Assert.assertEquals(vertices, region.vertexCount);
+        Assert.assertEquals(indices, region.indexCount);
+        Assert.assertEquals(indices / 2, region.getDirtyIndices());
+        Assert.assertEquals(0, region.getFirstDirtyIndex());
+        Assert.assertEquals(20f, region.getBounds().getHeight(), 0f);
+        Assert.assertEquals(tris, countTriangles(region, 0, 20));
+        Assert.assertEquals(tris, countTriangles(region, 100, 110));
+        Assert.assertEquals(0, region.fullUploads);
+    }
+
+    @Test
+    public void test02RelocateAndCompact() {
+        final ArrayRegion region = new ArrayRegion();
+        region.addOutlineShape(createRect(0, 0, 10, 10), null, null);
+        region.addOutlineShape(createRect(100, 0, 10, 10), null, null);
+        region.upload();
+        final int indices = region.indexCount;
+        final int tris = countTriangles(region, 100, 110);
+
+        // grows: relocated w/ slack, former range left degenerated
+        region.replaceOutlineShape(0, createRectWithHole(0, 0, 10, 10), null, null);
+        Assert.assertTrue(indices < region.indexCount);
+        final int holeTris = countTriangles(region, 0, 10);
+        Assert.assertTrue(tris < holeTris);
+        Assert.assertEquals(tris, countTriangles(region, 100, 110));
+
+        // shrinks into the slack, in place
+        final int vertices = region.vertexCount;
+        region.replaceOutlineShape(0, createRect(0, 0, 10, 10), null, null);
+        Assert.assertEquals(vertices, region.vertexCount);
+        Assert.assertEquals(tris, countTriangles(region, 0, 10));
+
+        // repeated growth just beyond the slack eventually compacts
+        int n = 8;
+        for(int i=0; i<8; i++) {
+            n = n + n / 2 + 1;
+            region.replaceOutlineShape(0, createPolygon(5, 5, 5, n), null, null);
+        }
+        Assert.assertTrue(0 < region.fullUploads);
+        Assert.assertTrue(region.vertexCount < 4 * n);
+        Assert.assertEquals(tris, countTriangles(region, 100, 110));
+
+        final ArrayRegion expected = new ArrayRegion();
+        expected.addOutlineShape(createPolygon(5, 5, 5, n), null, null);
+        Assert.assertEquals(countTriangles(expected, 0, 10), countTriangles(region, 0, 10));
+        Assert.assertEquals(110f, region.getBounds().getWidth(), 0.001f);
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestRegionShapeRangesNOUI.class.getName());
+    }
+}
@@ -0,0 +1,187 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.graph;
+
+import java.io.IOException;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.common.util.IOUtil;
+import com.jogamp.graph.font.Font;
+import com.jogamp.graph.font.FontFactory;
+import com.jogamp.graph.font.TextLayout;
+import com.jogamp.opengl.math.geom.AABBox;
+
+/**
+ * Validates {@link TextLayout.GlyphRun} positions incl. kerning and line breaks,
+ * its LRU cache and the {@link Font} metric queries based on it.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestTextLayoutNOUI {
+    static final float EPSILON = 1e-4f;
+    static final float PIXEL_SIZE = 24f;
+
+    static Font loadFont() throws IOException {
+        return FontFactory.get(IOUtil.getResource("fonts/freefont/FreeSerif.ttf",
+                TestTextLayoutNOUI.class.getClassLoader(), TestTextLayoutNOUI.class).getInputStream(), true);
+    }
+
+    @Test
+    public void test01Kerning() throws IOException {
+        final Font font = loadFont();
+        final Font.Glyph a = font.getGlyph('A');
+        final Font.Glyph v = font.getGlyph('V');
+        final float kern = font.getKerning(a.getID(), v.getID(), PIXEL_SIZE);
+        Assert.assertTrue("Expected negative A-V kerning: "+kern, kern < 0);
+
+        final TextLayout.GlyphRun run = TextLayout.layout(font, "AV", PIXEL_SIZE);
+        Assert.assertEquals(2, run.getGlyphCount());
+        Assert.assertEquals(a.getID(), run.getGlyphID(0));
+        Assert.assertEquals(v.getID(), run.getGlyphID(1));
+        Assert.assertEquals(0f, run.getX(0), EPSILON);
+        Assert.assertEquals(a.getAdvance(PIXEL_SIZE, true) + kern, run.getX(1), EPSILON);
+        Assert.assertEquals(run.getX(1) + v.getAdvance(PIXEL_SIZE, true), run.getLineWidth(0), EPSILON);
+    }
+
+    @Test
+    public void test02LineBreaks() throws IOException {
+        final Font font = loadFont();
+        final float lineHeight = font.getLineHeight(PIXEL_SIZE);
+        final TextLayout.GlyphRun run = TextLayout.layout(font, "ab c\nd\n", PIXEL_SIZE);
+        Assert.assertEquals(5, run.getGlyphCount());
+        Assert.assertEquals(3, run.getLineCount());
+        Assert.assertEquals(0, run.getLineStart(0));
+        Assert.assertEquals(4, run.getLineEnd(0));
+        Assert.assertEquals(4, run.getLineStart(1));
+        Assert.assertEquals(5, run.getLineEnd(1));
+        Assert.assertEquals(5, run.getLineStart(2));
+        Assert.assertEquals(5, run.getLineEnd(2));
+        Assert.assertEquals('d', run.getSymbol(4));
+        Assert.assertEquals(0f, run.getX(4), EPSILON);
+        Assert.assertEquals(-lineHeight, run.getY(4), EPSILON);
+        Assert.assertEquals(0f, run.getLineWidth(2), EPSILON);
+
+        // empty last line is not accounted
+        Assert.assertEquals(2 * lineHeight, run.getHeight(), EPSILON);
+        Assert.assertEquals(Math.max(run.getLineWidth(0), run.getLineWidth(1)), run.getWidth(), EPSILON);
+
+        final AABBox box = font.getMetricBounds("ab c\nd\n", PIXEL_SIZE);
+        Assert.assertEquals(run.getWidth(), box.getWidth(), EPSILON);
+        Assert.assertEquals(run.getHeight(), box.getHeight(), EPSILON);
+        Assert.assertEquals((int)(run.getLineWidth(2) + 0.5f), font.getMetricWidth("ab c\nd\n", PIXEL_SIZE), EPSILON);
+    }
+
+    @Test
+    public void test03Cache() throws IOException {
+        final Font font = loadFont();
+        final int limit = TextLayout.getCacheLimit();
+        try {
+            TextLayout.clearCache();
+            final TextLayout.GlyphRun run = TextLayout.getGlyphRun(font, "Table Cell", PIXEL_SIZE);
+            Assert.assertSame(run, TextLayout.getGlyphRun(font, new StringBuilder("Table Cell"), PIXEL_SIZE));
+            Assert.assertNotSame(run, TextLayout.getGlyphRun(font, "Table Cell", PIXEL_SIZE + 1));
+            Assert.assertEquals(2, TextLayout.getCacheSize());
+
+            TextLayout.setCacheLimit(2);
+            TextLayout.getGlyphRun(font, "Table Cell", PIXEL_SIZE); // touch, now most recently used
+            TextLayout.getGlyphRun(font, "Other", PIXEL_SIZE);
+            Assert.assertEquals(2, TextLayout.getCacheSize());
+            Assert.assertSame(run, TextLayout.getGlyphRun(font, "Table Cell", PIXEL_SIZE));
+
+            TextLayout.setCacheLimit(0);
+            Assert.assertEquals(0, TextLayout.getCacheSize());
+            Assert.assertNotSame(run, TextLayout.getGlyphRun(font, "Table Cell", PIXEL_SIZE));
+            Assert.assertEquals(0, TextLayout.getCacheSize());
+        } finally {
+            TextLayout.setCacheLimit(limit);
+            TextLayout.clearCache();
+        }
+    }
+
+    @Test
+    public void test04SpaceGlyph() throws IOException {
+        final Font font = loadFont();
+        final Font.Glyph space = font.getGlyph(' ');
+        final Font.Glyph a = font.getGlyph('A');
+        final TextLayout.GlyphRun run = TextLayout.layout(font, "A A", PIXEL_SIZE);
+        Assert.assertEquals(3, run.getGlyphCount());
+        // the font's actual space glyph is used for advance and kerning, not a reserved ID
+        Assert.assertEquals(space.getID(), run.getGlyphID(1));
+        final float x1 = a.getAdvance(PIXEL_SIZE, true) + font.getKerning(a.getID(), space.getID(), PIXEL_SIZE);
+        Assert.assertEquals(x1, run.getX(1), EPSILON);
+        final float x2 = x1 + font.getAdvanceWidth(space.getID(), PIXEL_SIZE) + font.getKerning(space.getID(), a.getID(), PIXEL_SIZE);
+        Assert.assertEquals(x2, run.getX(2), EPSILON);
+    }
+
+    @Test
+    public void test05ConcurrentLayout() throws IOException, InterruptedException {
+        final Font font = loadFont();
+        final String text = "Concurrent Layout AV To\nWAVE";
+        final int threadCount = 8;
+        final int loops = 50;
+        final TextLayout.GlyphRun[][] runs = new TextLayout.GlyphRun[threadCount][loops];
+        final Thread[] threads = new Thread[threadCount];
+        for(int i=0; i<threadCount; i++) {
+            final int t = i;
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    // uncached pixel-sizes, computing the glyph advances concurrently
+                    for(int j=0; j<loops; j++) {
+                        runs[t][j] = TextLayout.layout(font, text, PIXEL_SIZE + j / 8f);
+                    }
+                } };
+        }
+        for(int i=0; i<threadCount; i++) {
+            threads[i].start();
+        }
+        for(int i=0; i<threadCount; i++) {
+            threads[i].join();
+        }
+        for(int j=0; j<loops; j++) {
+            final TextLayout.GlyphRun expected = TextLayout.layout(font, text, PIXEL_SIZE + j / 8f);
+            for(int i=0; i<threadCount; i++) {
+                final TextLayout.GlyphRun run = runs[i][j];
+                Assert.assertNotNull(run);
+                Assert.assertEquals(expected.getGlyphCount(), run.getGlyphCount());
+                for(int k=0; k<run.getGlyphCount(); k++) {
+                    Assert.assertEquals(expected.getGlyphID(k), run.getGlyphID(k));
+                    Assert.assertEquals(expected.getX(k), run.getX(k), 0f);
+                    Assert.assertEquals(expected.getY(k), run.getY(k), 0f);
+                }
+            }
+        }
+    }
+
+    public static void main(final String args[]) throws IOException {
+        org.junit.runner.JUnitCore.main(TestTextLayoutNOUI.class.getName());
+    }
+}
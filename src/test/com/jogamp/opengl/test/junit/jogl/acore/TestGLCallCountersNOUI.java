@@ -0,0 +1,114 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.acore;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.opengl.GLCallCounters;
+
+/**
+ * Validates {@link GLCallCounters} as used by the generated <code>ProfilingGL*</code> pipelines,
+ * and reports the per call overhead of recording.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestGLCallCountersNOUI {
+    static final String[] names = new String[] { "glBindTexture", "glDrawArrays", "glEnable", "glUniform1f" };
+    static int loops = 1000000;
+
+    private static void call(final GLCallCounters c, final int idx, final int n) {
+        for(int i=0; i<n; i++) {
+            c.end(idx, c.begin(idx));
+        }
+    }
+
+    @Test
+    public void test01CountSnapshotReset() {
+        final GLCallCounters c = new GLCallCounters(names, false);
+        call(c, 0, 3);
+        call(c, 2, 5);
+        Assert.assertEquals(3, c.getCallCount(0));
+        Assert.assertEquals(5, c.getCallCount(2));
+        Assert.assertEquals(8, c.getTotalCallCount());
+        Assert.assertEquals(0, c.getTotalNanos());
+        Assert.assertEquals(2, c.getIndex("glEnable"));
+        Assert.assertEquals(-1, c.getIndex("glFlush"));
+
+        final GLCallCounters frame = c.snapshot(true);
+        Assert.assertEquals(8, frame.getTotalCallCount());
+        Assert.assertEquals(0, c.getTotalCallCount());
+
+        call(c, 1, 2);
+        frame.add(c);
+        Assert.assertEquals(10, frame.getTotalCallCount());
+        Assert.assertEquals(2, frame.getCallCount(1));
+    }
+
+    @Test
+    public void test02TopN() {
+        final GLCallCounters c = new GLCallCounters(names, true);
+        call(c, 0, 10);
+        call(c, 1, 30);
+        call(c, 3, 20);
+        Assert.assertArrayEquals(new int[] { 1, 3 }, c.getTopEntryPoints(2, false));
+        Assert.assertArrayEquals(new int[] { 1, 3, 0 }, c.getTopEntryPoints(10, false));
+        Assert.assertEquals(0, c.getTopEntryPoints(0, false).length);
+        Assert.assertEquals(3, c.getTopEntryPoints(10, true).length);
+        Assert.assertTrue(c.getTotalNanos() >= 0);
+
+        final String report = c.toString(null, 2, false).toString();
+        System.err.print(report);
+        Assert.assertTrue(report.contains("glDrawArrays"));
+        Assert.assertTrue(report.contains("glUniform1f"));
+        Assert.assertFalse(report.contains("glBindTexture"));
+    }
+
+    @Test
+    public void test03Overhead() {
+        for(final boolean timing : new boolean[] { false, true }) {
+            final GLCallCounters c = new GLCallCounters(names, timing);
+            call(c, 0, loops); // warm up
+            final long t0 = System.nanoTime();
+            call(c, 1, loops);
+            final long dt = System.nanoTime() - t0;
+            Assert.assertEquals(loops, c.getCallCount(1));
+            System.err.printf("timing %b: %.2f ns/call%n", timing, (double)dt / loops);
+        }
+    }
+
+    public static void main(final String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-loops")) {
+                loops = Integer.parseInt(args[++i]);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestGLCallCountersNOUI.class.getName());
+    }
+}
@@ -0,0 +1,158 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.acore;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import jogamp.opengl.GLDebugErrorCheck;
+
+/**
+ * Validates the {@link GLDebugErrorCheck} scheduling and call history as used by the generated <code>DebugGL*</code> pipelines.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestGLDebugErrorCheckNOUI {
+    static final String[] names = new String[] { "glA", "glB", "glC" };
+
+    @Test
+    public void test01EachCall() {
+        final GLDebugErrorCheck ec = new GLDebugErrorCheck(names);
+        Assert.assertEquals(1, ec.getCheckInterval());
+        Assert.assertTrue(ec.isPerCall());
+        for(int i=0; i<10; i++) {
+            Assert.assertTrue(ec.call(i % names.length));
+            Assert.assertEquals(1, ec.getCheckedCallCount());
+        }
+        // already checked each call
+        Assert.assertFalse(ec.endFrame());
+    }
+
+    @Test
+    public void test02Interval() {
+        final GLDebugErrorCheck ec = new GLDebugErrorCheck(names);
+        ec.setCheckInterval(4);
+        Assert.assertFalse(ec.isPerCall());
+        int checks = 0;
+        for(int i=1; i<=10; i++) {
+            if( ec.call(0) ) {
+                Assert.assertEquals(0, i % 4);
+                Assert.assertEquals(4, ec.getCheckedCallCount());
+                checks++;
+            }
+        }
+        Assert.assertEquals(2, checks);
+        Assert.assertTrue(ec.endFrame());
+        Assert.assertEquals(2, ec.getCheckedCallCount());
+        // interval restarts w/ the frame
+        Assert.assertFalse(ec.call(0));
+        Assert.assertFalse(ec.call(0));
+        Assert.assertFalse(ec.call(0));
+        Assert.assertTrue(ec.call(0));
+
+        try {
+            ec.setCheckInterval(-1);
+            Assert.fail("IllegalArgumentException expected");
+        } catch (final IllegalArgumentException e) { }
+    }
+
+    @Test
+    public void test03FrameOnly() {
+        final GLDebugErrorCheck ec = new GLDebugErrorCheck(names);
+        ec.setCheckInterval(0);
+        for(int i=0; i<1000; i++) {
+            Assert.assertFalse(ec.call(1));
+        }
+        Assert.assertTrue(ec.endFrame());
+        Assert.assertEquals(1000, ec.getCheckedCallCount());
+        Assert.assertTrue(ec.endFrame());
+        Assert.assertEquals(0, ec.getCheckedCallCount());
+    }
+
+    @Test
+    public void test04Escalation() {
+        final GLDebugErrorCheck ec = new GLDebugErrorCheck(names);
+        ec.setCheckInterval(0);
+        // w/o escalation the error shall be raised
+        ec.call(0);
+        Assert.assertTrue(ec.endFrame());
+        Assert.assertFalse(ec.deferredError(true));
+        Assert.assertFalse(ec.isPerCall());
+        Assert.assertEquals(1, ec.getDeferredErrorCount());
+
+        // detected at frame boundary: next frame checks each call
+        ec.setEscalateOnError(true);
+        ec.call(0);
+        Assert.assertTrue(ec.endFrame());
+        Assert.assertTrue(ec.deferredError(true));
+        Assert.assertTrue(ec.isPerCall());
+        Assert.assertTrue(ec.call(0));
+        Assert.assertFalse(ec.endFrame());
+        Assert.assertFalse(ec.isPerCall());
+        Assert.assertFalse(ec.call(0));
+
+        // detected within a frame: remaining and next frame checks each call
+        ec.setCheckInterval(2);
+        Assert.assertTrue(ec.endFrame());
+        Assert.assertFalse(ec.call(0));
+        Assert.assertTrue(ec.call(0));
+        Assert.assertTrue(ec.deferredError(false));
+        Assert.assertTrue(ec.call(0));
+        Assert.assertFalse(ec.endFrame());
+        Assert.assertTrue(ec.isPerCall());
+        Assert.assertTrue(ec.call(0));
+        Assert.assertFalse(ec.endFrame());
+        Assert.assertFalse(ec.isPerCall());
+        Assert.assertEquals(3, ec.getDeferredErrorCount());
+    }
+
+    @Test
+    public void test05CallHistory() {
+        final GLDebugErrorCheck ec = new GLDebugErrorCheck(names);
+        ec.setCheckInterval(0);
+        ec.setCallHistorySize(3);
+        Assert.assertEquals(4, ec.getCallHistorySize());
+        ec.call(0);
+        ec.call(1);
+        ec.endFrame();
+        Assert.assertEquals("glA, glB", ec.appendCheckedCalls(new StringBuilder()).toString());
+        for(int i=0; i<6; i++) {
+            ec.call(i % names.length);
+        }
+        ec.endFrame();
+        Assert.assertEquals(6, ec.getCheckedCallCount());
+        Assert.assertEquals("..., glC, glA, glB, glC", ec.appendCheckedCalls(new StringBuilder()).toString());
+        ec.endFrame();
+        Assert.assertEquals("", ec.appendCheckedCalls(new StringBuilder()).toString());
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestGLDebugErrorCheckNOUI.class.getName());
+    }
+}
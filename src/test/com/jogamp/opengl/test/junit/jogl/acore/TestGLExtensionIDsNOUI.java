@@ -0,0 +1,73 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.acore;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.opengl.GLExtensions;
+
+/**
+ * Validates the {@link GLExtensions} ID table against the extension name constants.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestGLExtensionIDsNOUI {
+
+    @Test
+    public void test01NamesHaveIDs() throws Exception {
+        int names = 0;
+        for(final Field f : GLExtensions.class.getFields()) {
+            if( Modifier.isStatic(f.getModifiers()) && String.class == f.getType() ) {
+                final String name = (String) f.get(null);
+                final int id = GLExtensions.class.getField("ID_"+f.getName()).getInt(null);
+                Assert.assertEquals(f.getName(), id, GLExtensions.getID(name));
+                Assert.assertEquals(f.getName(), name, GLExtensions.getName(id));
+                names++;
+            }
+        }
+        Assert.assertEquals(GLExtensions.ID_COUNT, names);
+    }
+
+    @Test
+    public void test02UnknownAndInvalid() {
+        Assert.assertEquals(-1, GLExtensions.getID("GL_NOT_an_extension"));
+        try {
+            GLExtensions.getName(GLExtensions.ID_COUNT);
+            Assert.fail("IndexOutOfBoundsException expected");
+        } catch (final IndexOutOfBoundsException e) { }
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestGLExtensionIDsNOUI.class.getName());
+    }
+}
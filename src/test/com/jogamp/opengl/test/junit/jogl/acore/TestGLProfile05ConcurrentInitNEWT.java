@@ -0,0 +1,160 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.acore;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.FixMethodOrder;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.nativewindow.AbstractGraphicsDevice;
+import com.jogamp.opengl.GLDrawableFactory;
+import com.jogamp.opengl.GLProfile;
+import com.jogamp.opengl.test.junit.util.UITestCase;
+
+/**
+ * Compares the profiles mapped by {@link GLProfile#isConcurrentInit() concurrent initialization}
+ * w/ those of serial initialization and requests the profiles of a pending device from multiple threads.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestGLProfile05ConcurrentInitNEWT extends UITestCase {
+    static final String CONCURRENT_INIT = "jogl.glprofile.concurrentinit";
+    static final int REQUEST_THREADS = 4;
+
+    private static AbstractGraphicsDevice getDefaultDevice(final boolean mobile) {
+        final GLDrawableFactory factory = GLDrawableFactory.getFactory(mobile);
+        return null != factory ? factory.getDefaultDevice() : null;
+    }
+
+    /** Maps each device and profile name to the mapped implementation, requesting the mobile device 1st. */
+    private static Map<String, String> getProfiles() {
+        final Map<String, String> profiles = new HashMap<String, String>();
+        for(int i=0; i<2; i++) {
+            final AbstractGraphicsDevice device = getDefaultDevice(0 == i);
+            if( null == device ) {
+                continue;
+            }
+            final String prefix = device.getUniqueID()+": ";
+            for(int j=0; j<GLProfile.GL_PROFILE_LIST_ALL.length; j++) {
+                final String name = GLProfile.GL_PROFILE_LIST_ALL[j];
+                profiles.put(prefix+name, GLProfile.isAvailable(device, name) ? GLProfile.get(device, name).getImplName() : null);
+            }
+            profiles.put(prefix+"availability", GLProfile.glAvailabilityToString(device));
+        }
+        return profiles;
+    }
+
+    private static Map<String, String> oneLife(final boolean concurrent) {
+        if( concurrent ) {
+            System.setProperty(CONCURRENT_INIT, "true");
+        } else {
+            System.clearProperty(CONCURRENT_INIT);
+        }
+        try {
+            GLProfile.initSingleton();
+            Assert.assertEquals(concurrent, GLProfile.isConcurrentInit());
+            final Map<String, String> profiles = getProfiles();
+            System.err.println((concurrent ? "Concurrent" : "Serial")+" init: "+profiles);
+            return profiles;
+        } finally {
+            GLProfile.shutdown();
+            System.clearProperty(CONCURRENT_INIT);
+        }
+    }
+
+    @AfterClass
+    public static void releaseClass() {
+        System.clearProperty(CONCURRENT_INIT);
+    }
+
+    @Test
+    public void test01ConcurrentEqualsSerial() {
+        final Map<String, String> serial = oneLife(false);
+        Assert.assertFalse("No profile mapped", serial.isEmpty());
+        final Map<String, String> concurrent = oneLife(true);
+        Assert.assertEquals(serial, concurrent);
+    }
+
+    @Test
+    public void test02JoinOnFirstRequest() throws InterruptedException {
+        System.clearProperty(CONCURRENT_INIT);
+        GLProfile.initSingleton();
+        final GLProfile serialDefault = GLProfile.getDefault();
+        final String serialImpl = serialDefault.getImplName();
+        GLProfile.shutdown();
+
+        System.setProperty(CONCURRENT_INIT, "true");
+        try {
+            GLProfile.initSingleton();
+            Assert.assertTrue(GLProfile.isConcurrentInit());
+            final AbstractGraphicsDevice device = GLProfile.getDefaultDevice();
+            Assert.assertNotNull(device);
+
+            // All threads request the pending default device at once, each must join its single initialization
+            final String[] impls = new String[REQUEST_THREADS];
+            final Throwable[] failures = new Throwable[REQUEST_THREADS];
+            final Thread[] threads = new Thread[REQUEST_THREADS];
+            for(int i=0; i<REQUEST_THREADS; i++) {
+                final int idx = i;
+                threads[i] = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            impls[idx] = GLProfile.getDefault(device).getImplName();
+                        } catch (final Throwable t) {
+                            failures[idx] = t;
+                        }
+                    } }, "Request-"+i);
+            }
+            for(int i=0; i<REQUEST_THREADS; i++) {
+                threads[i].start();
+            }
+            for(int i=0; i<REQUEST_THREADS; i++) {
+                threads[i].join();
+                if( null != failures[i] ) {
+                    failures[i].printStackTrace();
+                }
+                Assert.assertNull("Request "+i+" failed", failures[i]);
+                Assert.assertEquals(serialImpl, impls[i]);
+            }
+        } finally {
+            GLProfile.shutdown();
+            System.clearProperty(CONCURRENT_INIT);
+        }
+    }
+
+    public static void main(final String args[]) throws IOException {
+        final String tstname = TestGLProfile05ConcurrentInitNEWT.class.getName();
+        org.junit.runner.JUnitCore.main(tstname);
+    }
+}
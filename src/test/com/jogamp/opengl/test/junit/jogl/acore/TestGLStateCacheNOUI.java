@@ -0,0 +1,164 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.acore;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.opengl.GL;
+
+import jogamp.opengl.GLStateCache;
+
+/**
+ * Validates the {@link GLStateCache} shadow as used by the generated <code>StateCacheGL*</code> pipelines.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestGLStateCacheNOUI {
+
+    @Test
+    public void test01TextureUnits() {
+        final GLStateCache sc = new GLStateCache(null);
+        // active texture unit unknown, binding not cached
+        Assert.assertTrue(sc.bindTexture(GL.GL_TEXTURE_2D, 1));
+        Assert.assertTrue(sc.bindTexture(GL.GL_TEXTURE_2D, 1));
+        Assert.assertTrue(sc.activeTexture(GL.GL_TEXTURE0));
+        Assert.assertFalse(sc.activeTexture(GL.GL_TEXTURE0));
+        Assert.assertTrue(sc.bindTexture(GL.GL_TEXTURE_2D, 1));
+        Assert.assertFalse(sc.bindTexture(GL.GL_TEXTURE_2D, 1));
+        Assert.assertTrue(sc.bindTexture(GL.GL_TEXTURE_CUBE_MAP, 1));
+        // unit 20 beyond initial capacity
+        Assert.assertTrue(sc.activeTexture(GL.GL_TEXTURE0+20));
+        Assert.assertTrue(sc.bindTexture(GL.GL_TEXTURE_2D, 1));
+        Assert.assertFalse(sc.bindTexture(GL.GL_TEXTURE_2D, 1));
+        Assert.assertTrue(sc.activeTexture(GL.GL_TEXTURE0));
+        Assert.assertFalse(sc.bindTexture(GL.GL_TEXTURE_2D, 1));
+        Assert.assertTrue(sc.bindTexture(GL.GL_TEXTURE_2D, 0));
+        sc.invalidateTextures();
+        Assert.assertTrue(sc.bindTexture(GL.GL_TEXTURE_2D, 0));
+        Assert.assertEquals(4, sc.getFilteredCallCount());
+    }
+
+    @Test
+    public void test02BuffersAndProgram() {
+        final GLStateCache sc = new GLStateCache(null);
+        Assert.assertTrue(sc.bindBuffer(GL.GL_ARRAY_BUFFER, 3));
+        Assert.assertFalse(sc.bindBuffer(GL.GL_ARRAY_BUFFER, 3));
+        Assert.assertTrue(sc.bindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, 3));
+        Assert.assertFalse(sc.bindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, 3));
+        sc.invalidateVertexArray();
+        Assert.assertTrue(sc.bindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, 3));
+        Assert.assertFalse(sc.bindBuffer(GL.GL_ARRAY_BUFFER, 3));
+        // unknown target is passed through
+        Assert.assertTrue(sc.bindBuffer(0x1234, 3));
+        Assert.assertTrue(sc.bindBuffer(0x1234, 3));
+
+        Assert.assertTrue(sc.useProgram(7));
+        Assert.assertFalse(sc.useProgram(7));
+        Assert.assertTrue(sc.useProgram(0));
+        Assert.assertEquals(4, sc.getFilteredCallCount());
+        sc.resetFilteredCallCount();
+        Assert.assertEquals(0, sc.getFilteredCallCount());
+    }
+
+    @Test
+    public void test03EnableBlendViewport() {
+        final GLStateCache sc = new GLStateCache(null);
+        Assert.assertTrue(sc.enable(GL.GL_BLEND, true));
+        Assert.assertFalse(sc.enable(GL.GL_BLEND, true));
+        Assert.assertTrue(sc.enable(GL.GL_BLEND, false));
+        Assert.assertFalse(sc.enable(GL.GL_BLEND, false));
+        sc.invalidateCapability(GL.GL_BLEND);
+        Assert.assertTrue(sc.enable(GL.GL_BLEND, false));
+        // texture unit dependent capability is never cached
+        Assert.assertTrue(sc.enable(GL.GL_TEXTURE_2D, true));
+        Assert.assertTrue(sc.enable(GL.GL_TEXTURE_2D, true));
+
+        Assert.assertTrue(sc.blendFunc(GL.GL_SRC_ALPHA, GL.GL_ONE_MINUS_SRC_ALPHA));
+        Assert.assertFalse(sc.blendFuncSeparate(GL.GL_SRC_ALPHA, GL.GL_ONE_MINUS_SRC_ALPHA, GL.GL_SRC_ALPHA, GL.GL_ONE_MINUS_SRC_ALPHA));
+        Assert.assertTrue(sc.blendFuncSeparate(GL.GL_SRC_ALPHA, GL.GL_ONE_MINUS_SRC_ALPHA, GL.GL_ONE, GL.GL_ZERO));
+        Assert.assertTrue(sc.blendFunc(GL.GL_SRC_ALPHA, GL.GL_ONE_MINUS_SRC_ALPHA));
+
+        // negative origin must not collide w/ the unknown state
+        Assert.assertTrue(sc.viewport(-1, -1, -1, -1));
+        Assert.assertFalse(sc.viewport(-1, -1, -1, -1));
+        Assert.assertTrue(sc.viewport(0, 0, 640, 480));
+        Assert.assertTrue(sc.scissor(0, 0, 640, 480));
+        Assert.assertFalse(sc.scissor(0, 0, 640, 480));
+        Assert.assertTrue(sc.depthMask(false));
+        Assert.assertFalse(sc.depthMask(false));
+        Assert.assertTrue(sc.depthFunc(GL.GL_LEQUAL));
+        Assert.assertFalse(sc.depthFunc(GL.GL_LEQUAL));
+        Assert.assertEquals(7, sc.getFilteredCallCount());
+    }
+
+    @Test
+    public void test04DisplayListAndInvalidate() {
+        final GLStateCache sc = new GLStateCache(null);
+        Assert.assertTrue(sc.useProgram(1));
+        sc.beginList();
+        Assert.assertTrue(sc.useProgram(1));
+        Assert.assertTrue(sc.useProgram(1));
+        sc.endList();
+        Assert.assertTrue(sc.useProgram(1));
+        Assert.assertFalse(sc.useProgram(1));
+        sc.invalidate();
+        Assert.assertTrue(sc.useProgram(1));
+        Assert.assertEquals(1, sc.getFilteredCallCount());
+    }
+
+    @Test
+    public void test05ProgramAndObjectInvalidation() {
+        final GLStateCache sc = new GLStateCache(null);
+        Assert.assertTrue(sc.useProgram(5));
+        Assert.assertFalse(sc.useProgram(5));
+        // e.g. glUseProgramObjectARB(0) changed the program binding
+        sc.invalidateProgram();
+        Assert.assertTrue(sc.useProgram(5));
+
+        Assert.assertTrue(sc.activeTexture(GL.GL_TEXTURE0));
+        Assert.assertTrue(sc.bindTexture(GL.GL_TEXTURE_2D, 2));
+        Assert.assertTrue(sc.bindBuffer(GL.GL_ARRAY_BUFFER, 3));
+        Assert.assertTrue(sc.enable(GL.GL_BLEND, true));
+        Assert.assertTrue(sc.viewport(0, 0, 640, 480));
+        // shared object names may have been reused, other state is kept
+        sc.invalidateObjects();
+        Assert.assertFalse(sc.activeTexture(GL.GL_TEXTURE0));
+        Assert.assertTrue(sc.bindTexture(GL.GL_TEXTURE_2D, 2));
+        Assert.assertTrue(sc.bindBuffer(GL.GL_ARRAY_BUFFER, 3));
+        Assert.assertTrue(sc.useProgram(5));
+        Assert.assertFalse(sc.enable(GL.GL_BLEND, true));
+        Assert.assertFalse(sc.viewport(0, 0, 640, 480));
+        Assert.assertEquals(4, sc.getFilteredCallCount());
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestGLStateCacheNOUI.class.getName());
+    }
+}
@@ -0,0 +1,209 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.acore;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+
+import jogamp.opengl.GLVersionProbeCache;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+/**
+ * Tests the GL independent storage of the {@link GLVersionProbeCache},
+ * i.e. the round trip of a version map and rejecting mismatching or broken entries.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestGLVersionProbeCacheNOUI {
+    static final String VERSION = "2.4.0-test";
+    static final String DEVICE = "X11GraphicsDevice_:0.0-1";
+
+    private static File createDir() throws IOException {
+        final File dir = File.createTempFile("jogl-glversions", "");
+        Assert.assertTrue(dir.delete());
+        return dir; // created by store
+    }
+
+    private static void deleteDir(final File dir) {
+        final File[] files = dir.listFiles();
+        if( null != files ) {
+            for(int i=0; i<files.length; i++) {
+                files[i].delete();
+            }
+        }
+        dir.delete();
+    }
+
+    private static File getFile(final File dir) {
+        final File[] files = dir.listFiles();
+        Assert.assertNotNull(files);
+        Assert.assertEquals(1, files.length);
+        return files[0];
+    }
+
+    private static GLVersionProbeCache.Entry createEntry() {
+        final GLVersionProbeCache.Entry e = new GLVersionProbeCache.Entry("Vendor", "Renderer 1.0", "4.6.0 Driver 123", "GL_ARB_a GL_ARB_b",
+                                                                          0x0002 | 0x0004, 4, 6);
+        e.mappings.add(new GLVersionProbeCache.Mapping(4, 0x1, 4, 6, 0x0c05));
+        e.mappings.add(new GLVersionProbeCache.Mapping(3, 0x1, 4, 6, 0x0c05));
+        e.mappings.add(new GLVersionProbeCache.Mapping(2, 0x4, 4, 6, 0x0c06));
+        e.stickyQuirks.add(Integer.valueOf(3));
+        e.stickyQuirks.add(Integer.valueOf(17));
+        return e;
+    }
+
+    private static void edit(final File file, final String key, final String value) throws IOException {
+        final Properties props = new Properties();
+        final InputStream in = new FileInputStream(file);
+        try {
+            props.load(in);
+        } finally {
+            in.close();
+        }
+        if( null != value ) {
+            props.setProperty(key, value);
+        } else {
+            props.remove(key);
+        }
+        final OutputStream out = new FileOutputStream(file);
+        try {
+            props.store(out, null);
+        } finally {
+            out.close();
+        }
+    }
+
+    @Test
+    public void test01RoundTrip() throws IOException {
+        final File dir = createDir();
+        try {
+            Assert.assertNull(GLVersionProbeCache.load(dir, VERSION, DEVICE));
+            final GLVersionProbeCache.Entry s = createEntry();
+            GLVersionProbeCache.store(dir, VERSION, DEVICE, s);
+            final GLVersionProbeCache.Entry l = GLVersionProbeCache.load(dir, VERSION, DEVICE);
+            Assert.assertNotNull(l);
+            Assert.assertTrue(l.matches(s.vendor, s.renderer, s.version, s.extensions));
+            Assert.assertEquals(s.probeCtp, l.probeCtp);
+            Assert.assertEquals(s.probeMajor, l.probeMajor);
+            Assert.assertEquals(s.probeMinor, l.probeMinor);
+            Assert.assertEquals(s.mappings.size(), l.mappings.size());
+            for(int i=0; i<s.mappings.size(); i++) {
+                final GLVersionProbeCache.Mapping sm = s.mappings.get(i);
+                final GLVersionProbeCache.Mapping lm = l.mappings.get(i);
+                Assert.assertEquals(sm.reqMajor, lm.reqMajor);
+                Assert.assertEquals(sm.reqProfile, lm.reqProfile);
+                Assert.assertEquals(sm.major, lm.major);
+                Assert.assertEquals(sm.minor, lm.minor);
+                Assert.assertEquals(sm.ctp, lm.ctp);
+            }
+            Assert.assertEquals(s.stickyQuirks, l.stickyQuirks);
+
+            // overwrite w/ an entry w/o quirks
+            final GLVersionProbeCache.Entry s2 = new GLVersionProbeCache.Entry(null, null, null, null, 0, 2, 1);
+            GLVersionProbeCache.store(dir, VERSION, DEVICE, s2);
+            final GLVersionProbeCache.Entry l2 = GLVersionProbeCache.load(dir, VERSION, DEVICE);
+            Assert.assertTrue(l2.matches("", "", "", ""));
+            Assert.assertEquals(0, l2.mappings.size());
+            Assert.assertEquals(0, l2.stickyQuirks.size());
+            Assert.assertEquals(1, dir.listFiles().length); // no temporary file left
+        } finally {
+            deleteDir(dir);
+        }
+    }
+
+    @Test
+    public void test02DriverMismatch() {
+        final GLVersionProbeCache.Entry e = createEntry();
+        Assert.assertTrue(e.matches("Vendor", "Renderer 1.0", "4.6.0 Driver 123", "GL_ARB_a GL_ARB_b"));
+        Assert.assertFalse(e.matches("Vendor", "Renderer 1.0", "4.6.0 Driver 124", "GL_ARB_a GL_ARB_b"));
+        Assert.assertFalse(e.matches("Vendor", "Renderer 2.0", "4.6.0 Driver 123", "GL_ARB_a GL_ARB_b"));
+        Assert.assertFalse(e.matches("Other", "Renderer 1.0", "4.6.0 Driver 123", "GL_ARB_a GL_ARB_b"));
+        Assert.assertFalse(e.matches("Vendor", "Renderer 1.0", "4.6.0 Driver 123", "GL_ARB_a"));
+        Assert.assertFalse(e.matches(null, "Renderer 1.0", "4.6.0 Driver 123", "GL_ARB_a GL_ARB_b"));
+    }
+
+    @Test
+    public void test03VersionAndDeviceMismatch() throws IOException {
+        final File dir = createDir();
+        try {
+            GLVersionProbeCache.store(dir, VERSION, DEVICE, createEntry());
+            Assert.assertNotNull(GLVersionProbeCache.load(dir, VERSION, DEVICE));
+            Assert.assertNull(GLVersionProbeCache.load(dir, "2.4.1-test", DEVICE));
+            // different device sharing the same file name
+            Assert.assertNull(GLVersionProbeCache.load(dir, VERSION, DEVICE.replace(':', '_')));
+            // other format version
+            edit(getFile(dir), "format", "0");
+            Assert.assertNull(GLVersionProbeCache.load(dir, VERSION, DEVICE));
+        } finally {
+            deleteDir(dir);
+        }
+    }
+
+    @Test
+    public void test04BrokenFile() throws IOException {
+        final File dir = createDir();
+        try {
+            final String[][] edits = {
+                { "probe", "4 6" },             // missing field
+                { "probe", null },              // missing key
+                { "mappings", "4" },            // missing mapping
+                { "mappings", "x" },            // no number
+                { "mapping.1", "3 1 4 6" },     // missing field
+                { "mapping.1", "3 zz 4 6 c05" },// no hex number
+                { "quirks", "3 x" },            // no number
+            };
+            for(int i=0; i<edits.length; i++) {
+                GLVersionProbeCache.store(dir, VERSION, DEVICE, createEntry());
+                edit(getFile(dir), edits[i][0], edits[i][1]);
+                Assert.assertNull(edits[i][0]+" = "+edits[i][1], GLVersionProbeCache.load(dir, VERSION, DEVICE));
+            }
+            // garbage
+            final OutputStream out = new FileOutputStream(getFile(dir));
+            try {
+                out.write(new byte[] { 0, 1, 2, '=', '\n', (byte)0xff });
+            } finally {
+                out.close();
+            }
+            Assert.assertNull(GLVersionProbeCache.load(dir, VERSION, DEVICE));
+        } finally {
+            deleteDir(dir);
+        }
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestGLVersionProbeCacheNOUI.class.getName());
+    }
+}
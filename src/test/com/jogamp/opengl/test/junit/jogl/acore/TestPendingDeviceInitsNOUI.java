@@ -0,0 +1,195 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.acore;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jogamp.opengl.PendingDeviceInits;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.opengl.GLException;
+
+/**
+ * Tests the GL independent join semantics of {@link PendingDeviceInits},
+ * used by the concurrent initialization of {@link com.jogamp.opengl.GLProfile}.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestPendingDeviceInitsNOUI {
+    static final String DEVICE_A = "EGLGraphicsDevice_:0.0-1";
+    static final String DEVICE_B = "X11GraphicsDevice_:0.0-1";
+
+    static class Awaiter extends Thread {
+        final PendingDeviceInits pending;
+        final String key;
+        volatile Boolean result = null;
+        volatile Throwable failure = null;
+        Awaiter(final PendingDeviceInits pending, final String key) {
+            this.pending = pending;
+            this.key = key;
+        }
+        @Override
+        public void run() {
+            try {
+                result = pending.await(key);
+            } catch (final Throwable t) {
+                failure = t;
+            }
+        }
+    }
+
+    @Test
+    public void test01JoinOnFirstRequest() throws InterruptedException {
+        final PendingDeviceInits pending = new PendingDeviceInits();
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger runs = new AtomicInteger();
+        final PendingDeviceInits.Task task = pending.add(DEVICE_A, "Init-A", new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws InterruptedException {
+                runs.incrementAndGet();
+                release.await();
+                return Boolean.TRUE;
+            } });
+        Assert.assertSame(task, pending.get(DEVICE_A));
+        Assert.assertNull("Other device pending", pending.await(DEVICE_B));
+        task.getThread().start();
+
+        final Awaiter a1 = new Awaiter(pending, DEVICE_A);
+        final Awaiter a2 = new Awaiter(pending, DEVICE_A);
+        a1.start();
+        a2.start();
+        a1.join(200);
+        Assert.assertTrue("Request did not wait for pending initialization", a1.isAlive() && a2.isAlive());
+        Assert.assertFalse(task.isDone());
+
+        release.countDown();
+        a1.join(5000);
+        a2.join(5000);
+        Assert.assertNull(a1.failure);
+        Assert.assertNull(a2.failure);
+        Assert.assertEquals(Boolean.TRUE, a1.result);
+        Assert.assertEquals(Boolean.TRUE, a2.result);
+        Assert.assertEquals("Initialization not run once", 1, runs.get());
+        Assert.assertNull("Joined initialization still pending", pending.get(DEVICE_A));
+        Assert.assertEquals(0, pending.size());
+    }
+
+    @Test
+    public void test02InitThreadPasses() throws InterruptedException {
+        final PendingDeviceInits pending = new PendingDeviceInits();
+        final Boolean[] inner = { Boolean.FALSE };
+        final PendingDeviceInits.Task task = pending.add(DEVICE_A, "Init-A", new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                // the initializing thread requesting its own device must not join itself
+                inner[0] = pending.await(DEVICE_A);
+                return Boolean.TRUE;
+            } });
+        task.getThread().start();
+        task.getThread().join(5000);
+        Assert.assertTrue("Initializing thread deadlocked", task.isDone());
+        Assert.assertNull(inner[0]);
+        Assert.assertEquals(Boolean.TRUE, pending.await(DEVICE_A));
+    }
+
+    @Test
+    public void test03FailureSurfaces() throws InterruptedException {
+        final PendingDeviceInits pending = new PendingDeviceInits();
+        final RuntimeException cause = new RuntimeException("probe failed");
+        final PendingDeviceInits.Task task = pending.add(DEVICE_A, "Init-A", new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                throw cause;
+            } });
+        task.getThread().start();
+        try {
+            pending.await(DEVICE_A);
+            Assert.fail("Failed initialization not thrown");
+        } catch (final GLException gle) {
+            Assert.assertSame(cause, gle.getCause());
+        }
+        Assert.assertEquals(0, pending.size());
+    }
+
+    @Test
+    public void test04AwaitAllThrowsFailure() throws InterruptedException {
+        final PendingDeviceInits pending = new PendingDeviceInits();
+        final RuntimeException cause = new RuntimeException("probe failed");
+        final CountDownLatch release = new CountDownLatch(1);
+        final PendingDeviceInits.Task taskA = pending.add(DEVICE_A, "Init-A", new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws InterruptedException {
+                release.await();
+                return Boolean.TRUE;
+            } });
+        final PendingDeviceInits.Task taskB = pending.add(DEVICE_B, "Init-B", new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                throw cause;
+            } });
+        try {
+            pending.add(DEVICE_A, "Init-A2", new Callable<Boolean>() {
+                @Override
+                public Boolean call() { return Boolean.FALSE; } });
+            Assert.fail("Duplicate pending initialization accepted");
+        } catch (final IllegalArgumentException iae) {
+            // expected
+        }
+        taskA.getThread().start();
+        taskB.getThread().start();
+        Assert.assertTrue(taskB.getThread().isDaemon());
+        new Thread() {
+            @Override
+            public void run() {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(100);
+                } catch (final InterruptedException ie) { }
+                release.countDown();
+            } }.start();
+        try {
+            pending.awaitAll();
+            Assert.fail("Failed initialization not thrown");
+        } catch (final GLException gle) {
+            Assert.assertSame(cause, gle.getCause());
+        }
+        Assert.assertTrue("Not all initializations awaited", taskA.isDone() && taskB.isDone());
+        Assert.assertEquals(0, pending.size());
+    }
+
+    public static void main(final String args[]) throws IOException {
+        final String tstname = TestPendingDeviceInitsNOUI.class.getName();
+        org.junit.runner.JUnitCore.main(tstname);
+    }
+}
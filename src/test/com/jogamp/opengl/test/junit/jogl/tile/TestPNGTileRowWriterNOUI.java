@@ -0,0 +1,149 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.tile;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import com.jogamp.nativewindow.util.PixelFormat;
+import com.jogamp.opengl.GL;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.FixMethodOrder;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.opengl.util.GLPixelBuffer;
+import com.jogamp.opengl.util.GLPixelBuffer.GLPixelAttributes;
+import com.jogamp.opengl.util.PNGPixelRect;
+import com.jogamp.opengl.util.PNGTileRowWriter;
+import com.jogamp.opengl.util.TileRenderer;
+
+/**
+ * Feeds synthetic tile rows into {@link PNGTileRowWriter} the way {@link TileRenderer} does
+ * and validates the decoded PNG, w/o requiring a GL context.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestPNGTileRowWriterNOUI {
+    static final int imageWidth = 300;
+    static final int imageHeight = 200;
+    static final int tileSize = 64;
+
+    private static int pixel(final int x, final int yTop) {
+        return ( x & 0xff ) | ( ( yTop & 0xff ) << 8 ) | ( ( ( x + yTop ) & 0xff ) << 16 ) | 0xff000000;
+    }
+
+    private void testImpl(final boolean async) throws IOException {
+        final TileRenderer tr = new TileRenderer();
+        tr.setImageSize(imageWidth, imageHeight);
+        tr.setTileSize(tileSize, tileSize, 0);
+
+        final GLPixelAttributes pixelAttribs = new GLPixelAttributes(GL.GL_RGBA, GL.GL_UNSIGNED_BYTE);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final PNGTileRowWriter writer = new PNGTileRowWriter(imageWidth, imageHeight, pixelAttribs, 72.0, 72.0, out, true, async);
+        writer.attachTo(tr);
+        Assert.assertEquals(TileRenderer.TR_TOP_TO_BOTTOM, tr.getParam(TileRenderer.TR_ROW_ORDER));
+
+        final int rows = tr.getParam(TileRenderer.TR_ROWS);
+        GLPixelBuffer rowBuffer = writer.createRowBuffer(tileSize);
+        for(int row = rows - 1; row >= 0; row--) {
+            // Same band layout as TileRenderer.endTile(..) produces: bottom-up lines, clipped width
+            final int imageY = row * tileSize;
+            final int rowHeight = Math.min(tileSize, imageHeight - imageY);
+            final ByteBuffer bb = (ByteBuffer) rowBuffer.buffer;
+            bb.clear();
+            for(int i=0; i<rowHeight; i++) {
+                final int yTop = imageHeight - 1 - ( imageY + i );
+                for(int x=0; x<imageWidth; x++) {
+                    final int p = pixel(x, yTop);
+                    bb.put((byte)p).put((byte)(p>>>8)).put((byte)(p>>>16)).put((byte)(p>>>24));
+                }
+            }
+            bb.flip();
+            final GLPixelBuffer next = writer.tileRowDone(tr, rowBuffer, row, imageY, rowHeight);
+            Assert.assertNotNull(next);
+            if( async ) {
+                Assert.assertNotSame(rowBuffer, next);
+            }
+            rowBuffer = next;
+        }
+        writer.finish();
+        Assert.assertEquals(imageHeight, writer.getRowsWritten());
+
+        final PNGPixelRect image = PNGPixelRect.read(new ByteArrayInputStream(out.toByteArray()),
+                                                     PixelFormat.RGBA8888, false /* directBuffer */, 0 /* destMinStrideInBytes */,
+                                                     false /* destIsGLOriented */);
+        Assert.assertEquals(imageWidth, image.getSize().getWidth());
+        Assert.assertEquals(imageHeight, image.getSize().getHeight());
+        final ByteBuffer pixels = image.getPixels();
+        final int stride = image.getStride();
+        for(int y=0; y<imageHeight; y++) {
+            for(int x=0; x<imageWidth; x++) {
+                final int off = y * stride + x * 4;
+                final int p = ( pixels.get(off) & 0xff ) | ( ( pixels.get(off+1) & 0xff ) << 8 ) |
+                              ( ( pixels.get(off+2) & 0xff ) << 16 ) | ( ( pixels.get(off+3) & 0xff ) << 24 );
+                if( pixel(x, y) != p ) {
+                    Assert.fail("Pixel mismatch at "+x+"/"+y+": 0x"+Integer.toHexString(p)+" != 0x"+Integer.toHexString(pixel(x, y)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void test01Sync() throws IOException {
+        testImpl(false);
+    }
+
+    @Test
+    public void test02Async() throws IOException {
+        testImpl(true);
+    }
+
+    @Test
+    public void test03Incomplete() throws IOException {
+        final TileRenderer tr = new TileRenderer();
+        tr.setImageSize(imageWidth, imageHeight);
+        tr.setTileSize(tileSize, tileSize, 0);
+        final GLPixelAttributes pixelAttribs = new GLPixelAttributes(GL.GL_RGBA, GL.GL_UNSIGNED_BYTE);
+        final PNGTileRowWriter writer = new PNGTileRowWriter(imageWidth, imageHeight, pixelAttribs, 72.0, 72.0,
+                                                             new ByteArrayOutputStream(), true, false);
+        writer.attachTo(tr);
+        try {
+            writer.finish();
+            Assert.fail("Expected IOException for incomplete image");
+        } catch (final IOException e) {
+            // expected
+        }
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestPNGTileRowWriterNOUI.class.getName());
+    }
+}
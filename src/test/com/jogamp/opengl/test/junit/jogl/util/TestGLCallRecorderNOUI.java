@@ -0,0 +1,147 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.Buffer;
+import java.nio.FloatBuffer;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.util.GLCallRecorder;
+import com.jogamp.opengl.util.GLCallReplayer;
+import com.jogamp.opengl.util.GLCallReplayer.Call;
+import com.jogamp.opengl.util.GLCallReplayer.Frame;
+
+/**
+ * Round trips a trace through {@link GLCallRecorder} and {@link GLCallReplayer#read(java.io.InputStream)},
+ * as used by the generated <code>RecordingGL*</code> pipelines, w/o issuing any GL call.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestGLCallRecorderNOUI {
+    static final String[] signatures = new String[] {
+        "glBindTexture(II)",
+        "glBufferData(IJLjava/nio/Buffer;I)",
+        "glShaderSource(II[Ljava/lang/String;[II)",
+        "glUniform4fv(II[FI)",
+        "glFlush()",
+        "glGetBufferSubData(IJJLjava/lang/Object;)" };
+
+    @Test
+    public void test01RoundTrip() throws Exception {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final GLCallRecorder rec = new GLCallRecorder(bytes, "GL2ES2", 64, 32, false);
+        final FloatBuffer verts = Buffers.newDirectFloatBuffer(new float[] { 9f, 1f, 2f, 3f });
+        verts.position(1);
+
+        // frame 0
+        Assert.assertTrue(rec.begin(0, signatures));
+        rec.arg(GL.GL_TEXTURE_2D); rec.arg(5);
+        Assert.assertTrue(rec.begin(1, signatures));
+        rec.arg(GL.GL_ARRAY_BUFFER); rec.arg(12L); rec.arg((Buffer)verts); rec.arg(GL.GL_STATIC_DRAW);
+        rec.unsupported(5, signatures);
+        rec.frame(null, 64, 32);
+        // frame 1
+        Assert.assertTrue(rec.begin(2, signatures));
+        rec.arg(7); rec.arg(1); rec.arg(new String[] { "void main() { gl_FragColor = vec4(1.0); } // ä" }); rec.arg((int[])null); rec.arg(0);
+        Assert.assertTrue(rec.begin(3, signatures));
+        rec.arg(2); rec.arg(1); rec.arg(new float[] { 0.5f, 1.5f, 2.5f, 3.5f }); rec.arg(0);
+        rec.setRecording(false);
+        Assert.assertFalse(rec.begin(0, signatures));
+        rec.setRecording(true);
+        rec.begin(4, signatures);
+        rec.frame(null, 64, 32);
+        rec.close();
+        Assert.assertEquals(5, rec.getCallCount());
+        Assert.assertEquals(1, rec.getUnsupportedCallCount());
+        Assert.assertEquals(2, rec.getFrameCount());
+        Assert.assertEquals(1, verts.position()); // untouched
+
+        final GLCallReplayer rep = new GLCallReplayer();
+        rep.read(new ByteArrayInputStream(bytes.toByteArray()));
+        System.err.println("Trace size "+bytes.size()+" bytes");
+        Assert.assertEquals("GL2ES2", rep.getProfileName());
+        Assert.assertEquals(64, rep.getWidth());
+        Assert.assertEquals(32, rep.getHeight());
+        Assert.assertEquals(2, rep.getFrames().size());
+        Assert.assertEquals(5, rep.getCallCount());
+        Assert.assertEquals(1, rep.getUnsupportedCallCount());
+
+        final Frame f0 = rep.getFrames().get(0);
+        Assert.assertFalse(f0.hasChecksum);
+        Assert.assertEquals(3, f0.calls.length);
+        Assert.assertEquals("glBindTexture", f0.calls[0].entryPoint.name);
+        Assert.assertArrayEquals(new Object[] { Integer.valueOf(GL.GL_TEXTURE_2D), Integer.valueOf(5) }, f0.calls[0].args);
+        final Call bufferData = f0.calls[1];
+        Assert.assertEquals(Buffer.class, bufferData.entryPoint.paramTypes[2]);
+        Assert.assertEquals(Long.valueOf(12), bufferData.args[1]);
+        final FloatBuffer fb = (FloatBuffer) bufferData.args[2];
+        Assert.assertTrue(fb.isDirect());
+        Assert.assertEquals(3, fb.remaining());
+        Assert.assertEquals(1f, fb.get(0), 0f);
+        Assert.assertEquals(3f, fb.get(2), 0f);
+        Assert.assertNull(f0.calls[2].args);
+
+        final Frame f1 = rep.getFrames().get(1);
+        Assert.assertEquals(3, f1.calls.length);
+        Assert.assertEquals("void main() { gl_FragColor = vec4(1.0); } // ä", ((String[])f1.calls[0].args[2])[0]);
+        Assert.assertNull(f1.calls[0].args[3]);
+        Assert.assertArrayEquals(new float[] { 0.5f, 1.5f, 2.5f, 3.5f }, (float[])f1.calls[1].args[2], 0f);
+        Assert.assertEquals(0, f1.calls[2].args.length);
+    }
+
+    @Test
+    public void test02UnclosedTrace() throws Exception {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final GLCallRecorder rec = new GLCallRecorder(bytes, "GL2ES2", 1, 1, false);
+        rec.begin(0, signatures);
+        rec.arg(GL.GL_TEXTURE_2D); rec.arg(1);
+        rec.frame(null, 1, 1);
+        rec.begin(4, signatures);
+        rec.close();
+        // drop the end tag, as left by an aborted application
+        final byte[] trace = bytes.toByteArray();
+        final byte[] unclosed = new byte[trace.length - 1];
+        System.arraycopy(trace, 0, unclosed, 0, unclosed.length);
+
+        final GLCallReplayer rep = new GLCallReplayer();
+        rep.read(new ByteArrayInputStream(unclosed));
+        Assert.assertEquals(2, rep.getFrames().size());
+        Assert.assertEquals(1, rep.getFrames().get(1).calls.length);
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestGLCallRecorderNOUI.class.getName());
+    }
+}
@@ -0,0 +1,168 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+package com.jogamp.opengl.test.junit.jogl.util.packrect;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.opengl.util.packrect.BackingStoreManager;
+import com.jogamp.opengl.util.packrect.LevelSet;
+import com.jogamp.opengl.util.packrect.MaxRectsSet;
+import com.jogamp.opengl.util.packrect.PackingStrategy;
+import com.jogamp.opengl.util.packrect.Rect;
+import com.jogamp.opengl.util.packrect.RectVisitor;
+import com.jogamp.opengl.util.packrect.RectanglePacker;
+import com.jogamp.opengl.util.packrect.SkylineSet;
+
+/**
+ * Validates all {@link PackingStrategy}s of the {@link RectanglePacker}:
+ * Rects must stay within the backing store and must never overlap,
+ * neither after random additions and removals nor after compaction.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestRectanglePacker01NOUI {
+
+    /** Backing store is just its dimension, tracks movements. */
+    static class Manager implements BackingStoreManager {
+        int allocations = 0;
+        int moves = 0;
+
+        @Override
+        public Object allocateBackingStore(final int w, final int h) {
+            allocations++;
+            return new int[] { w, h };
+        }
+        @Override
+        public void deleteBackingStore(final Object backingStore) { }
+        @Override
+        public boolean canCompact() { return true; }
+        @Override
+        public boolean preExpand(final Rect cause, final int attemptNumber) { return false; }
+        @Override
+        public boolean additionFailed(final Rect cause, final int attemptNumber) { return false; }
+        @Override
+        public void beginMovement(final Object oldBackingStore, final Object newBackingStore) { }
+        @Override
+        public void move(final Object oldBackingStore, final Rect oldLocation, final Object newBackingStore, final Rect newLocation) {
+            moves++;
+        }
+        @Override
+        public void endMovement(final Object oldBackingStore, final Object newBackingStore) { }
+    }
+
+    static void validate(final String msg, final RectanglePacker packer, final int expCount) {
+        final int[] bs = (int[]) packer.getBackingStore();
+        final List<Rect> rects = new ArrayList<Rect>();
+        packer.visit(new RectVisitor() {
+            @Override
+            public void visit(final Rect rect) {
+                rects.add(rect);
+            } });
+        Assert.assertEquals(msg+": rect count", expCount, rects.size());
+        for(int i=0; i<rects.size(); i++) {
+            final Rect a = rects.get(i);
+            Assert.assertTrue(msg+": "+a+" exceeds "+bs[0]+"x"+bs[1], a.x() + a.w() <= bs[0] && a.y() + a.h() <= bs[1]);
+            for(int j=i+1; j<rects.size(); j++) {
+                final Rect b = rects.get(j);
+                final boolean overlap = a.x() < b.x() + b.w() && b.x() < a.x() + a.w() &&
+                                        a.y() < b.y() + b.h() && b.y() < a.y() + a.h();
+                Assert.assertFalse(msg+": "+a+" overlaps "+b, overlap);
+            }
+        }
+        final float occupancy = packer.occupancy();
+        Assert.assertTrue(msg+": occupancy "+occupancy, 0f <= occupancy && occupancy <= 1f);
+    }
+
+    static void testRandomImpl(final String name, final PackingStrategy.Factory factory) {
+        final Random rnd = new Random(42);
+        final Manager manager = new Manager();
+        final RectanglePacker packer = new RectanglePacker(manager, 256, 256, factory);
+        final List<Rect> live = new ArrayList<Rect>();
+        for(int i=0; i<2000; i++) {
+            if( live.size() > 0 && rnd.nextInt(3) == 0 ) {
+                packer.remove(live.remove(rnd.nextInt(live.size())));
+            } else {
+                final Rect r = new Rect(0, 0, 1 + rnd.nextInt(64), 1 + rnd.nextInt(32), null);
+                packer.add(r);
+                live.add(r);
+            }
+            if( 0 == i % 100 ) {
+                validate(name+" #"+i, packer, live.size());
+            }
+        }
+        validate(name+" final", packer, live.size());
+        packer.compact();
+        validate(name+" compacted", packer, live.size());
+        System.err.println(name+": "+live.size()+" rects, occupancy "+packer.occupancy()+", fragmentation "+packer.fragmentation()+
+                           ", compactions "+packer.getCompactionCount()+", allocations "+manager.allocations+", moves "+manager.moves);
+        packer.clear();
+        validate(name+" cleared", packer, 0);
+        packer.dispose();
+    }
+
+    @Test
+    public void test01LevelSet() {
+        testRandomImpl("LevelSet", LevelSet.factory);
+    }
+
+    @Test
+    public void test02SkylineSet() {
+        testRandomImpl("SkylineSet", SkylineSet.factory);
+    }
+
+    @Test
+    public void test03MaxRectsSet() {
+        testRandomImpl("MaxRectsSet", MaxRectsSet.factory);
+    }
+
+    @Test
+    public void test10RemoveAndReAdd() {
+        final PackingStrategy[] strategies = { new LevelSet(64, 64), new SkylineSet(64, 64), new MaxRectsSet(64, 64) };
+        for(final PackingStrategy s : strategies) {
+            final Rect a = new Rect(0, 0, 40, 30, null);
+            final Rect b = new Rect(0, 0, 20, 60, null);
+            Assert.assertTrue(s.getClass().getSimpleName(), s.add(a));
+            Assert.assertTrue(s.getClass().getSimpleName(), s.add(b));
+            // the last added rect must fit again after its removal
+            Assert.assertTrue(s.getClass().getSimpleName(), s.remove(b));
+            Assert.assertTrue(s.getClass().getSimpleName(), s.add(b));
+            Assert.assertFalse(s.getClass().getSimpleName(), s.remove(new Rect(0, 0, 1, 1, null)));
+        }
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestRectanglePacker01NOUI.class.getName());
+    }
+}
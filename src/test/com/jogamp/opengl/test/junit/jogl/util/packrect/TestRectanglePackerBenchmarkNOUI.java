@@ -0,0 +1,225 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+package com.jogamp.opengl.test.junit.jogl.util.packrect;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+import org.junit.FixMethodOrder;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.opengl.util.packrect.LevelSet;
+import com.jogamp.opengl.util.packrect.MaxRectsSet;
+import com.jogamp.opengl.util.packrect.PackingStrategy;
+import com.jogamp.opengl.util.packrect.Rect;
+import com.jogamp.opengl.util.packrect.RectanglePacker;
+import com.jogamp.opengl.util.packrect.SkylineSet;
+
+/**
+ * Replays a glyph cache insert/remove trace against all {@link PackingStrategy}s
+ * and reports backing store re-allocations, moved rects, occupancy and time.
+ * <p>
+ * The trace mimics the {@link com.jogamp.opengl.util.awt.TextRenderer} usage,
+ * i.e. strings of various font sizes are added on demand, unused ones are
+ * removed after a few frames and the packer is compacted if the vertical
+ * fragmentation exceeds 0.7.
+ * </p>
+ * <p>
+ * A recorded trace may be passed via <code>-trace file</code>, each line
+ * being either <code>a id width height</code>, <code>r id</code> or <code>f</code>
+ * for add, remove and end-of-frame.
+ * </p>
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestRectanglePackerBenchmarkNOUI {
+    static final float MAX_VERTICAL_FRAGMENTATION = 0.7f;
+    static String traceFile = null;
+    static int frames = 1000;
+
+    static final int OP_ADD = 0;
+    static final int OP_REMOVE = 1;
+    static final int OP_FRAME = 2;
+
+    /** Trace as flat int array of [op, id, w, h] tuples */
+    static class Trace {
+        int[] ops = new int[4*1024];
+        int count = 0;
+
+        void put(final int op, final int id, final int w, final int h) {
+            if( count + 4 > ops.length ) {
+                final int[] tmp = new int[2*ops.length];
+                System.arraycopy(ops, 0, tmp, 0, count);
+                ops = tmp;
+            }
+            ops[count++] = op;
+            ops[count++] = id;
+            ops[count++] = w;
+            ops[count++] = h;
+        }
+    }
+
+    /** Synthetic glyph cache trace of a UI w/ a few font sizes and a zipf'ish string usage. */
+    static Trace createTrace(final int frames) {
+        final Random rnd = new Random(4711);
+        final int vocabulary = 3000;
+        final int[] fontSizes = { 10, 12, 14, 18, 24, 36, 48 };
+        final int[] stringW = new int[vocabulary];
+        final int[] stringH = new int[vocabulary];
+        for(int i=0; i<vocabulary; i++) {
+            final int fs = fontSizes[rnd.nextInt(fontSizes.length)];
+            final int len = 1 + rnd.nextInt(24);
+            stringW[i] = Math.max(1, (int)(len * fs * 0.6f));
+            stringH[i] = fs + fs/4;
+        }
+        final Trace trace = new Trace();
+        final int[] lastUse = new int[vocabulary];
+        final boolean[] cached = new boolean[vocabulary];
+        for(int f=0; f<frames; f++) {
+            // a page change every 200 frames shifts the hot set
+            final int base = ( f / 200 ) * 97;
+            for(int j=0; j<40; j++) {
+                final int id = ( base + (int) (vocabulary * Math.pow(rnd.nextDouble(), 3)) ) % vocabulary;
+                if( !cached[id] ) {
+                    trace.put(OP_ADD, id, stringW[id], stringH[id]);
+                    cached[id] = true;
+                }
+                lastUse[id] = f;
+            }
+            for(int id=0; id<vocabulary; id++) {
+                if( cached[id] && f - lastUse[id] > 20 ) {
+                    trace.put(OP_REMOVE, id, 0, 0);
+                    cached[id] = false;
+                }
+            }
+            trace.put(OP_FRAME, 0, 0, 0);
+        }
+        return trace;
+    }
+
+    static Trace readTrace(final String fname) throws IOException {
+        final Trace trace = new Trace();
+        final BufferedReader reader = new BufferedReader(new FileReader(fname));
+        try {
+            String line;
+            while( null != ( line = reader.readLine() ) ) {
+                final String[] t = line.trim().split("\\s+");
+                if( t[0].equals("a") ) {
+                    trace.put(OP_ADD, Integer.parseInt(t[1]), Integer.parseInt(t[2]), Integer.parseInt(t[3]));
+                } else if( t[0].equals("r") ) {
+                    trace.put(OP_REMOVE, Integer.parseInt(t[1]), 0, 0);
+                } else if( t[0].equals("f") ) {
+                    trace.put(OP_FRAME, 0, 0, 0);
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return trace;
+    }
+
+    static void replay(final String name, final PackingStrategy.Factory factory, final Trace trace) {
+        final TestRectanglePacker01NOUI.Manager manager = new TestRectanglePacker01NOUI.Manager();
+        final RectanglePacker packer = new RectanglePacker(manager, 1024, 1024, factory);
+        final Map<Integer, Rect> live = new HashMap<Integer, Rect>();
+        final List<Rect> dead = new ArrayList<Rect>();
+        int forcedCompactions = 0;
+        float occupancySum = 0f;
+        int frameCount = 0;
+        final long t0 = System.nanoTime();
+        for(int i=0; i<trace.count; i+=4) {
+            final int id = trace.ops[i+1];
+            switch( trace.ops[i] ) {
+                case OP_ADD: {
+                    final Rect r = new Rect(0, 0, trace.ops[i+2], trace.ops[i+3], null);
+                    packer.add(r);
+                    live.put(id, r);
+                    break;
+                }
+                case OP_REMOVE: {
+                    final Rect r = live.remove(id);
+                    if( null != r ) {
+                        dead.add(r);
+                    }
+                    break;
+                }
+                default: {
+                    // same policy as the TextRenderer at end of frame
+                    for(final Iterator<Rect> iter = dead.iterator(); iter.hasNext(); ) {
+                        packer.remove(iter.next());
+                    }
+                    if( !dead.isEmpty() && packer.verticalFragmentationRatio() > MAX_VERTICAL_FRAGMENTATION ) {
+                        packer.compact();
+                        forcedCompactions++;
+                    }
+                    dead.clear();
+                    occupancySum += packer.occupancy();
+                    frameCount++;
+                }
+            }
+        }
+        final long dt = System.nanoTime() - t0;
+        final int[] bs = (int[]) packer.getBackingStore();
+        System.err.printf("%-12s: %4d allocations, %4d compactions (%4d forced), %7d moves, final %4dx%4d, avg occupancy %.3f, fragmentation %.3f, %7.3f ms%n",
+                name, manager.allocations, packer.getCompactionCount(), forcedCompactions, manager.moves, bs[0], bs[1],
+                frameCount > 0 ? occupancySum / frameCount : 0f, packer.fragmentation(), dt/1000000.0);
+        packer.dispose();
+    }
+
+    @Test
+    public void test01GlyphTrace() throws IOException {
+        final Trace trace = null != traceFile ? readTrace(traceFile) : createTrace(frames);
+        System.err.println("Trace: "+(null != traceFile ? traceFile : "synthetic, "+frames+" frames")+", "+(trace.count/4)+" ops");
+        for(int loop=0; loop<2; loop++) { // 1st loop is warm-up
+            replay("LevelSet", LevelSet.factory, trace);
+            replay("SkylineSet", SkylineSet.factory, trace);
+            replay("MaxRectsSet", MaxRectsSet.factory, trace);
+        }
+    }
+
+    public static void main(final String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-trace")) {
+                i++;
+                traceFile = args[i];
+            } else if(args[i].equals("-frames")) {
+                i++;
+                frames = Integer.parseInt(args[i]);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestRectanglePackerBenchmarkNOUI.class.getName());
+    }
+}
@@ -0,0 +1,349 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util.texture;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+
+import jogamp.opengl.util.av.ImageSequenceDecoder;
+import jogamp.opengl.util.jpeg.JPEGDecoder;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.common.net.Uri;
+import com.jogamp.common.util.IOUtil;
+import com.jogamp.nativewindow.util.Dimension;
+import com.jogamp.nativewindow.util.PixelFormat;
+import com.jogamp.opengl.util.PNGPixelRect;
+import com.jogamp.opengl.util.texture.TextureData.ColorSpace;
+
+/**
+ * Tests the GL independent {@link ImageSequenceDecoder} of the image sequence media player,
+ * i.e. numbered file pattern, directory and MJPEG sources, PNG and JPEG decoding,
+ * seeking, PTS pacing and the pixel buffer pool.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestImageSequenceDecoderNOUI {
+    static final int W = 7, H = 5;
+    static final String JPEG_FILE = "test-ntscN_3-01-160x90-60pct-yuv422h-base.jpg";
+
+    private static File createDir(final String name) throws IOException {
+        final File dir = File.createTempFile("jogl-"+name, "");
+        Assert.assertTrue(dir.delete());
+        Assert.assertTrue(dir.mkdir());
+        return dir;
+    }
+
+    private static void deleteDir(final File dir) {
+        final File[] files = dir.listFiles();
+        if( null != files ) {
+            for(int i=0; i<files.length; i++) {
+                files[i].delete();
+            }
+        }
+        dir.delete();
+    }
+
+    /** RGBA pixel of frame <code>n</code> at x/y, top-down */
+    private static int pixel(final int n, final int x, final int y) {
+        return ( ( n & 0xff ) << 24 ) | ( x << 16 ) | ( y << 8 ) | 0xff;
+    }
+
+    private static void writePNG(final File file, final int n, final int w, final int h) throws IOException {
+        final ByteBuffer bb = ByteBuffer.allocate(w * h * 4);
+        for(int y=0; y<h; y++) {
+            for(int x=0; x<w; x++) {
+                bb.putInt(pixel(n, x, y));
+            }
+        }
+        bb.flip();
+        final PNGPixelRect image = new PNGPixelRect(PixelFormat.RGBA8888, new Dimension(w, h), w * 4, false /* isGLOriented */, bb, 72, 72);
+        image.write(new FileOutputStream(file), true /* closeOutstream */);
+    }
+
+    /** Validates the decoded frame <code>n</code> in OpenGL orientation, i.e. bottom line first. */
+    private static void checkPNGFrame(final ImageSequenceDecoder.Frame frame, final int n) {
+        for(int y=0; y<H; y++) {
+            for(int x=0; x<W; x++) {
+                final int o = ( ( H - 1 - y ) * W + x ) * 4;
+                final int p = pixel(n, x, y);
+                Assert.assertEquals("frame "+n+" R @ "+x+"/"+y, ( p >>> 24 ) & 0xff, frame.pixels.get(o  ) & 0xff);
+                Assert.assertEquals("frame "+n+" G @ "+x+"/"+y, ( p >>> 16 ) & 0xff, frame.pixels.get(o+1) & 0xff);
+                Assert.assertEquals("frame "+n+" B @ "+x+"/"+y, ( p >>>  8 ) & 0xff, frame.pixels.get(o+2) & 0xff);
+                Assert.assertEquals("frame "+n+" A @ "+x+"/"+y,   p          & 0xff, frame.pixels.get(o+3) & 0xff);
+            }
+        }
+    }
+
+    private byte[] load(final String fname) throws IOException {
+        final URLConnection urlConn = IOUtil.getResource(fname, this.getClass().getClassLoader(), this.getClass());
+        Assert.assertNotNull("Cannot find "+fname, urlConn);
+        final InputStream istream = urlConn.getInputStream();
+        try {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            IOUtil.copyStream2Stream(istream, out, -1);
+            return out.toByteArray();
+        } finally {
+            istream.close();
+        }
+    }
+
+    private static void write(final File file, final byte[] data, final int count) throws IOException {
+        final OutputStream out = new FileOutputStream(file);
+        try {
+            for(int i=0; i<count; i++) {
+                out.write(data);
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    /** Returns the reference RGBA pixels of the given JPEG image in OpenGL orientation. */
+    private static ByteBuffer decodeJPEG(final byte[] data) throws IOException {
+        final JPEGDecoder jpeg = new JPEGDecoder();
+        jpeg.parse(new ByteArrayInputStream(data));
+        final ByteBuffer bb = ByteBuffer.allocate(jpeg.getWidth() * jpeg.getHeight() * 4);
+        jpeg.getPixel(bb, 4, ColorSpace.RGB, true /* glOriented */);
+        return bb;
+    }
+
+    private static void checkJPEGFrames(final ImageSequenceDecoder dec, final ByteBuffer expected, final int count) throws Exception {
+        for(int i=0; i<count; i++) {
+            final ImageSequenceDecoder.Frame frame = dec.next();
+            Assert.assertNotNull(frame);
+            Assert.assertEquals(i, frame.index);
+            final ByteBuffer pixels = frame.pixels.duplicate();
+            pixels.position(0).limit(expected.capacity());
+            Assert.assertEquals("frame "+i, expected, pixels);
+            dec.release(frame);
+        }
+        Assert.assertNull(dec.next());
+    }
+
+    @Test
+    public void test01PatternSource() throws Exception {
+        final File dir = createDir("pattern");
+        try {
+            for(int i=1; i<=5; i++) {
+                writePNG(new File(dir, String.format("img_%03d.png", i)), i, W, H);
+            }
+            writePNG(new File(dir, "img_007.png"), 7, W, H); // after the gap, not part of the sequence
+            final Uri uri = Uri.valueOf(new File(dir, "img_%03d.png"));
+            {
+                final ImageSequenceDecoder dec = new ImageSequenceDecoder(uri, 10, -1, 2);
+                try {
+                    Assert.assertEquals(5, dec.getFrameCount());
+                    Assert.assertEquals(W, dec.getWidth());
+                    Assert.assertEquals(H, dec.getHeight());
+                    Assert.assertEquals("png-seq", dec.getCodec());
+                    Assert.assertEquals(500, dec.getDuration());
+                    for(int i=0; i<5; i++) {
+                        final ImageSequenceDecoder.Frame frame = dec.next();
+                        Assert.assertNotNull(frame);
+                        Assert.assertEquals(i, frame.index);
+                        Assert.assertEquals(i * 100, frame.pts);
+                        checkPNGFrame(frame, i+1); // starts w/ file number 1
+                        dec.release(frame);
+                    }
+                    Assert.assertNull(dec.next());
+                } finally {
+                    dec.destroy();
+                }
+            }
+            {
+                final ImageSequenceDecoder dec = new ImageSequenceDecoder(uri, 10, 3, 1);
+                try {
+                    Assert.assertEquals(3, dec.getFrameCount());
+                    final ImageSequenceDecoder.Frame frame = dec.next();
+                    checkPNGFrame(frame, 3);
+                    dec.release(frame);
+                } finally {
+                    dec.destroy();
+                }
+            }
+            try {
+                new ImageSequenceDecoder(uri, 10, 10, 1);
+                Assert.fail("Expected IOException for empty sequence");
+            } catch (final IOException e) { }
+        } finally {
+            deleteDir(dir);
+        }
+    }
+
+    @Test
+    public void test02DirectorySource() throws Exception {
+        final byte[] data = load(JPEG_FILE);
+        final ByteBuffer expected = decodeJPEG(data);
+        final File dir = createDir("dir");
+        try {
+            write(new File(dir, "c.jpg"), data, 1);
+            write(new File(dir, "a.jpg"), data, 1);
+            write(new File(dir, "b.jpeg"), data, 1);
+            write(new File(dir, "readme.txt"), new byte[] { 'a' }, 1); // ignored
+            final ImageSequenceDecoder dec = new ImageSequenceDecoder(Uri.valueOf(dir), 25, -1, 2);
+            try {
+                Assert.assertEquals(3, dec.getFrameCount());
+                Assert.assertEquals("jpeg-seq", dec.getCodec());
+                Assert.assertEquals(expected.capacity(), dec.getWidth() * dec.getHeight() * 4);
+                checkJPEGFrames(dec, expected, 3);
+            } finally {
+                dec.destroy();
+            }
+        } finally {
+            deleteDir(dir);
+        }
+    }
+
+    @Test
+    public void test03MJPEGSource() throws Exception {
+        final byte[] data = load(JPEG_FILE);
+        final ByteBuffer expected = decodeJPEG(data);
+        final File dir = createDir("mjpeg");
+        try {
+            final File file = new File(dir, "clip.mjpeg");
+            write(file, data, 4);
+            final ImageSequenceDecoder dec = new ImageSequenceDecoder(Uri.valueOf(file), 25, -1, 3);
+            try {
+                Assert.assertEquals(4, dec.getFrameCount());
+                Assert.assertEquals("mjpeg", dec.getCodec());
+                Assert.assertEquals(0, dec.getAllocatedBufferCount()); // decoding starts w/ the first frame requested
+                checkJPEGFrames(dec, expected, 4);
+            } finally {
+                dec.destroy();
+            }
+        } finally {
+            deleteDir(dir);
+        }
+    }
+
+    @Test
+    public void test04SeekAndPTS() throws Exception {
+        final int count = 20;
+        final File dir = createDir("seek");
+        try {
+            for(int i=0; i<count; i++) {
+                writePNG(new File(dir, String.format("f%02d.png", i)), i, W, H);
+            }
+            final ImageSequenceDecoder dec = new ImageSequenceDecoder(Uri.valueOf(new File(dir, "f%02d.png")), 25, -1, 2);
+            try {
+                Assert.assertEquals(800, dec.getDuration());
+                for(int i=0; i<count; i++) {
+                    Assert.assertEquals(i * 40, dec.getFramePTS(i));
+                }
+                Assert.assertEquals(80, dec.seek(100));
+                ImageSequenceDecoder.Frame frame = dec.next();
+                Assert.assertEquals(2, frame.index);
+                Assert.assertEquals(80, frame.pts);
+                checkPNGFrame(frame, 2);
+                dec.release(frame);
+                frame = dec.next();
+                Assert.assertEquals(3, frame.index);
+                Assert.assertEquals(120, frame.pts);
+                dec.release(frame);
+
+                Assert.assertEquals(0, dec.seek(-10));
+                frame = dec.next();
+                Assert.assertEquals(0, frame.index);
+                checkPNGFrame(frame, 0);
+                dec.release(frame);
+
+                Assert.assertEquals(760, dec.seek(100000));
+                frame = dec.next();
+                Assert.assertEquals(19, frame.index);
+                checkPNGFrame(frame, 19);
+                dec.release(frame);
+                Assert.assertNull(dec.next());
+
+                // frames dropped by seeking return their buffers, even while decoding
+                for(int i=0; i<50; i++) {
+                    dec.seek( ( i * 7 ) % count * 40 );
+                    frame = dec.next();
+                    Assert.assertEquals( ( i * 7 ) % count, frame.index);
+                    dec.release(frame);
+                }
+                final int maxBuffers = dec.getDecodeAhead() + dec.getDecoderThreads() + 1;
+                Assert.assertTrue("allocated "+dec.getAllocatedBufferCount()+" > "+maxBuffers, dec.getAllocatedBufferCount() <= maxBuffers);
+            } finally {
+                dec.destroy();
+            }
+        } finally {
+            deleteDir(dir);
+        }
+    }
+
+    @Test
+    public void test05DecodeFailure() throws Exception {
+        final File dir = createDir("fail");
+        try {
+            writePNG(new File(dir, "f0.png"), 0, W, H);
+            writePNG(new File(dir, "f1.png"), 1, W+1, H); // exceeds stream size
+            writePNG(new File(dir, "f2.png"), 2, W, H-1); // smaller than stream size
+            write(new File(dir, "f3.png"), new byte[] { 1, 2, 3, 4 }, 1); // neither PNG nor JPEG
+            writePNG(new File(dir, "f4.png"), 4, W, H);
+            final ImageSequenceDecoder dec = new ImageSequenceDecoder(Uri.valueOf(new File(dir, "f%d.png")), 25, -1, 1);
+            try {
+                Assert.assertEquals(5, dec.getFrameCount());
+                ImageSequenceDecoder.Frame frame = dec.next();
+                checkPNGFrame(frame, 0);
+                dec.release(frame);
+                for(int i=1; i<=3; i++) {
+                    try {
+                        dec.next();
+                        Assert.fail("Expected IOException for frame "+i);
+                    } catch (final IOException e) { }
+                }
+                frame = dec.next();
+                Assert.assertEquals(4, frame.index);
+                checkPNGFrame(frame, 4);
+                dec.release(frame);
+                Assert.assertNull(dec.next());
+                // buffers of failed frames have been returned to the pool
+                Assert.assertEquals(dec.getAllocatedBufferCount(), dec.getPooledBufferCount());
+            } finally {
+                dec.destroy();
+            }
+        } finally {
+            deleteDir(dir);
+        }
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestImageSequenceDecoderNOUI.class.getName());
+    }
+}
@@ -0,0 +1,280 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util.texture;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.util.texture.ImageSequence;
+import com.jogamp.opengl.util.texture.Texture;
+import com.jogamp.opengl.util.texture.TextureData;
+import com.jogamp.opengl.util.texture.TextureSequence;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+/**
+ * Tests the {@link ImageSequence#setWindowed(int, int) windowed mode}, i.e. resident window eviction,
+ * background prefetch ordering and frame access outside of the window,
+ * using in-memory {@link TextureData} frames w/o a GL context.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestImageSequenceWindowedNOUI {
+    static final long TIMEOUT = 5000;
+
+    /** Tracks all decoded images, the frame index is encoded as the image width minus one. */
+    static class Frames {
+        final List<Integer> decodeOrder = new ArrayList<Integer>();
+        final AtomicInteger decoded = new AtomicInteger();
+        final AtomicInteger destroyed = new AtomicInteger();
+
+        ImageSequence.FrameSource create(final int idx) {
+            return new ImageSequence.FrameSource() {
+                @Override
+                public TextureData newTextureData() throws IOException {
+                    synchronized( decodeOrder ) {
+                        decodeOrder.add(Integer.valueOf(idx));
+                    }
+                    final TextureData data = new TextureData(null, GL.GL_RGBA, idx+1, 1, 0, GL.GL_RGBA, GL.GL_UNSIGNED_BYTE,
+                                                             false, false, false, ByteBuffer.allocate(4*(idx+1)),
+                                                             new TextureData.Flusher() {
+                                                                 @Override
+                                                                 public void flush() { destroyed.incrementAndGet(); }
+                                                             });
+                    decoded.incrementAndGet();
+                    return data;
+                } };
+        }
+        List<Integer> getDecodeOrder() {
+            synchronized( decodeOrder ) {
+                return new ArrayList<Integer>(decodeOrder);
+            }
+        }
+        void waitForDecoded(final int count) throws InterruptedException {
+            final long t0 = System.currentTimeMillis();
+            while( decoded.get() < count && System.currentTimeMillis() - t0 < TIMEOUT ) {
+                Thread.sleep(5);
+            }
+            Assert.assertEquals(count, decoded.get());
+            Thread.sleep(50); // let the decoder complete its futures
+        }
+        void waitForDestroyed(final int count) throws InterruptedException {
+            final long t0 = System.currentTimeMillis();
+            while( destroyed.get() < count && System.currentTimeMillis() - t0 < TIMEOUT ) {
+                Thread.sleep(5);
+            }
+            Assert.assertEquals(count, destroyed.get());
+        }
+    }
+
+    /** Records the texture uploads instead of issuing GL calls. */
+    static class NoGLImageSequence extends ImageSequence {
+        final List<Integer> uploads = new ArrayList<Integer>();
+        int created = 0, updated = 0, destroyed = 0;
+
+        NoGLImageSequence() {
+            super(0, true);
+        }
+        @Override
+        protected Texture newTexture(final GL gl, final TextureData texData) {
+            created++;
+            uploads.add(Integer.valueOf(texData.getWidth()-1));
+            return new Texture(getTextureTarget());
+        }
+        @Override
+        protected void updateTexture(final GL gl, final Texture tex, final TextureData texData) {
+            updated++;
+            uploads.add(Integer.valueOf(texData.getWidth()-1));
+        }
+        @Override
+        protected void destroyTexture(final GL gl, final Texture tex) {
+            destroyed++;
+        }
+    }
+
+    static NoGLImageSequence createSequence(final Frames frames, final int count, final int maxResident, final int prefetch) throws IOException {
+        final NoGLImageSequence seq = new NoGLImageSequence();
+        seq.setWindowed(maxResident, prefetch);
+        for(int i=0; i<count; i++) {
+            seq.addFrame(null, frames.create(i));
+        }
+        seq.setManualStepping(true);
+        return seq;
+    }
+
+    static TextureSequence.TextureFrame show(final ImageSequence seq, final int idx) {
+        seq.setCurrentIdx(idx);
+        return seq.getNextTexture(null);
+    }
+
+    @Test
+    public void test01WindowEviction() throws IOException, InterruptedException {
+        final Frames frames = new Frames();
+        final NoGLImageSequence seq = createSequence(frames, 10, 3, 0);
+        Assert.assertEquals(10, seq.getFrameCount());
+        Assert.assertEquals(0, seq.getResidentFrameCount());
+
+        for(int i=0; i<5; i++) {
+            Assert.assertNotNull(show(seq, i));
+            Assert.assertTrue(seq.getResidentFrameCount() <= 3);
+        }
+        Assert.assertEquals(3, seq.getResidentFrameCount());
+        Assert.assertEquals(3, seq.created);
+        Assert.assertEquals(2, seq.updated); // textures recycled
+        Assert.assertEquals(5, seq.getStallCount());
+        Assert.assertEquals(0, seq.getPrefetchedFrameCount());
+
+        // the frame passed most recently is farthest ahead in looped playback and hence evicted first
+        Assert.assertNotNull(seq.getFrame(0));
+        Assert.assertNotNull(seq.getFrame(1));
+        Assert.assertNull(seq.getFrame(2));
+        Assert.assertNull(seq.getFrame(3));
+        Assert.assertNotNull(seq.getFrame(4));
+
+        // looping back hits the resident frames
+        Assert.assertSame(seq.getFrame(0), show(seq, 0));
+        Assert.assertSame(seq.getFrame(1), show(seq, 1));
+        Assert.assertEquals(2, seq.getResidentHitCount());
+        Assert.assertEquals(5, seq.uploads.size());
+
+        // every decoded image is released after upload
+        frames.waitForDestroyed(5);
+        seq.destroy(null);
+        Assert.assertEquals(3, seq.destroyed);
+        Assert.assertEquals(0, seq.getResidentFrameCount());
+    }
+
+    @Test
+    public void test02PrefetchOrdering() throws IOException, InterruptedException {
+        final Frames frames = new Frames();
+        // distance 1 uses a single decoder thread, i.e. a deterministic decode order
+        final NoGLImageSequence seq = createSequence(frames, 6, 2, 1);
+        for(int i=0; i<5; i++) {
+            show(seq, i);
+            frames.waitForDecoded(i+2); // current frame and the next one
+            Assert.assertEquals(1, seq.getPrefetchedFrameCount());
+        }
+        // frame 0 stays resident, since it is always the farthest from the passed frames,
+        // hence the wrap around needs no prefetch
+        show(seq, 5);
+        Assert.assertNotNull(seq.getFrame(0));
+        Assert.assertEquals(0, seq.getPrefetchedFrameCount());
+        final List<Integer> order = frames.getDecodeOrder();
+        Assert.assertEquals(6, order.size());
+        for(int i=0; i<6; i++) {
+            Assert.assertEquals(i, order.get(i).intValue());
+        }
+        Assert.assertEquals(1, seq.getStallCount()); // only the very first frame
+        Assert.assertEquals(5, seq.getPrefetchHitCount());
+        Assert.assertEquals(order, seq.uploads);
+        Assert.assertSame(seq.getFrame(0), show(seq, 0));
+        Assert.assertEquals(1, seq.getResidentHitCount());
+        seq.destroy(null);
+        frames.waitForDestroyed(6);
+    }
+
+    @Test
+    public void test03PrefetchWindowMoves() throws IOException, InterruptedException {
+        final Frames frames = new Frames();
+        final NoGLImageSequence seq = createSequence(frames, 10, 2, 3);
+        show(seq, 0);
+        frames.waitForDecoded(4);
+        Assert.assertEquals(3, seq.getPrefetchedFrameCount());
+        final List<Integer> order = frames.getDecodeOrder();
+        Assert.assertEquals(0, order.get(0).intValue());
+        Assert.assertTrue(order.containsAll(Arrays.asList(Integer.valueOf(1), Integer.valueOf(2), Integer.valueOf(3))));
+
+        // jump: prefetched frames outside of the new window are dropped and released
+        show(seq, 6);
+        frames.waitForDecoded(4 + 1 + 3);
+        Assert.assertEquals(3, seq.getPrefetchedFrameCount());
+        Assert.assertEquals(2, seq.getStallCount());
+        Assert.assertEquals(0, seq.getPrefetchHitCount());
+        frames.waitForDestroyed(2 + 3); // uploaded 0 and 6, dropped 1..3
+        final List<Integer> order2 = frames.getDecodeOrder().subList(5, 8);
+        Assert.assertTrue(order2.containsAll(Arrays.asList(Integer.valueOf(7), Integer.valueOf(8), Integer.valueOf(9))));
+
+        // next frame comes from the prefetched images, window wraps around
+        show(seq, 9);
+        Assert.assertEquals(1, seq.getPrefetchHitCount());
+        Assert.assertNotNull(seq.getFrame(0)); // kept resident, 6 got evicted
+        Assert.assertNull(seq.getFrame(6));
+        frames.waitForDecoded(8 + 2); // 1 and 2
+        Assert.assertEquals(2, seq.getPrefetchedFrameCount());
+        seq.destroy(null);
+        frames.waitForDestroyed(frames.decoded.get());
+        Assert.assertEquals(0, seq.getPrefetchedFrameCount());
+    }
+
+    @Test
+    public void test04FrameAccessOutsideWindow() throws IOException, InterruptedException {
+        final Frames frames = new Frames();
+        final NoGLImageSequence seq = createSequence(frames, 4, 1, 0);
+        Assert.assertTrue(seq.isWindowed());
+        Assert.assertNull(seq.getFrame(2));
+        Assert.assertNull(seq.getLastTexture()); // not yet resident
+
+        final TextureSequence.TextureFrame f1 = show(seq, 1);
+        Assert.assertSame(f1, seq.getFrame(1));
+        Assert.assertSame(f1, seq.getLastTexture());
+        Assert.assertNull(seq.getFrame(0));
+
+        seq.setCurrentIdx(3);
+        Assert.assertNull(seq.getLastTexture()); // current frame not resident until stepped
+        Assert.assertSame(f1, show(seq, 3)); // single texture recycled
+        Assert.assertNull(seq.getFrame(1));
+        Assert.assertEquals(1, seq.created);
+        Assert.assertEquals(1, seq.updated);
+
+        try {
+            seq.setCurrentIdx(4);
+            Assert.fail("Expected IndexOutOfBoundsException");
+        } catch (final IndexOutOfBoundsException e) { }
+        try {
+            seq.addFrame(null, new Texture(GL.GL_TEXTURE_2D));
+            Assert.fail("Expected IllegalStateException");
+        } catch (final IllegalStateException e) { }
+        try {
+            seq.setWindowed(2, 0);
+            Assert.fail("Expected IllegalStateException");
+        } catch (final IllegalStateException e) { }
+        seq.destroy(null);
+        frames.waitForDestroyed(2);
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestImageSequenceWindowedNOUI.class.getName());
+    }
+}
@@ -0,0 +1,174 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util.texture;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+
+import jogamp.opengl.util.jpeg.JPEGDecoder;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.FixMethodOrder;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.common.util.IOUtil;
+import com.jogamp.opengl.util.texture.TextureData.ColorSpace;
+
+/**
+ * Validates {@link JPEGDecoder#getPixel(ByteBuffer, int, ColorSpace, boolean)} bulk decoding
+ * against the per pixel {@link JPEGDecoder.ColorSink} path and reports decoding times of both.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestJPEGDecoderBulkNOUI {
+    static final String[] files = { "j1-baseline.jpg", "j2-progressive.jpg", "j3-baseline_gray.jpg",
+                                    "test-cmyk-01.jpg", "test-ycck-01.jpg",
+                                    "test-ntscN_3-01-160x90-60pct-yuv422h-base.jpg",
+                                    "test-ntscN_3-01-160x90-60pct-yuv422h-prog.jpg",
+                                    "test-ntscN_3-01-160x90-90pct-yuv444-base.jpg",
+                                    "test-ntscN_3-01-160x90-90pct-yuv444-prog.jpg" };
+    static int loops = 10;
+
+    /** Reference per pixel sink, storing bottom-up like the former JPEGImage sink. */
+    static class RefColorSink implements JPEGDecoder.ColorSink {
+        final ColorSpace storageCS;
+        final int comps;
+        int width, height;
+        ByteBuffer data;
+
+        RefColorSink(final ColorSpace storageCS, final int comps) {
+            this.storageCS = storageCS;
+            this.comps = comps;
+        }
+        @Override
+        public ColorSpace allocate(final int width, final int height, final ColorSpace sourceCS, final int sourceComponents) {
+            this.width = width;
+            this.height = height;
+            data = Buffers.newDirectByteBuffer(width * height * comps);
+            return storageCS;
+        }
+        private void store(final int x, final int y, final byte c1, final byte c2, final byte c3) {
+            int i = ( ( height - y - 1 ) * width + x ) * comps;
+            data.put(i++, c1);
+            data.put(i++, c2);
+            data.put(i++, c3);
+            if( 4 == comps ) {
+                data.put(i++, (byte)0xff);
+            }
+        }
+        @Override
+        public void store2(final int x, final int y, final byte c1, final byte c2) {
+            throw new RuntimeException("not supported");
+        }
+        @Override
+        public void storeRGB(final int x, final int y, final byte r, final byte g, final byte b) {
+            store(x, y, r, g, b);
+        }
+        @Override
+        public void storeYCbCr(final int x, final int y, final byte Y, final byte Cb, final byte Cr) {
+            store(x, y, Y, Cb, Cr);
+        }
+    }
+
+    private JPEGDecoder parse(final String fname) throws IOException {
+        final URLConnection urlConn = IOUtil.getResource(fname, this.getClass().getClassLoader(), this.getClass());
+        Assert.assertNotNull("Cannot find "+fname, urlConn);
+        final InputStream istream = urlConn.getInputStream();
+        try {
+            final JPEGDecoder decoder = new JPEGDecoder();
+            decoder.parse(istream);
+            return decoder;
+        } finally {
+            istream.close();
+        }
+    }
+
+    private void testImpl(final String fname, final ColorSpace storageCS, final int comps) throws IOException {
+        if( ColorSpace.YCbCr == storageCS && fname.contains("cmyk") ) {
+            return; // not supported by either path
+        }
+        final JPEGDecoder decoder = parse(fname);
+        final int w = decoder.getWidth(), h = decoder.getHeight();
+
+        final RefColorSink ref = new RefColorSink(storageCS, comps);
+        long t0 = System.nanoTime();
+        for(int i=0; i<loops; i++) {
+            decoder.getPixel(ref, w, h);
+        }
+        final long refNanos = System.nanoTime() - t0;
+
+        final ByteBuffer bulk = Buffers.newDirectByteBuffer(w * h * comps);
+        t0 = System.nanoTime();
+        for(int i=0; i<loops; i++) {
+            decoder.getPixel(bulk, comps, storageCS, true /* glOriented */);
+        }
+        final long bulkNanos = System.nanoTime() - t0;
+        Assert.assertEquals(0, bulk.position());
+
+        System.err.printf("%-50s %4dx%4d %s/%d: per-pixel %7.3f ms, bulk %7.3f ms%n", fname, w, h, storageCS, comps,
+                          refNanos / 1e6 / loops, bulkNanos / 1e6 / loops);
+        for(int i=0; i<w * h * comps; i++) {
+            if( ref.data.get(i) != bulk.get(i) ) {
+                Assert.fail(fname+": mismatch at byte "+i+" (pixel "+(i/comps)+"): "+ref.data.get(i)+" != "+bulk.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void test01RGB() throws IOException {
+        for(int i=0; i<files.length; i++) {
+            testImpl(files[i], ColorSpace.RGB, 3);
+        }
+    }
+
+    @Test
+    public void test02RGBA() throws IOException {
+        for(int i=0; i<files.length; i++) {
+            testImpl(files[i], ColorSpace.RGB, 4);
+        }
+    }
+
+    @Test
+    public void test03YCbCr() throws IOException {
+        for(int i=0; i<files.length; i++) {
+            testImpl(files[i], ColorSpace.YCbCr, 3);
+        }
+    }
+
+    public static void main(final String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-loops")) {
+                loops = Integer.parseInt(args[++i]);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestJPEGDecoderBulkNOUI.class.getName());
+    }
+}
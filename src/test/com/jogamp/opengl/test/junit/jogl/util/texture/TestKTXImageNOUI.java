@@ -0,0 +1,199 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util.texture;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.FixMethodOrder;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2ES3;
+import com.jogamp.opengl.util.texture.ImageType;
+import com.jogamp.opengl.util.texture.spi.KTXImage;
+
+/**
+ * Validates {@link KTXImage} parsing of synthetic KTX1 and KTX2 files, w/o requiring a GL context.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestKTXImageNOUI {
+    static final byte[] KTX1_ID = { (byte)0xAB, 'K', 'T', 'X', ' ', '1', '1', (byte)0xBB, '\r', '\n', 0x1A, '\n' };
+    static final byte[] KTX2_ID = { (byte)0xAB, 'K', 'T', 'X', ' ', '2', '0', (byte)0xBB, '\r', '\n', 0x1A, '\n' };
+
+    private static void putKeyValue(final ByteBuffer b, final String key, final String value) {
+        final int len = key.length() + 1 + value.length() + 1;
+        b.putInt(len);
+        b.put(key.getBytes()).put((byte)0).put(value.getBytes()).put((byte)0);
+        while( 0 != ( b.position() & 3 ) ) {
+            b.put((byte)0);
+        }
+    }
+    private static int kvSize(final String key, final String value) {
+        return 4 + ( ( key.length() + value.length() + 2 + 3 ) & ~3 );
+    }
+    private static void putPattern(final ByteBuffer b, final int n, final int seed) {
+        for(int i=0; i<n; i++) {
+            b.put((byte)(seed + i));
+        }
+    }
+    private static void assertPattern(final ByteBuffer b, final int n, final int seed) {
+        Assert.assertEquals(n, b.remaining());
+        for(int i=0; i<n; i++) {
+            Assert.assertEquals((byte)(seed + i), b.get(b.position() + i));
+        }
+    }
+    private static String toString(final ByteBuffer b) {
+        final byte[] s = new byte[b.remaining()];
+        b.duplicate().get(s);
+        return new String(s);
+    }
+
+    /** RGBA8 4x2 w/ two mip levels */
+    private static ByteBuffer createKTX1(final ByteOrder order) {
+        final int kv = kvSize("KTXorientation", "S=r,T=u") + kvSize("foo", "bar");
+        final ByteBuffer b = ByteBuffer.allocate(64 + kv + 4 + 32 + 4 + 8).order(order);
+        b.put(KTX1_ID);
+        b.putInt(0x04030201);
+        b.putInt(GL.GL_UNSIGNED_BYTE).putInt(1).putInt(GL.GL_RGBA).putInt(GL.GL_RGBA8).putInt(GL.GL_RGBA);
+        b.putInt(4).putInt(2).putInt(0).putInt(0).putInt(1).putInt(2).putInt(kv);
+        putKeyValue(b, "KTXorientation", "S=r,T=u");
+        putKeyValue(b, "foo", "bar");
+        b.putInt(32);
+        putPattern(b, 32, 0);
+        b.putInt(8);
+        putPattern(b, 8, 100);
+        b.flip();
+        return b;
+    }
+
+    private void testKTX1(final ByteOrder order) throws IOException {
+        final KTXImage img = KTXImage.read(createKTX1(order));
+        Assert.assertEquals(1, img.getVersion());
+        Assert.assertEquals(4, img.getWidth());
+        Assert.assertEquals(2, img.getHeight());
+        Assert.assertEquals(2, img.getLevelCount());
+        Assert.assertEquals(GL.GL_TEXTURE_2D, img.getTarget());
+        Assert.assertEquals(GL.GL_RGBA8, img.getInternalFormat());
+        Assert.assertFalse(img.isCompressed());
+        Assert.assertFalse(img.getMustFlipVertically());
+        Assert.assertEquals("bar", toString(img.getKeyValueData().get("foo")).trim());
+        assertPattern(img.getImage(0, 0, 0), 32, 0);
+        assertPattern(img.getImage(1, 0, 0), 8, 100);
+    }
+
+    @Test
+    public void test01KTX1LittleEndian() throws IOException {
+        testKTX1(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Test
+    public void test02KTX1BigEndian() throws IOException {
+        testKTX1(ByteOrder.BIG_ENDIAN);
+    }
+
+    @Test
+    public void test03KTX1CubeMap() throws IOException {
+        // DXT1 4x4: 8 bytes per face, w/o key/value data
+        final ByteBuffer b = ByteBuffer.allocate(64 + 4 + 6 * 8).order(ByteOrder.LITTLE_ENDIAN);
+        b.put(KTX1_ID);
+        b.putInt(0x04030201);
+        b.putInt(0).putInt(1).putInt(0).putInt(GL.GL_COMPRESSED_RGB_S3TC_DXT1_EXT).putInt(GL.GL_RGB);
+        b.putInt(4).putInt(4).putInt(0).putInt(0).putInt(6).putInt(1).putInt(0);
+        b.putInt(8);
+        for(int f=0; f<6; f++) {
+            putPattern(b, 8, f * 10);
+        }
+        b.flip();
+        final KTXImage img = KTXImage.read(b);
+        Assert.assertTrue(img.isCompressed());
+        Assert.assertEquals(GL.GL_TEXTURE_CUBE_MAP, img.getTarget());
+        Assert.assertTrue(img.getMustFlipVertically());
+        for(int f=0; f<6; f++) {
+            assertPattern(img.getImage(0, 0, f), 8, f * 10);
+        }
+    }
+
+    @Test
+    public void test04KTX2Array() throws IOException {
+        // RGBA8 2x2, 3 layers, 1 level
+        final int kvOffset = 80 + 24;
+        final int kv = kvSize("KTXorientation", "ru");
+        final int dataOffset = kvOffset + kv;
+        final ByteBuffer b = ByteBuffer.allocate(dataOffset + 3 * 16).order(ByteOrder.LITTLE_ENDIAN);
+        b.put(KTX2_ID);
+        b.putInt(37 /* VK_FORMAT_R8G8B8A8_UNORM */).putInt(1);
+        b.putInt(2).putInt(2).putInt(0).putInt(3).putInt(1).putInt(1).putInt(0);
+        b.putInt(0).putInt(0).putInt(kvOffset).putInt(kv).putLong(0).putLong(0);
+        b.putLong(dataOffset).putLong(3 * 16).putLong(3 * 16);
+        putKeyValue(b, "KTXorientation", "ru");
+        for(int l=0; l<3; l++) {
+            putPattern(b, 16, l * 20);
+        }
+        b.flip();
+        final KTXImage img = KTXImage.read(b);
+        Assert.assertEquals(2, img.getVersion());
+        Assert.assertEquals(GL2ES3.GL_TEXTURE_2D_ARRAY, img.getTarget());
+        Assert.assertEquals(GL.GL_RGBA8, img.getInternalFormat());
+        Assert.assertEquals(GL.GL_RGBA, img.getFormat());
+        Assert.assertFalse(img.getMustFlipVertically());
+        Assert.assertEquals(3 * 16, img.getLevel(0).remaining());
+        for(int l=0; l<3; l++) {
+            assertPattern(img.getImage(0, l, 0), 16, l * 20);
+        }
+    }
+
+    @Test
+    public void test05ImageType() throws IOException {
+        final byte[] h1 = new byte[ImageType.MAGIC_MAX_SIZE];
+        final byte[] h2 = new byte[ImageType.MAGIC_MAX_SIZE];
+        System.arraycopy(KTX1_ID, 0, h1, 0, KTX1_ID.length);
+        System.arraycopy(KTX2_ID, 0, h2, 0, KTX2_ID.length);
+        Assert.assertEquals(ImageType.T_KTX, ImageType.Util.getFileSuffix(h1));
+        Assert.assertEquals(ImageType.T_KTX2, ImageType.Util.getFileSuffix(h2));
+    }
+
+    @Test
+    public void test06Truncated() {
+        final ByteBuffer b = createKTX1(ByteOrder.LITTLE_ENDIAN);
+        b.limit(b.limit() - 4);
+        try {
+            KTXImage.read(b);
+            Assert.fail("Expected IOException for truncated file");
+        } catch (final IOException e) {
+            // expected
+        }
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestKTXImageNOUI.class.getName());
+    }
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util.texture;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+import jogamp.opengl.util.av.ImageSequenceDecoder;
+import jogamp.opengl.util.jpeg.JPEGDecoder;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.FixMethodOrder;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.common.util.IOUtil;
+
+/**
+ * Validates the MJPEG frame indexing of {@link ImageSequenceDecoder}
+ * using concatenated test JPEG images, w/o requiring a GL context.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestMJPEGIndexNOUI {
+    static final String[] files = { "j1-baseline.jpg", "j2-progressive.jpg", "test-ycck-01.jpg",
+                                    "test-ntscN_3-01-160x90-60pct-yuv422h-base.jpg" };
+
+    private byte[] load(final String fname) throws IOException {
+        final URLConnection urlConn = IOUtil.getResource(fname, this.getClass().getClassLoader(), this.getClass());
+        Assert.assertNotNull("Cannot find "+fname, urlConn);
+        final InputStream istream = urlConn.getInputStream();
+        try {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            IOUtil.copyStream2Stream(istream, out, -1);
+            return out.toByteArray();
+        } finally {
+            istream.close();
+        }
+    }
+
+    @Test
+    public void test01Index() throws IOException {
+        final byte[][] images = new byte[files.length][];
+        final ByteArrayOutputStream mjpeg = new ByteArrayOutputStream();
+        for(int i=0; i<files.length; i++) {
+            images[i] = load(files[i]);
+            mjpeg.write(images[i]);
+            if( 1 == i ) {
+                mjpeg.write(new byte[] { 0x00, (byte)0xFF, 0x12 }); // garbage between frames
+            }
+        }
+        mjpeg.write(images[0], 0, images[0].length / 2); // truncated trailing frame
+
+        final ArrayList<int[]> frames = ImageSequenceDecoder.indexFrames(ByteBuffer.wrap(mjpeg.toByteArray()));
+        Assert.assertEquals(files.length, frames.size());
+        final byte[] all = mjpeg.toByteArray();
+        for(int i=0; i<files.length; i++) {
+            final int[] f = frames.get(i);
+            Assert.assertEquals(files[i]+" length", images[i].length, f[1]);
+            final byte[] frame = new byte[f[1]];
+            System.arraycopy(all, f[0], frame, 0, f[1]);
+            Assert.assertArrayEquals(files[i], images[i], frame);
+
+            final JPEGDecoder decoder = new JPEGDecoder();
+            decoder.parse(new ByteArrayInputStream(frame));
+            Assert.assertTrue(0 < decoder.getWidth() && 0 < decoder.getHeight());
+        }
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestMJPEGIndexNOUI.class.getName());
+    }
+}
@@ -0,0 +1,224 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util.texture;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+
+import jogamp.opengl.util.pngj.ImageInfo;
+import jogamp.opengl.util.pngj.PngReader;
+import jogamp.opengl.util.pngj.PngWriter;
+import jogamp.opengl.util.pngj.PngjOutputException;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.FixMethodOrder;
+import org.junit.runners.MethodSorters;
+
+/**
+ * Validates the pngj parallel deflate mode against the sequential writer
+ * and reports compression ratio and throughput of both.
+ * <p>
+ * Main function accepts <code>-width</code>, <code>-height</code>, <code>-threads</code>,
+ * <code>-block</code> and <code>-loops</code> for manual benchmarking.
+ * </p>
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestPNGParallelDeflateNOUI {
+    static int width = 1280;
+    static int height = 720;
+    static int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+    static int blockSize = 0;
+    static int loops = 3;
+
+    /** Screenshot-like content: gradients, flat areas and some noise. */
+    private static byte[][] createImage(final int w, final int h, final int bpp) {
+        final Random rnd = new Random(4711);
+        final byte[][] rows = new byte[h][w * bpp];
+        for(int y=0; y<h; y++) {
+            final byte[] row = rows[y];
+            for(int x=0; x<w; x++) {
+                final int o = x * bpp;
+                final boolean flat = ( ( x / 64 ) + ( y / 64 ) ) % 3 == 0;
+                final boolean noisy = !flat && ( x / 128 ) % 4 == 3;
+                row[o  ] = (byte) ( flat ? 0x30 : noisy ? rnd.nextInt(256) : x );
+                row[o+1] = (byte) ( flat ? 0x60 : noisy ? rnd.nextInt(256) : y );
+                row[o+2] = (byte) ( flat ? 0x90 : x + y );
+                if( 4 == bpp ) {
+                    row[o+3] = (byte) 0xff;
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static byte[] encode(final byte[][] rows, final ImageInfo imi, final int nThreads, final int nBlockSize) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final PngWriter png = new PngWriter(out, imi);
+        png.setParallelDeflate(nThreads, nBlockSize);
+        for(int y=0; y<rows.length; y++) {
+            png.writeRowByte(rows[y], y);
+        }
+        png.end();
+        return out.toByteArray();
+    }
+
+    private static void validate(final byte[][] rows, final byte[] pngBytes) {
+        final PngReader reader = new PngReader(new ByteArrayInputStream(pngBytes), "test");
+        Assert.assertEquals(rows[0].length, reader.imgInfo.cols * reader.imgInfo.channels);
+        Assert.assertEquals(rows.length, reader.imgInfo.rows);
+        final byte[] row = new byte[rows[0].length];
+        for(int y=0; y<rows.length; y++) {
+            reader.readRowByte(row, y);
+            Assert.assertArrayEquals("row "+y, rows[y], row);
+        }
+        reader.end();
+    }
+
+    private void testImpl(final int w, final int h, final boolean alpha, final int nThreads, final int nBlockSize, final int nLoops) {
+        final int bpp = alpha ? 4 : 3;
+        final ImageInfo imi = new ImageInfo(w, h, 8, alpha, false, false);
+        final byte[][] rows = createImage(w, h, bpp);
+        final double rawBytes = (double)h * ( w * bpp + 1 );
+
+        byte[] seq = null, par = null;
+        long seqNanos = Long.MAX_VALUE, parNanos = Long.MAX_VALUE;
+        for(int i=0; i<nLoops; i++) {
+            long t0 = System.nanoTime();
+            seq = encode(rows, imi, 0, 0);
+            seqNanos = Math.min(seqNanos, System.nanoTime() - t0);
+            t0 = System.nanoTime();
+            par = encode(rows, imi, nThreads, nBlockSize);
+            parNanos = Math.min(parNanos, System.nanoTime() - t0);
+        }
+        validate(rows, seq);
+        validate(rows, par);
+
+        final double mb = rawBytes / ( 1024.0 * 1024.0 );
+        System.err.printf("PNG %dx%d bpp %d, threads %d, block %d%n", w, h, bpp, nThreads, nBlockSize);
+        System.err.printf("  sequential: %8d bytes, ratio %.4f, %7.2f ms, %7.2f MB/s%n",
+                seq.length, seq.length / rawBytes, seqNanos / 1e6, mb / ( seqNanos / 1e9 ));
+        System.err.printf("  parallel:   %8d bytes, ratio %.4f, %7.2f ms, %7.2f MB/s, size +%.2f%%%n",
+                par.length, par.length / rawBytes, parNanos / 1e6, mb / ( parNanos / 1e9 ),
+                100.0 * ( par.length - seq.length ) / seq.length);
+    }
+
+    @Test
+    public void test01SmallBlocks() {
+        // many blocks, exercising dictionary priming and block stitching
+        testImpl(333, 211, true, 3, 32*1024, 1);
+    }
+
+    @Test
+    public void test02RGB() {
+        testImpl(640, 480, false, threads, blockSize, 1);
+    }
+
+    private static int countDeflateThreads() {
+        int n = 0;
+        for(final Thread t : Thread.getAllStackTraces().keySet()) {
+            if( t.isAlive() && t.getName().startsWith("PngWriter-Deflate-") ) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    private static void waitForNoDeflateThreads() throws InterruptedException {
+        final long t0 = System.currentTimeMillis();
+        while( 0 < countDeflateThreads() && System.currentTimeMillis() - t0 < 5000 ) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(0, countDeflateThreads());
+    }
+
+    @Test
+    public void test03AbortOnWriteFailure() throws InterruptedException {
+        final ImageInfo imi = new ImageInfo(333, 211, 8, true, false, false);
+        final byte[][] rows = createImage(imi.cols, imi.rows, 4);
+        final OutputStream failing = new OutputStream() {
+            int count = 0;
+            @Override
+            public void write(final int b) throws IOException {
+                if( ++count > 1024 ) {
+                    throw new IOException("disk full");
+                }
+            } };
+        final PngWriter png = new PngWriter(failing, imi);
+        png.setParallelDeflate(3, 32*1024);
+        try {
+            for(int y=0; y<rows.length; y++) {
+                png.writeRowByte(rows[y], y);
+            }
+            png.end();
+            Assert.fail("Expected PngjOutputException");
+        } catch (final PngjOutputException e) {
+            System.err.println("Expected: "+e.getMessage());
+        }
+        waitForNoDeflateThreads();
+    }
+
+    @Test
+    public void test04AbortAbandoned() throws InterruptedException {
+        final ImageInfo imi = new ImageInfo(333, 211, 8, true, false, false);
+        final byte[][] rows = createImage(imi.cols, imi.rows, 4);
+        final PngWriter png = new PngWriter(new ByteArrayOutputStream(), imi);
+        png.setParallelDeflate(3, 32*1024);
+        for(int y=0; y<rows.length/2; y++) {
+            png.writeRowByte(rows[y], y);
+        }
+        Assert.assertTrue(0 < countDeflateThreads());
+        png.abort();
+        waitForNoDeflateThreads();
+    }
+
+    @Test
+    public void test10Benchmark() {
+        testImpl(width, height, true, threads, blockSize, loops);
+    }
+
+    public static void main(final String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-width")) {
+                width = Integer.parseInt(args[++i]);
+            } else if(args[i].equals("-height")) {
+                height = Integer.parseInt(args[++i]);
+            } else if(args[i].equals("-threads")) {
+                threads = Integer.parseInt(args[++i]);
+            } else if(args[i].equals("-block")) {
+                blockSize = Integer.parseInt(args[++i]);
+            } else if(args[i].equals("-loops")) {
+                loops = Integer.parseInt(args[++i]);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestPNGParallelDeflateNOUI.class.getName());
+    }
+}
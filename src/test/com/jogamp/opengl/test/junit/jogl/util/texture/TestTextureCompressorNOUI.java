@@ -0,0 +1,205 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util.texture;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.FixMethodOrder;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.util.texture.TextureCompressor;
+import com.jogamp.opengl.util.texture.TextureCompressor.Format;
+import com.jogamp.opengl.util.texture.TextureData;
+
+/**
+ * Round trips synthetic images through {@link TextureCompressor} for all formats,
+ * validating the PSNR and reporting the encoding throughput.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestTextureCompressorNOUI {
+    static int width = 256, height = 256;
+    static int loops = 4;
+    static int threads = 0;
+
+    /** Smooth gradients w/ some hard edges and an alpha ramp. */
+    static byte[] createImage(final int w, final int h) {
+        final byte[] rgba = new byte[w * h * 4];
+        for(int y=0; y<h; y++) {
+            for(int x=0; x<w; x++) {
+                final int i = ( y * w + x ) * 4;
+                final boolean checker = 0 != ( ( ( x >> 5 ) ^ ( y >> 5 ) ) & 1 );
+                rgba[i  ] = (byte) ( x * 255 / Math.max(1, w - 1) );
+                rgba[i+1] = (byte) ( y * 255 / Math.max(1, h - 1) );
+                rgba[i+2] = (byte) ( checker ? 200 : 40 );
+                rgba[i+3] = (byte) ( ( x + y ) * 255 / Math.max(1, w + h - 2) );
+            }
+        }
+        return rgba;
+    }
+
+    static double psnr(final byte[] a, final byte[] b, final boolean alpha) {
+        double sum = 0;
+        int n = 0;
+        for(int i=0; i<a.length; i++) {
+            if( !alpha && 3 == ( i & 3 ) ) {
+                continue;
+            }
+            final int d = ( a[i] & 0xff ) - ( b[i] & 0xff );
+            sum += d * d;
+            n++;
+        }
+        if( 0 == sum ) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return 10.0 * Math.log10(255.0 * 255.0 / ( sum / n ));
+    }
+
+    private void testRoundTrip(final Format fmt, final double minPSNR) {
+        final byte[] src = createImage(width, height);
+        final TextureCompressor tc = new TextureCompressor(threads);
+        try {
+            ByteBuffer blocks = tc.compress(src, width, height, fmt); // warm up
+            final long t0 = System.nanoTime();
+            for(int i=0; i<loops; i++) {
+                blocks = tc.compress(src, width, height, fmt);
+            }
+            final long nanos = System.nanoTime() - t0;
+            Assert.assertEquals(TextureCompressor.getCompressedSize(width, height, fmt), blocks.remaining());
+
+            final byte[] dst = TextureCompressor.decompress(blocks, width, height, fmt);
+            final double rgbPSNR = psnr(src, dst, false);
+            final double mpixs = (double) width * height * loops / ( nanos / 1e3 );
+            System.err.printf("%-4s %4dx%4d, %d threads: %7.2f MPix/s, %7.3f ms/image, RGB PSNR %6.2f dB",
+                              fmt, width, height, tc.getThreadCount(), mpixs, nanos / 1e6 / loops, rgbPSNR);
+            if( Format.BC3 == fmt ) {
+                double aSum = 0;
+                for(int i=3; i<src.length; i+=4) {
+                    final int d = ( src[i] & 0xff ) - ( dst[i] & 0xff );
+                    aSum += d * d;
+                }
+                final double aPSNR = 0 == aSum ? Double.POSITIVE_INFINITY : 10.0 * Math.log10(255.0 * 255.0 / ( aSum / ( src.length / 4 ) ));
+                System.err.printf(", alpha PSNR %6.2f dB", aPSNR);
+                Assert.assertTrue("Alpha PSNR "+aPSNR, aPSNR >= 40.0);
+            } else {
+                for(int i=3; i<dst.length; i+=4) {
+                    Assert.assertEquals(-1, dst[i]);
+                }
+            }
+            System.err.println();
+            Assert.assertTrue(fmt+" RGB PSNR "+rgbPSNR+" < "+minPSNR, rgbPSNR >= minPSNR);
+        } finally {
+            tc.destroy();
+        }
+    }
+
+    @Test
+    public void test01BC1() {
+        testRoundTrip(Format.BC1, 30.0);
+    }
+
+    @Test
+    public void test02BC3() {
+        testRoundTrip(Format.BC3, 30.0);
+    }
+
+    @Test
+    public void test03ETC1() {
+        testRoundTrip(Format.ETC1, 30.0);
+    }
+
+    @Test
+    public void test04SolidAndOddSize() {
+        final int w = 7, h = 5;
+        final byte[] src = new byte[w * h * 4];
+        for(int i=0; i<src.length; i+=4) {
+            src[i] = (byte) 0x80; src[i+1] = (byte) 0x40; src[i+2] = (byte) 0x20; src[i+3] = (byte) 0xff;
+        }
+        final TextureCompressor tc = new TextureCompressor(1);
+        for(final Format fmt : Format.values()) {
+            final ByteBuffer blocks = tc.compress(src, w, h, fmt);
+            Assert.assertEquals(2 * 2 * fmt.blockBytes, blocks.remaining());
+            final byte[] dst = TextureCompressor.decompress(blocks, w, h, fmt);
+            for(int i=0; i<src.length; i++) {
+                Assert.assertTrue(fmt+" byte "+i+": "+(src[i]&0xff)+" vs "+(dst[i]&0xff), Math.abs(( src[i] & 0xff ) - ( dst[i] & 0xff )) <= 8);
+            }
+        }
+        tc.destroy();
+    }
+
+    @Test
+    public void test05MipChain() {
+        final int w = 64, h = 16;
+        final byte[] rgb = new byte[w * h * 3];
+        for(int i=0; i<rgb.length; i++) {
+            rgb[i] = (byte) i;
+        }
+        final ByteBuffer buf = Buffers.newDirectByteBuffer(rgb.length);
+        buf.put(rgb).flip();
+        final TextureData src = new TextureData(null, GL.GL_RGB, w, h, 0, GL.GL_RGB, GL.GL_UNSIGNED_BYTE,
+                                                false, false, true, buf, null);
+        final TextureCompressor tc = new TextureCompressor(2);
+        for(final Format fmt : Format.values()) {
+            final TextureData res = tc.compress(src, fmt, true);
+            Assert.assertTrue(res.isDataCompressed());
+            Assert.assertTrue(res.getMustFlipVertically());
+            Assert.assertEquals(fmt.glInternalFormat, res.getInternalFormat());
+            Assert.assertEquals(w, res.getWidth());
+            Assert.assertEquals(h, res.getHeight());
+            Assert.assertEquals(7, res.getMipmapData().length); // 64x16 .. 1x1
+            int lw = w, lh = h;
+            for(int l=0; l<res.getMipmapData().length; l++) {
+                Assert.assertEquals(TextureCompressor.getCompressedSize(lw, lh, fmt), res.getMipmapData()[l].remaining());
+                lw = Math.max(1, lw / 2);
+                lh = Math.max(1, lh / 2);
+            }
+            final TextureData single = tc.compress(src, fmt, false);
+            Assert.assertNull(single.getMipmapData());
+            Assert.assertEquals(TextureCompressor.getCompressedSize(w, h, fmt), single.getBuffer().remaining());
+        }
+        tc.destroy();
+    }
+
+    public static void main(final String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-width")) {
+                width = Integer.parseInt(args[++i]);
+            } else if(args[i].equals("-height")) {
+                height = Integer.parseInt(args[++i]);
+            } else if(args[i].equals("-loops")) {
+                loops = Integer.parseInt(args[++i]);
+            } else if(args[i].equals("-threads")) {
+                threads = Integer.parseInt(args[++i]);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestTextureCompressorNOUI.class.getName());
+    }
+}
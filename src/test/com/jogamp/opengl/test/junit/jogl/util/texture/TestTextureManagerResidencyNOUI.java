@@ -0,0 +1,188 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util.texture;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.jogamp.opengl.util.texture.TextureManager;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+/**
+ * Tests the GL independent {@link TextureManager.Residency} accounting of {@link TextureManager},
+ * i.e. budget enforcement, least recently used eviction order and pinning.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestTextureManagerResidencyNOUI {
+
+    static class Recorder implements TextureManager.Residency.Evictor<String> {
+        final List<String> evicted = new ArrayList<String>();
+        @Override
+        public void evict(final String key) {
+            evicted.add(key);
+        }
+    }
+
+    @Test
+    public void test01Budget() {
+        final TextureManager.Residency<String> r = new TextureManager.Residency<String>(1000);
+        final Recorder rec = new Recorder();
+        r.add("a", 400);
+        Assert.assertEquals(0, r.evict("a", rec));
+        r.add("b", 400);
+        Assert.assertEquals(0, r.evict("b", rec));
+        Assert.assertEquals(800, r.getResidentBytes());
+        r.add("c", 400);
+        Assert.assertEquals(1, r.evict("c", rec));
+        Assert.assertEquals(Arrays.asList("a"), rec.evicted);
+        Assert.assertEquals(800, r.getResidentBytes());
+        Assert.assertEquals(2, r.getResidentCount());
+        Assert.assertEquals(3, r.size());
+        Assert.assertEquals(1, r.getEvictionCount());
+        Assert.assertFalse(r.isResident("a"));
+        Assert.assertTrue(r.contains("a"));
+
+        // lowering the budget evicts until within
+        r.setBudget(100);
+        Assert.assertEquals(2, r.evict(null, rec));
+        Assert.assertEquals(0, r.getResidentBytes());
+        Assert.assertEquals(0, r.getResidentCount());
+
+        // a single resource exceeding the budget stays resident while kept
+        r.add("huge", 5000);
+        Assert.assertEquals(0, r.evict("huge", rec));
+        Assert.assertTrue(r.isResident("huge"));
+        Assert.assertEquals(1, r.evict(null, rec));
+
+        Assert.assertTrue(r.remove("a"));
+        Assert.assertFalse(r.remove("a"));
+        Assert.assertEquals(3, r.size());
+        try {
+            r.add("b", 1);
+            Assert.fail("Expected IllegalArgumentException");
+        } catch (final IllegalArgumentException e) { }
+        r.clear();
+        Assert.assertEquals(0, r.size());
+    }
+
+    @Test
+    public void test02LRUOrder() {
+        final TextureManager.Residency<String> r = new TextureManager.Residency<String>(300);
+        final Recorder rec = new Recorder();
+        r.add("a", 100);
+        r.add("b", 100);
+        r.add("c", 100);
+        // touch a: b is now least recently used
+        Assert.assertFalse(r.touch("a"));
+        r.add("d", 100);
+        r.evict("d", rec);
+        Assert.assertEquals(Arrays.asList("b"), rec.evicted);
+        Assert.assertEquals(Arrays.asList("b", "c", "a", "d"), toList(r.keys()));
+
+        // touching an evicted resource requests its reload, which evicts the next least recently used
+        Assert.assertTrue(r.touch("b"));
+        r.reloaded("b", 150);
+        Assert.assertEquals(1, r.getReloadCount());
+        Assert.assertTrue(r.isResident("b"));
+        Assert.assertEquals(450, r.getResidentBytes());
+        Assert.assertEquals(2, r.evict("b", rec));
+        Assert.assertEquals(Arrays.asList("b", "c", "a"), rec.evicted);
+        Assert.assertEquals(250, r.getResidentBytes());
+
+        // size update of a resident resource, e.g. after re-upload
+        r.setSize("d", 50);
+        Assert.assertEquals(200, r.getResidentBytes());
+        r.setSize("a", 1000); // evicted: ignored
+        Assert.assertEquals(200, r.getResidentBytes());
+        Assert.assertFalse(r.touch("unknown"));
+    }
+
+    @Test
+    public void test03Pinning() {
+        final TextureManager.Residency<String> r = new TextureManager.Residency<String>(200);
+        final Recorder rec = new Recorder();
+        r.add("a", 100);
+        Assert.assertTrue(r.setPinned("a", true));
+        Assert.assertTrue(r.isPinned("a"));
+        Assert.assertFalse(r.setPinned("unknown", true));
+        r.add("b", 100);
+        r.add("c", 100);
+        // a is least recently used but pinned
+        Assert.assertEquals(1, r.evict("c", rec));
+        Assert.assertEquals(Arrays.asList("b"), rec.evicted);
+        Assert.assertTrue(r.isResident("a"));
+
+        // pinned resources may exceed the budget
+        Assert.assertTrue(r.setPinned("c", true));
+        r.setBudget(50);
+        Assert.assertEquals(0, r.evict(null, rec));
+        Assert.assertEquals(200, r.getResidentBytes());
+
+        // unpinning makes them evictable again, in LRU order
+        Assert.assertTrue(r.setPinned("c", false));
+        Assert.assertFalse(r.isPinned("c"));
+        Assert.assertEquals(1, r.evict(null, rec));
+        Assert.assertEquals(Arrays.asList("b", "c"), rec.evicted);
+        Assert.assertTrue(r.setPinned("a", false));
+        Assert.assertEquals(1, r.evict(null, rec));
+        Assert.assertEquals(0, r.getResidentBytes());
+
+        // a pinned resource stays pinned across eviction and reload, the kept one is never evicted
+        r.setBudget(100);
+        Assert.assertTrue(r.setPinned("b", true));
+        Assert.assertTrue(r.touch("b"));
+        r.reloaded("b", 100);
+        Assert.assertTrue(r.touch("a"));
+        r.reloaded("a", 100);
+        Assert.assertEquals(0, r.evict("a", rec));
+        Assert.assertTrue(r.isResident("b"));
+        Assert.assertTrue(r.isResident("a"));
+        Assert.assertEquals(200, r.getResidentBytes());
+        Assert.assertEquals(1, r.evict(null, rec));
+        Assert.assertFalse(r.isResident("a"));
+        Assert.assertEquals(Arrays.asList("b", "c", "a", "a"), rec.evicted);
+        Assert.assertEquals(2, r.getReloadCount());
+    }
+
+    static List<String> toList(final Iterable<String> keys) {
+        final List<String> l = new ArrayList<String>();
+        for(final String k : keys) {
+            l.add(k);
+        }
+        return l;
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestTextureManagerResidencyNOUI.class.getName());
+    }
+}
@@ -0,0 +1,139 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.newt.event;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.newt.event.MouseEvent;
+import com.jogamp.newt.util.InputLatencyMonitor;
+
+/**
+ * Tests the {@link InputLatencyMonitor} histograms and the tagging of dispatched events until the next swap,
+ * w/o a native window.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestInputLatencyMonitorNOUI {
+
+    @Test
+    public void test01HistogramBuckets() {
+        int last = -1;
+        for(long us=0; us<1000000; us++) {
+            final int b = InputLatencyMonitor.Histogram.getBucket(us*1000);
+            Assert.assertTrue(b == last || b == last+1);
+            Assert.assertTrue(InputLatencyMonitor.Histogram.getBucketLowerBound(b) <= us*1000);
+            Assert.assertTrue(us*1000 < InputLatencyMonitor.Histogram.getBucketLowerBound(b+1));
+            last = b;
+        }
+        Assert.assertEquals(InputLatencyMonitor.Histogram.BUCKET_COUNT-1, InputLatencyMonitor.Histogram.getBucket(Long.MAX_VALUE));
+        Assert.assertEquals(0, InputLatencyMonitor.Histogram.getBucket(-1));
+    }
+
+    @Test
+    public void test02HistogramPercentiles() {
+        final InputLatencyMonitor.Histogram h = new InputLatencyMonitor.Histogram();
+        Assert.assertEquals(0, h.getPercentile(0.5));
+        Assert.assertEquals(0, h.getMax());
+        for(int i=1; i<=100; i++) {
+            h.record(i * 1000000L); // 1 .. 100 ms
+        }
+        Assert.assertEquals(100, h.getCount());
+        Assert.assertEquals(1000000L, h.getMin());
+        Assert.assertEquals(100000000L, h.getMax());
+        Assert.assertEquals(50500000L, h.getMean());
+        final long p50 = h.getPercentile(0.5);
+        final long p99 = h.getPercentile(0.99);
+        Assert.assertTrue("p50 "+p50, 50000000L <= p50 && p50 <= 50000000L * 5 / 4);
+        Assert.assertTrue("p99 "+p99, 99000000L <= p99 && p99 <= 100000000L);
+        Assert.assertEquals(100000000L, h.getPercentile(1.0));
+
+        final InputLatencyMonitor.Histogram c = new InputLatencyMonitor.Histogram();
+        c.set(h);
+        c.add(h);
+        Assert.assertEquals(200, c.getCount());
+        Assert.assertEquals(h.getMean(), c.getMean());
+        c.reset();
+        Assert.assertEquals(0, c.getCount());
+    }
+
+    static class Collector implements InputLatencyMonitor.Listener {
+        int count = 0;
+        long lastSwap, lastTotal;
+        @Override
+        public void inputLatency(final InputLatencyMonitor monitor, final short eventType, final long queueNanos,
+                                 final long listenerNanos, final long swapNanos, final long totalNanos) {
+            Assert.assertEquals(MouseEvent.EVENT_MOUSE_MOVED, eventType);
+            Assert.assertEquals(1000, queueNanos);
+            Assert.assertEquals(2000, listenerNanos);
+            Assert.assertTrue(totalNanos >= queueNanos + listenerNanos + swapNanos);
+            lastSwap = swapNanos;
+            lastTotal = totalNanos;
+            count++;
+        }
+    }
+
+    @Test
+    public void test03DispatchAndSwap() throws InterruptedException {
+        final InputLatencyMonitor m = new InputLatencyMonitor(4);
+        final Collector c = new Collector();
+        m.setListener(c);
+        final long t0 = System.nanoTime();
+        for(int i=0; i<6; i++) {
+            m.eventDispatched(MouseEvent.EVENT_MOUSE_MOVED, System.currentTimeMillis(), 1000, t0, t0+2000);
+        }
+        Assert.assertEquals(4, m.getPendingCount());
+        Assert.assertEquals(2, m.getDroppedCount());
+        Thread.sleep(20);
+        m.frameSwapped();
+        Assert.assertEquals(0, m.getPendingCount());
+        Assert.assertEquals(4, c.count);
+        Assert.assertTrue(c.lastSwap >= 20000000L);
+        Assert.assertTrue(c.lastTotal >= 20000000L);
+
+        final InputLatencyMonitor.Histogram h = new InputLatencyMonitor.Histogram();
+        Assert.assertEquals(6, m.getHistogram(InputLatencyMonitor.STAGE_QUEUE, h).getCount());
+        Assert.assertEquals(6, m.getHistogram(InputLatencyMonitor.STAGE_LISTENER, h).getCount());
+        Assert.assertEquals(2000, h.getMax());
+        Assert.assertEquals(4, m.getHistogram(InputLatencyMonitor.STAGE_SWAP, h).getCount());
+        Assert.assertEquals(4, m.getHistogram(InputLatencyMonitor.STAGE_TOTAL, h).getCount());
+
+        m.frameSwapped(); // nothing pending
+        Assert.assertEquals(4, c.count);
+        System.err.println(m);
+
+        m.reset();
+        Assert.assertEquals(0, m.getHistogram(InputLatencyMonitor.STAGE_TOTAL, h).getCount());
+        Assert.assertEquals(0, m.getDroppedCount());
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestInputLatencyMonitorNOUI.class.getName());
+    }
+}
@@ -0,0 +1,254 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+
+package com.jogamp.opengl.test.junit.newt.event;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import jogamp.newt.driver.linux.LinuxEventDeviceManager;
+import jogamp.newt.driver.linux.LinuxEventDeviceReader;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.common.os.Platform;
+
+/**
+ * Tests the batched {@link LinuxEventDeviceReader} and the hotplug
+ * tracking of the {@link LinuxEventDeviceManager} using named pipes
+ * standing in for <code>/dev/input/event*</code> devices.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestLinuxEventDeviceReaderNOUI {
+    static final long TIMEOUT = 5000;
+
+    static class Counter implements LinuxEventDeviceReader.Listener {
+        volatile int events = 0;
+        volatile int lastCode = -1;
+        volatile int lastValue = -1;
+        volatile int stopped = 0;
+        /** First failure on the reader thread, asserted on the test thread */
+        volatile String failure = null;
+
+        @Override
+        public synchronized void inputEvent(final LinuxEventDeviceReader reader, final long timeSeconds, final long timeMicroseconds,
+                                            final short type, final short code, final int value) {
+            if( null == failure && ( 1 != type || events != code || 1000 + events != timeMicroseconds ) ) {
+                failure = "Event "+events+": type "+type+", code "+code+", usec "+timeMicroseconds;
+            }
+            lastCode = code;
+            lastValue = value;
+            events++;
+        }
+        @Override
+        public synchronized void stopped(final LinuxEventDeviceReader reader) {
+            stopped++;
+        }
+    }
+
+    static byte[] createEvents(final int count) {
+        final int size = LinuxEventDeviceReader.INPUT_EVENT_STRUCT_SIZE;
+        final ByteBuffer bb = ByteBuffer.allocate(count*size).order(ByteOrder.nativeOrder());
+        for(int i=0; i<count; i++) {
+            final int off = i*size;
+            if( 16 == size ) {
+                bb.putInt(off, 42);
+                bb.putInt(off+4, 1000+i);
+                bb.putShort(off+8, (short)1);
+                bb.putShort(off+10, (short)i);
+                bb.putInt(off+12, i % 3);
+            } else {
+                bb.putLong(off, 42);
+                bb.putLong(off+8, 1000+i);
+                bb.putShort(off+16, (short)1);
+                bb.putShort(off+18, (short)i);
+                bb.putInt(off+20, i % 3);
+            }
+        }
+        return bb.array();
+    }
+
+    static File createTempDir() throws IOException {
+        final File dir = File.createTempFile("newt-evdev", "");
+        Assert.assertTrue(dir.delete());
+        Assert.assertTrue(dir.mkdir());
+        return dir;
+    }
+
+    static boolean mkfifo(final File file) throws InterruptedException {
+        try {
+            final Process p = new ProcessBuilder("mkfifo", file.getPath()).start();
+            return 0 == p.waitFor() && file.exists();
+        } catch (final IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Opens the given FIFO for writing on a helper thread, since opening blocks until a reader opened it.
+     * @return the stream or null if no reader opened the FIFO within {@link #TIMEOUT}
+     */
+    static FileOutputStream openFifo(final File fifo) throws InterruptedException {
+        final FileOutputStream[] res = { null };
+        final Thread opener = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    res[0] = new FileOutputStream(fifo);
+                } catch (final IOException e) { }
+            } }, "fifo-opener");
+        opener.setDaemon(true);
+        opener.start();
+        opener.join(TIMEOUT);
+        if( opener.isAlive() ) {
+            // unblock the opener by opening the read end ourselves
+            try {
+                new FileInputStream(fifo).close();
+            } catch (final IOException e) { }
+            opener.join(TIMEOUT);
+            if( null != res[0] ) {
+                try {
+                    res[0].close();
+                } catch (final IOException e) { }
+            }
+            return null;
+        }
+        return res[0];
+    }
+
+    static void waitFor(final Counter counter, final int events) throws InterruptedException {
+        final long t0 = System.currentTimeMillis();
+        while( counter.events < events && System.currentTimeMillis() - t0 < TIMEOUT ) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void test01BatchedRead() throws IOException, InterruptedException {
+        Assume.assumeTrue(Platform.OSType.LINUX == Platform.getOSType());
+        final File dir = createTempDir();
+        final File fifo = new File(dir, "test-event-kbd");
+        Assume.assumeTrue(mkfifo(fifo));
+
+        final Counter counter = new Counter();
+        final LinuxEventDeviceReader reader = new LinuxEventDeviceReader(fifo, counter);
+        final Thread t = new Thread(reader, "reader");
+        t.start();
+
+        final int count = 3*LinuxEventDeviceReader.BATCH_SIZE + 7;
+        final byte[] events = createEvents(count);
+        final FileOutputStream out = openFifo(fifo);
+        Assert.assertNotNull("FIFO not opened by reader", out);
+        // split within a struct to validate carry-over of partial events
+        final int split = LinuxEventDeviceReader.INPUT_EVENT_STRUCT_SIZE * 5 + 3;
+        out.write(events, 0, split);
+        out.flush();
+        Thread.sleep(50);
+        out.write(events, split, events.length - split);
+        out.close(); // EOF stops the reader
+        t.join(TIMEOUT);
+
+        System.err.println("Events "+counter.events+", reads "+reader.getReadCount());
+        Assert.assertNull(counter.failure, counter.failure);
+        Assert.assertEquals(count, counter.events);
+        Assert.assertEquals(count, reader.getEventCount());
+        Assert.assertTrue("reads "+reader.getReadCount(), reader.getReadCount() < count);
+        Assert.assertEquals(1, counter.stopped);
+        Assert.assertTrue(reader.isStopped());
+        fifo.delete();
+        dir.delete();
+    }
+
+    @Test
+    public void test02Hotplug() throws IOException, InterruptedException {
+        Assume.assumeTrue(Platform.OSType.LINUX == Platform.getOSType());
+        final File dir = createTempDir();
+        final Counter kbdCounter = new Counter();
+        final String[] factoryFailure = { null };
+        final LinuxEventDeviceManager manager = new LinuxEventDeviceManager(dir,
+                LinuxEventDeviceManager.createSuffixFilter("-event-kbd"),
+                new LinuxEventDeviceManager.ListenerFactory() {
+                    @Override
+                    public LinuxEventDeviceReader.Listener create(final File deviceFile) {
+                        if( !deviceFile.getName().endsWith("-event-kbd") ) {
+                            factoryFailure[0] = "Unexpected device "+deviceFile;
+                        }
+                        return kbdCounter;
+                    } }, "test-reader-");
+        final Thread t = new Thread(manager, "manager");
+        t.setDaemon(true);
+        t.start();
+        Thread.sleep(100);
+
+        // hotplug a keyboard and a non matching device after the manager started
+        final File kbd = new File(dir, "usb-test-event-kbd");
+        final File mouse = new File(dir, "usb-test-event-mouse");
+        Assume.assumeTrue(mkfifo(kbd));
+        Assume.assumeTrue(mkfifo(mouse));
+
+        final FileOutputStream out = openFifo(kbd);
+        if( null == out ) {
+            manager.stop();
+            Assert.fail("FIFO not opened by manager's reader");
+        }
+        Assert.assertEquals(1, manager.getReaderCount());
+        out.write(createEvents(10));
+        out.flush();
+        waitFor(kbdCounter, 10);
+        Assert.assertNull(factoryFailure[0], factoryFailure[0]);
+        Assert.assertNull(kbdCounter.failure, kbdCounter.failure);
+        Assert.assertEquals(10, kbdCounter.events);
+
+        // unplug
+        out.close();
+        kbd.delete();
+        final long t0 = System.currentTimeMillis();
+        while( 0 < manager.getReaderCount() && System.currentTimeMillis() - t0 < TIMEOUT ) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(0, manager.getReaderCount());
+
+        manager.stop();
+        t.join(TIMEOUT);
+        Assert.assertFalse(t.isAlive());
+        mouse.delete();
+        dir.delete();
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestLinuxEventDeviceReaderNOUI.class.getName());
+    }
+}
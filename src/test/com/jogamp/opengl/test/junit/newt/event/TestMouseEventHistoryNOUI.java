@@ -0,0 +1,137 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.newt.event;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.newt.event.MouseEvent;
+import com.jogamp.newt.event.MouseEvent.PointerType;
+
+/**
+ * Tests the {@link MouseEvent.History} storage and the historical sample accessors of batched {@link MouseEvent}s.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestMouseEventHistoryNOUI {
+    static final Object SOURCE = new Object();
+
+    static MouseEvent createEvent(final MouseEvent.History history, final int pCount) {
+        final int last = history.size() - 1;
+        final PointerType[] types = new PointerType[pCount];
+        final short[] ids = new short[pCount];
+        final int[] x = new int[pCount];
+        final int[] y = new int[pCount];
+        final float[] p = new float[pCount];
+        for(int i=0; i<pCount; i++) {
+            types[i] = PointerType.TouchScreen;
+            ids[i] = (short)i;
+        }
+        history.get(last, x, y, p);
+        return new MouseEvent(MouseEvent.EVENT_MOUSE_DRAGGED, SOURCE, history.getWhen(last), 0, types, ids,
+                              x, y, p, 2f, (short)1, (short)1, new float[] { 0f, 0f, 0f }, 1f, history);
+    }
+
+    @Test
+    public void test01History() {
+        final MouseEvent.History h = new MouseEvent.History(2, 1);
+        for(int i=0; i<10; i++) {
+            h.add(100+i, new int[] { i, 10*i }, new int[] { -i, -10*i }, new float[] { 0.1f*i, 0.2f*i });
+        }
+        Assert.assertEquals(10, h.size());
+        Assert.assertEquals(2, h.getPointerCount());
+        for(int i=0; i<10; i++) {
+            Assert.assertEquals(100+i, h.getWhen(i));
+            Assert.assertEquals(i, h.getX(0, i));
+            Assert.assertEquals(10*i, h.getX(1, i));
+            Assert.assertEquals(-i, h.getY(0, i));
+            Assert.assertEquals(-10*i, h.getY(1, i));
+            Assert.assertEquals(0.2f*i, h.getPressure(1, i), 0.0001f);
+        }
+        h.reset(1);
+        Assert.assertEquals(0, h.size());
+        Assert.assertEquals(1, h.getPointerCount());
+        h.add(1, new int[] { 5 }, new int[] { 6 }, new float[] { 1f });
+        Assert.assertEquals(5, h.getX(0, 0));
+        try {
+            h.add(2, new int[] { 1, 2 }, new int[] { 1, 2 }, new float[] { 1f, 1f });
+            Assert.fail("Expected IllegalArgumentException");
+        } catch (final IllegalArgumentException iae) { }
+    }
+
+    @Test
+    public void test02HistoricalSamples() {
+        final MouseEvent.History h = new MouseEvent.History(2, 4);
+        for(int i=0; i<5; i++) {
+            h.add(100+i, new int[] { i, 10*i }, new int[] { 2*i, 20*i }, new float[] { 0.2f*i, 0.4f });
+        }
+        final MouseEvent e = createEvent(h, 2);
+        Assert.assertEquals(4, e.getHistorySize());
+        Assert.assertEquals(104, e.getWhen());
+        Assert.assertEquals(4, e.getX());
+        Assert.assertEquals(40, e.getX(1));
+        for(int i=0; i<e.getHistorySize(); i++) {
+            Assert.assertEquals(100+i, e.getHistoricalWhen(i));
+            Assert.assertEquals(i, e.getHistoricalX(i));
+            Assert.assertEquals(2*i, e.getHistoricalY(i));
+            Assert.assertEquals(10*i, e.getHistoricalX(1, i));
+            Assert.assertEquals(20*i, e.getHistoricalY(1, i));
+            Assert.assertEquals(0.2f*i, e.getHistoricalPressure(0, i, false), 0.0001f);
+            Assert.assertEquals(0.2f, e.getHistoricalPressure(1, i, true), 0.0001f);
+        }
+        Assert.assertEquals(4, e.createVariant(MouseEvent.EVENT_MOUSE_MOVED).getHistorySize());
+    }
+
+    @Test
+    public void test03NoHistory() {
+        final MouseEvent e = new MouseEvent(MouseEvent.EVENT_MOUSE_MOVED, SOURCE, 1, 0, 1, 2, (short)0, (short)0,
+                                            new float[] { 0f, 0f, 0f }, 1f);
+        Assert.assertEquals(0, e.getHistorySize());
+
+        final MouseEvent.History h = new MouseEvent.History(1, 1);
+        h.add(1, new int[] { 1 }, new int[] { 2 }, new float[] { 0f });
+        Assert.assertEquals(0, createEvent(h, 1).getHistorySize());
+    }
+
+    @Test
+    public void test04PointerCountMismatch() {
+        final MouseEvent.History h = new MouseEvent.History(1, 1);
+        h.add(1, new int[] { 1 }, new int[] { 2 }, new float[] { 0f });
+        try {
+            new MouseEvent(MouseEvent.EVENT_MOUSE_DRAGGED, SOURCE, 1, 0, new PointerType[] { PointerType.Mouse, PointerType.Mouse },
+                           new short[] { 0, 1 }, new int[] { 1, 1 }, new int[] { 2, 2 }, new float[] { 0f, 0f }, 1f,
+                           (short)1, (short)1, new float[] { 0f, 0f, 0f }, 1f, h);
+            Assert.fail("Expected IllegalArgumentException");
+        } catch (final IllegalArgumentException iae) { }
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestMouseEventHistoryNOUI.class.getName());
+    }
+}
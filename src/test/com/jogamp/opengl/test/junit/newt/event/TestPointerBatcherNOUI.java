@@ -0,0 +1,209 @@
+/**
+ * Copyright 2020 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.newt.event;
+
+import jogamp.newt.PointerBatcher;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.newt.event.InputEvent;
+import com.jogamp.newt.event.KeyEvent;
+import com.jogamp.newt.event.MouseEvent;
+import com.jogamp.newt.event.MouseEvent.PointerType;
+import com.jogamp.newt.event.WindowEvent;
+
+/**
+ * Tests the pointer batching of {@link jogamp.newt.WindowImpl} via its {@link PointerBatcher},
+ * i.e. coalescing of samples, closing the open batch on interleaved events and reuse of pooled batches.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestPointerBatcherNOUI {
+    static final Object SOURCE = new Object();
+    static final PointerType[] TYPES = new PointerType[] { PointerType.Mouse };
+    static final short[] IDS = new short[] { 0 };
+
+    static MouseEvent add(final PointerBatcher pb, final short eventType, final int modifiers, final long when, final int x) {
+        return pb.add(SOURCE, TYPES, eventType, when, modifiers, IDS, new int[] { x }, new int[] { -x }, new float[] { 0.5f }, 1f,
+                      (short)0, (short)0, new float[] { 0f, 0f, 0f }, 1f);
+    }
+
+    static MouseEvent dispatch(final PointerBatcher pb, final MouseEvent e) {
+        final PointerBatcher.Batch batch = pb.take(e);
+        Assert.assertNotNull(batch);
+        try {
+            return batch.createEvent();
+        } finally {
+            pb.recycle(batch);
+        }
+    }
+
+    @Test
+    public void test01Coalescing() {
+        final PointerBatcher pb = new PointerBatcher();
+        final MouseEvent e0 = add(pb, MouseEvent.EVENT_MOUSE_MOVED, 0, 100, 0);
+        Assert.assertNotNull(e0);
+        Assert.assertTrue(pb.isOpen());
+        for(int i=1; i<5; i++) {
+            Assert.assertNull(add(pb, MouseEvent.EVENT_MOUSE_MOVED, 0, 100+i, i));
+        }
+        Assert.assertEquals(1, pb.getPendingCount());
+
+        // incompatible sample starts a new batch
+        final MouseEvent e1 = add(pb, MouseEvent.EVENT_MOUSE_MOVED, InputEvent.SHIFT_MASK, 200, 10);
+        Assert.assertNotNull(e1);
+        Assert.assertNull(add(pb, MouseEvent.EVENT_MOUSE_MOVED, InputEvent.SHIFT_MASK, 201, 11));
+        final MouseEvent e2 = add(pb, MouseEvent.EVENT_MOUSE_DRAGGED, InputEvent.SHIFT_MASK, 202, 12);
+        Assert.assertNotNull(e2);
+        Assert.assertEquals(3, pb.getPendingCount());
+
+        // dispatch in order, the current sample is the latest one
+        final PointerBatcher.Batch b0 = pb.take(e0);
+        Assert.assertEquals(5, b0.getSampleCount());
+        final MouseEvent d0 = b0.createEvent();
+        Assert.assertEquals(MouseEvent.EVENT_MOUSE_MOVED, d0.getEventType());
+        Assert.assertEquals(4, d0.getX());
+        Assert.assertEquals(-4, d0.getY());
+        Assert.assertEquals(104, d0.getWhen());
+        Assert.assertEquals(4, d0.getHistorySize());
+        for(int i=0; i<4; i++) {
+            Assert.assertEquals(i, d0.getHistoricalX(i));
+            Assert.assertEquals(100+i, d0.getHistoricalWhen(i));
+        }
+        pb.recycle(b0);
+
+        final MouseEvent d1 = dispatch(pb, e1);
+        Assert.assertEquals(11, d1.getX());
+        Assert.assertEquals(InputEvent.SHIFT_MASK, d1.getModifiers());
+        Assert.assertEquals(1, d1.getHistorySize());
+
+        // a single sample dispatches the sent event itself
+        Assert.assertTrue(pb.isOpen());
+        Assert.assertSame(e2, dispatch(pb, e2));
+        Assert.assertFalse(pb.isOpen());
+        Assert.assertEquals(0, pb.getPendingCount());
+
+        // non batched events are passed through
+        Assert.assertNull(pb.take(new MouseEvent(MouseEvent.EVENT_MOUSE_PRESSED, SOURCE, 300, 0, TYPES, IDS, new int[] { 0 }, new int[] { 0 },
+                                                 new float[] { 1f }, 1f, (short)1, (short)1, new float[] { 0f, 0f, 0f }, 1f)));
+    }
+
+    @Test
+    public void test02CloseOnInterleavedEvents() {
+        final PointerBatcher pb = new PointerBatcher();
+        final MouseEvent e0 = add(pb, MouseEvent.EVENT_MOUSE_MOVED, 0, 100, 0);
+        // the batch's own event keeps it open
+        pb.sent(e0);
+        Assert.assertTrue(pb.isOpen());
+        Assert.assertNull(add(pb, MouseEvent.EVENT_MOUSE_MOVED, 0, 101, 1));
+
+        // key event
+        pb.sent(KeyEvent.create(KeyEvent.EVENT_KEY_PRESSED, SOURCE, 102, 0, KeyEvent.VK_A, KeyEvent.VK_A, 'a'));
+        Assert.assertFalse(pb.isOpen());
+        final MouseEvent e1 = add(pb, MouseEvent.EVENT_MOUSE_MOVED, 0, 103, 3);
+        Assert.assertNotNull(e1);
+
+        // window event
+        pb.sent(new WindowEvent(WindowEvent.EVENT_WINDOW_RESIZED, SOURCE, 104));
+        Assert.assertFalse(pb.isOpen());
+        final MouseEvent e2 = add(pb, MouseEvent.EVENT_MOUSE_MOVED, 0, 105, 5);
+        Assert.assertNotNull(e2);
+
+        // non batched pointer event
+        pb.sent(new MouseEvent(MouseEvent.EVENT_MOUSE_PRESSED, SOURCE, 106, 0, TYPES, IDS, new int[] { 5 }, new int[] { -5 },
+                               new float[] { 1f }, 1f, (short)1, (short)1, new float[] { 0f, 0f, 0f }, 1f));
+        Assert.assertFalse(pb.isOpen());
+        final MouseEvent e3 = add(pb, MouseEvent.EVENT_MOUSE_DRAGGED, 0, 107, 7);
+        Assert.assertNotNull(e3);
+
+        // explicit close, e.g. directly consumed events or disabled batching
+        pb.close();
+        Assert.assertFalse(pb.isOpen());
+        final MouseEvent e4 = add(pb, MouseEvent.EVENT_MOUSE_DRAGGED, 0, 108, 8);
+        Assert.assertNotNull(e4);
+
+        // each sample stays in its batch, preserving the order w/ the interleaved events
+        Assert.assertEquals(5, pb.getPendingCount());
+        Assert.assertEquals(1, dispatch(pb, e0).getX());
+        Assert.assertSame(e1, dispatch(pb, e1));
+        Assert.assertSame(e2, dispatch(pb, e2));
+        Assert.assertSame(e3, dispatch(pb, e3));
+        Assert.assertSame(e4, dispatch(pb, e4));
+
+        pb.clear();
+        Assert.assertEquals(0, pb.getPendingCount());
+    }
+
+    @Test
+    public void test03PooledBatches() {
+        final PointerBatcher pb = new PointerBatcher();
+        final MouseEvent e0 = add(pb, MouseEvent.EVENT_MOUSE_MOVED, 0, 100, 0);
+        add(pb, MouseEvent.EVENT_MOUSE_MOVED, 0, 101, 1);
+        final PointerBatcher.Batch b0 = pb.take(e0);
+        pb.recycle(b0);
+        Assert.assertEquals(1, pb.getPooledCount());
+
+        // the recycled batch is reused and reset
+        final MouseEvent e1 = add(pb, MouseEvent.EVENT_MOUSE_DRAGGED, 0, 200, 20);
+        Assert.assertNotSame(e0, e1);
+        Assert.assertEquals(0, pb.getPooledCount());
+        final PointerBatcher.Batch b1 = pb.take(e1);
+        Assert.assertSame(b0, b1);
+        Assert.assertEquals(1, b1.getSampleCount());
+        Assert.assertSame(e1, b1.createEvent());
+        pb.recycle(b1);
+
+        // the pool is bounded
+        final int n = PointerBatcher.POOL_SIZE + 2;
+        final MouseEvent[] es = new MouseEvent[n];
+        for(int i=0; i<n; i++) {
+            es[i] = add(pb, MouseEvent.EVENT_MOUSE_MOVED, 0, 300+i, i);
+            pb.close();
+        }
+        for(int i=0; i<n; i++) {
+            dispatch(pb, es[i]);
+        }
+        Assert.assertEquals(PointerBatcher.POOL_SIZE, pb.getPooledCount());
+
+        // a full batch is not extended
+        final MouseEvent f0 = add(pb, MouseEvent.EVENT_MOUSE_MOVED, 0, 400, 0);
+        for(int i=1; i<PointerBatcher.MAX_SAMPLES; i++) {
+            Assert.assertNull(add(pb, MouseEvent.EVENT_MOUSE_MOVED, 0, 400+i, i));
+        }
+        final MouseEvent f1 = add(pb, MouseEvent.EVENT_MOUSE_MOVED, 0, 400+PointerBatcher.MAX_SAMPLES, PointerBatcher.MAX_SAMPLES);
+        Assert.assertNotNull(f1);
+        Assert.assertEquals(PointerBatcher.MAX_SAMPLES-1, dispatch(pb, f0).getHistorySize());
+        Assert.assertSame(f1, dispatch(pb, f1));
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestPointerBatcherNOUI.class.getName());
+    }
+}